@@ -0,0 +1,110 @@
+#!/usr/bin/env bash
+#
+# MediMate Startup Benchmark
+# Measures time-to-first-request and resident memory (RSS) for three ways of starting the app:
+#   default   - application.properties only
+#   prod      - the prod profile (schema validation, lazy initialization, quiet logging)
+#   prod+cds  - the prod profile with the class data sharing archive from the Maven build
+#
+# Time-to-first-request is measured from launching the JVM until
+# GET /api/medicines?userId=1 returns 200, so it includes connecting to the database
+# and creating every lazy bean that request needs. RSS is read right after that request.
+#
+# Usage:
+#   mvn -Pcds package -DskipTests
+#   scripts/startup-benchmark.sh
+#
+# Environment variables:
+#   RUNS             number of starts per configuration (default 5, the median is reported)
+#   PORT             HTTP port used for the benchmark (default 18080)
+#   EXTRA_CLASSPATH  extra jars appended to the classpath, e.g. a different JDBC driver
+#   EXTRA_ARGS       extra application arguments, e.g. --spring.datasource.url=...
+#
+# The default configuration runs first, so with ddl-auto=update it creates any missing tables
+# before the prod configurations validate them.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+EXTRA_CLASSPATH=${EXTRA_CLASSPATH:-}
+EXTRA_ARGS=${EXTRA_ARGS:-}
+CDS_DIR=target/cds
+APP_JAR=$(ls "$CDS_DIR"/*-cds.jar 2>/dev/null | head -n 1 || true)
+ARCHIVE=$CDS_DIR/medimate.jsa
+URL="http://localhost:$PORT/api/medicines?userId=1"
+
+if [[ -z "$APP_JAR" || ! -f "$ARCHIVE" ]]; then
+    echo "CDS build not found, run: mvn -Pcds package -DskipTests" >&2
+    exit 1
+fi
+
+CLASSPATH="$APP_JAR"
+if [[ -n "$EXTRA_CLASSPATH" ]]; then
+    CLASSPATH="$CLASSPATH:$EXTRA_CLASSPATH"
+fi
+
+# Start the application once and print "<milliseconds to first request> <RSS in MB>"
+measure() {
+    local jvm_args=$1
+    local app_args=$2
+    local log
+    log=$(mktemp)
+
+    local start
+    start=$(date +%s%N)
+    # shellcheck disable=SC2086
+    java $jvm_args -cp "$CLASSPATH" com.medimate.MediMateApplication \
+        --server.port="$PORT" $app_args $EXTRA_ARGS > "$log" 2>&1 &
+    local pid=$!
+
+    while [[ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" != "200" ]]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before serving a request, log:" >&2
+            tail -n 50 "$log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    local end
+    end=$(date +%s%N)
+
+    local rss_kb
+    rss_kb=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+
+    echo "$(( (end - start) / 1000000 )) $(( rss_kb / 1024 ))"
+}
+
+# Median of the numbers passed as arguments
+median() {
+    printf '%s\n' "$@" | sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+benchmark() {
+    local name=$1
+    local jvm_args=$2
+    local app_args=$3
+    local times=()
+    local rss=()
+
+    for ((run = 1; run <= RUNS; run++)); do
+        read -r ms mb <<< "$(measure "$jvm_args" "$app_args")"
+        times+=("$ms")
+        rss+=("$mb")
+    done
+
+    printf '%-10s %12s ms %10s MB   (runs: %s ms)\n' \
+        "$name" "$(median "${times[@]}")" "$(median "${rss[@]}")" "${times[*]}"
+}
+
+echo "Startup benchmark: $RUNS runs per configuration, median reported"
+printf '%-10s %15s %13s\n' "profile" "first request" "RSS"
+benchmark "default" "" ""
+benchmark "prod" "" "--spring.profiles.active=prod"
+benchmark "prod+cds" "-XX:SharedArchiveFile=$ARCHIVE -Xlog:cds=error" "--spring.profiles.active=prod"
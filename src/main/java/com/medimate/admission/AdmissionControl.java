@@ -0,0 +1,30 @@
+package com.medimate.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Admission Control Annotation
+ * Marks a controller method as rate limited and sheddable
+ * 
+ * Example: @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
+ * Methods without this annotation are not limited
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControl {
+    
+    /**
+     * Which set of rate limits applies
+     */
+    EndpointClass value();
+    
+    /**
+     * How expensive the request is, used for load shedding
+     */
+    RequestCost cost() default RequestCost.CHEAP;
+}
@@ -0,0 +1,134 @@
+package com.medimate.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.ApiResponse;
+import com.medimate.monitoring.DatabaseLatencyMonitor;
+import com.medimate.warmup.StartupWarmup;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission Control Interceptor
+ * Runs before every controller method annotated with @AdmissionControl
+ * 
+ * 1. Load shedding: when the average repository latency is above the threshold,
+ *    SEARCH requests are rejected; when it is above twice the threshold, LIST requests
+ *    are rejected too. CHEAP requests (by-id reads and writes) are never shed.
+ *    Shed requests get 503 Service Unavailable.
+ * 2. Rate limiting: the caller must get a token from its own bucket and the global
+ *    bucket for the endpoint class. Rejected requests get 429 Too Many Requests.
+ * 
+ * Both rejections include a Retry-After header and are decided before any database work.
+ * Requests sent by the startup warm-up are never rejected.
+ * 
+ * HandlerInterceptor: Interface for intercepting requests before they reach the controller
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    
+    @Autowired
+    private AdmissionProperties properties;
+    
+    @Autowired
+    private RateLimiter rateLimiter;
+    
+    @Autowired
+    private DatabaseLatencyMonitor databaseLatencyMonitor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private StartupWarmup startupWarmup;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        
+        AdmissionControl admission = ((HandlerMethod) handler).getMethodAnnotation(AdmissionControl.class);
+        if (admission == null || startupWarmup.isWarmupRequest(request)) {
+            return true;
+        }
+        
+        // Shed expensive requests first while the database is slow
+        if (shouldShed(admission.cost())) {
+            meterRegistry.counter("medimate.admission.rejected",
+                    "reason", "shed", "class", admission.value().name()).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Server is busy, please retry shortly");
+            return false;
+        }
+        
+        long waitNanos = rateLimiter.tryAcquire(admission.value(), clientKey(request));
+        if (waitNanos > 0) {
+            meterRegistry.counter("medimate.admission.rejected",
+                    "reason", "rate_limit", "class", admission.value().name()).increment();
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                    "Too many requests, please retry after " + retryAfterSeconds + " seconds");
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Decide whether a request of the given cost should be shed right now
+     * @param cost the request cost
+     * @return true if the request should be rejected
+     */
+    private boolean shouldShed(RequestCost cost) {
+        if (cost == RequestCost.CHEAP) {
+            return false;
+        }
+        double latency = databaseLatencyMonitor.getAverageLatencyMillis();
+        long threshold = properties.getShedLatencyThresholdMs();
+        if (cost == RequestCost.SEARCH) {
+            return latency > threshold;
+        }
+        return latency > 2.0 * threshold;
+    }
+    
+    /**
+     * Identify the caller: the userId parameter, the X-User-Id header, or the remote address
+     * @param request the HTTP request
+     * @return key for the caller's bucket
+     */
+    private String clientKey(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        if (userId == null) {
+            userId = request.getHeader("X-User-Id");
+        }
+        if (userId != null && !userId.isBlank()) {
+            return "user:" + userId;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    /**
+     * Write a JSON error response with a Retry-After header
+     */
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+}
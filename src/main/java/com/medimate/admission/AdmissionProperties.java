@@ -0,0 +1,179 @@
+package com.medimate.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission Control Properties
+ * Rate limits and load shedding settings, bound from medimate.admission.* properties
+ * 
+ * @ConfigurationProperties: Binds properties with the given prefix to this class's fields
+ */
+@Component
+@ConfigurationProperties(prefix = "medimate.admission")
+public class AdmissionProperties {
+    
+    /**
+     * Turn rate limiting and load shedding on or off
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Average repository latency above which expensive requests are shed
+     */
+    private long shedLatencyThresholdMs = 200;
+    
+    /**
+     * Number of per-user buckets kept before idle ones are dropped (swept at most once a second)
+     */
+    private int maxTrackedClients = 100_000;
+    
+    /**
+     * Limits for reads of a single user's data
+     */
+    private Limits read = new Limits(20, 40, 2000, 4000);
+    
+    /**
+     * Limits for creates, updates and deletes
+     */
+    private Limits write = new Limits(5, 10, 500, 1000);
+    
+    /**
+     * Limits for bulk queries
+     */
+    private Limits export = new Limits(1, 5, 20, 50);
+    
+    /**
+     * Get the limits for an endpoint class
+     * @param endpointClass the endpoint class
+     * @return the configured limits
+     */
+    public Limits limitsFor(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case WRITE:
+                return write;
+            case EXPORT:
+                return export;
+            default:
+                return read;
+        }
+    }
+    
+    // Getter and Setter methods
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getShedLatencyThresholdMs() {
+        return shedLatencyThresholdMs;
+    }
+    
+    public void setShedLatencyThresholdMs(long shedLatencyThresholdMs) {
+        this.shedLatencyThresholdMs = shedLatencyThresholdMs;
+    }
+    
+    public int getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+    
+    public void setMaxTrackedClients(int maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+    
+    public Limits getRead() {
+        return read;
+    }
+    
+    public void setRead(Limits read) {
+        this.read = read;
+    }
+    
+    public Limits getWrite() {
+        return write;
+    }
+    
+    public void setWrite(Limits write) {
+        this.write = write;
+    }
+    
+    public Limits getExport() {
+        return export;
+    }
+    
+    public void setExport(Limits export) {
+        this.export = export;
+    }
+    
+    /**
+     * Per-user and global limits for one endpoint class
+     */
+    public static class Limits {
+        
+        /**
+         * Sustained requests per second allowed for one user
+         */
+        private double userPerSecond;
+        
+        /**
+         * Burst size allowed for one user
+         */
+        private int userBurst;
+        
+        /**
+         * Sustained requests per second allowed across all users
+         */
+        private double globalPerSecond;
+        
+        /**
+         * Burst size allowed across all users
+         */
+        private int globalBurst;
+        
+        public Limits() {
+        }
+        
+        public Limits(double userPerSecond, int userBurst, double globalPerSecond, int globalBurst) {
+            this.userPerSecond = userPerSecond;
+            this.userBurst = userBurst;
+            this.globalPerSecond = globalPerSecond;
+            this.globalBurst = globalBurst;
+        }
+        
+        public double getUserPerSecond() {
+            return userPerSecond;
+        }
+        
+        public void setUserPerSecond(double userPerSecond) {
+            this.userPerSecond = userPerSecond;
+        }
+        
+        public int getUserBurst() {
+            return userBurst;
+        }
+        
+        public void setUserBurst(int userBurst) {
+            this.userBurst = userBurst;
+        }
+        
+        public double getGlobalPerSecond() {
+            return globalPerSecond;
+        }
+        
+        public void setGlobalPerSecond(double globalPerSecond) {
+            this.globalPerSecond = globalPerSecond;
+        }
+        
+        public int getGlobalBurst() {
+            return globalBurst;
+        }
+        
+        public void setGlobalBurst(int globalBurst) {
+            this.globalBurst = globalBurst;
+        }
+    }
+}
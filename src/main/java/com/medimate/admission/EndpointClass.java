@@ -0,0 +1,23 @@
+package com.medimate.admission;
+
+/**
+ * Endpoint Class Enum
+ * Groups endpoints that share the same rate limits
+ */
+public enum EndpointClass {
+    
+    /**
+     * Reads of a single user's data (lists, lookups, searches)
+     */
+    READ,
+    
+    /**
+     * Creates, updates and deletes
+     */
+    WRITE,
+    
+    /**
+     * Bulk reads across many users or large result sets
+     */
+    EXPORT
+}
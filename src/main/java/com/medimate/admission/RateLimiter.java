@@ -0,0 +1,102 @@
+package com.medimate.admission;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate Limiter
+ * Holds one token bucket per client and endpoint class, plus one global bucket per endpoint class
+ * 
+ * A request must get a token from its client's bucket first and then from the global bucket,
+ * so one noisy client runs out of its own tokens before it can use up everyone else's.
+ * When the global bucket rejects, the client's token is given back: the request was not
+ * admitted, so it should not count against the client's own limit.
+ * 
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class RateLimiter {
+    
+    /**
+     * Idle buckets are swept at most this often once there are more than max-tracked-clients
+     */
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    @Autowired
+    private AdmissionProperties properties;
+    
+    /**
+     * Global buckets, created once at startup
+     */
+    private final Map<EndpointClass, TokenBucket> globalBuckets = new EnumMap<>(EndpointClass.class);
+    
+    /**
+     * Per-client buckets keyed by "endpointClass:clientKey"
+     */
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    
+    /**
+     * System.nanoTime() from which the next sweep may run; the request that moves it forward does the sweep
+     */
+    private final AtomicLong nextEvictionNanos = new AtomicLong(System.nanoTime());
+    
+    /**
+     * Create the global buckets from the configured limits
+     * @PostConstruct: Runs once after the properties have been injected
+     */
+    @PostConstruct
+    public void init() {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AdmissionProperties.Limits limits = properties.limitsFor(endpointClass);
+            globalBuckets.put(endpointClass, new TokenBucket(limits.getGlobalPerSecond(), limits.getGlobalBurst()));
+        }
+    }
+    
+    /**
+     * Try to admit one request
+     * @param endpointClass the endpoint class being called
+     * @param clientKey identifies the caller (user ID or remote address)
+     * @return 0 if admitted, otherwise nanoseconds until the caller may retry
+     */
+    public long tryAcquire(EndpointClass endpointClass, String clientKey) {
+        long now = System.nanoTime();
+        AdmissionProperties.Limits limits = properties.limitsFor(endpointClass);
+        
+        if (clientBuckets.size() > properties.getMaxTrackedClients()) {
+            evictIdleBucketsIfDue(now);
+        }
+        
+        TokenBucket clientBucket = clientBuckets.computeIfAbsent(endpointClass + ":" + clientKey,
+                key -> new TokenBucket(limits.getUserPerSecond(), limits.getUserBurst()));
+        long wait = clientBucket.tryAcquire(now);
+        if (wait > 0) {
+            return wait;
+        }
+        
+        wait = globalBuckets.get(endpointClass).tryAcquire(now);
+        if (wait > 0) {
+            clientBucket.refund();
+        }
+        return wait;
+    }
+    
+    /**
+     * Drop buckets that have refilled completely; a fresh bucket behaves the same way
+     * The sweep walks every bucket, so only one request per interval runs it; the others
+     * go on without waiting (the map may grow past the limit until the next sweep)
+     */
+    private void evictIdleBucketsIfDue(long now) {
+        long due = nextEvictionNanos.get();
+        if (now - due < 0 || !nextEvictionNanos.compareAndSet(due, now + EVICTION_INTERVAL_NANOS)) {
+            return;
+        }
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
@@ -0,0 +1,24 @@
+package com.medimate.admission;
+
+/**
+ * Request Cost Enum
+ * How expensive a request is for the database, used to decide what to shed first
+ * when the database is slow
+ */
+public enum RequestCost {
+    
+    /**
+     * Primary key lookups and single-row writes: never shed
+     */
+    CHEAP,
+    
+    /**
+     * Per-user list queries: shed when latency is well above the threshold
+     */
+    LIST,
+    
+    /**
+     * Searches and bulk queries: shed first, as soon as latency passes the threshold
+     */
+    SEARCH
+}
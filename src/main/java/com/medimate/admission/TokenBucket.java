@@ -0,0 +1,81 @@
+package com.medimate.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token Bucket
+ * A lock-free token bucket rate limiter
+ * 
+ * Instead of storing a token count and a refill timestamp, the bucket stores a single
+ * "theoretical arrival time": the moment at which the bucket would be full again.
+ * Taking a token pushes that moment forward by one refill interval; a request is
+ * rejected when doing so would put it more than a full bucket ahead of now.
+ * Because the whole state is one long, it is updated with a compare-and-set loop.
+ */
+public class TokenBucket {
+    
+    /**
+     * Time it takes to refill one token
+     */
+    private final long nanosPerToken;
+    
+    /**
+     * Time it takes to refill the whole bucket (capacity * nanosPerToken)
+     */
+    private final long burstNanos;
+    
+    /**
+     * Time at which the bucket will be full again
+     */
+    private final AtomicLong fullAt;
+    
+    /**
+     * Constructor
+     * @param tokensPerSecond refill rate
+     * @param capacity maximum number of tokens (burst size)
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Token bucket rate and capacity must be positive");
+        }
+        this.nanosPerToken = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.burstNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Try to take one token
+     * @param now current time from System.nanoTime()
+     * @return 0 if a token was taken, otherwise how many nanoseconds until one is available
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Give back a token taken by {@link #tryAcquire(long)} for a request that was not admitted after all
+     */
+    public void refund() {
+        fullAt.addAndGet(-nanosPerToken);
+    }
+    
+    /**
+     * Check whether the bucket has refilled completely (no recent use)
+     * @param now current time from System.nanoTime()
+     * @return true if the bucket is full
+     */
+    public boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.medimate.bulkhead;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Bulkhead Configuration
+ * Wraps the application's data source with BulkheadDataSource when
+ * medimate.bulkhead.enabled is true
+ *
+ * @Configuration: Marks this class as a configuration class
+ */
+@Configuration
+public class BulkheadConfiguration {
+
+    /**
+     * Wrap the data source as soon as it is created
+     * Static so the post-processor is registered before the data source bean exists
+     */
+    @Bean
+    static BeanPostProcessor bulkheadDataSourcePostProcessor(@Value("${medimate.bulkhead.enabled:true}") boolean enabled,
+                                                            ObjectProvider<DatabaseBulkheads> bulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, bulkheads::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.medimate.bulkhead;
+
+import com.medimate.exception.DeadlineExceededException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead Data Source
+ * Wraps the real data source so every connection is taken from the caller's bulkhead and every
+ * statement gets the time left until the caller's deadline as its query timeout
+ *
+ * - getConnection waits for a permit of the thread's workload class, at most until the
+ *   deadline (or the context's maximum connection wait, if shorter); if none comes free in
+ *   time it throws DeadlineExceededException. The permit is
+ *   given back when the connection is closed (returned to the pool).
+ * - Statements created while a deadline is set get setQueryTimeout(seconds left, rounded up),
+ *   so a slow query is cancelled by the database driver instead of blocking the request thread.
+ *   Hibernate and JdbcTemplate report the cancelled statement as a QueryTimeoutException.
+ *   A statement created after the deadline has passed fails straight away.
+ *
+ * Threads without a DatabaseContext get plain connections.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Supplier<DatabaseBulkheads> bulkheads;
+
+    /**
+     * Constructor
+     * @param target the real data source
+     * @param bulkheads looked up on first use, since the bulkheads are created after the data source
+     */
+    public BulkheadDataSource(DataSource target, Supplier<DatabaseBulkheads> bulkheads) {
+        super(target);
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DatabaseContext context = DatabaseContext.current();
+        if (context == null) {
+            return super.getConnection();
+        }
+        acquire(context);
+        try {
+            return wrap(super.getConnection(), context.getWorkloadClass());
+        } catch (SQLException | RuntimeException e) {
+            bulkheads.get().release(context.getWorkloadClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DatabaseContext context = DatabaseContext.current();
+        if (context == null) {
+            return super.getConnection(username, password);
+        }
+        acquire(context);
+        try {
+            return wrap(super.getConnection(username, password), context.getWorkloadClass());
+        } catch (SQLException | RuntimeException e) {
+            bulkheads.get().release(context.getWorkloadClass());
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for a permit of the context's class until its deadline or maximum connection wait
+     */
+    private void acquire(DatabaseContext context) {
+        try {
+            if (!bulkheads.get().tryAcquire(context.getWorkloadClass(), context.connectionWaitNanos())) {
+                throw new DeadlineExceededException("Timed out waiting for a " +
+                        context.getWorkloadClass() + " database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted waiting for a " +
+                    context.getWorkloadClass() + " database connection");
+        }
+    }
+
+    private Connection wrap(Connection connection, WorkloadClass workloadClass) {
+        return (Connection) Proxy.newProxyInstance(BulkheadDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection, workloadClass));
+    }
+
+    /**
+     * Gives the permit back on close and sets query timeouts on new statements
+     */
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final WorkloadClass workloadClass;
+        private boolean released;
+
+        ConnectionHandler(Connection connection, WorkloadClass workloadClass) {
+            this.connection = connection;
+            this.workloadClass = workloadClass;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                try {
+                    return call(method, args);
+                } finally {
+                    if (!released) {
+                        released = true;
+                        bulkheads.get().release(workloadClass);
+                    }
+                }
+            }
+            Object result = call(method, args);
+            if (result instanceof Statement statement
+                    && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement"))) {
+                applyDeadline(statement);
+            }
+            return result;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    /**
+     * Set the statement's query timeout to the seconds left until the deadline (rounded up)
+     */
+    private static void applyDeadline(Statement statement) throws SQLException {
+        DatabaseContext context = DatabaseContext.current();
+        if (context == null || !context.hasDeadline()) {
+            return;
+        }
+        long remainingNanos = context.remainingNanos();
+        if (remainingNanos <= 0) {
+            statement.close();
+            throw new SQLTimeoutException("Request deadline exceeded before the statement was sent", "57014");
+        }
+        long seconds = (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+    }
+}
@@ -0,0 +1,101 @@
+package com.medimate.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database Bulkheads
+ * One bounded pool of permits per workload class; a database connection can only be taken
+ * with a permit of the caller's class
+ *
+ * The permits add up to the connection pool size (10 by default: 4 read, 3 write, 1 scan,
+ * 2 job), so a class that has a free permit always finds a free connection. When searches or a
+ * scheduled job run away they use up their own permits and wait, while by-id lookups, writes
+ * and the other of the two keep their share of the pool.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class DatabaseBulkheads {
+
+    private final Map<WorkloadClass, Semaphore> permits = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Integer> sizes = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Counter> rejected = new EnumMap<>(WorkloadClass.class);
+
+    /**
+     * Constructor
+     * @param readPermits connections interactive reads may use at the same time
+     * @param writePermits connections writes may use at the same time
+     * @param scanPermits connections searches and batch queries may use at the same time
+     * @param jobPermits connections scheduled jobs may use at the same time
+     */
+    @Autowired
+    public DatabaseBulkheads(@Value("${medimate.bulkhead.read.max-concurrent:4}") int readPermits,
+                             @Value("${medimate.bulkhead.write.max-concurrent:3}") int writePermits,
+                             @Value("${medimate.bulkhead.scan.max-concurrent:1}") int scanPermits,
+                             @Value("${medimate.bulkhead.job.max-concurrent:2}") int jobPermits,
+                             MeterRegistry meterRegistry) {
+        sizes.put(WorkloadClass.READ, readPermits);
+        sizes.put(WorkloadClass.WRITE, writePermits);
+        sizes.put(WorkloadClass.SCAN, scanPermits);
+        sizes.put(WorkloadClass.JOB, jobPermits);
+        for (WorkloadClass workloadClass : WorkloadClass.values()) {
+            Semaphore semaphore = new Semaphore(Math.max(1, sizes.get(workloadClass)));
+            permits.put(workloadClass, semaphore);
+            Gauge.builder("medimate.bulkhead.active", semaphore, s -> sizes.get(workloadClass) - s.availablePermits())
+                    .description("Database connections in use per workload class")
+                    .tag("class", workloadClass.name())
+                    .register(meterRegistry);
+            rejected.put(workloadClass, Counter.builder("medimate.bulkhead.rejected")
+                    .description("Requests that ran out of time waiting for a database connection")
+                    .tag("class", workloadClass.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Take a permit, waiting at most until the deadline
+     * @param workloadClass the bulkhead to take it from
+     * @param maxWaitNanos how long to wait (Long.MAX_VALUE to wait as long as it takes)
+     * @return true if a permit was taken, false if the time ran out
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean tryAcquire(WorkloadClass workloadClass, long maxWaitNanos) throws InterruptedException {
+        Semaphore semaphore = permits.get(workloadClass);
+        if (maxWaitNanos == Long.MAX_VALUE) {
+            semaphore.acquire();
+            return true;
+        }
+        if (semaphore.tryAcquire(Math.max(0, maxWaitNanos), TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        rejected.get(workloadClass).increment();
+        return false;
+    }
+
+    /**
+     * Give back a permit taken with tryAcquire
+     * @param workloadClass the bulkhead it came from
+     */
+    public void release(WorkloadClass workloadClass) {
+        permits.get(workloadClass).release();
+    }
+
+    /**
+     * Number of permits free right now
+     * @param workloadClass the bulkhead
+     * @return free permits
+     */
+    public int getAvailable(WorkloadClass workloadClass) {
+        return permits.get(workloadClass).availablePermits();
+    }
+}
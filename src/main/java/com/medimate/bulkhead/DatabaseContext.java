@@ -0,0 +1,106 @@
+package com.medimate.bulkhead;
+
+/**
+ * Database Context
+ * The workload class and deadline of the database work running on the current thread
+ *
+ * DatabaseDeadlineInterceptor sets it for API requests and ScheduledJobManager for job runs.
+ * BulkheadDataSource reads it when a connection is taken (which bulkhead, how long to wait)
+ * and when a statement is created (its query timeout). Threads without a context (startup,
+ * group commit, event sending) are not limited.
+ */
+public final class DatabaseContext {
+
+    private static final ThreadLocal<DatabaseContext> CURRENT = new ThreadLocal<>();
+
+    private final WorkloadClass workloadClass;
+
+    /**
+     * System.nanoTime() by which the work must be done, or 0 for no deadline
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Longest time to wait for each connection, or 0 to wait until the deadline
+     */
+    private final long maxConnectionWaitNanos;
+
+    private DatabaseContext(WorkloadClass workloadClass, long deadlineNanos, long maxConnectionWaitNanos) {
+        this.workloadClass = workloadClass;
+        this.deadlineNanos = deadlineNanos;
+        this.maxConnectionWaitNanos = maxConnectionWaitNanos;
+    }
+
+    /**
+     * Start database work of the given class on this thread
+     * @param workloadClass which bulkhead the work uses
+     * @param timeoutMillis time budget from now (0 or less for no deadline)
+     */
+    public static void enter(WorkloadClass workloadClass, long timeoutMillis) {
+        enter(workloadClass, timeoutMillis, 0);
+    }
+
+    /**
+     * Start database work of the given class on this thread, waiting a limited time for each connection
+     * Used by work without a deadline (scheduled jobs) so it never waits forever for a permit
+     * @param workloadClass which bulkhead the work uses
+     * @param timeoutMillis time budget from now (0 or less for no deadline)
+     * @param maxConnectionWaitMillis longest wait for each connection (0 or less to wait until the deadline)
+     */
+    public static void enter(WorkloadClass workloadClass, long timeoutMillis, long maxConnectionWaitMillis) {
+        long deadlineNanos = 0;
+        if (timeoutMillis > 0) {
+            // 0 means "no deadline", so never use it as a real deadline
+            deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000;
+            if (deadlineNanos == 0) {
+                deadlineNanos = 1;
+            }
+        }
+        CURRENT.set(new DatabaseContext(workloadClass, deadlineNanos,
+                Math.max(0, maxConnectionWaitMillis) * 1_000_000));
+    }
+
+    /**
+     * End the database work on this thread
+     */
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Get the context of the current thread
+     * @return the context, or null if this thread is not limited
+     */
+    public static DatabaseContext current() {
+        return CURRENT.get();
+    }
+
+    public WorkloadClass getWorkloadClass() {
+        return workloadClass;
+    }
+
+    /**
+     * Check whether the work has a deadline
+     * @return true if it has one
+     */
+    public boolean hasDeadline() {
+        return deadlineNanos != 0;
+    }
+
+    /**
+     * Time left until the deadline
+     * @return nanoseconds left (0 or less once it has passed, Long.MAX_VALUE without a deadline)
+     */
+    public long remainingNanos() {
+        return hasDeadline() ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Time to wait for a connection: until the deadline, but no longer than the maximum wait
+     * @return nanoseconds (Long.MAX_VALUE to wait without limit)
+     */
+    public long connectionWaitNanos() {
+        long remaining = remainingNanos();
+        return maxConnectionWaitNanos > 0 ? Math.min(remaining, maxConnectionWaitNanos) : remaining;
+    }
+}
@@ -0,0 +1,109 @@
+package com.medimate.bulkhead;
+
+import com.medimate.admission.AdmissionControl;
+import com.medimate.admission.EndpointClass;
+import com.medimate.admission.RequestCost;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Database Deadline Interceptor
+ * Gives every API request with @AdmissionControl a deadline and a workload class before the
+ * controller method runs (see DatabaseContext)
+ *
+ * - Workload class: WRITE endpoints are WRITE; SEARCH-cost reads and EXPORT endpoints are SCAN;
+ *   other reads are READ
+ * - Deadline: the X-Request-Timeout-Ms header (milliseconds the caller is willing to wait,
+ *   capped at medimate.deadline.max-ms), or the default of the workload class
+ *
+ * AsyncHandlerInterceptor: HandlerInterceptor that is also told when a request continues on another thread
+ */
+@Component
+public class DatabaseDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Request header with the caller's time budget in milliseconds
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Value("${medimate.deadline.read-ms:2000}")
+    private long readMillis;
+
+    @Value("${medimate.deadline.write-ms:5000}")
+    private long writeMillis;
+
+    @Value("${medimate.deadline.scan-ms:15000}")
+    private long scanMillis;
+
+    @Value("${medimate.deadline.max-ms:30000}")
+    private long maxMillis;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        AdmissionControl admission = ((HandlerMethod) handler).getMethodAnnotation(AdmissionControl.class);
+        if (admission == null) {
+            return true;
+        }
+
+        WorkloadClass workloadClass = workloadClass(admission);
+        DatabaseContext.enter(workloadClass, timeoutMillis(request, workloadClass));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        DatabaseContext.exit();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DatabaseContext.exit();
+    }
+
+    /**
+     * Choose the bulkhead for an endpoint
+     * @param admission the endpoint's admission control settings
+     * @return the workload class
+     */
+    static WorkloadClass workloadClass(AdmissionControl admission) {
+        if (admission.value() == EndpointClass.WRITE) {
+            return WorkloadClass.WRITE;
+        }
+        if (admission.value() == EndpointClass.EXPORT || admission.cost() == RequestCost.SEARCH) {
+            return WorkloadClass.SCAN;
+        }
+        return WorkloadClass.READ;
+    }
+
+    /**
+     * The caller's budget from the header, or the default for the workload class
+     */
+    private long timeoutMillis(HttpServletRequest request, WorkloadClass workloadClass) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    return Math.min(requested, maxMillis);
+                }
+            } catch (NumberFormatException e) {
+                // Ignore a malformed header and use the default
+            }
+        }
+        switch (workloadClass) {
+            case WRITE:
+                return writeMillis;
+            case SCAN:
+                return scanMillis;
+            default:
+                return readMillis;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.medimate.bulkhead;
+
+/**
+ * Workload Class Enum
+ * The kinds of database work that get their own bulkhead (share of the connection pool)
+ */
+public enum WorkloadClass {
+
+    /**
+     * Interactive reads: by-id lookups and per-user lists
+     */
+    READ,
+
+    /**
+     * Creates, updates and deletes
+     */
+    WRITE,
+
+    /**
+     * Searches and batch queries: reads that can touch many rows
+     */
+    SCAN,
+
+    /**
+     * Scheduled jobs, which have no request deadline and can hold connections for a long time
+     */
+    JOB
+}
@@ -1,9 +1,19 @@
 package com.medimate.config;
 
+import com.medimate.admission.AdmissionControlInterceptor;
+import com.medimate.bulkhead.DatabaseDeadlineInterceptor;
+import com.medimate.json.MedicineListHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web Configuration Class
  * This class configures CORS (Cross-Origin Resource Sharing) settings
@@ -15,6 +25,24 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    /**
+     * Rate limiting and load shedding for API endpoints
+     */
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+    
+    /**
+     * Request deadlines and database bulkheads for API endpoints
+     */
+    @Autowired
+    private DatabaseDeadlineInterceptor databaseDeadlineInterceptor;
+    
+    /**
+     * Write medicine lists with the hand-written JSON writer instead of Jackson
+     */
+    @Value("${medimate.json.fast-writer.enabled:true}")
+    private boolean fastJsonWriter;
+    
     /**
      * Configure CORS mappings
      * This allows the frontend (running on different port) to access the API
@@ -32,4 +60,34 @@ public class WebConfig implements WebMvcConfigurer {
         
         System.out.println("CORS configuration applied for API endpoints");
     }
-}
\ No newline at end of file
+    
+    /**
+     * Register interceptors that run before API controller methods
+     * 
+     * @param registry interceptor registry to add interceptors to
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(databaseDeadlineInterceptor).addPathPatterns("/api/**");
+    }
+    
+    /**
+     * Put the medicine list converter in front of Jackson's converter
+     * It writes List<Medicine> and ApiResponse<List<Medicine>> bodies and passes everything else on
+     * 
+     * @param converters the converters Spring Boot has configured
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!fastJsonWriter) {
+            return;
+        }
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jackson) {
+                converters.add(i, new MedicineListHttpMessageConverter(jackson));
+                return;
+            }
+        }
+    }
+}
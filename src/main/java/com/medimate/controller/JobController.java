@@ -0,0 +1,101 @@
+package com.medimate.controller;
+
+import com.medimate.admission.AdmissionControl;
+import com.medimate.admission.EndpointClass;
+import com.medimate.dto.JobStatus;
+import com.medimate.entity.JobExecution;
+import com.medimate.scheduler.ScheduledJobManager;
+import com.medimate.service.JobExecutionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Job Controller Class
+ * This class handles HTTP requests for scheduled job monitoring and control
+ * 
+ * @RestController: Combines @Controller and @ResponseBody
+ * @RequestMapping: Base URL mapping for all endpoints in this controller
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    
+    @Autowired
+    private JobExecutionService jobExecutionService;
+    
+    @Autowired
+    private ScheduledJobManager jobManager;
+    
+    /**
+     * List the scheduled jobs with their limits, whether they are running and how their last run went
+     * GET /api/jobs
+     * @return ResponseEntity with one entry per job
+     */
+    @GetMapping
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<?> getJobs() {
+        System.out.println("Received request to list scheduled jobs");
+        
+        List<JobStatus> jobs = jobManager.getJobs();
+        
+        return ResponseEntity.ok(jobs);
+    }
+    
+    /**
+     * Get one scheduled job
+     * GET /api/jobs/{name}
+     * @param name the job name
+     * @return ResponseEntity with the job, or 404 if there is no such job
+     */
+    @GetMapping("/{name}")
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<?> getJob(@PathVariable String name) {
+        System.out.println("Received request to get scheduled job: " + name);
+        
+        return ResponseEntity.ok(jobManager.getJob(name));
+    }
+    
+    /**
+     * Start a scheduled job now, outside its schedule
+     * The job runs in the background; poll GET /api/jobs/{name} for its outcome
+     * POST /api/jobs/{name}/run
+     * @param name the job name
+     * @return 202 Accepted with the job, 404 if there is no such job, or 409 if it is already running
+     */
+    @PostMapping("/{name}/run")
+    @AdmissionControl(EndpointClass.WRITE)
+    public ResponseEntity<?> runJob(@PathVariable String name) {
+        System.out.println("Received request to run scheduled job: " + name);
+        
+        jobManager.triggerManually(name);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobManager.getJob(name));
+    }
+    
+    /**
+     * List recent job executions with their progress, duration and throughput
+     * GET /api/jobs/executions?jobName=checkExpiredMedicines&limit=20
+     * @param jobName only list this job (optional)
+     * @param limit maximum number of executions (optional, default: 20)
+     * @return ResponseEntity with list of executions, newest first
+     */
+    @GetMapping("/executions")
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<?> getRecentExecutions(@RequestParam(required = false) String jobName,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        System.out.println("Received request to list job executions for job: " + jobName + ", limit: " + limit);
+        
+        List<JobExecution> executions = jobExecutionService.findRecent(jobName, limit);
+        
+        return ResponseEntity.ok(executions);
+    }
+}
@@ -1,16 +1,37 @@
 package com.medimate.controller;
 
+import com.medimate.admission.AdmissionControl;
+import com.medimate.admission.EndpointClass;
+import com.medimate.admission.RequestCost;
+import com.medimate.bulkhead.DatabaseContext;
+import com.medimate.dto.MedicineQueryRequest;
+import com.medimate.dto.StockForecast;
+import com.medimate.entity.ExpiryDigest;
 import com.medimate.entity.Medicine;
+import com.medimate.exception.DeadlineExceededException;
+import com.medimate.service.ConsumptionService;
+import com.medimate.service.ExpiryDigestService;
+import com.medimate.service.MedicineEventBroadcaster;
 import com.medimate.service.MedicineService;
+import com.medimate.service.RequestCoalescer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Medicine Controller Class
@@ -19,6 +40,9 @@ import java.util.Optional;
  * @RestController: Combines @Controller and @ResponseBody
  * @RequestMapping: Base URL mapping for all endpoints in this controller
  * @Validated: Enables validation for request parameters
+ *
+ * Errors are not caught here: service exceptions go to GlobalExceptionHandler,
+ * which chooses the status code for each exception type
  */
 @RestController
 @RequestMapping("/api/medicines")
@@ -32,6 +56,34 @@ public class MedicineController {
     @Autowired
     private MedicineService medicineService;
     
+    /**
+     * Shares one in-flight query between identical concurrent read requests
+     */
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    /**
+     * Server-Sent Events stream of inventory changes and expiry alerts
+     */
+    @Autowired
+    private MedicineEventBroadcaster eventBroadcaster;
+    
+    /**
+     * Consumption rates and stock-out forecasts
+     */
+    @Autowired
+    private ConsumptionService consumptionService;
+    
+    /**
+     * Per-user expiring-soon digests
+     */
+    @Autowired
+    private ExpiryDigestService expiryDigestService;
+
+    // Longest time a POST waits for its medicine to be saved when the request has no deadline
+    @Value("${medimate.group-commit.wait-timeout-ms:5000}")
+    private long groupCommitWaitTimeoutMillis;
+    
     /**
      * Add a new medicine
      * POST /api/medicines
@@ -39,49 +91,67 @@ public class MedicineController {
      * @return ResponseEntity with created medicine and HTTP status
      */
     @PostMapping
+    @AdmissionControl(EndpointClass.WRITE)
     public ResponseEntity<?> addMedicine(@Valid @RequestBody Medicine medicine) {
+        System.out.println("Received request to add medicine: " + medicine);
+        
+        // Waits until the medicine has been committed (possibly together with others)
+        Medicine savedMedicine = awaitSaved(medicineService.addMedicineAsync(medicine));
+        
+        // Return success response with created medicine
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedMedicine);
+    }
+    
+    /**
+     * Wait a limited time for a medicine to be saved
+     * The group commit thread does not know the request deadline, so the wait is bounded here:
+     * by the request deadline if there is one, otherwise by medimate.group-commit.wait-timeout-ms
+     * @param pending future completed once the medicine has been committed
+     * @return the saved medicine
+     * @throws DeadlineExceededException if it was not saved in time (504)
+     * @throws RejectedExecutionException if the write was refused or this thread was interrupted (503)
+     */
+    private Medicine awaitSaved(CompletableFuture<Medicine> pending) {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitWaitTimeoutMillis);
+        DatabaseContext context = DatabaseContext.current();
+        if (context != null && context.hasDeadline()) {
+            timeoutNanos = Math.min(timeoutNanos, Math.max(context.remainingNanos(), 0));
+        }
         try {
-            System.out.println("Received request to add medicine: " + medicine);
-            
-            Medicine savedMedicine = medicineService.addMedicine(medicine);
-            
-            // Return success response with created medicine
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedMedicine);
-            
-        } catch (IllegalArgumentException e) {
-            // Return bad request for validation errors
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (Exception e) {
-            // Return internal server error for other exceptions
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error adding medicine: " + e.getMessage());
+            return pending.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Medicine was not saved in time, please retry");
+        } catch (ExecutionException e) {
+            // Let GlobalExceptionHandler see the real error from the group commit writer
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the medicine to be saved");
         }
     }
-    
+
     /**
      * Get all medicines for a user
-     * GET /api/medicines?userId=123
+     * GET /api/medicines?userId=123&includeArchived=false
      * @param userId the user ID from query parameter
+     * @param includeArchived also return medicines moved to the archive (optional, default: false)
      * @return ResponseEntity with list of medicines
      */
     @GetMapping
-    public ResponseEntity<?> getAllMedicines(@RequestParam Long userId) {
-        try {
-            System.out.println("Received request to get all medicines for user: " + userId);
-            
-            List<Medicine> medicines = medicineService.getAllMedicinesByUserId(userId);
-            
-            // Return success response with medicines list
-            return ResponseEntity.ok(medicines);
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving medicines: " + e.getMessage());
-        }
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
+    public ResponseEntity<?> getAllMedicines(@RequestParam Long userId,
+                                             @RequestParam(defaultValue = "false") boolean includeArchived) {
+        System.out.println("Received request to get all medicines for user: " + userId);
+        
+        List<Medicine> medicines = requestCoalescer.execute(
+                RequestCoalescer.key("getAllMedicinesByUserId", userId, includeArchived),
+                () -> medicineService.getAllMedicinesByUserId(userId, includeArchived));
+        
+        // Return success response with medicines list
+        return ResponseEntity.ok(medicines);
     }
     
     /**
@@ -91,21 +161,18 @@ public class MedicineController {
      * @return ResponseEntity with medicine object
      */
     @GetMapping("/{id}")
+    @AdmissionControl(EndpointClass.READ)
     public ResponseEntity<?> getMedicineById(@PathVariable Long id) {
-        try {
-            System.out.println("Received request to get medicine with ID: " + id);
-            
-            Optional<Medicine> medicine = medicineService.getMedicineById(id);
-            
-            if (medicine.isPresent()) {
-                return ResponseEntity.ok(medicine.get());
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving medicine: " + e.getMessage());
+        System.out.println("Received request to get medicine with ID: " + id);
+        
+        Optional<Medicine> medicine = requestCoalescer.execute(
+                RequestCoalescer.key("getMedicineById", id),
+                () -> medicineService.getMedicineById(id));
+        
+        if (medicine.isPresent()) {
+            return ResponseEntity.ok(medicine.get());
+        } else {
+            return ResponseEntity.notFound().build();
         }
     }
     
@@ -117,24 +184,13 @@ public class MedicineController {
      * @return ResponseEntity with updated medicine
      */
     @PutMapping("/{id}")
+    @AdmissionControl(EndpointClass.WRITE)
     public ResponseEntity<?> updateMedicine(@PathVariable Long id, @Valid @RequestBody Medicine medicine) {
-        try {
-            System.out.println("Received request to update medicine with ID: " + id);
-            
-            Medicine updatedMedicine = medicineService.updateMedicine(id, medicine);
-            
-            return ResponseEntity.ok(updatedMedicine);
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("not found")) {
-                return ResponseEntity.notFound().build();
-            }
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error updating medicine: " + e.getMessage());
-        }
+        System.out.println("Received request to update medicine with ID: " + id);
+        
+        Medicine updatedMedicine = medicineService.updateMedicine(id, medicine);
+        
+        return ResponseEntity.ok(updatedMedicine);
     }
     
     /**
@@ -144,45 +200,33 @@ public class MedicineController {
      * @return ResponseEntity with success message
      */
     @DeleteMapping("/{id}")
+    @AdmissionControl(EndpointClass.WRITE)
     public ResponseEntity<?> deleteMedicine(@PathVariable Long id) {
-        try {
-            System.out.println("Received request to delete medicine with ID: " + id);
-            
-            medicineService.deleteMedicine(id);
-            
-            return ResponseEntity.ok("Medicine deleted successfully");
-            
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("not found")) {
-                return ResponseEntity.notFound().build();
-            }
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error deleting medicine: " + e.getMessage());
-        }
+        System.out.println("Received request to delete medicine with ID: " + id);
+        
+        medicineService.deleteMedicine(id);
+        
+        return ResponseEntity.ok("Medicine deleted successfully");
     }
     
     /**
      * Get expired medicines for a user
-     * GET /api/medicines/expired?userId=123
+     * GET /api/medicines/expired?userId=123&includeArchived=false
      * @param userId the user ID from query parameter
+     * @param includeArchived also return medicines moved to the archive (optional, default: false)
      * @return ResponseEntity with list of expired medicines
      */
     @GetMapping("/expired")
-    public ResponseEntity<?> getExpiredMedicines(@RequestParam Long userId) {
-        try {
-            System.out.println("Received request to get expired medicines for user: " + userId);
-            
-            List<Medicine> expiredMedicines = medicineService.getExpiredMedicines(userId);
-            
-            return ResponseEntity.ok(expiredMedicines);
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving expired medicines: " + e.getMessage());
-        }
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
+    public ResponseEntity<?> getExpiredMedicines(@RequestParam Long userId,
+                                                 @RequestParam(defaultValue = "false") boolean includeArchived) {
+        System.out.println("Received request to get expired medicines for user: " + userId);
+        
+        List<Medicine> expiredMedicines = requestCoalescer.execute(
+                RequestCoalescer.key("getExpiredMedicines", userId, includeArchived),
+                () -> medicineService.getExpiredMedicines(userId, includeArchived));
+        
+        return ResponseEntity.ok(expiredMedicines);
     }
     
     /**
@@ -192,21 +236,32 @@ public class MedicineController {
      * @return ResponseEntity with list of medicines expiring soon
      */
     @GetMapping("/expiring-soon")
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
     public ResponseEntity<?> getMedicinesExpiringSoon(@RequestParam Long userId) {
-        try {
-            System.out.println("Received request to get medicines expiring soon for user: " + userId);
-            
-            List<Medicine> expiringSoon = medicineService.getMedicinesExpiringSoon(userId);
-            
-            return ResponseEntity.ok(expiringSoon);
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving medicines expiring soon: " + e.getMessage());
-        }
+        System.out.println("Received request to get medicines expiring soon for user: " + userId);
+        
+        List<Medicine> expiringSoon = requestCoalescer.execute(
+                RequestCoalescer.key("getMedicinesExpiringSoon", userId),
+                () -> medicineService.getMedicinesExpiringSoon(userId));
+        
+        return ResponseEntity.ok(expiringSoon);
+    }
+    
+    /**
+     * Get a user's expiring-soon digest: count, total quantity, nearest expiry and the
+     * medicines expiring first, as built by this morning's checkMedicinesExpiringSoon job
+     * GET /api/medicines/expiring-soon/digest?userId=123
+     * @param userId the user ID from query parameter
+     * @return ResponseEntity with the digest (404 if the user had nothing expiring soon)
+     */
+    @GetMapping("/expiring-soon/digest")
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.CHEAP)
+    public ResponseEntity<?> getExpiryDigest(@RequestParam Long userId) {
+        System.out.println("Received request to get expiry digest for user: " + userId);
+        
+        ExpiryDigest digest = expiryDigestService.getDigest(userId);
+        
+        return ResponseEntity.ok(digest);
     }
     
     /**
@@ -217,49 +272,100 @@ public class MedicineController {
      * @return ResponseEntity with list of low stock medicines
      */
     @GetMapping("/low-stock")
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
     public ResponseEntity<?> getLowStockMedicines(@RequestParam Long userId, 
                                                  @RequestParam(required = false) Integer threshold) {
-        try {
-            System.out.println("Received request to get low stock medicines for user: " + userId + 
-                             ", threshold: " + threshold);
-            
-            List<Medicine> lowStockMedicines = medicineService.getLowStockMedicines(userId, threshold);
-            
-            return ResponseEntity.ok(lowStockMedicines);
-            
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving low stock medicines: " + e.getMessage());
-        }
+        System.out.println("Received request to get low stock medicines for user: " + userId + 
+                         ", threshold: " + threshold);
+        
+        List<Medicine> lowStockMedicines = requestCoalescer.execute(
+                RequestCoalescer.key("getLowStockMedicines", userId, threshold),
+                () -> medicineService.getLowStockMedicines(userId, threshold));
+        
+        return ResponseEntity.ok(lowStockMedicines);
+    }
+    
+    /**
+     * Get the stock-out forecast for each of a user's medicines
+     * GET /api/medicines/forecast?userId=123
+     * @param userId the user ID from query parameter
+     * @return ResponseEntity with one forecast per medicine (daily usage, stock-out date,
+     *         and whether it runs out before it expires)
+     */
+    @GetMapping("/forecast")
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.LIST)
+    public ResponseEntity<?> getStockForecast(@RequestParam Long userId) {
+        System.out.println("Received request to get stock forecast for user: " + userId);
+        
+        List<StockForecast> forecasts = consumptionService.getForecast(userId);
+        
+        return ResponseEntity.ok(forecasts);
     }
     
     /**
      * Search medicines by name for a user
-     * GET /api/medicines/search?userId=123&name=aspirin
+     * GET /api/medicines/search?userId=123&name=aspirin&includeArchived=false
      * @param userId the user ID from query parameter
      * @param name the medicine name to search for
+     * @param includeArchived also search medicines moved to the archive (optional, default: false)
      * @return ResponseEntity with list of matching medicines
      */
     @GetMapping("/search")
+    @AdmissionControl(value = EndpointClass.READ, cost = RequestCost.SEARCH)
     public ResponseEntity<?> searchMedicinesByName(@RequestParam Long userId, 
-                                                  @RequestParam String name) {
+                                                  @RequestParam String name,
+                                                  @RequestParam(defaultValue = "false") boolean includeArchived) {
+        System.out.println("Received request to search medicines by name for user: " + userId + 
+                         ", name: " + name);
+        
+        List<Medicine> medicines = requestCoalescer.execute(
+                RequestCoalescer.key("searchMedicinesByName", userId, name, includeArchived),
+                () -> medicineService.searchMedicinesByName(userId, name, includeArchived));
+        
+        return ResponseEntity.ok(medicines);
+    }
+    
+    /**
+     * Get several medicine views for many users in one call
+     * POST /api/medicines/query
+     * Body: {"userIds": [1, 2, 3], "views": ["expired", "expiring-soon", "low-stock"], "threshold": 5}
+     * @param request the users and views wanted
+     * @return ResponseEntity with a map of user ID to view name to medicines
+     */
+    @PostMapping("/query")
+    @AdmissionControl(value = EndpointClass.EXPORT, cost = RequestCost.SEARCH)
+    public ResponseEntity<?> queryMedicines(@Valid @RequestBody MedicineQueryRequest request) {
+        System.out.println("Received batch query request for " + request.getUserIds().size() +
+                         " users, views: " + request.getViews());
+        
+        Map<Long, Map<String, List<Medicine>>> result = medicineService.queryMedicinesForUsers(
+                request.getUserIds(), request.getViews(), request.getThreshold());
+        
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Stream inventory changes and expiry alerts for a user as Server-Sent Events
+     * GET /api/medicines/events?userId=123
+     * Events: "added", "updated", "deleted", "expired" (JSON data), plus heartbeat comments
+     * @param userId the user ID from query parameter
+     * @return SseEmitter kept open by Spring MVC, or 503 if too many clients are connected
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam Long userId) {
         try {
-            System.out.println("Received request to search medicines by name for user: " + userId + 
-                             ", name: " + name);
-            
-            List<Medicine> medicines = medicineService.searchMedicinesByName(userId, name);
+            System.out.println("Received request to stream events for user: " + userId);
             
-            return ResponseEntity.ok(medicines);
+            SseEmitter emitter = eventBroadcaster.subscribe(userId);
             
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            return ResponseEntity.ok(emitter);
             
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error searching medicines: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // Too many clients connected: ask this one to reconnect later
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .build();
         }
     }
 }
\ No newline at end of file
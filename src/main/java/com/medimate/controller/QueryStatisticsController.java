@@ -0,0 +1,66 @@
+package com.medimate.controller;
+
+import com.medimate.admission.AdmissionControl;
+import com.medimate.admission.EndpointClass;
+import com.medimate.dto.QueryStatistic;
+import com.medimate.dto.SlowQuery;
+import com.medimate.monitoring.RepositoryStatistics;
+import com.medimate.monitoring.SlowQueryLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Query Statistics Controller Class
+ * This class handles HTTP requests for database query monitoring
+ *
+ * @RestController: Combines @Controller and @ResponseBody
+ * @RequestMapping: Base URL mapping for all endpoints in this controller
+ */
+@RestController
+@RequestMapping("/api/admin/queries")
+public class QueryStatisticsController {
+
+    @Autowired
+    private RepositoryStatistics repositoryStatistics;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * List count, total/average/p99/max time and rows for every repository method called so far
+     * GET /api/admin/queries?repository=MedicineRepository
+     * @param repository only list this repository (optional)
+     * @return ResponseEntity with one entry per method, slowest in total first
+     */
+    @GetMapping
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<?> getQueryStatistics(@RequestParam(required = false) String repository) {
+        System.out.println("Received request for query statistics, repository: " + repository);
+
+        List<QueryStatistic> statistics = repositoryStatistics.getStatistics(repository);
+
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * List the most recent statements slower than medimate.slow-query.threshold-ms
+     * GET /api/admin/queries/slow?limit=50
+     * @param limit maximum number of statements (optional, default: 50)
+     * @return ResponseEntity with the slow statements, newest first
+     */
+    @GetMapping("/slow")
+    @AdmissionControl(EndpointClass.READ)
+    public ResponseEntity<?> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        System.out.println("Received request for slow queries, limit: " + limit);
+
+        List<SlowQuery> slowQueries = slowQueryLog.getRecent(Math.max(0, limit));
+
+        return ResponseEntity.ok(slowQueries);
+    }
+}
@@ -0,0 +1,344 @@
+package com.medimate.dataset;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dataset Generator
+ * Fills the medicines table with a large synthetic dataset for load and capacity testing
+ *
+ * Runs only with the "generate" profile (see application-generate.properties), loads
+ * medimate.generator.medicines rows for medimate.generator.users users and then stops the
+ * application:
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=generate \
+ *       -Dspring-boot.run.arguments="--medimate.generator.users=1000000 --medimate.generator.medicines=10000000"
+ *
+ * The data is shaped like a real inventory rather than spread evenly:
+ * - Users: the user of rank r gets a share of the medicines proportional to 1 / r^s (a Zipf
+ *   distribution with exponent medimate.generator.zipf-exponent), so a few users own very large
+ *   inventories and most own a handful. User IDs start at medimate.generator.first-user-id
+ * - Names: picked from a list of common medicines, also Zipf distributed, so a few names are
+ *   very common
+ * - Expiry dates: expired-share of the medicines expired in the last year, expiring-soon-share
+ *   expire within the next 30 days, the rest later within three years
+ * - Quantities: low-stock-share of the medicines have fewer than 5 left, the rest mostly a few
+ *   dozen with a long tail
+ *
+ * Rows are written with multi-row INSERT statements of rows-per-insert rows each, committed
+ * every statements-per-commit statements, by several threads at once (each thread takes every
+ * threads-th user). The same seed and thread count always give the same data.
+ *
+ * @Component: Marks this class as a Spring component
+ * @Profile("generate"): Only created when the generate profile is active
+ * ApplicationRunner: run() is called once the application has started
+ * @Lazy(false): Always created at startup so the generator runs
+ */
+@Component
+@Profile("generate")
+@Lazy(false)
+public class DatasetGenerator implements ApplicationRunner {
+
+    /**
+     * Medicine names, most common first
+     */
+    static final String[] NAMES = {
+            "Paracetamol 500mg", "Ibuprofen 200mg", "Vitamin D3 1000IU", "Amoxicillin 500mg", "Cetirizine 10mg",
+            "Omeprazole 20mg", "Aspirin 75mg", "Vitamin C 500mg", "Metformin 500mg", "Atorvastatin 20mg",
+            "Multivitamin", "Amlodipine 5mg", "Lisinopril 10mg", "Salbutamol Inhaler", "Loratadine 10mg",
+            "Levothyroxine 50mcg", "Cough Syrup", "Folic Acid 400mcg", "Iron Supplement", "Antacid Tablets",
+            "Diclofenac 50mg", "Pain Relief Gel", "Hydrocortisone Cream 1%", "Saline Nasal Spray", "Eye Drops",
+            "Naproxen 250mg", "Azithromycin 250mg", "Ciprofloxacin 500mg", "Doxycycline 100mg", "Prednisolone 5mg",
+            "Simvastatin 40mg", "Losartan 50mg", "Bisoprolol 5mg", "Sertraline 50mg", "Citalopram 20mg",
+            "Gabapentin 300mg", "Tramadol 50mg", "Codeine 30mg", "Lansoprazole 30mg", "Montelukast 10mg",
+            "Fexofenadine 120mg", "Insulin Glargine", "Warfarin 5mg", "Clopidogrel 75mg", "Metoprolol 50mg",
+            "Furosemide 40mg", "Zinc Supplement", "Calcium + D3", "Oral Rehydration Salts", "Melatonin 3mg"
+    };
+
+    private static final String INSERT_PREFIX = "INSERT INTO medicines (name, quantity, expiry_date, added_date, user_id) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?)";
+
+    private static final int EXPIRED_DAYS = 365;
+    private static final int EXPIRING_SOON_DAYS = 30;
+    private static final int LATEST_EXPIRY_DAYS = 3 * 365;
+    private static final int LOW_STOCK_THRESHOLD = 5;
+    private static final long ADDED_WITHIN_SECONDS = 2L * 365 * 24 * 3600;
+    private static final long PROGRESS_ROWS = 1_000_000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${medimate.generator.users:100000}")
+    private int users;
+
+    @Value("${medimate.generator.medicines:1000000}")
+    private long medicines;
+
+    @Value("${medimate.generator.first-user-id:1000}")
+    private long firstUserId;
+
+    /**
+     * Exponent of the Zipf distribution of medicines per user (0 gives every user the same number)
+     */
+    @Value("${medimate.generator.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${medimate.generator.name-zipf-exponent:1.0}")
+    private double nameZipfExponent;
+
+    @Value("${medimate.generator.expired-share:0.10}")
+    private double expiredShare;
+
+    @Value("${medimate.generator.expiring-soon-share:0.15}")
+    private double expiringSoonShare;
+
+    @Value("${medimate.generator.low-stock-share:0.20}")
+    private double lowStockShare;
+
+    @Value("${medimate.generator.rows-per-insert:1000}")
+    private int rowsPerInsert;
+
+    @Value("${medimate.generator.statements-per-commit:10}")
+    private int statementsPerCommit;
+
+    @Value("${medimate.generator.threads:8}")
+    private int threads;
+
+    @Value("${medimate.generator.seed:42}")
+    private long seed;
+
+    /**
+     * Stop the application when the dataset is loaded
+     */
+    @Value("${medimate.generator.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    private final AtomicLong inserted = new AtomicLong();
+
+    /**
+     * Generate the dataset
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (users <= 0 || medicines < 0 || rowsPerInsert <= 0 || statementsPerCommit <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("medimate.generator users, rows-per-insert, statements-per-commit " +
+                    "and threads must be positive and medicines must not be negative");
+        }
+        System.out.println("=== GENERATING DATASET: " + medicines + " medicines for " + users + " users (IDs " +
+                firstUserId + " to " + (firstUserId + users - 1) + ") ===");
+
+        int[] sizes = userSizes(users, medicines, zipfExponent);
+        double[] nameCdf = zipfCdf(NAMES.length, nameZipfExponent);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int first = thread;
+                futures.add(executor.submit(() -> load(first, sizes, nameCdf, today, now)));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        int[] sorted = sizes.clone();
+        Arrays.sort(sorted);
+        System.out.println("Generated " + inserted.get() + " medicines in " + elapsedMs + " ms (" +
+                inserted.get() * 1000 / elapsedMs + " rows/s); medicines per user: largest " +
+                sorted[sorted.length - 1] + ", median " + sorted[sorted.length / 2]);
+        System.out.println("=== END OF DATASET GENERATION ===");
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Number of medicines of each user: the user of rank r (0-based) gets a share proportional
+     * to 1 / (r + 1)^exponent, rounded so the sizes add up to exactly the total
+     * @param users number of users
+     * @param total number of medicines
+     * @param exponent Zipf exponent
+     * @return medicines per user, largest first
+     */
+    static int[] userSizes(int users, long total, double exponent) {
+        double[] cdf = zipfCdf(users, exponent);
+        int[] sizes = new int[users];
+        long previous = 0;
+        for (int rank = 0; rank < users; rank++) {
+            long upTo = rank == users - 1 ? total : Math.round(total * cdf[rank]);
+            sizes[rank] = (int) (upTo - previous);
+            previous = upTo;
+        }
+        return sizes;
+    }
+
+    /**
+     * Cumulative Zipf distribution: entry k is the probability of picking one of the first k + 1 items
+     */
+    static double[] zipfCdf(int items, double exponent) {
+        double[] cdf = new double[items];
+        double sum = 0;
+        for (int k = 0; k < items; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < items; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    /**
+     * Insert the medicines of every threads-th user, starting with the user of rank firstRank
+     * @return number of rows inserted
+     */
+    private long load(int firstRank, int[] sizes, double[] nameCdf, LocalDate today, LocalDateTime now) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + firstRank);
+
+        // Expiry dates are reused from a table instead of being created for every row
+        LocalDate[] days = new LocalDate[EXPIRED_DAYS + LATEST_EXPIRY_DAYS + 1];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = today.plusDays(i - EXPIRED_DAYS);
+        }
+
+        String[] names = new String[rowsPerInsert];
+        int[] quantities = new int[rowsPerInsert];
+        LocalDate[] expiryDates = new LocalDate[rowsPerInsert];
+        LocalDateTime[] addedDates = new LocalDateTime[rowsPerInsert];
+        long[] userIds = new long[rowsPerInsert];
+
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement full = connection.prepareStatement(insertSql(rowsPerInsert))) {
+                int buffered = 0;
+                int statements = 0;
+                for (int rank = firstRank; rank < sizes.length; rank += threads) {
+                    for (int i = 0; i < sizes[rank]; i++) {
+                        names[buffered] = NAMES[pick(nameCdf, random.nextDouble())];
+                        quantities[buffered] = quantity(random);
+                        expiryDates[buffered] = days[EXPIRED_DAYS + expiryOffset(random)];
+                        addedDates[buffered] = now.minusSeconds(random.nextLong(ADDED_WITHIN_SECONDS));
+                        userIds[buffered] = firstUserId + rank;
+                        buffered++;
+                        if (buffered == rowsPerInsert) {
+                            rows += flush(full, buffered, names, quantities, expiryDates, addedDates, userIds);
+                            buffered = 0;
+                            if (++statements % statementsPerCommit == 0) {
+                                connection.commit();
+                            }
+                        }
+                    }
+                }
+                if (buffered > 0) {
+                    try (PreparedStatement last = connection.prepareStatement(insertSql(buffered))) {
+                        rows += flush(last, buffered, names, quantities, expiryDates, addedDates, userIds);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return rows;
+    }
+
+    private int flush(PreparedStatement statement, int count, String[] names, int[] quantities,
+                      LocalDate[] expiryDates, LocalDateTime[] addedDates, long[] userIds) throws SQLException {
+        int parameter = 1;
+        for (int row = 0; row < count; row++) {
+            statement.setString(parameter++, names[row]);
+            statement.setInt(parameter++, quantities[row]);
+            statement.setObject(parameter++, expiryDates[row]);
+            statement.setObject(parameter++, addedDates[row]);
+            statement.setLong(parameter++, userIds[row]);
+        }
+        statement.executeUpdate();
+
+        long total = inserted.addAndGet(count);
+        if (total / PROGRESS_ROWS != (total - count) / PROGRESS_ROWS) {
+            System.out.println("Generated " + total + " of " + medicines + " medicines");
+        }
+        return count;
+    }
+
+    /**
+     * Days from today until the medicine expires (negative when it has expired)
+     */
+    private int expiryOffset(SplittableRandom random) {
+        double kind = random.nextDouble();
+        if (kind < expiredShare) {
+            return -1 - random.nextInt(EXPIRED_DAYS);
+        }
+        if (kind < expiredShare + expiringSoonShare) {
+            return random.nextInt(EXPIRING_SOON_DAYS + 1);
+        }
+        return EXPIRING_SOON_DAYS + 1 + random.nextInt(LATEST_EXPIRY_DAYS - EXPIRING_SOON_DAYS);
+    }
+
+    /**
+     * Quantity in stock: below the low-stock threshold for low-stock-share of the medicines,
+     * otherwise exponentially distributed above it (mean 30 extra, at most 500 in total)
+     */
+    private int quantity(SplittableRandom random) {
+        if (random.nextDouble() < lowStockShare) {
+            return random.nextInt(LOW_STOCK_THRESHOLD);
+        }
+        return LOW_STOCK_THRESHOLD + (int) Math.min(500 - LOW_STOCK_THRESHOLD, -Math.log(1 - random.nextDouble()) * 30);
+    }
+
+    /**
+     * Index of the first entry of the cumulative distribution that is at least u
+     */
+    private static int pick(double[] cdf, double u) {
+        int index = Arrays.binarySearch(cdf, u);
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (INSERT_ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append(INSERT_ROW);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.medimate.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job Status DTO
+ * Returned by GET /api/jobs: the limits of a scheduled job and how its last run went
+ */
+public class JobStatus {
+
+    /**
+     * Outcome of a run
+     */
+    public enum Outcome {
+        COMPLETED,
+        FAILED,
+        /**
+         * Went over its maximum runtime and stopped at the next safe point
+         */
+        TIMED_OUT
+    }
+
+    private final String name;
+    private final int maxConcurrency;
+    private final long maxRuntimeMs;
+
+    /**
+     * Number of runs in progress right now
+     */
+    private final int running;
+
+    private final LocalDateTime lastStartedAt;
+    private final Long lastDurationMs;
+    private final Outcome lastOutcome;
+    private final String lastError;
+
+    /**
+     * Runs started, and triggers skipped because the job was already running, since startup
+     */
+    private final long runs;
+    private final long skipped;
+
+    public JobStatus(String name, int maxConcurrency, long maxRuntimeMs, int running, LocalDateTime lastStartedAt,
+                     Long lastDurationMs, Outcome lastOutcome, String lastError, long runs, long skipped) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxRuntimeMs = maxRuntimeMs;
+        this.running = running;
+        this.lastStartedAt = lastStartedAt;
+        this.lastDurationMs = lastDurationMs;
+        this.lastOutcome = lastOutcome;
+        this.lastError = lastError;
+        this.runs = runs;
+        this.skipped = skipped;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public long getMaxRuntimeMs() {
+        return maxRuntimeMs;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public Long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public Outcome getLastOutcome() {
+        return lastOutcome;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+}
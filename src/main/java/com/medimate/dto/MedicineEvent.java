@@ -0,0 +1,126 @@
+package com.medimate.dto;
+
+import com.medimate.entity.Medicine;
+
+import java.time.LocalDateTime;
+
+/**
+ * Medicine Event DTO
+ * An inventory change or expiry alert pushed to clients over GET /api/medicines/events
+ */
+public class MedicineEvent {
+    
+    /**
+     * The kind of change
+     */
+    public enum Type {
+        ADDED,
+        UPDATED,
+        DELETED,
+        EXPIRED,
+        /**
+         * The stock is projected to run out before the medicine expires
+         */
+        RUNNING_OUT
+    }
+    
+    private Type type;
+    
+    /**
+     * User who owns the medicine (events are only sent to this user's subscribers)
+     */
+    private Long userId;
+    
+    private Long medicineId;
+    
+    /**
+     * The medicine after the change (null for DELETED and RUNNING_OUT)
+     */
+    private Medicine medicine;
+    
+    private LocalDateTime timestamp;
+    
+    /**
+     * Default constructor
+     */
+    public MedicineEvent() {
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    /**
+     * Constructor with all fields
+     * @param type the kind of change
+     * @param userId the owner of the medicine
+     * @param medicineId the medicine ID
+     * @param medicine the medicine after the change (may be null)
+     */
+    public MedicineEvent(Type type, Long userId, Long medicineId, Medicine medicine) {
+        this.type = type;
+        this.userId = userId;
+        this.medicineId = medicineId;
+        this.medicine = medicine;
+        this.timestamp = LocalDateTime.now();
+    }
+    
+    /**
+     * Create an event for a medicine that was added, updated or expired
+     * @param type the kind of change
+     * @param medicine the medicine
+     * @return the event
+     */
+    public static MedicineEvent of(Type type, Medicine medicine) {
+        return new MedicineEvent(type, medicine.getUserId(), medicine.getId(), medicine);
+    }
+    
+    // Getter and Setter methods
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public Medicine getMedicine() {
+        return medicine;
+    }
+    
+    public void setMedicine(Medicine medicine) {
+        this.medicine = medicine;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    @Override
+    public String toString() {
+        return "MedicineEvent{" +
+                "type=" + type +
+                ", userId=" + userId +
+                ", medicineId=" + medicineId +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.medimate.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Medicine Query Request DTO
+ * Request body for POST /api/medicines/query
+ * 
+ * Lets a caregiver or clinic dashboard fetch several views for many users
+ * in a single HTTP call instead of one call per user per view
+ */
+public class MedicineQueryRequest {
+    
+    /**
+     * The users to fetch medicines for
+     */
+    @NotEmpty(message = "At least one user ID is required")
+    private List<Long> userIds;
+    
+    /**
+     * The views wanted for every user (e.g. "expired", "expiring-soon", "low-stock")
+     */
+    @NotEmpty(message = "At least one view is required")
+    private List<MedicineView> views;
+    
+    /**
+     * Low stock threshold (optional, default: 5)
+     */
+    private Integer threshold;
+    
+    /**
+     * Default constructor
+     */
+    public MedicineQueryRequest() {
+    }
+    
+    /**
+     * Constructor with all fields
+     * @param userIds the users to query
+     * @param views the views wanted
+     * @param threshold the low stock threshold
+     */
+    public MedicineQueryRequest(List<Long> userIds, List<MedicineView> views, Integer threshold) {
+        this.userIds = userIds;
+        this.views = views;
+        this.threshold = threshold;
+    }
+    
+    // Getter and Setter methods
+    
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public List<MedicineView> getViews() {
+        return views;
+    }
+    
+    public void setViews(List<MedicineView> views) {
+        this.views = views;
+    }
+    
+    public Integer getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+    
+    @Override
+    public String toString() {
+        return "MedicineQueryRequest{" +
+                "userIds=" + userIds +
+                ", views=" + views +
+                ", threshold=" + threshold +
+                '}';
+    }
+}
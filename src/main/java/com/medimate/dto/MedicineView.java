@@ -0,0 +1,48 @@
+package com.medimate.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Medicine View Enum
+ * The named views a client can ask for in a batch query
+ * 
+ * Each value matches the path of the single-user endpoint it replaces,
+ * so "expired" in a batch request means the same as GET /api/medicines/expired
+ */
+public enum MedicineView {
+    
+    EXPIRED("expired"),
+    EXPIRING_SOON("expiring-soon"),
+    LOW_STOCK("low-stock");
+    
+    /**
+     * The name used for this view in JSON requests and responses
+     */
+    private final String value;
+    
+    MedicineView(String value) {
+        this.value = value;
+    }
+    
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+    
+    /**
+     * Resolve a view from its JSON name
+     * @param value the view name (e.g. "expiring-soon")
+     * @return the matching view
+     * @throws IllegalArgumentException if the name is not a known view
+     */
+    @JsonCreator
+    public static MedicineView fromValue(String value) {
+        for (MedicineView view : values()) {
+            if (view.value.equalsIgnoreCase(value)) {
+                return view;
+            }
+        }
+        throw new IllegalArgumentException("Unknown medicine view: " + value);
+    }
+}
@@ -0,0 +1,76 @@
+package com.medimate.dto;
+
+/**
+ * Query Statistic DTO
+ * Aggregated timings and row counts for one repository method
+ * Returned by GET /api/admin/queries
+ */
+public class QueryStatistic {
+
+    /**
+     * Repository and method, e.g. MedicineRepository.findByUserId
+     */
+    private final String method;
+
+    private final long count;
+    private final double totalMs;
+    private final double avgMs;
+
+    /**
+     * 99th percentile over the last few minutes
+     */
+    private final double p99Ms;
+
+    private final double maxMs;
+
+    /**
+     * Rows returned (or changed) by all calls
+     */
+    private final long rows;
+
+    public QueryStatistic(String method, long count, double totalMs, double avgMs, double p99Ms, double maxMs,
+                          long rows) {
+        this.method = method;
+        this.count = count;
+        this.totalMs = totalMs;
+        this.avgMs = avgMs;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+        this.rows = rows;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    public double getAvgMs() {
+        return avgMs;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Average rows per call
+     */
+    public double getAvgRows() {
+        return count == 0 ? 0 : (double) rows / count;
+    }
+}
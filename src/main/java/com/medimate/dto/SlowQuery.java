@@ -0,0 +1,66 @@
+package com.medimate.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slow Query DTO
+ * One statement that took longer than the slow-query threshold
+ * Only the types of the bound parameters are kept, never their values
+ */
+public class SlowQuery {
+
+    private final LocalDateTime recordedAt;
+
+    /**
+     * Repository method that ran the statement (e.g. MedicineRepository.findByUserId), or null
+     */
+    private final String repositoryMethod;
+
+    private final String sql;
+
+    /**
+     * Types of the bound parameters, e.g. "(Long, LocalDate)"
+     */
+    private final String parameters;
+
+    private final double durationMs;
+
+    /**
+     * Rows changed by an insert, update or delete; null for queries
+     */
+    private final Long updateCount;
+
+    public SlowQuery(LocalDateTime recordedAt, String repositoryMethod, String sql, String parameters,
+                     double durationMs, Long updateCount) {
+        this.recordedAt = recordedAt;
+        this.repositoryMethod = repositoryMethod;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.durationMs = durationMs;
+        this.updateCount = updateCount;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public double getDurationMs() {
+        return durationMs;
+    }
+
+    public Long getUpdateCount() {
+        return updateCount;
+    }
+}
@@ -0,0 +1,118 @@
+package com.medimate.dto;
+
+import com.medimate.entity.Medicine;
+import com.medimate.entity.MedicineConsumption;
+
+import java.time.LocalDate;
+
+/**
+ * Stock Forecast DTO
+ * Returned by GET /api/medicines/forecast: how fast a medicine is used and when it will run out
+ */
+public class StockForecast {
+
+    private Long medicineId;
+    private String name;
+    private Integer quantity;
+
+    /**
+     * Average units used per day (0 if the medicine has not been used yet)
+     */
+    private double dailyRate;
+
+    /**
+     * Projected day the stock runs out (null if there is no usage to project from)
+     */
+    private LocalDate stockOutDate;
+
+    private LocalDate expiryDate;
+
+    /**
+     * True if the stock will run out before the medicine expires (time to restock)
+     */
+    private boolean runsOutBeforeExpiry;
+
+    /**
+     * Default constructor
+     */
+    public StockForecast() {
+    }
+
+    /**
+     * Build the forecast for a medicine
+     * @param medicine the medicine
+     * @param consumption its consumption row, or null if its quantity never changed
+     * @return the forecast
+     */
+    public static StockForecast of(Medicine medicine, MedicineConsumption consumption) {
+        StockForecast forecast = new StockForecast();
+        forecast.medicineId = medicine.getId();
+        forecast.name = medicine.getName();
+        forecast.quantity = medicine.getQuantity();
+        forecast.expiryDate = medicine.getExpiryDate();
+        if (consumption != null) {
+            forecast.dailyRate = consumption.getDailyRate();
+            forecast.stockOutDate = consumption.getStockOutDate();
+            forecast.runsOutBeforeExpiry = consumption.isRunningOutBeforeExpiry();
+        }
+        return forecast;
+    }
+
+    // Getter and Setter methods
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getDailyRate() {
+        return dailyRate;
+    }
+
+    public void setDailyRate(double dailyRate) {
+        this.dailyRate = dailyRate;
+    }
+
+    public LocalDate getStockOutDate() {
+        return stockOutDate;
+    }
+
+    public void setStockOutDate(LocalDate stockOutDate) {
+        this.stockOutDate = stockOutDate;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public boolean isRunsOutBeforeExpiry() {
+        return runsOutBeforeExpiry;
+    }
+
+    public void setRunsOutBeforeExpiry(boolean runsOutBeforeExpiry) {
+        this.runsOutBeforeExpiry = runsOutBeforeExpiry;
+    }
+}
@@ -0,0 +1,124 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Archived Medicine Entity Class
+ * A medicine that expired long ago and was moved out of the medicines table
+ *
+ * Keeping long-expired rows out of medicines keeps that table and its indexes small for the
+ * queries every page load runs. Rows keep their original ID, so an archived medicine can be
+ * told apart from (and never collides with) a current one.
+ */
+@Entity
+@Table(name = "medicines_archive", indexes = {
+    @Index(name = "idx_medicines_archive_user_id", columnList = "user_id")
+})
+public class ArchivedMedicine {
+
+    /**
+     * The ID the medicine had in the medicines table
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+
+    @Column(name = "added_date")
+    private LocalDateTime addedDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * When the row was moved to the archive
+     */
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public ArchivedMedicine() {
+    }
+
+    /**
+     * Turn the archived row back into a (detached) Medicine for API responses
+     * @return a Medicine with the archived values
+     */
+    public Medicine toMedicine() {
+        Medicine medicine = new Medicine(name, quantity, expiryDate, userId);
+        medicine.setId(id);
+        medicine.setAddedDate(addedDate);
+        return medicine;
+    }
+
+    // Getter and Setter methods
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public LocalDateTime getAddedDate() {
+        return addedDate;
+    }
+
+    public void setAddedDate(LocalDateTime addedDate) {
+        this.addedDate = addedDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
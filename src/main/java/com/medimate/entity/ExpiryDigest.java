@@ -0,0 +1,140 @@
+package com.medimate.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Expiry Digest Entity Class
+ * One user's summary of the medicines expiring soon, rebuilt every morning by the
+ * checkMedicinesExpiringSoon job (see ExpiryDigestService)
+ *
+ * The user ID is the primary key, so a digest is read with a single primary-key lookup
+ * instead of scanning the user's medicines. Users with nothing expiring in the window
+ * have no row.
+ */
+@Entity
+@Table(name = "expiry_digests")
+public class ExpiryDigest {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Number of medicines expiring in the window
+     */
+    @Column(name = "medicine_count", nullable = false)
+    private Integer medicineCount;
+
+    /**
+     * Sum of their quantities
+     */
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    /**
+     * Expiry date of the first medicine to expire
+     */
+    @Column(name = "nearest_expiry", nullable = false)
+    private LocalDate nearestExpiry;
+
+    /**
+     * The medicines expiring first (id, name, quantity, expiryDate), as a JSON array
+     */
+    @Column(name = "top_items", nullable = false, length = 4000)
+    private String topItems;
+
+    /**
+     * The expiring window the digest covers
+     */
+    @Column(name = "window_start", nullable = false)
+    private LocalDate windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDate windowEnd;
+
+    /**
+     * When the digest was built
+     */
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public ExpiryDigest() {
+    }
+
+    // Getter and Setter methods
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getMedicineCount() {
+        return medicineCount;
+    }
+
+    public void setMedicineCount(Integer medicineCount) {
+        this.medicineCount = medicineCount;
+    }
+
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(Long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public LocalDate getNearestExpiry() {
+        return nearestExpiry;
+    }
+
+    public void setNearestExpiry(LocalDate nearestExpiry) {
+        this.nearestExpiry = nearestExpiry;
+    }
+
+    /**
+     * @JsonRawValue: The stored JSON array is written into API responses as it is
+     */
+    @JsonRawValue
+    public String getTopItems() {
+        return topItems;
+    }
+
+    public void setTopItems(String topItems) {
+        this.topItems = topItems;
+    }
+
+    public LocalDate getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDate windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDate getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDate windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
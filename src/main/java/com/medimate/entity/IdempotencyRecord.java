@@ -0,0 +1,132 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency Record Entity Class
+ * The stored outcome of a POST/PUT request sent with an Idempotency-Key header
+ *
+ * A row is inserted (status 0) when a request with a new key starts, so a retry arriving at
+ * another instance at the same time sees that the key is taken. When the request finishes the
+ * row is filled in with the response, and retries within the TTL get that response back.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    /**
+     * Status value of a request that is still running
+     */
+    public static final int IN_PROGRESS = 0;
+
+    /**
+     * The Idempotency-Key header value sent by the client
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the method, path and body, to detect a key reused for a different request
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the stored response (IN_PROGRESS while the request runs)
+     */
+    @Column(name = "status", nullable = false)
+    private Integer status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "response_body", length = 1_000_000)
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * After this time the row is ignored and deleted by the cleanup task
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public IdempotencyRecord() {
+    }
+
+    /**
+     * Check whether the request has finished and its response is stored
+     * @return true if the response can be replayed
+     */
+    @Transient
+    public boolean isCompleted() {
+        return status != null && status != IN_PROGRESS;
+    }
+
+    // Getter and Setter methods
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(byte[] responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,281 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Job Execution Entity Class
+ * Records one run of a scheduled job (or one partition of it) and its progress
+ * 
+ * A checkpoint is saved after every chunk: the last processed key, the running counts
+ * and the time spent. If the process stops halfway, the next attempt for the same
+ * run continues after the last processed key instead of starting from scratch.
+ */
+@Entity
+@Table(name = "job_executions", indexes = {
+    @Index(name = "idx_job_executions_run", columnList = "job_name, run_key, partition_no"),
+    @Index(name = "idx_job_executions_started", columnList = "started_at")
+})
+public class JobExecution {
+    
+    /**
+     * Execution status values
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    /**
+     * Name of the scheduled job (e.g. "checkExpiredMedicines")
+     */
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+    
+    /**
+     * Identifies the run (e.g. the date for a daily job)
+     */
+    @Column(name = "run_key", nullable = false, length = 100)
+    private String runKey;
+    
+    /**
+     * Partition of the user space processed by this execution
+     */
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+    
+    /**
+     * Instance that last worked on this execution
+     */
+    @Column(name = "instance_id", length = 200)
+    private String instanceId;
+    
+    /**
+     * Key of the last item processed; the next chunk starts after it
+     */
+    @Column(name = "last_processed_key")
+    private Long lastProcessedKey;
+    
+    @Column(name = "items_processed", nullable = false)
+    private Long itemsProcessed = 0L;
+    
+    @Column(name = "chunks_processed", nullable = false)
+    private Long chunksProcessed = 0L;
+    
+    /**
+     * Time spent processing chunks, summed over all attempts
+     */
+    @Column(name = "processing_ms", nullable = false)
+    private Long processingMs = 0L;
+    
+    /**
+     * Number of times this execution was resumed after an interruption
+     */
+    @Column(name = "resume_count", nullable = false)
+    private Integer resumeCount = 0;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "last_checkpoint_at")
+    private LocalDateTime lastCheckpointAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+    
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public JobExecution() {
+    }
+    
+    /**
+     * Constructor for a new execution
+     * @param jobName the job name
+     * @param runKey the run key
+     * @param partitionNo the partition number
+     * @param instanceId the instance starting the execution
+     */
+    public JobExecution(String jobName, String runKey, Integer partitionNo, String instanceId) {
+        this.jobName = jobName;
+        this.runKey = runKey;
+        this.partitionNo = partitionNo;
+        this.instanceId = instanceId;
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Wall-clock duration from start to finish (or to the last checkpoint while running)
+     * @return duration in milliseconds
+     */
+    public long getDurationMs() {
+        LocalDateTime end = finishedAt != null ? finishedAt : lastCheckpointAt;
+        if (startedAt == null || end == null) {
+            return 0;
+        }
+        return Duration.between(startedAt, end).toMillis();
+    }
+    
+    /**
+     * Items processed per second of processing time
+     * @return throughput (0 if nothing was processed yet)
+     */
+    public double getThroughputPerSecond() {
+        if (processingMs == null || processingMs == 0) {
+            return 0;
+        }
+        return itemsProcessed * 1000.0 / processingMs;
+    }
+    
+    // Getter and Setter methods
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public String getRunKey() {
+        return runKey;
+    }
+    
+    public void setRunKey(String runKey) {
+        this.runKey = runKey;
+    }
+    
+    public Integer getPartitionNo() {
+        return partitionNo;
+    }
+    
+    public void setPartitionNo(Integer partitionNo) {
+        this.partitionNo = partitionNo;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+    
+    public Long getLastProcessedKey() {
+        return lastProcessedKey;
+    }
+    
+    public void setLastProcessedKey(Long lastProcessedKey) {
+        this.lastProcessedKey = lastProcessedKey;
+    }
+    
+    public Long getItemsProcessed() {
+        return itemsProcessed;
+    }
+    
+    public void setItemsProcessed(Long itemsProcessed) {
+        this.itemsProcessed = itemsProcessed;
+    }
+    
+    public Long getChunksProcessed() {
+        return chunksProcessed;
+    }
+    
+    public void setChunksProcessed(Long chunksProcessed) {
+        this.chunksProcessed = chunksProcessed;
+    }
+    
+    public Long getProcessingMs() {
+        return processingMs;
+    }
+    
+    public void setProcessingMs(Long processingMs) {
+        this.processingMs = processingMs;
+    }
+    
+    public Integer getResumeCount() {
+        return resumeCount;
+    }
+    
+    public void setResumeCount(Integer resumeCount) {
+        this.resumeCount = resumeCount;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+    
+    public void setLastCheckpointAt(LocalDateTime lastCheckpointAt) {
+        this.lastCheckpointAt = lastCheckpointAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    @Override
+    public String toString() {
+        return "JobExecution{" +
+                "id=" + id +
+                ", jobName='" + jobName + '\'' +
+                ", runKey='" + runKey + '\'' +
+                ", partitionNo=" + partitionNo +
+                ", status=" + status +
+                ", lastProcessedKey=" + lastProcessedKey +
+                ", itemsProcessed=" + itemsProcessed +
+                ", chunksProcessed=" + chunksProcessed +
+                '}';
+    }
+}
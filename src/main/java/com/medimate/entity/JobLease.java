@@ -0,0 +1,158 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Job Lease Entity Class
+ * One row per scheduled job and partition of the user space
+ * 
+ * When several MediMate instances run the same scheduled job, each instance claims
+ * partitions by taking their lease. A lease that is not renewed in time expires, and
+ * another instance can take over that partition.
+ * 
+ * @IdClass: The primary key is made of two columns (job name and partition number)
+ */
+@Entity
+@Table(name = "job_leases")
+@IdClass(JobLease.Key.class)
+public class JobLease {
+    
+    /**
+     * Name of the scheduled job (e.g. "checkExpiredMedicines")
+     */
+    @Id
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+    
+    /**
+     * Partition number; a user belongs to partition MOD(user_id, partition count)
+     */
+    @Id
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+    
+    /**
+     * Instance currently holding the lease (null when free)
+     */
+    @Column(name = "owner", length = 200)
+    private String owner;
+    
+    /**
+     * Time at which the lease expires unless renewed
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+    
+    /**
+     * Key of the last run that finished this partition (e.g. "2025-07-18")
+     */
+    @Column(name = "last_completed_run", length = 100)
+    private String lastCompletedRun;
+    
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public JobLease() {
+    }
+    
+    /**
+     * Constructor for a new, free partition
+     * @param jobName the job name
+     * @param partitionNo the partition number
+     */
+    public JobLease(String jobName, Integer partitionNo) {
+        this.jobName = jobName;
+        this.partitionNo = partitionNo;
+    }
+    
+    // Getter and Setter methods
+    
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public Integer getPartitionNo() {
+        return partitionNo;
+    }
+    
+    public void setPartitionNo(Integer partitionNo) {
+        this.partitionNo = partitionNo;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+    
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+    
+    public String getLastCompletedRun() {
+        return lastCompletedRun;
+    }
+    
+    public void setLastCompletedRun(String lastCompletedRun) {
+        this.lastCompletedRun = lastCompletedRun;
+    }
+    
+    @Override
+    public String toString() {
+        return "JobLease{" +
+                "jobName='" + jobName + '\'' +
+                ", partitionNo=" + partitionNo +
+                ", owner='" + owner + '\'' +
+                ", leaseUntil=" + leaseUntil +
+                ", lastCompletedRun='" + lastCompletedRun + '\'' +
+                '}';
+    }
+    
+    /**
+     * Composite primary key (job name + partition number)
+     */
+    public static class Key implements Serializable {
+        
+        private String jobName;
+        private Integer partitionNo;
+        
+        public Key() {
+        }
+        
+        public Key(String jobName, Integer partitionNo) {
+            this.jobName = jobName;
+            this.partitionNo = partitionNo;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(jobName, key.jobName) && Objects.equals(partitionNo, key.partitionNo);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(jobName, partitionNo);
+        }
+    }
+}
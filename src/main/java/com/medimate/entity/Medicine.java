@@ -58,7 +58,7 @@ public class Medicine {
     
     /**
      * Date when the medicine was added to the system
-     * This field is automatically set when the record is created
+     * This field is automatically set when the record is first saved (see onCreate)
      */
     @Column(name = "added_date", nullable = false)
     private LocalDateTime addedDate;
@@ -71,13 +71,22 @@ public class Medicine {
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
+    /**
+     * When the medicine was last updated (null if it was never changed after being added)
+     * This field is set automatically on every update (see onUpdate). It lets a warm start from an
+     * inventory snapshot file find the users whose medicines changed after the file was written.
+     * It is not part of the API, so it has no getter.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     /**
      * Default constructor
      * Required by JPA
+     * Does nothing on purpose: Hibernate and the JDBC row mappers call it for every row they
+     * read, and then set addedDate from the database anyway
      */
     public Medicine() {
-        // Set the added date to current date/time when creating a new medicine
-        this.addedDate = LocalDateTime.now();
     }
     
     /**
@@ -95,6 +104,26 @@ public class Medicine {
         this.addedDate = LocalDateTime.now();
     }
     
+    /**
+     * Set the added date to the current date/time if it was not set before the first save
+     * @PrePersist: Called by JPA just before the entity is inserted
+     */
+    @PrePersist
+    void onCreate() {
+        if (addedDate == null) {
+            addedDate = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * Record the time of every update, including a rename on its own
+     * @PreUpdate: Called by JPA just before the entity is updated
+     */
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
     // Getter and Setter methods
     // These methods allow access to private fields from other classes
     
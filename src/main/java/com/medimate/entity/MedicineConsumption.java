@@ -0,0 +1,189 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Medicine Consumption Entity Class
+ * Running consumption rate and stock-out forecast for one medicine
+ *
+ * The rate is an exponentially weighted average of units used per day. It is updated
+ * from each new quantity change alone (the previous rate, the time since the last use and
+ * the amount used), so the history table never has to be read again. The projected
+ * stock-out date is stored with it, which makes a forecast a single row lookup.
+ */
+@Entity
+@Table(name = "medicine_consumption", indexes = {
+    @Index(name = "idx_medicine_consumption_user", columnList = "user_id"),
+    @Index(name = "idx_medicine_consumption_stock_out", columnList = "stock_out_date")
+})
+public class MedicineConsumption {
+
+    /**
+     * Same as the medicine's ID (one row per medicine)
+     */
+    @Id
+    @Column(name = "medicine_id")
+    private Long medicineId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Weighted average of units used per day (0 until the medicine has been used once)
+     */
+    @Column(name = "daily_rate", nullable = false)
+    private Double dailyRate = 0.0;
+
+    /**
+     * Number of changes that used medicine (negative deltas)
+     */
+    @Column(name = "usage_events", nullable = false)
+    private Integer usageEvents = 0;
+
+    /**
+     * Quantity after the last change
+     */
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    /**
+     * Expiry date after the last change, so the scheduler can compare without joining medicines
+     */
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+
+    /**
+     * When medicine was last used; the next use is measured from here
+     */
+    @Column(name = "last_usage_at", nullable = false)
+    private LocalDateTime lastUsageAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Day the stock is projected to run out (null while no usage has been seen)
+     */
+    @Column(name = "stock_out_date")
+    private LocalDate stockOutDate;
+
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public MedicineConsumption() {
+    }
+
+    /**
+     * Constructor for a medicine without any recorded usage yet
+     * @param medicineId the medicine ID
+     * @param userId the owner of the medicine
+     * @param quantity the current quantity
+     * @param expiryDate the current expiry date
+     * @param since when tracking starts (usually when the medicine was added)
+     */
+    public MedicineConsumption(Long medicineId, Long userId, Integer quantity, LocalDate expiryDate, LocalDateTime since) {
+        this.medicineId = medicineId;
+        this.userId = userId;
+        this.quantity = quantity;
+        this.expiryDate = expiryDate;
+        this.lastUsageAt = since;
+        this.updatedAt = since;
+    }
+
+    /**
+     * Check whether the stock is projected to run out before the medicine expires
+     * @return true if the stock-out date is before the expiry date
+     */
+    @Transient
+    public boolean isRunningOutBeforeExpiry() {
+        return stockOutDate != null && stockOutDate.isBefore(expiryDate);
+    }
+
+    // Getter and Setter methods
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Double getDailyRate() {
+        return dailyRate;
+    }
+
+    public void setDailyRate(Double dailyRate) {
+        this.dailyRate = dailyRate;
+    }
+
+    public Integer getUsageEvents() {
+        return usageEvents;
+    }
+
+    public void setUsageEvents(Integer usageEvents) {
+        this.usageEvents = usageEvents;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public LocalDateTime getLastUsageAt() {
+        return lastUsageAt;
+    }
+
+    public void setLastUsageAt(LocalDateTime lastUsageAt) {
+        this.lastUsageAt = lastUsageAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDate getStockOutDate() {
+        return stockOutDate;
+    }
+
+    public void setStockOutDate(LocalDate stockOutDate) {
+        this.stockOutDate = stockOutDate;
+    }
+
+    @Override
+    public String toString() {
+        return "MedicineConsumption{" +
+                "medicineId=" + medicineId +
+                ", dailyRate=" + dailyRate +
+                ", quantity=" + quantity +
+                ", expiryDate=" + expiryDate +
+                ", stockOutDate=" + stockOutDate +
+                '}';
+    }
+}
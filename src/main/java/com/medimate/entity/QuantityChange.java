@@ -0,0 +1,104 @@
+package com.medimate.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Quantity Change Entity Class
+ * One row per change of a medicine's quantity (append-only history)
+ *
+ * Medicine.quantity only holds the current value; this table keeps every change,
+ * so usage can be analysed later. Rows are only ever inserted, never updated or deleted.
+ */
+@Entity
+@Table(name = "medicine_quantity_history", indexes = {
+    @Index(name = "idx_quantity_history_medicine", columnList = "medicine_id, recorded_at")
+})
+public class QuantityChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * New quantity minus old quantity (negative when medicine was used)
+     */
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    /**
+     * Quantity after the change
+     */
+    @Column(name = "quantity_after", nullable = false)
+    private Integer quantityAfter;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    /**
+     * Default constructor
+     * Required by JPA
+     */
+    public QuantityChange() {
+    }
+
+    /**
+     * Constructor with all fields except ID
+     * @param medicineId the medicine that changed
+     * @param userId the owner of the medicine
+     * @param delta new quantity minus old quantity
+     * @param quantityAfter quantity after the change
+     * @param recordedAt when the change happened
+     */
+    public QuantityChange(Long medicineId, Long userId, Integer delta, Integer quantityAfter, LocalDateTime recordedAt) {
+        this.medicineId = medicineId;
+        this.userId = userId;
+        this.delta = delta;
+        this.quantityAfter = quantityAfter;
+        this.recordedAt = recordedAt;
+    }
+
+    // Getter methods (rows are never changed after they are written)
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getMedicineId() {
+        return medicineId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public Integer getQuantityAfter() {
+        return quantityAfter;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantityChange{" +
+                "id=" + id +
+                ", medicineId=" + medicineId +
+                ", delta=" + delta +
+                ", quantityAfter=" + quantityAfter +
+                ", recordedAt=" + recordedAt +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package com.medimate.exception;
+
+/**
+ * Conflict Exception
+ * Thrown when a request cannot be applied because of the current state of the data
+ * (e.g. a database constraint rejects it); GlobalExceptionHandler turns it into 409 Conflict
+ *
+ * Does not capture a stack trace; the cause, if any, keeps its own.
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Constructor
+     * @param message what the request conflicts with
+     */
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+
+    /**
+     * Constructor
+     * @param message what the request conflicts with
+     * @param cause the underlying error
+     */
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
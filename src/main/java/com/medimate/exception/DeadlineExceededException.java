@@ -0,0 +1,20 @@
+package com.medimate.exception;
+
+/**
+ * Deadline Exceeded Exception
+ * Thrown when a request runs out of time before its database work could start (no free
+ * connection in its bulkhead, or the deadline already passed); GlobalExceptionHandler turns it
+ * into 504 Gateway Timeout
+ *
+ * Does not capture a stack trace: under load many requests can hit their deadline at once.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * Constructor
+     * @param message what the request was waiting for
+     */
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
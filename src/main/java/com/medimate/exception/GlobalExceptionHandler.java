@@ -1,8 +1,12 @@
 package com.medimate.exception;
 
 import com.medimate.dto.ApiResponse;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +15,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Global Exception Handler
@@ -18,6 +23,11 @@ import java.util.Map;
  * 
  * @RestControllerAdvice: Combines @ControllerAdvice and @ResponseBody
  * This allows us to handle exceptions globally and return JSON responses
+ *
+ * Services throw the domain exceptions from this package (NotFoundException, ValidationException,
+ * ConflictException) and controllers let them through, so every status code is chosen here.
+ * Not-found and validation errors are expected client mistakes: they are answered without
+ * logging, since they can be a large part of the traffic.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -52,6 +62,102 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Handle request bodies that could not be read (malformed JSON, or a value such as an
+     * unknown medicine view that could not be converted)
+     * @param ex the exception; its most specific cause says what was wrong
+     * @return 400 Bad Request with the cause's message
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<String>> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMostSpecificCause().getMessage()));
+    }
+    
+    /**
+     * Handle records that do not exist
+     * @param ex the not found exception
+     * @return 404 Not Found with an empty body
+     */
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<Void> handleNotFoundException(NotFoundException ex) {
+        return ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Handle business rule violations
+     * @param ex the validation exception
+     * @return 400 Bad Request with the error message
+     */
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ApiResponse<String>> handleValidationException(ValidationException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    /**
+     * Handle requests that conflict with the stored data
+     * @param ex the conflict exception
+     * @return 409 Conflict with the error message
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<String>> handleConflictException(ConflictException ex) {
+        System.err.println("Conflict: " + ex.getMessage() + " at: " + LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    /**
+     * Handle database constraint violations that were not turned into a ConflictException
+     * (e.g. writes saved by the group commit writer)
+     * @param ex the data integrity exception
+     * @return 409 Conflict
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        System.err.println("Data integrity violation: " + ex.getMostSpecificCause().getMessage() + " at: " + LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("Request conflicts with existing data"));
+    }
+    
+    /**
+     * Handle work that was rejected because a queue is full (e.g. the group commit queue)
+     * @param ex the rejected execution exception
+     * @return 503 Service Unavailable with a Retry-After header
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<String>> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    /**
+     * Handle requests that ran out of time: no database connection came free in the request's
+     * bulkhead before its deadline, or a statement was cancelled by its query timeout
+     * @param ex the deadline or query timeout exception
+     * @return 504 Gateway Timeout
+     */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+    public ResponseEntity<ApiResponse<String>> handleDeadlineExceededException(RuntimeException ex) {
+        System.err.println("Deadline exceeded: " + ex.getMessage() + " at: " + LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ApiResponse.error("Request deadline exceeded, please retry"));
+    }
+    
+    /**
+     * Handle transactions that could not start because no database connection could be taken
+     * @param ex the exception; its cause says why
+     * @return 504 Gateway Timeout if the request's deadline ran out, otherwise 503 Service Unavailable
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ApiResponse<String>> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+        if (ex.contains(DeadlineExceededException.class)) {
+            return handleDeadlineExceededException(ex);
+        }
+        System.err.println("Database unavailable: " + ex.getMostSpecificCause().getMessage() + " at: " + LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error("Database unavailable, please retry shortly"));
+    }
+    
     /**
      * Handle illegal argument exceptions
      * @param ex the illegal argument exception
@@ -75,12 +181,6 @@ public class GlobalExceptionHandler {
         System.err.println("Runtime error: " + ex.getMessage() + " at: " + LocalDateTime.now());
         
         ApiResponse<String> response = ApiResponse.error(ex.getMessage());
-        
-        // Check if it's a "not found" error
-        if (ex.getMessage().contains("not found")) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
-        
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
     
@@ -0,0 +1,47 @@
+package com.medimate.exception;
+
+/**
+ * Not Found Exception
+ * Thrown when a requested record does not exist; GlobalExceptionHandler turns it into 404 Not Found
+ *
+ * A missing record is a normal outcome (clients often ask for IDs that were just deleted),
+ * so this exception is cheap to create: it does not capture a stack trace, and the message is
+ * only built if somebody asks for it.
+ */
+public class NotFoundException extends RuntimeException {
+
+    private final String resource;
+    private final Object id;
+
+    /**
+     * Constructor
+     * @param resource what was looked up, e.g. "Medicine"
+     * @param id the ID that was not found
+     */
+    public NotFoundException(String resource, Object id) {
+        super(null, null, false, false);
+        this.resource = resource;
+        this.id = id;
+    }
+
+    /**
+     * Get what was looked up
+     * @return resource name
+     */
+    public String getResource() {
+        return resource;
+    }
+
+    /**
+     * Get the ID that was not found
+     * @return the ID
+     */
+    public Object getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return resource + " with ID " + id + " not found";
+    }
+}
@@ -0,0 +1,30 @@
+package com.medimate.exception;
+
+/**
+ * Validation Exception
+ * Thrown when a request breaks a business rule (e.g. expiry date in the past);
+ * GlobalExceptionHandler turns it into 400 Bad Request
+ *
+ * Extends IllegalArgumentException so existing code that catches invalid arguments keeps working.
+ * Like the other domain exceptions it does not capture a stack trace: the message says everything
+ * the client needs, and filling in the stack is the expensive part of throwing.
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    /**
+     * Constructor
+     * @param message what is wrong with the request
+     */
+    public ValidationException(String message) {
+        super(message);
+    }
+
+    /**
+     * Skip capturing the stack trace
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,229 @@
+package com.medimate.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Idempotency Filter
+ * Handles the Idempotency-Key header on POST and PUT requests to /api/
+ *
+ * The first request with a key runs normally and its response is stored if it is a final
+ * answer (2xx or a client error other than 408/429, without Retry-After). A retry with the
+ * same key and the same request gets the stored response back (with the header
+ * Idempotent-Replayed: true) without reaching the controller, so nothing is validated or
+ * written again. Reusing a key for a different request is rejected with 422, and a retry
+ * that arrives while the first request is still running waits for it (or gets 409 if it
+ * takes longer than medimate.idempotency.wait-timeout-ms).
+ *
+ * Requests without the header are not affected.
+ *
+ * @Component: Spring Boot registers Filter beans for every request automatically
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Longest key accepted (the column is 200 characters)
+     */
+    private static final int MAX_KEY_LENGTH = 200;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Only POST and PUT API requests that carry the header are handled
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !store.isEnabled()
+                || request.getHeader(HEADER) == null
+                || !("POST".equals(method) || "PUT".equals(method))
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // Read the body once so it can be hashed and still be read by the controller
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, request.getInputStream().readAllBytes());
+        byte[] requestHash = hash(request, cachedRequest.body);
+
+        IdempotencyStore.Claim claim;
+        try {
+            claim = store.claim(key, requestHash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Request interrupted");
+            return;
+        }
+
+        switch (claim.getOutcome()) {
+            case REPLAY -> replay(response, claim.getResponse(), requestHash);
+            case IN_PROGRESS -> {
+                response.setHeader("Retry-After", "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            }
+            case EXECUTE -> execute(cachedRequest, response, chain, claim);
+        }
+    }
+
+    /**
+     * Run the request and store its response for retries
+     */
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                         IdempotencyStore.Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, cachedResponse);
+            store.complete(claim, cachedResponse.getStatus(), cachedResponse.getContentType(),
+                    cachedResponse.getContentAsByteArray(), cachedResponse.containsHeader("Retry-After"));
+            stored = true;
+        } finally {
+            if (!stored) {
+                store.abandon(claim);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Send a stored response, unless the key was used for a different request
+     */
+    private void replay(HttpServletResponse response, StoredResponse stored, byte[] requestHash) throws IOException {
+        if (!stored.matches(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    /**
+     * SHA-256 of the method, path, query string and body
+     */
+    private static byte[] hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body has already been read into memory and can be read again
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Asynchronous reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
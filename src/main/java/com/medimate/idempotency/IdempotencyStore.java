@@ -0,0 +1,377 @@
+package com.medimate.idempotency;
+
+import com.medimate.entity.IdempotencyRecord;
+import com.medimate.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency Store
+ * Remembers the response to each POST/PUT sent with an Idempotency-Key, so a retry gets the
+ * same response instead of running the request again
+ *
+ * Finished responses are kept in memory (status, content type and body bytes) and in the
+ * idempotency_keys table, which lets them survive a restart and be seen by other instances.
+ * Both expire after medimate.idempotency.ttl-hours.
+ *
+ * Concurrent requests with the same key are collapsed: on this instance the first one runs and
+ * the others wait on its future; across instances the first one inserts the key's row, and the
+ * others see the row and wait for it to be completed.
+ *
+ * @Lazy(false): Always created at startup so the cleanup task is registered
+ */
+@Component
+@Lazy(false)
+public class IdempotencyStore {
+
+    /**
+     * What the caller should do with a request
+     */
+    public enum Outcome {
+        /**
+         * First request with this key: run it, then call complete (or abandon)
+         */
+        EXECUTE,
+        /**
+         * The key has a stored response: send it back
+         */
+        REPLAY,
+        /**
+         * Another request with this key is still running and did not finish in time
+         */
+        IN_PROGRESS
+    }
+
+    /**
+     * Result of claiming a key
+     */
+    public static final class Claim {
+
+        private final Outcome outcome;
+        private final String key;
+        private final byte[] requestHash;
+        private final StoredResponse response;
+        private final CompletableFuture<StoredResponse> future;
+
+        private Claim(Outcome outcome, String key, byte[] requestHash, StoredResponse response,
+                      CompletableFuture<StoredResponse> future) {
+            this.outcome = outcome;
+            this.key = key;
+            this.requestHash = requestHash;
+            this.response = response;
+            this.future = future;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * The stored response (REPLAY only)
+         */
+        public StoredResponse getResponse() {
+            return response;
+        }
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Turn Idempotency-Key handling on or off
+     */
+    @Value("${medimate.idempotency.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * How long a stored response is replayed
+     */
+    @Value("${medimate.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    /**
+     * Maximum number of responses kept in memory; older ones are still found in the database
+     */
+    @Value("${medimate.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    /**
+     * How long a duplicate waits for the first request with its key to finish
+     */
+    @Value("${medimate.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMillis;
+
+    /**
+     * How long a running request holds its key; after this (e.g. the instance crashed)
+     * the key can be used again
+     */
+    @Value("${medimate.idempotency.in-progress-timeout-ms:60000}")
+    private long inProgressTimeoutMillis;
+
+    /**
+     * Responses with a larger body are not stored (retries run again)
+     */
+    @Value("${medimate.idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    private final ConcurrentHashMap<String, StoredResponse> responses = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Create the transaction template
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Check whether Idempotency-Key headers should be honoured
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claim a key for a request
+     * Blocks while another request with the same key is running (up to wait-timeout-ms)
+     * @param key the Idempotency-Key header value
+     * @param requestHash hash of the request (method, path and body)
+     * @return what to do with the request
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Claim claim(String key, byte[] requestHash) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+
+        while (true) {
+            StoredResponse stored = responses.get(key);
+            if (stored != null) {
+                if (!stored.isExpired(System.currentTimeMillis())) {
+                    return replay(key, requestHash, stored);
+                }
+                responses.remove(key, stored);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                // Another request with this key is running on this instance: wait for its response
+                try {
+                    StoredResponse result = running.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    if (result != null) {
+                        return replay(key, requestHash, result);
+                    }
+                    // It finished without a storable response; try to run the request ourselves
+                    continue;
+                } catch (TimeoutException e) {
+                    return count(new Claim(Outcome.IN_PROGRESS, key, requestHash, null, null));
+                } catch (ExecutionException e) {
+                    continue;
+                }
+            }
+
+            Claim claim;
+            try {
+                claim = claimInDatabase(key, requestHash, mine, deadline);
+            } catch (RuntimeException | InterruptedException e) {
+                inFlight.remove(key, mine);
+                mine.complete(null);
+                throw e;
+            }
+            if (claim.outcome != Outcome.EXECUTE) {
+                // Not running it here: let local waiters see the same result
+                inFlight.remove(key, mine);
+                mine.complete(claim.response);
+            }
+            return count(claim);
+        }
+    }
+
+    /**
+     * Store the response of a request that was claimed with EXECUTE
+     * Only final answers are stored (see isStorable); for anything else, and for large bodies,
+     * the key is released so a retry runs the request again
+     * @param claim the claim returned by claim()
+     * @param status the HTTP status
+     * @param contentType the response content type
+     * @param body the response body
+     * @param retryAfter true if the response carries a Retry-After header
+     */
+    public void complete(Claim claim, int status, String contentType, byte[] body, boolean retryAfter) {
+        if (!isStorable(status, retryAfter) || body.length > maxBodyBytes) {
+            abandon(claim);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        StoredResponse stored = new StoredResponse(status, contentType, body, claim.requestHash, toMillis(expiresAt));
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> repository.findById(claim.key).ifPresent(record -> {
+                record.setStatus(status);
+                record.setContentType(contentType);
+                record.setResponseBody(body);
+                record.setExpiresAt(expiresAt);
+            }));
+            if (responses.size() < maxEntries) {
+                responses.put(claim.key, stored);
+            }
+        } finally {
+            inFlight.remove(claim.key, claim.future);
+            claim.future.complete(stored);
+        }
+    }
+
+    /**
+     * Check whether a response is a final answer that a retry should get back
+     * Success (2xx) and client errors that the same request would get again are stored.
+     * Server errors, 408 Request Timeout, 429 Too Many Requests and any response asking the client
+     * to retry later (Retry-After) are not: the retry must run the request again.
+     * @param status the HTTP status
+     * @param retryAfter true if the response carries a Retry-After header
+     * @return true if the response can be replayed
+     */
+    static boolean isStorable(int status, boolean retryAfter) {
+        if (retryAfter) {
+            return false;
+        }
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    /**
+     * Release a key without storing a response (the request failed)
+     * @param claim the claim returned by claim()
+     */
+    public void abandon(Claim claim) {
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> repository.deleteById(claim.key));
+        } catch (RuntimeException e) {
+            System.err.println("Could not release idempotency key " + claim.key + ": " + e.getMessage());
+        } finally {
+            inFlight.remove(claim.key, claim.future);
+            claim.future.complete(null);
+        }
+    }
+
+    /**
+     * Remove expired responses from memory and from the database
+     * Runs every minute
+     */
+    @Scheduled(fixedDelayString = "${medimate.idempotency.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        responses.values().removeIf(stored -> stored.isExpired(now));
+        try {
+            Integer deleted = transactionTemplate.execute(transaction -> repository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                System.out.println("Removed " + deleted + " expired idempotency keys");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error removing expired idempotency keys: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the in-memory responses (the database copies remain), as after a restart
+     */
+    public void clearMemory() {
+        responses.clear();
+    }
+
+    /**
+     * Number of responses held in memory
+     * @return entry count
+     */
+    public int getMemorySize() {
+        return responses.size();
+    }
+
+    /**
+     * Claim the key in the database, or find the response another instance stored for it
+     */
+    private Claim claimInDatabase(String key, byte[] requestHash, CompletableFuture<StoredResponse> mine,
+                                  long deadline) throws InterruptedException {
+        String hash = HexFormat.of().formatHex(requestHash);
+
+        while (true) {
+            Optional<IdempotencyRecord> existing = repository.findById(key);
+            LocalDateTime now = LocalDateTime.now();
+
+            if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+                IdempotencyRecord record = existing.get();
+                if (record.isCompleted()) {
+                    StoredResponse stored = new StoredResponse(record.getStatus(), record.getContentType(),
+                            record.getResponseBody() != null ? record.getResponseBody() : new byte[0],
+                            HexFormat.of().parseHex(record.getRequestHash()), toMillis(record.getExpiresAt()));
+                    if (responses.size() < maxEntries) {
+                        responses.put(key, stored);
+                    }
+                    return new Claim(Outcome.REPLAY, key, requestHash, stored, null);
+                }
+
+                // Running on another instance: poll until it finishes
+                if (System.nanoTime() >= deadline) {
+                    return new Claim(Outcome.IN_PROGRESS, key, requestHash, null, null);
+                }
+                Thread.sleep(50);
+                continue;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(transaction -> {
+                    repository.deleteIfExpired(key, now);
+                    repository.insertInProgress(key, hash, now, now.plusNanos(inProgressTimeoutMillis * 1_000_000L));
+                });
+                return new Claim(Outcome.EXECUTE, key, requestHash, null, mine);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the key first; read its row on the next pass
+            }
+        }
+    }
+
+    private Claim replay(String key, byte[] requestHash, StoredResponse stored) {
+        return count(new Claim(Outcome.REPLAY, key, requestHash, stored, null));
+    }
+
+    private Claim count(Claim claim) {
+        meterRegistry.counter("medimate.idempotency.requests", "outcome", claim.outcome.name().toLowerCase()).increment();
+        return claim;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,61 @@
+package com.medimate.idempotency;
+
+import java.util.Arrays;
+
+/**
+ * Stored Response
+ * The part of a response that is replayed for a repeated Idempotency-Key: status,
+ * content type and body bytes, plus the hash of the request that produced it
+ *
+ * The body is kept as the serialized bytes rather than as objects, so an entry costs
+ * little more than the JSON the client received.
+ */
+public final class StoredResponse {
+
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+    private final byte[] requestHash;
+    private final long expiresAtMillis;
+
+    public StoredResponse(int status, String contentType, byte[] body, byte[] requestHash, long expiresAtMillis) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.requestHash = requestHash;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * Check whether this response was produced by the same request
+     * @param hash hash of the new request
+     * @return true if the hashes are equal
+     */
+    public boolean matches(byte[] hash) {
+        return Arrays.equals(requestHash, hash);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getRequestHash() {
+        return requestHash;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -0,0 +1,379 @@
+package com.medimate.json;
+
+import com.medimate.dto.ApiResponse;
+import com.medimate.entity.Medicine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Medicine JSON Writer
+ * Writes lists of medicines as JSON straight into an output stream, producing exactly the bytes
+ * Jackson produces for them with Spring Boot's default settings
+ *
+ * Jackson looks up a serializer for every property of every object and formats dates through
+ * DateTimeFormatter. Here the field names are constant byte arrays, numbers are written digit by
+ * digit, and dates are formatted by hand, with the last few expiry dates kept as ready-made bytes
+ * (most lists repeat a small set of dates). Output goes through a per-thread buffer that is reused
+ * between responses, so a response allocates almost nothing besides what the stream itself needs.
+ *
+ * Strings are escaped the same way as Jackson: quote, backslash and control characters, with the
+ * short forms \b \t \n \f \r and uppercase \\u00XX for the rest, and each half of a surrogate pair
+ * (emoji) as \\uXXXX; everything else is written as UTF-8.
+ */
+public final class MedicineJsonWriter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] NAME = ascii(",\"name\":");
+    private static final byte[] QUANTITY = ascii(",\"quantity\":");
+    private static final byte[] EXPIRY_DATE = ascii(",\"expiryDate\":");
+    private static final byte[] ADDED_DATE = ascii(",\"addedDate\":");
+    private static final byte[] USER_ID = ascii(",\"userId\":");
+
+    private static final byte[] SUCCESS = ascii("{\"success\":");
+    private static final byte[] MESSAGE = ascii(",\"message\":");
+    private static final byte[] DATA = ascii(",\"data\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    /**
+     * Escape for each ASCII character: 0 = none, 'u' = \\u00XX, anything else = backslash + that character
+     */
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 32; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+    }
+
+    /**
+     * Number of formatted dates remembered per thread (direct-mapped by epoch day)
+     */
+    private static final int DATE_CACHE_SIZE = 64;
+
+    /**
+     * Characters escaped per step of a long string, so that the worst case fits in the buffer
+     */
+    private static final int MAX_CHARS_PER_SLICE = BUFFER_SIZE / 6 - 1;
+
+    private static final ThreadLocal<MedicineJsonWriter> WRITERS = ThreadLocal.withInitial(MedicineJsonWriter::new);
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final long[] cachedDays = new long[DATE_CACHE_SIZE];
+    private final byte[][] cachedDates = new byte[DATE_CACHE_SIZE][12];
+    private OutputStream out;
+    private int position;
+
+    private MedicineJsonWriter() {
+        Arrays.fill(cachedDays, Long.MIN_VALUE);
+    }
+
+    /**
+     * Write a list of medicines as a JSON array
+     * @param medicines the medicines (elements must not be null)
+     * @param out the stream to write to; it is not closed
+     * @throws IOException if the stream fails
+     */
+    public static void writeList(List<Medicine> medicines, OutputStream out) throws IOException {
+        MedicineJsonWriter writer = WRITERS.get();
+        writer.start(out);
+        try {
+            writer.list(medicines);
+            writer.flush();
+        } finally {
+            writer.out = null;
+        }
+    }
+
+    /**
+     * Write an ApiResponse whose data is a list of medicines
+     * @param response the response
+     * @param medicines the response's data
+     * @param out the stream to write to; it is not closed
+     * @throws IOException if the stream fails
+     */
+    public static void writeResponse(ApiResponse<?> response, List<Medicine> medicines, OutputStream out) throws IOException {
+        MedicineJsonWriter writer = WRITERS.get();
+        writer.start(out);
+        try {
+            writer.raw(SUCCESS);
+            writer.raw(response.isSuccess() ? TRUE : FALSE);
+            writer.raw(MESSAGE);
+            writer.string(response.getMessage());
+            writer.raw(DATA);
+            if (medicines == null) {
+                writer.raw(NULL);
+            } else {
+                writer.list(medicines);
+            }
+            writer.raw(TIMESTAMP);
+            writer.dateTime(response.getTimestamp());
+            writer.ensure(1);
+            writer.buffer[writer.position++] = '}';
+            writer.flush();
+        } finally {
+            writer.out = null;
+        }
+    }
+
+    private void start(OutputStream out) {
+        this.out = out;
+        this.position = 0;
+    }
+
+    private void list(List<Medicine> medicines) throws IOException {
+        ensure(1);
+        buffer[position++] = '[';
+        for (int i = 0, size = medicines.size(); i < size; i++) {
+            if (i > 0) {
+                ensure(1);
+                buffer[position++] = ',';
+            }
+            medicine(medicines.get(i));
+        }
+        ensure(1);
+        buffer[position++] = ']';
+    }
+
+    private void medicine(Medicine medicine) throws IOException {
+        raw(ID);
+        number(medicine.getId());
+        raw(NAME);
+        string(medicine.getName());
+        raw(QUANTITY);
+        Integer quantity = medicine.getQuantity();
+        if (quantity == null) {
+            raw(NULL);
+        } else {
+            number(quantity.longValue());
+        }
+        raw(EXPIRY_DATE);
+        date(medicine.getExpiryDate());
+        raw(ADDED_DATE);
+        dateTime(medicine.getAddedDate());
+        raw(USER_ID);
+        number(medicine.getUserId());
+        ensure(1);
+        buffer[position++] = '}';
+    }
+
+    private void number(Long value) throws IOException {
+        if (value == null) {
+            raw(NULL);
+        } else {
+            number(value.longValue());
+        }
+    }
+
+    private void number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            raw(ascii(Long.toString(value)));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void string(String value) throws IOException {
+        if (value == null) {
+            raw(NULL);
+            return;
+        }
+        ensure(1);
+        buffer[position++] = '"';
+        // A character takes at most 6 bytes (\\u00XX), so reserve room for a whole slice at once
+        int length = value.length();
+        for (int start = 0; start < length; start += MAX_CHARS_PER_SLICE) {
+            int end = Math.min(length, start + MAX_CHARS_PER_SLICE);
+            ensure((end - start) * 6);
+            escape(value, start, end);
+        }
+        ensure(1);
+        buffer[position++] = '"';
+    }
+
+    private void escape(String value, int start, int end) {
+        byte[] buf = buffer;
+        int pos = position;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                byte escape = ESCAPES[c];
+                if (escape == 0) {
+                    buf[pos++] = (byte) c;
+                } else if (escape == 'u') {
+                    buf[pos++] = '\\';
+                    buf[pos++] = 'u';
+                    buf[pos++] = '0';
+                    buf[pos++] = '0';
+                    buf[pos++] = HEX[c >> 4];
+                    buf[pos++] = HEX[c & 0xF];
+                } else {
+                    buf[pos++] = '\\';
+                    buf[pos++] = escape;
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Jackson (before 2.18) escapes each half of a surrogate pair instead of writing 4 UTF-8 bytes
+                buf[pos++] = '\\';
+                buf[pos++] = 'u';
+                buf[pos++] = HEX[c >> 12];
+                buf[pos++] = HEX[(c >> 8) & 0xF];
+                buf[pos++] = HEX[(c >> 4) & 0xF];
+                buf[pos++] = HEX[c & 0xF];
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        position = pos;
+    }
+
+    private void date(LocalDate date) throws IOException {
+        if (date == null) {
+            raw(NULL);
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            raw(ascii('"' + date.toString() + '"'));
+            return;
+        }
+        long day = date.toEpochDay();
+        int slot = (int) (day & (DATE_CACHE_SIZE - 1));
+        byte[] formatted = cachedDates[slot];
+        if (cachedDays[slot] != day) {
+            // Reformat into the slot's own array, so a miss allocates nothing either
+            formatted[0] = '"';
+            writeDate(formatted, 1, year, date.getMonthValue(), date.getDayOfMonth());
+            formatted[11] = '"';
+            cachedDays[slot] = day;
+        }
+        raw(formatted);
+    }
+
+    /**
+     * Same output as DateTimeFormatter.ISO_LOCAL_DATE_TIME (which Jackson uses for LocalDateTime):
+     * seconds are always written, the fraction only when it is not zero and without trailing zeros
+     */
+    private void dateTime(LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            raw(NULL);
+            return;
+        }
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            raw(ascii('"' + DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime) + '"'));
+            return;
+        }
+        ensure(32);
+        byte[] buf = buffer;
+        int pos = position;
+        buf[pos++] = '"';
+        writeDate(buf, pos, year, dateTime.getMonthValue(), dateTime.getDayOfMonth());
+        pos += 10;
+        buf[pos++] = 'T';
+        pos = twoDigits(buf, pos, dateTime.getHour());
+        buf[pos++] = ':';
+        pos = twoDigits(buf, pos, dateTime.getMinute());
+        buf[pos++] = ':';
+        pos = twoDigits(buf, pos, dateTime.getSecond());
+        int nano = dateTime.getNano();
+        if (nano != 0) {
+            buf[pos++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buf[i] = (byte) ('0' + nano % 10);
+                nano /= 10;
+            }
+            pos += digits;
+        }
+        buf[pos++] = '"';
+        position = pos;
+    }
+
+    private static void writeDate(byte[] buf, int pos, int year, int month, int day) {
+        buf[pos] = (byte) ('0' + year / 1000);
+        buf[pos + 1] = (byte) ('0' + year / 100 % 10);
+        buf[pos + 2] = (byte) ('0' + year / 10 % 10);
+        buf[pos + 3] = (byte) ('0' + year % 10);
+        buf[pos + 4] = '-';
+        twoDigits(buf, pos + 5, month);
+        buf[pos + 7] = '-';
+        twoDigits(buf, pos + 8, day);
+    }
+
+    private static int twoDigits(byte[] buf, int pos, int value) {
+        buf[pos] = (byte) ('0' + value / 10);
+        buf[pos + 1] = (byte) ('0' + value % 10);
+        return pos + 2;
+    }
+
+    private void raw(byte[] bytes) throws IOException {
+        if (bytes.length > BUFFER_SIZE) {
+            flush();
+            out.write(bytes);
+            return;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,160 @@
+package com.medimate.json;
+
+import com.medimate.dto.ApiResponse;
+import com.medimate.entity.Medicine;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Medicine List HTTP Message Converter
+ * Writes List<Medicine> and ApiResponse<List<Medicine>> response bodies with MedicineJsonWriter
+ * instead of Jackson
+ *
+ * Controllers return ResponseEntity<?>, so the element type is only known from the value: a list
+ * (or the data of an ApiResponse) whose elements are all exactly Medicine is written here, and
+ * everything else is handed to the Jackson converter this one is placed in front of.
+ *
+ * When created, the converter writes sample medicines both ways and compares the bytes. If the
+ * ObjectMapper has been configured differently (spring.jackson.* properties such as a naming
+ * strategy or non-null inclusion), they will not match and every body goes to Jackson.
+ */
+public class MedicineListHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final MappingJackson2HttpMessageConverter jackson;
+    private final boolean compatible;
+
+    /**
+     * @param jackson the converter used for every other body, and as the reference output
+     */
+    public MedicineListHttpMessageConverter(MappingJackson2HttpMessageConverter jackson) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jackson = jackson;
+        setDefaultCharset(jackson.getDefaultCharset());
+        this.compatible = matchesJackson();
+        if (!compatible) {
+            System.err.println("⚠️  Jackson is configured differently from the defaults; " +
+                    "medicine lists are serialized by Jackson");
+        }
+    }
+
+    /**
+     * Check whether the fast writer is in use
+     * @return true if its output matched Jackson's at startup
+     */
+    public boolean isCompatible() {
+        return compatible;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Only used for writing
+     */
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return compatible && super.canWrite(type, clazz, mediaType) && jackson.canWrite(type, clazz, mediaType);
+    }
+
+    /**
+     * Write the body here if it is a medicine list, otherwise let Jackson write it
+     */
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        List<Medicine> medicines = medicines(body);
+        if (medicines == null) {
+            // The content type header is already set, so Jackson only writes the body
+            jackson.write(body, type, outputMessage.getHeaders().getContentType(), outputMessage);
+        } else if (body instanceof ApiResponse<?> response) {
+            MedicineJsonWriter.writeResponse(response, medicines, outputMessage.getBody());
+        } else {
+            MedicineJsonWriter.writeList(medicines, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("MedicineListHttpMessageConverter only writes", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("MedicineListHttpMessageConverter only writes", inputMessage);
+    }
+
+    /**
+     * The medicines to write, or null if the body is something else
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Medicine> medicines(Object body) {
+        Object list = body instanceof ApiResponse<?> response ? response.getData() : body;
+        if (!(list instanceof List<?> elements)) {
+            return null;
+        }
+        for (Object element : elements) {
+            // Exactly Medicine: subclasses and proxies may have more properties
+            if (element == null || element.getClass() != Medicine.class) {
+                return null;
+            }
+        }
+        return (List<Medicine>) elements;
+    }
+
+    /**
+     * Write sample values with both serializers and compare
+     */
+    private boolean matchesJackson() {
+        Medicine full = new Medicine("Paracetamol \"500\" \\ é ✓ 💊\t\u0001", 12, LocalDate.of(2026, 3, 9), 42L);
+        full.setId(7L);
+        full.setAddedDate(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 120_000_000));
+        Medicine sparse = new Medicine();
+        sparse.setAddedDate(LocalDateTime.of(2025, 11, 30, 23, 59));
+        List<Medicine> sample = List.of(full, sparse);
+
+        ApiResponse<List<Medicine>> response = ApiResponse.success(sample, "Found 2 medicines");
+        ApiResponse<List<Medicine>> empty = ApiResponse.error(null);
+        try {
+            for (Object body : List.of(sample, List.of(), response, empty)) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                jackson.getObjectMapper().writeValue(expected, body);
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                if (body instanceof ApiResponse<?> apiResponse) {
+                    MedicineJsonWriter.writeResponse(apiResponse, medicines(body), actual);
+                } else {
+                    MedicineJsonWriter.writeList(medicines(body), actual);
+                }
+                if (!Arrays.equals(expected.toByteArray(), actual.toByteArray())) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
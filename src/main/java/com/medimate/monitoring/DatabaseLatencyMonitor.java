@@ -0,0 +1,123 @@
+package com.medimate.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Database Latency Monitor
+ * Keeps a smoothed (exponentially weighted) average of how long repository calls take
+ *
+ * The average is updated lock-free on every call, so it is cheap enough to run on
+ * every request. Admission control uses it to decide when to start shedding load.
+ *
+ * The average also fades with time: without new calls it halves every HALF_LIFE. Otherwise a
+ * slow spell followed by shedding (which stops the calls that would bring the average down)
+ * would keep the service shedding for good.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class DatabaseLatencyMonitor {
+
+    /**
+     * Weight given to the newest sample (higher reacts faster, lower is smoother)
+     */
+    private static final double ALPHA = 0.1;
+
+    /**
+     * Time it takes an old average to fade to half its value
+     */
+    private static final long HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Current average and when it was last updated (null before the first call)
+     */
+    private final AtomicReference<Average> average = new AtomicReference<>();
+
+    /**
+     * Constructor
+     * @param meterRegistry registry used to publish the medimate.db.latency.ewma gauge
+     */
+    public DatabaseLatencyMonitor(MeterRegistry meterRegistry) {
+        Gauge.builder("medimate.db.latency.ewma", this, DatabaseLatencyMonitor::getAverageLatencyMillis)
+                .description("Exponentially weighted average repository call latency")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record how long one repository call took
+     * @param nanos the call duration in nanoseconds
+     */
+    public void record(long nanos) {
+        record(nanos, System.nanoTime());
+    }
+
+    /**
+     * Record how long one repository call took
+     * @param nanos the call duration in nanoseconds
+     * @param now current time from System.nanoTime()
+     */
+    void record(long nanos, long now) {
+        while (true) {
+            Average current = average.get();
+            double updated;
+            if (current == null) {
+                updated = nanos;
+            } else {
+                double faded = current.at(now);
+                updated = faded + ALPHA * (nanos - faded);
+            }
+            if (average.compareAndSet(current, new Average(updated, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the smoothed repository call latency
+     * @return average latency in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        return getAverageLatencyMillis(System.nanoTime());
+    }
+
+    /**
+     * Get the smoothed repository call latency
+     * @param now current time from System.nanoTime()
+     * @return average latency in milliseconds
+     */
+    double getAverageLatencyMillis(long now) {
+        Average current = average.get();
+        if (current == null) {
+            return 0.0;
+        }
+        return current.at(now) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * An average in nanoseconds and the System.nanoTime() at which it was computed
+     */
+    private static final class Average {
+
+        private final double nanos;
+        private final long updatedAt;
+
+        private Average(double nanos, long updatedAt) {
+            this.nanos = nanos;
+            this.updatedAt = updatedAt;
+        }
+
+        /**
+         * The average faded by the time that has passed since it was computed
+         */
+        private double at(long now) {
+            long elapsed = Math.max(0, now - updatedAt);
+            return nanos * Math.pow(0.5, (double) elapsed / HALF_LIFE_NANOS);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.medimate.monitoring;
+
+import com.medimate.dto.QueryStatistic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository Statistics
+ * Keeps count, time and rows returned for every repository method that has been called
+ *
+ * Fed by RepositoryTimingAspect. Each method gets a medimate.repository.calls timer (with a
+ * 99th percentile over the last few minutes) and a medimate.repository.rows counter, both tagged
+ * with the repository and method name, so the same numbers are also available as metrics.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class RepositoryStatistics {
+
+    /**
+     * Repository method running on this thread, so slow statements can say where they came from
+     */
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Statistics per repository proxy class and method
+     * Keyed by the class too because inherited methods (findById, save) are shared by all repositories
+     */
+    private final Map<Class<?>, Map<Method, MethodStatistics>> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Timer and row counter of one repository method
+     */
+    static final class MethodStatistics {
+        final String name;
+        final Timer timer;
+        final Counter rows;
+        final boolean modifying;
+
+        MethodStatistics(String name, Timer timer, Counter rows, boolean modifying) {
+            this.name = name;
+            this.timer = timer;
+            this.rows = rows;
+            this.modifying = modifying;
+        }
+    }
+
+    /**
+     * Find (or create) the statistics of a repository method
+     * @param repository the repository proxy the method was called on
+     * @param method the method called
+     */
+    MethodStatistics get(Object repository, Method method) {
+        return statistics.computeIfAbsent(repository.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> create(repository.getClass(), m));
+    }
+
+    /**
+     * Record one finished call
+     * @param method the method's statistics
+     * @param nanos how long the call took
+     * @param result the value it returned, used to count rows
+     */
+    void record(MethodStatistics method, long nanos, Object result) {
+        method.timer.record(nanos, TimeUnit.NANOSECONDS);
+        long rows = rows(result, method.modifying);
+        if (rows > 0) {
+            method.rows.increment(rows);
+        }
+    }
+
+    /**
+     * Mark the repository method running on this thread
+     * @return the method that was running before, to be restored with exit
+     */
+    static String enter(MethodStatistics method) {
+        String previous = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(method.name);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT_METHOD.remove();
+        } else {
+            CURRENT_METHOD.set(previous);
+        }
+    }
+
+    /**
+     * Get the repository method running on this thread
+     * @return e.g. "MedicineRepository.findByUserId", or null outside a repository call
+     */
+    public static String currentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    /**
+     * Get the statistics of every repository method called so far, slowest in total first
+     * @param repository only list this repository, e.g. "MedicineRepository" (optional)
+     * @return one entry per method
+     */
+    public List<QueryStatistic> getStatistics(String repository) {
+        List<QueryStatistic> result = new ArrayList<>();
+        for (Map<Method, MethodStatistics> methods : statistics.values()) {
+            for (MethodStatistics method : methods.values()) {
+                if (repository != null && !method.name.startsWith(repository + ".")) {
+                    continue;
+                }
+                double p99 = 0;
+                for (ValueAtPercentile percentile : method.timer.takeSnapshot().percentileValues()) {
+                    p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+                result.add(new QueryStatistic(method.name, method.timer.count(),
+                        method.timer.totalTime(TimeUnit.MILLISECONDS), method.timer.mean(TimeUnit.MILLISECONDS),
+                        p99, method.timer.max(TimeUnit.MILLISECONDS), (long) method.rows.count()));
+            }
+        }
+        result.sort(Comparator.comparingDouble(QueryStatistic::getTotalMs).reversed());
+        return result;
+    }
+
+    private MethodStatistics create(Class<?> proxyClass, Method method) {
+        String repository = repositoryName(proxyClass);
+        String name = repository + "." + method.getName();
+        Timer timer = Timer.builder("medimate.repository.calls")
+                .description("Time taken by repository method calls")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .publishPercentiles(0.99)
+                .register(meterRegistry);
+        Counter rows = Counter.builder("medimate.repository.rows")
+                .description("Rows returned or changed by repository method calls")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .register(meterRegistry);
+        return new MethodStatistics(name, timer, rows, method.isAnnotationPresent(Modifying.class));
+    }
+
+    /**
+     * Name of the application's repository interface implemented by a repository proxy
+     */
+    private static String repositoryName(Class<?> proxyClass) {
+        for (Class<?> type : proxyClass.getInterfaces()) {
+            if (type.getName().startsWith("com.medimate.repository.")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxyClass.getSimpleName();
+    }
+
+    /**
+     * Rows a repository call returned: the size of a list or page, 0 or 1 for a single result,
+     * and the update count of a modifying query
+     */
+    private static long rows(Object result, boolean modifying) {
+        if (result == null || result instanceof Boolean) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (modifying && result instanceof Number count) {
+            return count.longValue();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.medimate.monitoring;
+
+import com.medimate.bulkhead.DatabaseContext;
+import com.medimate.bulkhead.WorkloadClass;
+import com.medimate.repository.MedicineRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repository Timing Aspect
+ * Measures every call made through the Spring Data repositories
+ *
+ * Every call is added to the per-method statistics, MedicineRepository calls made by API requests
+ * feed the latency monitor used by admission control, and calls made during a sampled request are
+ * added to its Server-Timing "db" time.
+ *
+ * @Aspect: Marks this class as an aspect that wraps other beans' method calls
+ * @Component: Marks this class as a Spring component
+ */
+@Aspect
+@Component
+public class RepositoryTimingAspect {
+
+    @Autowired
+    private DatabaseLatencyMonitor databaseLatencyMonitor;
+
+    @Autowired
+    private RepositoryStatistics repositoryStatistics;
+
+    /**
+     * Time a repository call and feed the result to the statistics, the latency monitor and the
+     * request timing
+     * "this(...)" matches every method called on the repository proxy,
+     * including the ones inherited from JpaRepository such as findById
+     * @param joinPoint the repository call
+     * @return the repository call's result
+     */
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryStatistics.MethodStatistics method = repositoryStatistics.get(joinPoint.getThis(),
+                ((MethodSignature) joinPoint.getSignature()).getMethod());
+        String previousMethod = RepositoryStatistics.enter(method);
+        Object result = null;
+        long start = System.nanoTime();
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            RepositoryStatistics.exit(previousMethod);
+            repositoryStatistics.record(method, nanos, result);
+            if (joinPoint.getThis() instanceof MedicineRepository && isRequestThread()) {
+                databaseLatencyMonitor.record(nanos);
+            }
+            RequestTiming timing = RequestTiming.current();
+            if (timing != null) {
+                timing.addDatabase(nanos);
+            }
+        }
+    }
+
+    /**
+     * Whether the current thread is serving an API request
+     * Scheduled jobs, startup and background writers are left out: their long scans should not
+     * make admission control shed requests
+     */
+    private static boolean isRequestThread() {
+        DatabaseContext context = DatabaseContext.current();
+        return context != null && context.getWorkloadClass() != WorkloadClass.JOB;
+    }
+}
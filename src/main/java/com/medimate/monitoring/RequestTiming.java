@@ -0,0 +1,111 @@
+package com.medimate.monitoring;
+
+/**
+ * Request Timing
+ * Adds up where the time of one sampled API request goes: repository calls, service code and
+ * writing the response body
+ *
+ * RequestTimingFilter starts it on the request thread and the aspects add to it. Requests that
+ * are not sampled have no RequestTiming, so the aspects only pay for one ThreadLocal lookup.
+ * Work handed to other threads (group commit, event broadcasting) is not included.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long databaseNanos;
+    private long databaseInServiceNanos;
+    private int databaseCalls;
+    private long serviceNanos;
+    private int serviceDepth;
+    private long handlerReturnedNanos;
+
+    private RequestTiming() {
+    }
+
+    /**
+     * Start timing the request running on this thread
+     */
+    static RequestTiming start() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stop timing the request running on this thread
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Get the timing of the request running on this thread
+     * @return the timing, or null if this request is not being timed
+     */
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record a repository call
+     */
+    void addDatabase(long nanos) {
+        databaseNanos += nanos;
+        databaseCalls++;
+        if (serviceDepth > 0) {
+            databaseInServiceNanos += nanos;
+        }
+    }
+
+    /**
+     * Called when a service method is entered; only the outermost call is timed
+     */
+    void enterService() {
+        serviceDepth++;
+    }
+
+    /**
+     * Called when a service method returns
+     */
+    void exitService(long nanos) {
+        serviceDepth--;
+        if (serviceDepth == 0) {
+            serviceNanos += nanos;
+        }
+    }
+
+    /**
+     * Called when the controller method returns; the response body is written after this
+     */
+    void handlerReturned() {
+        handlerReturnedNanos = System.nanoTime();
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long getDatabaseNanos() {
+        return databaseNanos;
+    }
+
+    int getDatabaseCalls() {
+        return databaseCalls;
+    }
+
+    /**
+     * Time spent in service code, not counting the repository calls it made
+     */
+    long getServiceNanos() {
+        return serviceNanos - databaseInServiceNanos;
+    }
+
+    /**
+     * When the controller returned, or 0 if no controller method ran
+     */
+    long getHandlerReturnedNanos() {
+        return handlerReturnedNanos;
+    }
+}
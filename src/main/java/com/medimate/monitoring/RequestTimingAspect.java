@@ -0,0 +1,57 @@
+package com.medimate.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Request Timing Aspect
+ * Measures service calls and marks when the controller returns, for sampled requests only
+ *
+ * @Aspect: Marks this class as an aspect that wraps other beans' method calls
+ * @Component: Marks this class as a Spring component
+ */
+@Aspect
+@Component
+public class RequestTimingAspect {
+
+    /**
+     * Time calls to the service classes (MedicineService, ConsumptionService, ...)
+     * Calls from one service to another are counted once, by the outermost call
+     * @param joinPoint the service call
+     * @return the service call's result
+     */
+    @Around("execution(public * com.medimate.service.*Service.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        timing.enterService();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.exitService(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Note when the controller method returns; everything after that until the response is
+     * complete is counted as serialization
+     * @param joinPoint the controller call
+     * @return the controller call's result
+     */
+    @Around("execution(public * com.medimate.controller..*(..))")
+    public Object markHandlerReturn(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTiming timing = RequestTiming.current();
+            if (timing != null) {
+                timing.handlerReturned();
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.medimate.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request Timing Filter
+ * Adds a Server-Timing header to sampled API responses, for example:
+ * <pre>
+ *     Server-Timing: db;dur=4.210;desc="2 calls", service;dur=0.385
+ * </pre>
+ * db is time in repository calls and service is time in service classes not counting their
+ * repository calls. The header is set when the body starts being written (after the
+ * controller has returned), so the response is streamed as usual and nothing is buffered.
+ *
+ * Serialization (from the controller returning until the body is written) and total time are
+ * only known after the headers have been sent, so they are recorded in the
+ * medimate.request.timing metric only, together with db and service, tagged with the phase
+ * and the endpoint's URI pattern.
+ *
+ * medimate.timing.sample-rate sets the fraction of requests that are timed; the others only
+ * pay for one random number. The event stream is never timed because it is never complete.
+ *
+ * @Order: Runs before the other filters so their time is included in the total
+ * @Component: Spring Boot registers Filter beans for every request automatically
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String[] PHASES = {"db", "service", "serialization", "total"};
+
+    @Value("${medimate.timing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${medimate.timing.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Timers for each URI pattern, one per phase in PHASES order
+     */
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Only API requests are timed, and only a sample of them
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled
+                || !uri.startsWith("/api/")
+                || uri.endsWith("/events")
+                || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.start();
+        TimingResponse timingResponse = new TimingResponse(response, timing);
+        try {
+            chain.doFilter(request, timingResponse);
+        } finally {
+            RequestTiming.end();
+            // Responses without a body (204, 304, ...) never asked for a stream
+            timingResponse.setTimingHeader();
+
+            long end = System.nanoTime();
+            long total = end - timing.getStartNanos();
+            long serialization = timing.getHandlerReturnedNanos() == 0 ? 0 : end - timing.getHandlerReturnedNanos();
+            record(request, timing, serialization, total);
+        }
+    }
+
+    /**
+     * Build the Server-Timing header value, durations in milliseconds
+     */
+    private static String header(RequestTiming timing) {
+        StringBuilder header = new StringBuilder(64);
+        appendMetric(header, "db", timing.getDatabaseNanos());
+        header.append(";desc=\"").append(timing.getDatabaseCalls())
+                .append(timing.getDatabaseCalls() == 1 ? " call\"" : " calls\"");
+        header.append(", ");
+        appendMetric(header, "service", timing.getServiceNanos());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+
+    /**
+     * Record the phases in the medimate.request.timing timers
+     */
+    private void record(HttpServletRequest request, RequestTiming timing, long serialization, long total) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Timer[] phases = timers.computeIfAbsent(uri, this::createTimers);
+        phases[0].record(timing.getDatabaseNanos(), TimeUnit.NANOSECONDS);
+        phases[1].record(timing.getServiceNanos(), TimeUnit.NANOSECONDS);
+        if (timing.getHandlerReturnedNanos() != 0) {
+            phases[2].record(serialization, TimeUnit.NANOSECONDS);
+        }
+        phases[3].record(total, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] createTimers(String uri) {
+        Timer[] phases = new Timer[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            phases[i] = Timer.builder("medimate.request.timing")
+                    .description("Time spent in each phase of sampled API requests")
+                    .tag("phase", PHASES[i])
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+        }
+        return phases;
+    }
+
+    /**
+     * Sets the Server-Timing header just before the response starts to be written
+     * The body is passed straight through to the real response.
+     */
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private boolean headerSet;
+
+        private TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        /**
+         * Set the header once, unless the response has already been sent
+         */
+        private void setTimingHeader() {
+            if (!headerSet && !isCommitted()) {
+                setHeader(HEADER, header(timing));
+            }
+            headerSet = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medimate.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Slow Query Configuration
+ * Wraps the application's data source with SlowQueryDataSource when
+ * medimate.slow-query.enabled is true
+ *
+ * @Configuration: Marks this class as a configuration class
+ */
+@Configuration
+public class SlowQueryConfiguration {
+
+    /**
+     * Wrap the data source as soon as it is created
+     * Static so the post-processor is registered before the data source bean exists
+     */
+    @Bean
+    static BeanPostProcessor slowQueryDataSourcePostProcessor(@Value("${medimate.slow-query.enabled:true}") boolean enabled,
+                                                             ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    System.out.println("Slow query log enabled (threshold: " +
+                            slowQueryLog.getObject().getThresholdMs() + " ms)");
+                    return new SlowQueryDataSource(dataSource, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.medimate.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Slow Query Data Source
+ * Wraps the real data source, times every statement and reports the slow ones to SlowQueryLog
+ *
+ * Statements are wrapped with JDK proxies. For bound parameters only the type is noted
+ * (setLong is "Long", setObject with a LocalDate is "LocalDate"), so patient data never ends
+ * up in the log.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource target, SlowQueryLog slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Wraps the statements a connection creates
+     */
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(connection, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                            new Class<?>[] {PreparedStatement.class}, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall":
+                    return Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                            new Class<?>[] {CallableStatement.class}, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement":
+                    return Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(),
+                            new Class<?>[] {Statement.class}, new StatementHandler((Statement) result, null));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Times each execute call and notes the types of the bound parameters
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private String[] parameterTypes = new String[8];
+        private int parameterCount;
+        private int batchSize;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                noteParameter(index, name, args[1]);
+                return call(statement, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameterCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return call(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            Object result = call(statement, method, args);
+            long nanos = System.nanoTime() - start;
+            if (slowQueryLog.isSlow(nanos)) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                slowQueryLog.record(sql != null ? sql : "(batch)", describeParameters(), nanos, updateCount(result));
+            }
+            batchSize = 0;
+            return result;
+        }
+
+        private void noteParameter(int index, String setter, Object value) {
+            if (index > parameterTypes.length) {
+                parameterTypes = Arrays.copyOf(parameterTypes, Math.max(index, parameterTypes.length * 2));
+            }
+            String type;
+            if (setter.equals("setNull") || value == null) {
+                type = "null";
+            } else if (setter.equals("setObject")) {
+                type = value.getClass().getSimpleName();
+            } else {
+                type = setter.substring(3);
+            }
+            parameterTypes[index - 1] = type;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private String describeParameters() {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < parameterCount; i++) {
+                text.append(i == 0 ? "" : ", ").append(parameterTypes[i]);
+            }
+            text.append(')');
+            if (batchSize > 0) {
+                text.append(" x ").append(batchSize).append(" in batch");
+            }
+            return text.toString();
+        }
+
+        private Long updateCount(Object result) {
+            if (result instanceof Integer count) {
+                return count.longValue();
+            }
+            if (result instanceof Long count) {
+                return count;
+            }
+            if (result instanceof int[] counts) {
+                return (long) Arrays.stream(counts).sum();
+            }
+            return null;
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
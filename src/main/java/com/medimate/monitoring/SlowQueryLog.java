@@ -0,0 +1,92 @@
+package com.medimate.monitoring;
+
+import com.medimate.dto.SlowQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Slow Query Log
+ * Keeps the most recent statements that took longer than medimate.slow-query.threshold-ms
+ *
+ * The log is a fixed-size ring buffer: recording a statement is one counter increment and one
+ * array write, and the oldest entries are overwritten when it is full. Nothing is written to
+ * stdout on the request thread; the entries are read through GET /api/admin/queries/slow.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class SlowQueryLog {
+
+    /**
+     * Longest SQL text kept per entry
+     */
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public SlowQueryLog(@Value("${medimate.slow-query.threshold-ms:100}") long thresholdMs,
+                        @Value("${medimate.slow-query.capacity:200}") int capacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.entries = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Check whether a statement is slow enough to be logged
+     * @param nanos how long the statement took
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Add a slow statement, overwriting the oldest entry when the log is full
+     * @param sql the statement
+     * @param parameters types of its bound parameters
+     * @param nanos how long it took
+     * @param updateCount rows changed, or null for a query
+     */
+    public void record(String sql, String parameters, long nanos, Long updateCount) {
+        String text = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+        SlowQuery entry = new SlowQuery(LocalDateTime.now(), RepositoryStatistics.currentMethod(), text,
+                parameters, nanos / 1_000_000.0, updateCount);
+        long sequence = recorded.getAndIncrement();
+        entries.set((int) (sequence % entries.length()), entry);
+    }
+
+    /**
+     * Get the logged statements, newest first
+     * @param limit maximum number of entries to return
+     */
+    public List<SlowQuery> getRecent(int limit) {
+        long last = recorded.get();
+        long first = Math.max(0, last - Math.min(limit, entries.length()));
+        List<SlowQuery> result = new ArrayList<>();
+        for (long sequence = last - 1; sequence >= first; sequence--) {
+            SlowQuery entry = entries.get((int) (sequence % entries.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Total number of slow statements seen since startup (including overwritten ones)
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    public long getThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+}
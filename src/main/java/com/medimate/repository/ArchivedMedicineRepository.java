@@ -0,0 +1,59 @@
+package com.medimate.repository;
+
+import com.medimate.entity.ArchivedMedicine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Archived Medicine Repository Interface
+ * Cold storage for medicines that expired long ago
+ * 
+ * @Modifying: Marks a @Query as an INSERT/UPDATE/DELETE statement; it returns the number of rows changed
+ */
+@Repository
+public interface ArchivedMedicineRepository extends JpaRepository<ArchivedMedicine, Long> {
+    
+    /**
+     * Find all archived medicines of a user
+     * @param userId the user ID
+     * @return list of archived medicines
+     */
+    List<ArchivedMedicine> findByUserId(Long userId);
+    
+    /**
+     * Find a user's archived medicines that expired before a date
+     * @param userId the user ID
+     * @param date the date to compare against
+     * @return list of archived medicines
+     */
+    List<ArchivedMedicine> findByUserIdAndExpiryDateBefore(Long userId, LocalDate date);
+    
+    /**
+     * Search a user's archived medicines by name (case-insensitive)
+     * @param userId the user ID
+     * @param name the medicine name to search for
+     * @return list of matching archived medicines
+     */
+    @Query("SELECT a FROM ArchivedMedicine a WHERE a.userId = :userId AND LOWER(a.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    List<ArchivedMedicine> findByUserIdAndNameContainingIgnoreCase(@Param("userId") Long userId, @Param("name") String name);
+    
+    /**
+     * Copy medicines into the archive with a single INSERT ... SELECT
+     * @param ids IDs of the medicines to copy
+     * @param archivedAt the archive timestamp
+     * @return number of rows copied
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedMedicine (id, name, quantity, expiryDate, addedDate, userId, archivedAt) " +
+           "SELECT m.id, m.name, m.quantity, m.expiryDate, m.addedDate, m.userId, :archivedAt " +
+           "FROM Medicine m WHERE m.id IN :ids")
+    int copyFromMedicines(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
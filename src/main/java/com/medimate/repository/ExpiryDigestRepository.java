@@ -0,0 +1,15 @@
+package com.medimate.repository;
+
+import com.medimate.entity.ExpiryDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Expiry Digest Repository Interface
+ * Reads the per-user expiring-soon digests by user ID (the primary key)
+ *
+ * The digests are written in bulk by ExpiryDigestService with plain JDBC, not through this repository
+ */
+@Repository
+public interface ExpiryDigestRepository extends JpaRepository<ExpiryDigest, Long> {
+}
@@ -0,0 +1,47 @@
+package com.medimate.repository;
+
+import com.medimate.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency Record Repository Interface
+ * Stored responses of requests sent with an Idempotency-Key header
+ * 
+ * @Modifying: Marks a @Query as an INSERT/UPDATE/DELETE statement; it returns the number of rows changed
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * Insert the row for a request that is starting
+     * A plain INSERT (unlike save) fails with a duplicate key if another instance took the key first
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query("INSERT INTO IdempotencyRecord (idempotencyKey, requestHash, status, createdAt, expiresAt) " +
+           "VALUES (:key, :requestHash, 0, :now, :expiresAt)")
+    int insertInProgress(@Param("key") String key, @Param("requestHash") String requestHash,
+                         @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Delete a key's row if it has expired, so the key can be used again
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+    
+    /**
+     * Delete every expired row
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
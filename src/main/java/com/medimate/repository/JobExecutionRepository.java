@@ -0,0 +1,55 @@
+package com.medimate.repository;
+
+import com.medimate.entity.JobExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Job Execution Repository Interface
+ * Stores job runs and their checkpoints
+ */
+@Repository
+public interface JobExecutionRepository extends JpaRepository<JobExecution, Long> {
+    
+    /**
+     * Find the latest execution of a job partition for a run
+     * @param jobName the job name
+     * @param runKey the run key
+     * @param partitionNo the partition number
+     * @return the most recent execution, if any
+     */
+    Optional<JobExecution> findFirstByJobNameAndRunKeyAndPartitionNoOrderByIdDesc(String jobName, String runKey, Integer partitionNo);
+    
+    /**
+     * Check whether a run has executions in the given states (e.g. interrupted ones)
+     * @param jobName the job name
+     * @param runKey the run key
+     * @param statuses the states to look for
+     * @return true if at least one matching execution exists
+     */
+    boolean existsByJobNameAndRunKeyAndStatusIn(String jobName, String runKey, Collection<JobExecution.Status> statuses);
+    
+    /**
+     * Find the most recent executions, newest first
+     * @param pageable limits the number of results
+     * @return list of executions
+     */
+    @Query("SELECT e FROM JobExecution e ORDER BY e.id DESC")
+    List<JobExecution> findRecent(Pageable pageable);
+    
+    /**
+     * Find the most recent executions of one job, newest first
+     * @param jobName the job name
+     * @param pageable limits the number of results
+     * @return list of executions
+     */
+    @Query("SELECT e FROM JobExecution e WHERE e.jobName = :jobName ORDER BY e.id DESC")
+    List<JobExecution> findRecentByJobName(@Param("jobName") String jobName, Pageable pageable);
+}
@@ -0,0 +1,86 @@
+package com.medimate.repository;
+
+import com.medimate.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Job Lease Repository Interface
+ * Provides the atomic claim, renew and complete operations used to share
+ * scheduled jobs between several application instances
+ * 
+ * Every operation is a single conditional UPDATE, so the database decides which
+ * instance wins when two of them try to claim the same partition at the same time
+ * 
+ * Claim and renew are native queries that use the database clock (CURRENT_TIMESTAMP) both to
+ * check whether a lease has expired and to compute the new expiry, so instances whose clocks
+ * disagree still agree on when a lease runs out
+ * 
+ * @Modifying: Marks a @Query as an UPDATE/DELETE statement; it returns the number of rows changed
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, JobLease.Key> {
+    
+    /**
+     * Claim a partition for a run if nobody else holds a valid lease and the run has not finished it yet
+     * @return 1 if the lease was claimed, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE job_leases SET owner = :owner, " +
+           "lease_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, CURRENT_TIMESTAMP(6)) " +
+           "WHERE job_name = :jobName AND partition_no = :partitionNo " +
+           "AND (last_completed_run IS NULL OR last_completed_run <> :runKey) " +
+           "AND (owner IS NULL OR owner = :owner OR lease_until < CURRENT_TIMESTAMP(6))",
+           nativeQuery = true)
+    int tryClaim(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+                 @Param("runKey") String runKey, @Param("owner") String owner,
+                 @Param("leaseMicros") long leaseMicros);
+    
+    /**
+     * Extend a lease held by the given owner
+     * @return 1 if the lease was renewed, 0 if the owner no longer holds it
+     */
+    @Modifying
+    @Query(value = "UPDATE job_leases SET lease_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, CURRENT_TIMESTAMP(6)) " +
+           "WHERE job_name = :jobName AND partition_no = :partitionNo AND owner = :owner",
+           nativeQuery = true)
+    int renew(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+              @Param("owner") String owner, @Param("leaseMicros") long leaseMicros);
+    
+    /**
+     * Mark a partition as finished for a run and free its lease
+     * @return 1 if the partition was completed, 0 if the owner no longer holds the lease
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lastCompletedRun = :runKey, l.owner = NULL, l.leaseUntil = NULL " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.owner = :owner")
+    int complete(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+                 @Param("runKey") String runKey, @Param("owner") String owner);
+    
+    /**
+     * Free a lease without finishing the partition (e.g. after an error)
+     * @return 1 if the lease was released
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = NULL, l.leaseUntil = NULL " +
+           "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo,
+                @Param("owner") String owner);
+    
+    /**
+     * Count the partitions of a job that a run has not finished yet
+     * Rows numbered partitions or higher are left over from a larger partition count and are ignored
+     */
+    @Query("SELECT COUNT(l) FROM JobLease l WHERE l.jobName = :jobName AND l.partitionNo < :partitions " +
+           "AND (l.lastCompletedRun IS NULL OR l.lastCompletedRun <> :runKey)")
+    long countIncomplete(@Param("jobName") String jobName, @Param("runKey") String runKey,
+                         @Param("partitions") int partitions);
+    
+    /**
+     * Count the partition rows that exist for a job
+     */
+    long countByJobName(String jobName);
+}
@@ -0,0 +1,83 @@
+package com.medimate.repository;
+
+import com.medimate.entity.MedicineConsumption;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Medicine Consumption Repository Interface
+ * Running consumption rates and stock-out forecasts, one row per medicine
+ * 
+ * @Lock(PESSIMISTIC_WRITE): Locks the row (SELECT ... FOR UPDATE) until the transaction ends
+ */
+@Repository
+public interface MedicineConsumptionRepository extends JpaRepository<MedicineConsumption, Long> {
+    
+    /**
+     * Find a medicine's consumption row and lock it, so two concurrent changes
+     * of the same medicine cannot overwrite each other's rate update
+     * @param medicineId the medicine ID
+     * @return the consumption row, if the medicine has one
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM MedicineConsumption c WHERE c.medicineId = :medicineId")
+    Optional<MedicineConsumption> findForUpdate(@Param("medicineId") Long medicineId);
+    
+    /**
+     * Insert a medicine's consumption row without any recorded usage, unless it already has one
+     * Called before findForUpdate, so there is always a row to lock: two concurrent first changes
+     * of a medicine would otherwise both find nothing and both try to insert the row
+     * @param medicineId the medicine ID
+     * @param userId the owner of the medicine
+     * @param quantity the quantity before the change
+     * @param expiryDate the expiry date before the change
+     * @param since when tracking starts (usually when the medicine was added)
+     * @return number of rows inserted (0 if the row already existed)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO medicine_consumption (medicine_id, user_id, daily_rate, usage_events, quantity, " +
+                   "expiry_date, last_usage_at, updated_at) VALUES (:medicineId, :userId, 0, 0, :quantity, " +
+                   ":expiryDate, :since, :since) ON DUPLICATE KEY UPDATE medicine_id = medicine_id",
+           nativeQuery = true)
+    int insertIfMissing(@Param("medicineId") Long medicineId,
+                        @Param("userId") Long userId,
+                        @Param("quantity") Integer quantity,
+                        @Param("expiryDate") LocalDate expiryDate,
+                        @Param("since") LocalDateTime since);
+    
+    /**
+     * Find the consumption rows of all of a user's medicines
+     * @param userId the user ID
+     * @return list of consumption rows
+     */
+    List<MedicineConsumption> findByUserId(Long userId);
+    
+    /**
+     * Find medicines in one user partition projected to run out before they expire, in medicine ID order
+     * Used by the scheduler, one chunk at a time
+     * @param from only stock-out dates on or after this day
+     * @param partitions total number of partitions
+     * @param partition the partition to read (userId modulo partitions)
+     * @param afterId only medicines with a larger ID (0 for the first chunk)
+     * @param pageable limits the chunk size
+     * @return list of consumption rows
+     */
+    @Query("SELECT c FROM MedicineConsumption c WHERE c.stockOutDate >= :from AND c.stockOutDate < c.expiryDate " +
+           "AND MOD(c.userId, :partitions) = :partition AND c.medicineId > :afterId ORDER BY c.medicineId")
+    List<MedicineConsumption> findRunningOutBeforeExpiryInPartition(@Param("from") LocalDate from,
+                                                                    @Param("partitions") int partitions,
+                                                                    @Param("partition") int partition,
+                                                                    @Param("afterId") Long afterId,
+                                                                    Pageable pageable);
+}
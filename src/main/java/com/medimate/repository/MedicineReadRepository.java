@@ -0,0 +1,98 @@
+package com.medimate.repository;
+
+import com.medimate.entity.Medicine;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Medicine Read Repository Interface
+ * Read-only queries for the GET endpoints that skip the JPA persistence context
+ *
+ * Spring Data's derived find... queries return managed entities: Hibernate keeps a copy of
+ * every row's values so it can check for changes when the session is flushed, even though the
+ * GET endpoints never change anything. These methods read the rows with plain JDBC and
+ * return detached Medicine objects instead, so nothing is tracked. Changing a returned medicine
+ * does not change the database; use findById before updating.
+ *
+ * MedicineRepository extends this interface, so the methods are called through the repository
+ * proxy and show up in the query statistics like every other repository method.
+ * The implementation is MedicineReadRepositoryImpl (Spring Data finds it by the Impl suffix).
+ */
+public interface MedicineReadRepository {
+
+    /**
+     * Read all medicines of a user
+     * @param userId the user ID
+     * @return list of detached medicines
+     */
+    List<Medicine> readByUserId(Long userId);
+
+    /**
+     * Read one medicine by ID
+     * @param id the medicine ID
+     * @return Optional containing the detached medicine if found, empty otherwise
+     */
+    Optional<Medicine> readById(Long id);
+
+    /**
+     * Read a user's medicines that expired before a date
+     * @param userId the user ID
+     * @param date the date to compare against (typically current date)
+     * @return list of detached medicines
+     */
+    List<Medicine> readByUserIdAndExpiryDateBefore(Long userId, LocalDate date);
+
+    /**
+     * Read a user's medicines expiring within a date range (both days included)
+     * @param userId the user ID
+     * @param startDate start date of the range
+     * @param endDate end date of the range
+     * @return list of detached medicines
+     */
+    List<Medicine> readByUserIdAndExpiryDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Read a user's medicines with a quantity below a threshold
+     * @param userId the user ID
+     * @param threshold the minimum quantity threshold
+     * @return list of detached medicines
+     */
+    List<Medicine> readByUserIdAndQuantityLessThan(Long userId, Integer threshold);
+
+    /**
+     * Read a user's medicines whose name contains a string (case-insensitive)
+     * @param userId the user ID
+     * @param name the text to look for in the name
+     * @return list of detached medicines
+     */
+    List<Medicine> readByUserIdAndNameContainingIgnoreCase(Long userId, String name);
+
+    /**
+     * Read the medicines of a batch of users that expired before a date
+     * The collection becomes a single SQL IN-list
+     * @param userIds the user IDs (callers should keep this list bounded)
+     * @param date the date to compare against (typically current date)
+     * @return list of detached medicines for all the given users
+     */
+    List<Medicine> readByUserIdInAndExpiryDateBefore(Collection<Long> userIds, LocalDate date);
+
+    /**
+     * Read the medicines of a batch of users expiring within a date range (both days included)
+     * @param userIds the user IDs (callers should keep this list bounded)
+     * @param startDate start date of the range
+     * @param endDate end date of the range
+     * @return list of detached medicines for all the given users
+     */
+    List<Medicine> readByUserIdInAndExpiryDateBetween(Collection<Long> userIds, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Read the medicines of a batch of users with a quantity below a threshold
+     * @param userIds the user IDs (callers should keep this list bounded)
+     * @param threshold the minimum quantity threshold
+     * @return list of detached medicines for all the given users
+     */
+    List<Medicine> readByUserIdInAndQuantityLessThan(Collection<Long> userIds, Integer threshold);
+}
@@ -0,0 +1,110 @@
+package com.medimate.repository;
+
+import com.medimate.entity.Medicine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Medicine Read Repository Implementation
+ * JDBC implementation of MedicineReadRepository
+ *
+ * Each method runs one SELECT in auto-commit mode (a single statement needs no surrounding
+ * transaction) and maps the rows straight into new Medicine objects with the setters.
+ * No EntityManager is involved, so the rows are never added to a persistence context.
+ * The batch (user ID IN-list) methods use named parameters, which expand a collection into
+ * one placeholder per element.
+ */
+public class MedicineReadRepositoryImpl implements MedicineReadRepository {
+
+    private static final String SELECT = "SELECT id, name, quantity, expiry_date, added_date, user_id FROM medicines ";
+
+    private static final RowMapper<Medicine> ROW_MAPPER = (rs, rowNum) -> {
+        Medicine medicine = new Medicine();
+        medicine.setId(rs.getLong(1));
+        medicine.setName(rs.getString(2));
+        medicine.setQuantity(rs.getInt(3));
+        medicine.setExpiryDate(rs.getObject(4, LocalDate.class));
+        medicine.setAddedDate(rs.getObject(5, LocalDateTime.class));
+        medicine.setUserId(rs.getLong(6));
+        return medicine;
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Create the JDBC templates
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public List<Medicine> readByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT + "WHERE user_id = ?", ROW_MAPPER, userId);
+    }
+
+    @Override
+    public Optional<Medicine> readById(Long id) {
+        return jdbcTemplate.query(SELECT + "WHERE id = ?", ROW_MAPPER, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Medicine> readByUserIdAndExpiryDateBefore(Long userId, LocalDate date) {
+        return jdbcTemplate.query(SELECT + "WHERE user_id = ? AND expiry_date < ?", ROW_MAPPER, userId, date);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdAndExpiryDateBetween(Long userId, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(SELECT + "WHERE user_id = ? AND expiry_date BETWEEN ? AND ?", ROW_MAPPER,
+                userId, startDate, endDate);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdAndQuantityLessThan(Long userId, Integer threshold) {
+        return jdbcTemplate.query(SELECT + "WHERE user_id = ? AND quantity < ?", ROW_MAPPER, userId, threshold);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdAndNameContainingIgnoreCase(Long userId, String name) {
+        return jdbcTemplate.query(SELECT + "WHERE user_id = ? AND LOWER(name) LIKE LOWER(CONCAT('%', ?, '%'))",
+                ROW_MAPPER, userId, name);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdInAndExpiryDateBefore(Collection<Long> userIds, LocalDate date) {
+        return namedJdbcTemplate.query(SELECT + "WHERE user_id IN (:userIds) AND expiry_date < :date",
+                new MapSqlParameterSource("userIds", userIds).addValue("date", date), ROW_MAPPER);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdInAndExpiryDateBetween(Collection<Long> userIds, LocalDate startDate, LocalDate endDate) {
+        return namedJdbcTemplate.query(SELECT + "WHERE user_id IN (:userIds) AND expiry_date BETWEEN :startDate AND :endDate",
+                new MapSqlParameterSource("userIds", userIds).addValue("startDate", startDate).addValue("endDate", endDate),
+                ROW_MAPPER);
+    }
+
+    @Override
+    public List<Medicine> readByUserIdInAndQuantityLessThan(Collection<Long> userIds, Integer threshold) {
+        return namedJdbcTemplate.query(SELECT + "WHERE user_id IN (:userIds) AND quantity < :threshold",
+                new MapSqlParameterSource("userIds", userIds).addValue("threshold", threshold), ROW_MAPPER);
+    }
+}
@@ -1,12 +1,18 @@
 package com.medimate.repository;
 
 import com.medimate.entity.Medicine;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,78 +21,118 @@ import java.util.List;
  * 
  * @Repository: Marks this interface as a Spring repository component
  * JpaRepository<Medicine, Long>: Provides CRUD operations for Medicine entity with Long as ID type
+ * MedicineReadRepository: Adds the read-only JDBC queries used by the GET endpoints
  */
 @Repository
-public interface MedicineRepository extends JpaRepository<Medicine, Long> {
+public interface MedicineRepository extends JpaRepository<Medicine, Long>, MedicineReadRepository {
     
     /**
-     * Find all medicines for a specific user
-     * Spring Data JPA automatically implements this method based on the method name
-     * @param userId the user ID to search for
-     * @return list of medicines belonging to the user
+     * Custom query to read the next chunk of expired medicines in a partition, in ID order
+     * Used by the checkpointed scheduled task: each chunk starts after the last ID processed
+     * @param date the date to compare against (typically current date)
+     * @param partitions the total number of partitions
+     * @param partition the partition number
+     * @param afterId only medicines with a larger ID are returned
+     * @param pageable limits the chunk size
+     * @return the next chunk of expired medicines
      */
-    List<Medicine> findByUserId(Long userId);
+    @Query("SELECT m FROM Medicine m WHERE m.expiryDate < :date AND MOD(m.userId, :partitions) = :partition " +
+           "AND m.id > :afterId ORDER BY m.id")
+    List<Medicine> findExpiredMedicinesInPartitionAfter(@Param("date") LocalDate date,
+                                                        @Param("partitions") Integer partitions,
+                                                        @Param("partition") Integer partition,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
     
     /**
-     * Find medicines by user ID and expiry date before a specific date (expired medicines)
+     * Custom query to count expired medicines for a user
      * @param userId the user ID
-     * @param date the date to compare against (typically current date)
-     * @return list of expired medicines for the user
+     * @param date the date to compare against
+     * @return count of expired medicines
      */
-    List<Medicine> findByUserIdAndExpiryDateBefore(Long userId, LocalDate date);
+    @Query("SELECT COUNT(m) FROM Medicine m WHERE m.userId = :userId AND m.expiryDate < :date")
+    Long countExpiredMedicinesByUserId(@Param("userId") Long userId, @Param("date") LocalDate date);
     
     /**
-     * Find medicines expiring within a date range (expiring soon)
+     * Custom query to count medicines expiring soon for a user
      * @param userId the user ID
-     * @param startDate start date of the range (typically current date)
-     * @param endDate end date of the range (typically current date + 30 days)
-     * @return list of medicines expiring soon for the user
+     * @param startDate start date of the range
+     * @param endDate end date of the range
+     * @return count of medicines expiring soon
      */
-    List<Medicine> findByUserIdAndExpiryDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
+    @Query("SELECT COUNT(m) FROM Medicine m WHERE m.userId = :userId AND m.expiryDate BETWEEN :startDate AND :endDate")
+    Long countExpiringSoonByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
     /**
-     * Find medicines with low stock (quantity below threshold)
-     * @param userId the user ID
-     * @param threshold the minimum quantity threshold
-     * @return list of medicines with low stock for the user
+     * Find one batch of a partition's medicines that expired before a cutoff date, in ID order
+     * Used by the archival job; the rows stay locked until the batch's transaction ends,
+     * so they cannot change between being copied and being deleted
+     * @param cutoff medicines that expired before this day are archived
+     * @param partitions total number of partitions
+     * @param partition the partition to read (userId modulo partitions)
+     * @param pageable limits the batch size
+     * @return list of medicines to archive
      */
-    List<Medicine> findByUserIdAndQuantityLessThan(Long userId, Integer threshold);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Medicine m WHERE m.expiryDate < :cutoff AND MOD(m.userId, :partitions) = :partition ORDER BY m.id")
+    List<Medicine> findArchivableInPartition(@Param("cutoff") LocalDate cutoff,
+                                             @Param("partitions") int partitions,
+                                             @Param("partition") int partition,
+                                             Pageable pageable);
     
     /**
-     * Custom query to find medicines by name (case-insensitive search)
-     * @Query: Custom JPQL query annotation
-     * @param userId the user ID
-     * @param name the medicine name to search for
-     * @return list of medicines matching the name for the user
+     * Delete medicines by ID with a single DELETE statement
+     * @param ids the medicine IDs
+     * @return number of rows deleted
      */
-    @Query("SELECT m FROM Medicine m WHERE m.userId = :userId AND LOWER(m.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Medicine> findByUserIdAndNameContainingIgnoreCase(@Param("userId") Long userId, @Param("name") String name);
+    @Modifying
+    @Query("DELETE FROM Medicine m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
     
     /**
-     * Custom query to find all expired medicines across all users
-     * This will be used by the scheduled task
-     * @param date the date to compare against (typically current date)
-     * @return list of all expired medicines
+     * Highest medicine ID (0 when the table is empty)
+     * Used as the high-water mark of inventory snapshot files
+     * @return the highest ID
      */
-    @Query("SELECT m FROM Medicine m WHERE m.expiryDate < :date")
-    List<Medicine> findAllExpiredMedicines(@Param("date") LocalDate date);
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM Medicine m")
+    Long findMaxId();
     
     /**
-     * Custom query to count expired medicines for a user
-     * @param userId the user ID
-     * @param date the date to compare against
-     * @return count of expired medicines
+     * Find the next page of medicines in user ID, medicine ID order
+     * Used to write inventory snapshot files, which keep each user's medicines together
+     * @param userId user ID of the last medicine of the previous page
+     * @param afterId medicine ID of the last medicine of the previous page
+     * @param pageable limits the page size
+     * @return list of medicines
      */
-    @Query("SELECT COUNT(m) FROM Medicine m WHERE m.userId = :userId AND m.expiryDate < :date")
-    Long countExpiredMedicinesByUserId(@Param("userId") Long userId, @Param("date") LocalDate date);
+    @Query("SELECT m FROM Medicine m WHERE m.userId > :userId OR (m.userId = :userId AND m.id > :afterId) " +
+           "ORDER BY m.userId, m.id")
+    List<Medicine> findPageOrderedByUser(@Param("userId") Long userId,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
     
     /**
-     * Custom query to count medicines expiring soon for a user
-     * @param userId the user ID
-     * @param startDate start date of the range
-     * @param endDate end date of the range
-     * @return count of medicines expiring soon
+     * Find medicines with an ID above a high-water mark, in ID order
+     * @param afterId the high-water mark
+     * @param pageable limits the page size
+     * @return list of medicines
      */
-    @Query("SELECT COUNT(m) FROM Medicine m WHERE m.userId = :userId AND m.expiryDate BETWEEN :startDate AND :endDate")
-    Long countExpiringSoonByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+    @Query("SELECT m FROM Medicine m WHERE m.id > :afterId ORDER BY m.id")
+    List<Medicine> findByIdAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Count each user's medicines with an ID up to a high-water mark
+     * @param maxId the high-water mark
+     * @return one row per user: [userId, count]
+     */
+    @Query("SELECT m.userId, COUNT(m) FROM Medicine m WHERE m.id <= :maxId GROUP BY m.userId")
+    List<Object[]> countByUserUpTo(@Param("maxId") Long maxId);
+    
+    /**
+     * Find the users with a medicine updated since a point in time (any field, including the name)
+     * @param since the earliest update to include
+     * @return list of user IDs
+     */
+    @Query("SELECT DISTINCT m.userId FROM Medicine m WHERE m.updatedAt >= :since")
+    List<Long> findUserIdsUpdatedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,36 @@
+package com.medimate.repository;
+
+import com.medimate.entity.QuantityChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Quantity Change Repository Interface
+ * Append-only history of quantity changes
+ * 
+ * @Modifying: Marks a @Query as an UPDATE/DELETE statement; it returns the number of rows changed
+ */
+@Repository
+public interface QuantityChangeRepository extends JpaRepository<QuantityChange, Long> {
+    
+    /**
+     * Find the history of one medicine, oldest first
+     * @param medicineId the medicine ID
+     * @return list of quantity changes
+     */
+    List<QuantityChange> findByMedicineIdOrderByRecordedAtAsc(Long medicineId);
+    
+    /**
+     * Delete the whole history of a user (used to clean up after the startup warm-up)
+     * @param userId the user ID
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM QuantityChange q WHERE q.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,113 @@
+package com.medimate.scheduler;
+
+import com.medimate.entity.JobExecution;
+import com.medimate.service.JobExecutionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Chunked Job Executor
+ * Runs a job step in chunks and saves a checkpoint after each one
+ *
+ * Items are read in key order, one chunk at a time, starting after the last processed key.
+ * After each chunk the execution's checkpoint (last key, counts, time) is saved in the
+ * job_executions table. If the process stops, the next attempt for the same run key and
+ * partition continues after the checkpoint. A chunk that was being processed when the
+ * process stopped is processed again, so chunk processing should be safe to repeat.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class ChunkedJobExecutor {
+
+    /**
+     * Reads the next chunk of items after a key
+     */
+    @FunctionalInterface
+    public interface ChunkReader<T> {
+
+        /**
+         * @param afterKey read items with a key greater than this (null for the first chunk)
+         * @param limit maximum number of items to return
+         * @return items in ascending key order; empty when there is nothing left
+         */
+        List<T> read(Long afterKey, int limit);
+    }
+
+    /**
+     * Processes one chunk of items
+     */
+    @FunctionalInterface
+    public interface ChunkProcessor<T> {
+
+        void process(List<T> chunk) throws Exception;
+    }
+
+    @Autowired
+    private JobExecutionService jobExecutionService;
+
+    /**
+     * Number of items read and processed per chunk
+     */
+    @Value("${medimate.scheduler.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Run (or resume) one job step
+     * @param jobName the job name
+     * @param runKey the run key
+     * @param partition the partition number
+     * @param instanceId the instance doing the work
+     * @param reader reads chunks in key order
+     * @param keyOf extracts the key of an item
+     * @param processor processes a chunk
+     * @return the finished execution
+     */
+    public <T> JobExecution execute(String jobName, String runKey, int partition, String instanceId,
+                                    ChunkReader<T> reader, ToLongFunction<T> keyOf,
+                                    ChunkProcessor<T> processor) throws Exception {
+        JobExecution execution = jobExecutionService.startOrResume(jobName, runKey, partition, instanceId);
+        if (execution.getStatus() == JobExecution.Status.COMPLETED) {
+            return execution;
+        }
+
+        Long lastKey = execution.getLastProcessedKey();
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                List<T> chunk = reader.read(lastKey, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                processor.process(chunk);
+                lastKey = keyOf.applyAsLong(chunk.get(chunk.size() - 1));
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                jobExecutionService.checkpoint(execution.getId(), lastKey, chunk.size(), elapsedMs);
+
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+                // Stop here if the job went over its maximum runtime; the next run resumes after lastKey
+                ScheduledJobManager.checkCancelled("after chunk ending at key " + lastKey);
+            }
+            return jobExecutionService.complete(execution.getId());
+
+        } catch (Exception e) {
+            jobExecutionService.fail(execution.getId(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Number of items per chunk
+     * @return chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -1,14 +1,27 @@
 package com.medimate.scheduler;
 
+import com.medimate.dto.MedicineEvent;
 import com.medimate.entity.Medicine;
+import com.medimate.entity.MedicineConsumption;
+import com.medimate.service.ConsumptionService;
+import com.medimate.service.ExpiryDigestService;
+import com.medimate.service.JobExecutionService;
+import com.medimate.service.MedicineArchiveService;
+import com.medimate.service.MedicineEventBroadcaster;
 import com.medimate.service.MedicineService;
+import com.medimate.snapshot.InventorySnapshotFiles;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Medicine Scheduler Class
@@ -16,53 +29,149 @@ import java.util.List;
  * 
  * @Component: Marks this class as a Spring component
  * Scheduled tasks will automatically run at specified intervals
+ * @Lazy(false): Always created at startup, even with lazy initialization turned on
+ * (the prod profile), otherwise the scheduled tasks would never be registered
  */
 @Component
+@Lazy(false)
 public class MedicineScheduler {
     
+    /**
+     * Job name used for leases and execution records
+     */
+    public static final String CHECK_EXPIRED_JOB = "checkExpiredMedicines";
+    
+    /**
+     * Job name of the stock-out forecast check
+     */
+    public static final String CHECK_STOCK_OUT_JOB = "checkStockOutBeforeExpiry";
+    
+    /**
+     * Job name of the nightly archival of long-expired medicines
+     */
+    public static final String ARCHIVE_JOB = "archiveExpiredMedicines";
+    
+    public static final String EXPIRING_SOON_JOB = "checkMedicinesExpiringSoon";
+    public static final String SNAPSHOT_FILE_JOB = "writeInventorySnapshotFile";
+    public static final String HEALTH_CHECK_JOB = "systemHealthCheck";
+    public static final String TEST_JOB = "testScheduledTask";
+    
+    /**
+     * Runs each job on its own thread with a concurrency limit and a maximum runtime
+     */
+    @Autowired
+    private ScheduledJobManager jobManager;
+    
     /**
      * Dependency injection of MedicineService
      */
     @Autowired
     private MedicineService medicineService;
     
+    /**
+     * Pushes expiry alerts to clients connected to the event stream
+     */
+    @Autowired
+    private MedicineEventBroadcaster eventBroadcaster;
+    
+    /**
+     * Shares partitioned jobs between instances using database leases
+     */
+    @Autowired
+    private PartitionedJobRunner jobRunner;
+    
+    /**
+     * Runs each partition in checkpointed chunks
+     */
+    @Autowired
+    private ChunkedJobExecutor chunkedJobExecutor;
+    
+    @Autowired
+    private JobExecutionService jobExecutionService;
+    
+    /**
+     * Reads the stored stock-out forecasts
+     */
+    @Autowired
+    private ConsumptionService consumptionService;
+    
+    /**
+     * Moves long-expired medicines to the archive table
+     */
+    @Autowired
+    private MedicineArchiveService archiveService;
+    
+    /**
+     * Builds the per-user expiring-soon digests
+     */
+    @Autowired
+    private ExpiryDigestService expiryDigestService;
+    
+    /**
+     * Writes inventory snapshot files for warm starts and offline analytics
+     */
+    @Autowired
+    private InventorySnapshotFiles snapshotFiles;
+    
+    /**
+     * Date of the last expired-medicine check, used to find medicines that expired since then
+     */
+    private volatile LocalDate lastExpiryCheckDate;
+    
+    /**
+     * Register every job with the job manager
+     * The @Scheduled methods below only trigger them, so the scheduler thread is never held up
+     * and the same jobs can be started through POST /api/jobs/{name}/run
+     * @PostConstruct: Runs once after dependencies have been injected
+     */
+    @PostConstruct
+    public void registerJobs() {
+        jobManager.register(CHECK_EXPIRED_JOB, this::runCheckExpiredMedicines);
+        jobManager.register(CHECK_STOCK_OUT_JOB, this::runCheckStockOutBeforeExpiry);
+        jobManager.register(EXPIRING_SOON_JOB, this::runCheckMedicinesExpiringSoon);
+        jobManager.register(ARCHIVE_JOB, this::runArchiveExpiredMedicines);
+        jobManager.register(SNAPSHOT_FILE_JOB, this::runWriteInventorySnapshotFile);
+        jobManager.register(HEALTH_CHECK_JOB, this::runSystemHealthCheck);
+        jobManager.register(TEST_JOB, this::runTestScheduledTask);
+    }
+    
     /**
      * Scheduled task to check and log expired medicines
      * This task runs every day at 9:00 AM
      * 
+     * When several instances are running, the users are split into partitions and each
+     * instance claims partitions through database leases, so every user is checked once per day
+     * 
      * @Scheduled: Annotation to mark this method as a scheduled task
      * cron: Cron expression for scheduling (seconds, minutes, hours, day of month, month, day of week)
      * "0 0 9 * * ?" means: At 9:00 AM every day
      */
     @Scheduled(cron = "0 0 9 * * ?")
     public void checkExpiredMedicines() {
+        jobManager.trigger(CHECK_EXPIRED_JOB);
+    }
+    
+    private void runCheckExpiredMedicines() throws Exception {
         try {
             System.out.println("=== SCHEDULED TASK: Checking expired medicines ===");
             System.out.println("Task started at: " + LocalDateTime.now());
             
-            // Get all expired medicines across all users
-            List<Medicine> expiredMedicines = medicineService.getAllExpiredMedicines();
-            
-            if (expiredMedicines.isEmpty()) {
-                System.out.println("✅ No expired medicines found");
-            } else {
-                System.out.println("⚠️  Found " + expiredMedicines.size() + " expired medicines:");
-                
-                // Log details of each expired medicine
-                for (Medicine medicine : expiredMedicines) {
-                    System.out.println("- Medicine: " + medicine.getName() + 
-                                     " | Expired on: " + medicine.getExpiryDate() + 
-                                     " | Quantity: " + medicine.getQuantity() + 
-                                     " | User ID: " + medicine.getUserId());
-                }
-                
-                // Group by user for better reporting
-                expiredMedicines.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(Medicine::getUserId))
-                    .forEach((userId, medicines) -> {
-                        System.out.println("User " + userId + " has " + medicines.size() + " expired medicines");
-                    });
-            }
+            LocalDate today = LocalDate.now();
+            LocalDate since = lastExpiryCheckDate != null ? lastExpiryCheckDate : today.minusDays(1);
+            
+            // Process this instance's share of the partitions; the run key makes each partition run once per day.
+            // Each partition is read in chunks with a checkpoint after every chunk, so an interrupted
+            // run continues where it stopped
+            String runKey = today.toString();
+            List<Integer> partitions = jobRunner.run(CHECK_EXPIRED_JOB, runKey,
+                    (partition, partitionCount) -> chunkedJobExecutor.execute(
+                            CHECK_EXPIRED_JOB, runKey, partition, jobRunner.getInstanceId(),
+                            (afterId, limit) -> medicineService.getExpiredMedicinesChunk(partition, partitionCount, afterId, limit),
+                            Medicine::getId,
+                            chunk -> reportExpiredMedicines(chunk, since)));
+            
+            System.out.println("Checked " + partitions.size() + " of " + jobRunner.getPartitions() + " partitions on this instance");
+            lastExpiryCheckDate = today;
             
             System.out.println("Task completed at: " + LocalDateTime.now());
             System.out.println("=== END OF SCHEDULED TASK ===");
@@ -70,37 +179,220 @@ public class MedicineScheduler {
         } catch (Exception e) {
             System.err.println("❌ Error in scheduled task - checking expired medicines: " + e.getMessage());
             e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    /**
+     * Resume today's expired-medicine check if the process stopped while it was running
+     * @EventListener(ApplicationReadyEvent.class): Runs once after the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        try {
+            String runKey = LocalDate.now().toString();
+            if (jobExecutionService.hasUnfinishedExecutions(CHECK_EXPIRED_JOB, runKey)) {
+                System.out.println("Resuming interrupted run " + runKey + " of " + CHECK_EXPIRED_JOB);
+                checkExpiredMedicines();
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Error resuming interrupted jobs: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Log a chunk of expired medicines and push expiry alerts
+     * @param expiredMedicines the expired medicines in the chunk
+     * @param since alerts are sent for medicines that expired on or after this date
+     */
+    private void reportExpiredMedicines(List<Medicine> expiredMedicines, LocalDate since) {
+        if (expiredMedicines.isEmpty()) {
+            System.out.println("✅ No expired medicines found");
+            return;
+        }
+        
+        System.out.println("⚠️  Found " + expiredMedicines.size() + " expired medicines:");
+        
+        // Log details of each expired medicine
+        for (Medicine medicine : expiredMedicines) {
+            System.out.println("- Medicine: " + medicine.getName() + 
+                             " | Expired on: " + medicine.getExpiryDate() + 
+                             " | Quantity: " + medicine.getQuantity() + 
+                             " | User ID: " + medicine.getUserId());
         }
+        
+        // Push an alert for every medicine that expired since the last check
+        int alerts = 0;
+        for (Medicine medicine : expiredMedicines) {
+            if (!medicine.getExpiryDate().isBefore(since)) {
+                eventBroadcaster.publish(MedicineEvent.of(MedicineEvent.Type.EXPIRED, medicine));
+                alerts++;
+            }
+        }
+        System.out.println("Sent " + alerts + " expiry alerts for medicines expired since " + since);
+        
+        // Group by user for better reporting
+        expiredMedicines.stream()
+            .collect(java.util.stream.Collectors.groupingBy(Medicine::getUserId))
+            .forEach((userId, medicines) -> {
+                System.out.println("User " + userId + " has " + medicines.size() + " expired medicines");
+            });
     }
     
     /**
-     * Scheduled task to check medicines expiring soon
+     * Scheduled task to build each user's expiring-soon digest
      * This task runs every day at 9:30 AM
      * 
+     * Each partition of users is digested with one streaming query and a few bulk upserts
+     * (see ExpiryDigestService), and shared between instances through leases like the
+     * expired-medicine check. Users read their digest with GET /api/medicines/expiring-soon/digest
+     * 
      * "0 30 9 * * ?" means: At 9:30 AM every day
      */
     @Scheduled(cron = "0 30 9 * * ?")
     public void checkMedicinesExpiringSoon() {
+        jobManager.trigger(EXPIRING_SOON_JOB);
+    }
+    
+    private void runCheckMedicinesExpiringSoon() throws Exception {
         try {
             System.out.println("=== SCHEDULED TASK: Checking medicines expiring soon ===");
             System.out.println("Task started at: " + LocalDateTime.now());
             
             LocalDate today = LocalDate.now();
-            LocalDate thirtyDaysFromNow = today.plusDays(30);
-            
-            // Note: This is a simplified version. In a real application, you might want to
-            // check for each user individually and send them personalized notifications
+            System.out.println("Building digests of medicines expiring between " + today + " and " +
+                             today.plusDays(expiryDigestService.getWindowDays()));
             
-            System.out.println("Checking medicines expiring between " + today + " and " + thirtyDaysFromNow);
-            System.out.println("⚠️  This is a reminder to check your medicines expiring soon!");
-            System.out.println("Please log into the application to view medicines expiring in the next 30 days");
+            AtomicLong users = new AtomicLong();
+            List<Integer> partitions = jobRunner.run(EXPIRING_SOON_JOB, today.toString(),
+                    (partition, partitionCount) -> users.addAndGet(
+                            expiryDigestService.rebuildPartition(partition, partitionCount, today)));
             
+            System.out.println("⚠️  " + users.get() + " users have medicines expiring soon in " +
+                             partitions.size() + " of " + jobRunner.getPartitions() + " partitions on this instance");
             System.out.println("Task completed at: " + LocalDateTime.now());
             System.out.println("=== END OF SCHEDULED TASK ===");
             
         } catch (Exception e) {
             System.err.println("❌ Error in scheduled task - checking medicines expiring soon: " + e.getMessage());
             e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    /**
+     * Scheduled task to flag medicines that will run out before they expire
+     * This task runs every day at 9:15 AM
+     * 
+     * The stock-out date is kept up to date whenever a quantity changes, so this only reads
+     * the stored forecasts (partitioned and chunked like the expired-medicine check) and
+     * sends a RUNNING_OUT alert for each one that falls before the expiry date
+     * 
+     * "0 15 9 * * ?" means: At 9:15 AM every day
+     */
+    @Scheduled(cron = "0 15 9 * * ?")
+    public void checkStockOutBeforeExpiry() {
+        jobManager.trigger(CHECK_STOCK_OUT_JOB);
+    }
+    
+    private void runCheckStockOutBeforeExpiry() throws Exception {
+        try {
+            System.out.println("=== SCHEDULED TASK: Checking stock-out forecasts ===");
+            System.out.println("Task started at: " + LocalDateTime.now());
+            
+            String runKey = LocalDate.now().toString();
+            List<Integer> partitions = jobRunner.run(CHECK_STOCK_OUT_JOB, runKey,
+                    (partition, partitionCount) -> chunkedJobExecutor.execute(
+                            CHECK_STOCK_OUT_JOB, runKey, partition, jobRunner.getInstanceId(),
+                            (afterId, limit) -> consumptionService.getRunningOutBeforeExpiryChunk(partition, partitionCount, afterId, limit),
+                            MedicineConsumption::getMedicineId,
+                            this::reportRunningOut));
+            
+            System.out.println("Checked " + partitions.size() + " of " + jobRunner.getPartitions() + " partitions on this instance");
+            System.out.println("Task completed at: " + LocalDateTime.now());
+            System.out.println("=== END OF SCHEDULED TASK ===");
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error in scheduled task - checking stock-out forecasts: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    /**
+     * Log a chunk of medicines that will run out before expiry and push alerts
+     * @param runningOut the consumption rows in the chunk
+     */
+    private void reportRunningOut(List<MedicineConsumption> runningOut) {
+        for (MedicineConsumption consumption : runningOut) {
+            System.out.println("- Medicine ID: " + consumption.getMedicineId() +
+                             " | Runs out on: " + consumption.getStockOutDate() +
+                             " | Expires on: " + consumption.getExpiryDate() +
+                             " | User ID: " + consumption.getUserId());
+            eventBroadcaster.publish(new MedicineEvent(MedicineEvent.Type.RUNNING_OUT,
+                    consumption.getUserId(), consumption.getMedicineId(), null));
+        }
+        System.out.println("Sent " + runningOut.size() + " running-out alerts");
+    }
+    
+    /**
+     * Scheduled task to move long-expired medicines to the archive table
+     * This task runs every day at 3:00 AM, when the application is least busy
+     * 
+     * Each partition is archived in small throttled batches (see MedicineArchiveService).
+     * A partition that is interrupted simply continues the next night: archived rows are
+     * gone from medicines, so there is nothing to checkpoint
+     * 
+     * "0 0 3 * * ?" means: At 3:00 AM every day
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void archiveExpiredMedicines() {
+        jobManager.trigger(ARCHIVE_JOB);
+    }
+    
+    private void runArchiveExpiredMedicines() throws Exception {
+        try {
+            System.out.println("=== SCHEDULED TASK: Archiving medicines expired more than " +
+                             archiveService.getAfterDays() + " days ago ===");
+            System.out.println("Task started at: " + LocalDateTime.now());
+            
+            String runKey = LocalDate.now().toString();
+            List<Integer> partitions = jobRunner.run(ARCHIVE_JOB, runKey,
+                    (partition, partitionCount) -> archiveService.archivePartition(partition, partitionCount));
+            
+            System.out.println("Archived " + partitions.size() + " of " + jobRunner.getPartitions() + " partitions on this instance");
+            System.out.println("Task completed at: " + LocalDateTime.now());
+            System.out.println("=== END OF SCHEDULED TASK ===");
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error in scheduled task - archiving expired medicines: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    /**
+     * Scheduled task to write the medicines table to an inventory snapshot file
+     * Runs every medimate.snapshot.file.interval-ms (default 15 minutes) when snapshot files are enabled
+     * 
+     * Every instance writes its own local file, which it reads back at its next startup,
+     * so this job is not shared through leases
+     */
+    @Scheduled(fixedDelayString = "${medimate.snapshot.file.interval-ms:900000}",
+               initialDelayString = "${medimate.snapshot.file.interval-ms:900000}")
+    public void writeInventorySnapshotFile() {
+        jobManager.trigger(SNAPSHOT_FILE_JOB);
+    }
+    
+    private void runWriteInventorySnapshotFile() throws Exception {
+        if (!snapshotFiles.isEnabled()) {
+            return;
+        }
+        try {
+            snapshotFiles.write();
+        } catch (Exception e) {
+            System.err.println("❌ Error in scheduled task - writing inventory snapshot file: " + e.getMessage());
+            throw e;
         }
     }
     
@@ -112,6 +404,10 @@ public class MedicineScheduler {
      */
     @Scheduled(cron = "0 0 * * * ?")
     public void systemHealthCheck() {
+        jobManager.trigger(HEALTH_CHECK_JOB);
+    }
+    
+    private void runSystemHealthCheck() throws Exception {
         try {
             System.out.println("=== SYSTEM HEALTH CHECK ===");
             System.out.println("System is running healthy at: " + LocalDateTime.now());
@@ -132,10 +428,14 @@ public class MedicineScheduler {
      * Scheduled task to run every 10 minutes for testing purposes
      * You can disable this task in production
      * 
-     * "0 */10 * * * ?" means: Every 10 minutes
+     * "0 0/10 * * * ?" means: Every 10 minutes
      */
     @Scheduled(cron = "0 */10 * * * ?")
     public void testScheduledTask() {
+        jobManager.trigger(TEST_JOB);
+    }
+    
+    private void runTestScheduledTask() throws Exception {
         try {
             System.out.println("⏰ Test scheduled task running at: " + LocalDateTime.now());
             // This is useful for testing that the scheduler is working
@@ -0,0 +1,218 @@
+package com.medimate.scheduler;
+
+import com.medimate.service.JobLeaseService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partitioned Job Runner
+ * Shares a scheduled job between all running MediMate instances
+ *
+ * The user space is split into a fixed number of partitions (a user belongs to partition
+ * MOD(user_id, partitions)). Every instance fires the same job at the same time; each one
+ * repeatedly claims a free partition through a lease in the job_leases table, processes it,
+ * and marks it finished for the current run. A partition finished for a run is never claimed
+ * again for that run, so each user is processed once no matter how many instances there are,
+ * and adding instances spreads the partitions over more workers.
+ *
+ * While a partition is being processed its lease is renewed in the background. If an instance
+ * dies, its lease expires and another instance that is still waiting for the run to finish
+ * takes the partition over.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class PartitionedJobRunner {
+
+    /**
+     * Work done for one partition
+     */
+    @FunctionalInterface
+    public interface PartitionTask {
+
+        /**
+         * Process every user in one partition
+         * @param partition the partition number (0 to partitions - 1)
+         * @param partitions the total number of partitions
+         */
+        void process(int partition, int partitions) throws Exception;
+    }
+
+    private final JobLeaseService jobLeaseService;
+    private final String instanceId;
+    private final int partitions;
+    private final long leaseMillis;
+    private final long maxRunMillis;
+
+    /**
+     * Background thread that renews leases while partitions are being processed
+     */
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "medimate-lease-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor
+     * @param jobLeaseService lease operations
+     * @param instanceId unique name of this instance (generated if blank)
+     * @param partitions number of partitions the user space is split into
+     * @param leaseMillis how long a lease lasts without renewal
+     * @param maxRunMillis how long an instance keeps waiting for other instances' partitions
+     */
+    @Autowired
+    public PartitionedJobRunner(JobLeaseService jobLeaseService,
+                                @Value("${medimate.scheduler.instance-id:}") String instanceId,
+                                @Value("${medimate.scheduler.partitions:16}") int partitions,
+                                @Value("${medimate.scheduler.lease-duration-ms:60000}") long leaseMillis,
+                                @Value("${medimate.scheduler.max-run-ms:3600000}") long maxRunMillis) {
+        this.jobLeaseService = jobLeaseService;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? generateInstanceId() : instanceId;
+        this.partitions = partitions;
+        this.leaseMillis = leaseMillis;
+        this.maxRunMillis = maxRunMillis;
+    }
+
+    /**
+     * Stop the lease renewal thread
+     * @PreDestroy: Runs once when the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    /**
+     * Run a job's share of partitions on this instance
+     * Returns once every partition is finished for this run (by any instance)
+     * or max-run-ms has passed
+     * @param jobName the job name (one set of leases per job)
+     * @param runKey identifies this run; the same on every instance (e.g. today's date for a daily job)
+     * @param task the work to do for one partition
+     * @return the partitions this instance processed
+     */
+    public List<Integer> run(String jobName, String runKey, PartitionTask task) throws InterruptedException {
+        jobLeaseService.ensurePartitions(jobName, partitions);
+
+        List<Integer> processed = new ArrayList<>();
+        Set<Integer> failed = new HashSet<>();
+        long deadline = System.currentTimeMillis() + maxRunMillis;
+        long pollMillis = Math.max(10, Math.min(1000, leaseMillis / 4));
+
+        List<Integer> order = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            order.add(partition);
+        }
+
+        while (!ScheduledJobManager.isCancellationRequested()) {
+            // Visit partitions in random order so instances do not all contend for partition 0
+            Collections.shuffle(order);
+            boolean claimedAny = false;
+
+            for (int partition : order) {
+                // Do not claim more partitions once the job has gone over its maximum runtime
+                if (ScheduledJobManager.isCancellationRequested()) {
+                    break;
+                }
+                if (failed.contains(partition)
+                        || !jobLeaseService.tryClaim(jobName, partition, runKey, instanceId, leaseMillis)) {
+                    continue;
+                }
+                claimedAny = true;
+                if (processPartition(jobName, runKey, partition, task)) {
+                    processed.add(partition);
+                } else {
+                    failed.add(partition);
+                }
+            }
+
+            if (claimedAny) {
+                continue;
+            }
+            // Nothing free right now: stop if the run is done, otherwise wait for leases to expire
+            if (jobLeaseService.countIncomplete(jobName, runKey, partitions) <= failed.size()
+                    || System.currentTimeMillis() > deadline) {
+                break;
+            }
+            Thread.sleep(pollMillis);
+        }
+
+        System.out.println("Instance " + instanceId + " processed partitions " + processed +
+                " of job " + jobName + " (run " + runKey + ")");
+        return processed;
+    }
+
+    /**
+     * Process one claimed partition while renewing its lease in the background
+     * @return true if the partition was processed and marked finished
+     */
+    private boolean processPartition(String jobName, String runKey, int partition, PartitionTask task) {
+        long renewEvery = Math.max(1, leaseMillis / 3);
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(
+                () -> renewQuietly(jobName, partition), renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        try {
+            task.process(partition, partitions);
+            renewal.cancel(false);
+            if (!jobLeaseService.complete(jobName, partition, runKey, instanceId)) {
+                System.err.println("Lost lease on partition " + partition + " of job " + jobName +
+                        " before it could be completed");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            renewal.cancel(false);
+            System.err.println("Error processing partition " + partition + " of job " + jobName + ": " + e.getMessage());
+            jobLeaseService.release(jobName, partition, instanceId);
+            return false;
+        }
+    }
+
+    private void renewQuietly(String jobName, int partition) {
+        try {
+            jobLeaseService.renew(jobName, partition, instanceId, leaseMillis);
+        } catch (Exception e) {
+            System.err.println("Error renewing lease on partition " + partition + " of job " + jobName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Name of this instance as stored in the lease owner column
+     * @return instance ID
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Number of partitions the user space is split into
+     * @return partition count
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    private static String generateInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,293 @@
+package com.medimate.scheduler;
+
+import com.medimate.bulkhead.DatabaseContext;
+import com.medimate.bulkhead.WorkloadClass;
+import com.medimate.dto.JobStatus;
+import com.medimate.exception.ConflictException;
+import com.medimate.exception.NotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduled Job Manager
+ * Runs the scheduled jobs on their own threads with a concurrency limit and a maximum runtime
+ *
+ * A @Scheduled method only calls trigger(name), which hands the job to the job threads and
+ * returns, so a long job never holds up the scheduler thread or the other jobs. Each job has:
+ * - a concurrency limit (medimate.jobs.NAME.max-concurrency, default 1): a trigger that arrives
+ *   while that many runs are in progress is skipped, not queued
+ * - a maximum runtime (medimate.jobs.NAME.max-runtime-ms, default medimate.jobs.max-runtime-ms):
+ *   when it is reached the run is asked to stop. Cancellation is cooperative: the job code
+ *   calls isCancellationRequested() or checkCancelled() between chunks, partitions and batches,
+ *   and stops at the next one, with its checkpoint saved
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class ScheduledJobManager {
+
+    /**
+     * Cancellation flag of the run on the current thread (null outside a managed job)
+     */
+    private static final ThreadLocal<Run> CURRENT_RUN = new ThreadLocal<>();
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private Environment environment;
+
+    private final long defaultMaxRuntimeMs;
+
+    /**
+     * Longest time a job waits for a scan database connection before its run fails
+     */
+    @Value("${medimate.jobs.connection-wait-ms:30000}")
+    private long connectionWaitMs;
+
+    /**
+     * Threads the jobs run on; a run that finds every thread busy waits in the queue for a free one.
+     * Each waiting run holds one of its job's permits, so the queue never holds more than the
+     * sum of the jobs' max-concurrency
+     */
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * The work a job does
+     */
+    @FunctionalInterface
+    public interface JobTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * One registered job, its limits and its last run
+     */
+    private static final class Job {
+        final String name;
+        final JobTask task;
+        final int maxConcurrency;
+        final long maxRuntimeMs;
+        final Semaphore permits;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        volatile LocalDateTime lastStartedAt;
+        volatile Long lastDurationMs;
+        volatile JobStatus.Outcome lastOutcome;
+        volatile String lastError;
+
+        Job(String name, JobTask task, int maxConcurrency, long maxRuntimeMs) {
+            this.name = name;
+            this.task = task;
+            this.maxConcurrency = maxConcurrency;
+            this.maxRuntimeMs = maxRuntimeMs;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+    }
+
+    /**
+     * One run of a job
+     */
+    private static final class Run {
+        volatile boolean cancelled;
+    }
+
+    /**
+     * Thrown by checkCancelled() when the current run has been asked to stop
+     */
+    public static class JobCancelledException extends RuntimeException {
+        public JobCancelledException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param threads number of jobs that can run at the same time, across all jobs
+     * @param defaultMaxRuntimeMs maximum runtime of jobs that do not set their own
+     */
+    public ScheduledJobManager(@Value("${medimate.jobs.threads:4}") int threads,
+                               @Value("${medimate.jobs.max-runtime-ms:3600000}") long defaultMaxRuntimeMs) {
+        this.defaultMaxRuntimeMs = defaultMaxRuntimeMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "medimate-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stop the job threads
+     * @PreDestroy: Runs once when the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Job job : jobs.values()) {
+            job.permits.drainPermits();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Register a job so it can be triggered by its schedule and through the API
+     * @param name the job name
+     * @param task the work the job does
+     */
+    public void register(String name, JobTask task) {
+        int maxConcurrency = environment.getProperty("medimate.jobs." + name + ".max-concurrency", Integer.class, 1);
+        long maxRuntimeMs = environment.getProperty("medimate.jobs." + name + ".max-runtime-ms", Long.class, defaultMaxRuntimeMs);
+        jobs.put(name, new Job(name, task, Math.max(1, maxConcurrency), maxRuntimeMs));
+    }
+
+    /**
+     * Start a run of a job on a job thread, unless it is already running as often as allowed
+     * If every job thread is busy the run waits for the next free one
+     * @param name the job name
+     * @return true if a run was started or queued, false if it was skipped
+     * @throws NotFoundException if there is no job with this name
+     */
+    public boolean trigger(String name) {
+        Job job = jobs.get(name);
+        if (job == null) {
+            throw new NotFoundException("Job", name);
+        }
+        if (!job.permits.tryAcquire()) {
+            job.skipped.incrementAndGet();
+            System.out.println("⏭️  Skipping " + name + ": already running or waiting for a job thread");
+            return false;
+        }
+
+        Run run = new Run();
+        try {
+            executor.execute(() -> execute(job, run));
+        } catch (RejectedExecutionException e) {
+            // Only after shutdown(): the queue itself has no limit
+            job.permits.release();
+            job.skipped.incrementAndGet();
+            System.out.println("⏭️  Skipping " + name + ": job threads are shutting down");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Start a run of a job for an API request
+     * @param name the job name
+     * @throws NotFoundException if there is no job with this name
+     * @throws ConflictException if the job is already running
+     */
+    public void triggerManually(String name) {
+        if (!trigger(name)) {
+            throw new ConflictException("Job " + name + " is already running");
+        }
+    }
+
+    /**
+     * Run the job on the current (job) thread and record the outcome
+     */
+    private void execute(Job job, Run run) {
+        CURRENT_RUN.set(run);
+        // Jobs take their database connections from the job bulkhead, without a deadline but
+        // with a limited wait for each connection, so a busy bulkhead fails the run instead of hanging it
+        DatabaseContext.enter(WorkloadClass.JOB, 0, connectionWaitMs);
+        job.running.incrementAndGet();
+        job.runs.incrementAndGet();
+        job.lastStartedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        ScheduledFuture<?> deadline = taskScheduler.schedule(() -> {
+            System.err.println("⏱️  Job " + job.name + " has run for " + job.maxRuntimeMs + " ms; asking it to stop");
+            run.cancelled = true;
+        }, Instant.now().plusMillis(job.maxRuntimeMs));
+        try {
+            job.task.run();
+            job.lastOutcome = run.cancelled ? JobStatus.Outcome.TIMED_OUT : JobStatus.Outcome.COMPLETED;
+            job.lastError = null;
+        } catch (Exception e) {
+            job.lastOutcome = run.cancelled ? JobStatus.Outcome.TIMED_OUT : JobStatus.Outcome.FAILED;
+            job.lastError = e.getMessage();
+            System.err.println("❌ Job " + job.name + " failed: " + e.getMessage());
+        } finally {
+            deadline.cancel(false);
+            job.lastDurationMs = (System.nanoTime() - start) / 1_000_000;
+            job.running.decrementAndGet();
+            job.permits.release();
+            CURRENT_RUN.remove();
+            DatabaseContext.exit();
+        }
+    }
+
+    /**
+     * Check whether the job running on this thread has been asked to stop
+     * @return true if it should stop at the next safe point (always false outside a managed job)
+     */
+    public static boolean isCancellationRequested() {
+        Run run = CURRENT_RUN.get();
+        return run != null && run.cancelled;
+    }
+
+    /**
+     * Stop here if the job running on this thread has been asked to stop
+     * @param where description of the safe point, used in the exception message
+     * @throws JobCancelledException if the job has been asked to stop
+     */
+    public static void checkCancelled(String where) {
+        if (isCancellationRequested()) {
+            throw new JobCancelledException("Job cancelled " + where);
+        }
+    }
+
+    /**
+     * Get every registered job with its limits and last run, sorted by name
+     * @return one entry per job
+     */
+    public List<JobStatus> getJobs() {
+        List<JobStatus> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            result.add(status(job));
+        }
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return result;
+    }
+
+    /**
+     * Get one job's limits and last run
+     * @param name the job name
+     * @throws NotFoundException if there is no job with this name
+     */
+    public JobStatus getJob(String name) {
+        Job job = jobs.get(name);
+        if (job == null) {
+            throw new NotFoundException("Job", name);
+        }
+        return status(job);
+    }
+
+    private static JobStatus status(Job job) {
+        return new JobStatus(job.name, job.maxConcurrency, job.maxRuntimeMs, job.running.get(), job.lastStartedAt,
+                job.lastDurationMs, job.lastOutcome, job.lastError, job.runs.get(), job.skipped.get());
+    }
+}
@@ -0,0 +1,191 @@
+package com.medimate.service;
+
+import com.medimate.dto.StockForecast;
+import com.medimate.entity.Medicine;
+import com.medimate.entity.MedicineConsumption;
+import com.medimate.entity.QuantityChange;
+import com.medimate.exception.ValidationException;
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumption Service Class
+ * Records quantity changes and keeps a running consumption rate and stock-out forecast per medicine
+ *
+ * Every quantity change is appended to medicine_quantity_history. When a change uses medicine
+ * (the quantity goes down), the medicine's daily rate is updated as an exponentially weighted
+ * average: the units used divided by the days since the last use give the observed rate, and the
+ * stored rate moves towards it by a weight that grows with the time gap
+ * (weight = 1 - e^(-days / window)). Only the stored rate and the new change are needed,
+ * so the history is never read back.
+ *
+ * Restocks (the quantity goes up) are recorded but do not change the rate.
+ */
+@Service
+public class ConsumptionService {
+
+    /**
+     * Shortest gap between two uses counted when computing a rate (one hour),
+     * so two quick edits in a row do not look like a huge daily usage
+     */
+    private static final double MIN_INTERVAL_DAYS = 1.0 / 24;
+
+    /**
+     * Projections further out than this are treated as "not running out"
+     */
+    private static final double MAX_PROJECTION_DAYS = 36_500;
+
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    /**
+     * Time constant of the weighted average in days: usage older than this counts for
+     * about a third of usage today
+     */
+    @Value("${medimate.forecast.window-days:14}")
+    private double windowDays;
+
+    /**
+     * Record a change to a medicine's quantity (from updates or any dispense path)
+     * and update its consumption rate and stock-out forecast
+     * @param medicine the medicine after the change
+     * @param previousQuantity the quantity before the change
+     * @return the updated consumption row
+     */
+    @Transactional
+    public MedicineConsumption recordChange(Medicine medicine, int previousQuantity) {
+        LocalDateTime now = LocalDateTime.now();
+        int delta = medicine.getQuantity() - previousQuantity;
+        if (delta != 0) {
+            quantityChangeRepository.save(new QuantityChange(medicine.getId(), medicine.getUserId(),
+                    delta, medicine.getQuantity(), now));
+        }
+
+        // Make sure the row exists, then lock it, so two concurrent changes of the same medicine
+        // (including the first two) are applied one after the other
+        consumptionRepository.insertIfMissing(medicine.getId(), medicine.getUserId(), previousQuantity,
+                medicine.getExpiryDate(), medicine.getAddedDate() != null ? medicine.getAddedDate() : now);
+        MedicineConsumption consumption = consumptionRepository.findForUpdate(medicine.getId()).orElseThrow();
+
+        apply(consumption, delta, medicine.getQuantity(), medicine.getExpiryDate(), now, windowDays);
+        return consumptionRepository.save(consumption);
+    }
+
+    /**
+     * Remove a deleted medicine's consumption row (its history is kept)
+     * @param medicineId the medicine ID
+     */
+    @Transactional
+    public void forget(Long medicineId) {
+        consumptionRepository.deleteById(medicineId);
+    }
+
+    /**
+     * Get the stock-out forecast for each of a user's medicines
+     * Reads the medicines and the stored forecasts with one query each; nothing is recomputed
+     * @param userId the user ID
+     * @return one forecast per medicine
+     */
+    public List<StockForecast> getForecast(Long userId) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
+        }
+
+        Map<Long, MedicineConsumption> consumptionByMedicine = new HashMap<>();
+        for (MedicineConsumption consumption : consumptionRepository.findByUserId(userId)) {
+            consumptionByMedicine.put(consumption.getMedicineId(), consumption);
+        }
+
+        List<Medicine> medicines = medicineRepository.readByUserId(userId);
+        List<StockForecast> forecasts = new ArrayList<>(medicines.size());
+        for (Medicine medicine : medicines) {
+            forecasts.add(StockForecast.of(medicine, consumptionByMedicine.get(medicine.getId())));
+        }
+        System.out.println("Built stock forecast for " + forecasts.size() + " medicines of user " + userId);
+        return forecasts;
+    }
+
+    /**
+     * Get one chunk of a partition's medicines that will run out before they expire
+     * @param partition the partition to read
+     * @param partitions total number of partitions
+     * @param afterId only medicines with a larger ID (null for the first chunk)
+     * @param limit maximum number of rows
+     * @return list of consumption rows in medicine ID order
+     */
+    public List<MedicineConsumption> getRunningOutBeforeExpiryChunk(int partition, int partitions, Long afterId, int limit) {
+        return consumptionRepository.findRunningOutBeforeExpiryInPartition(LocalDate.now(), partitions, partition,
+                afterId != null ? afterId : 0L, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Apply one quantity change to a consumption row
+     * Package-private so the arithmetic can be tested without a database
+     * @param consumption the row to update
+     * @param delta new quantity minus old quantity
+     * @param quantity the quantity after the change
+     * @param expiryDate the expiry date after the change
+     * @param at when the change happened
+     * @param windowDays time constant of the weighted average
+     */
+    static void apply(MedicineConsumption consumption, int delta, int quantity, LocalDate expiryDate,
+                      LocalDateTime at, double windowDays) {
+        if (delta < 0) {
+            double days = Math.max(Duration.between(consumption.getLastUsageAt(), at).toMillis() / MILLIS_PER_DAY,
+                    MIN_INTERVAL_DAYS);
+            double observedRate = -delta / days;
+            double rate = consumption.getDailyRate();
+            if (consumption.getUsageEvents() == 0) {
+                rate = observedRate;
+            } else {
+                double weight = 1 - Math.exp(-days / windowDays);
+                rate = rate + weight * (observedRate - rate);
+            }
+            consumption.setDailyRate(rate);
+            consumption.setUsageEvents(consumption.getUsageEvents() + 1);
+            consumption.setLastUsageAt(at);
+        }
+
+        consumption.setQuantity(quantity);
+        consumption.setExpiryDate(expiryDate);
+        consumption.setUpdatedAt(at);
+        consumption.setStockOutDate(projectStockOut(consumption.getDailyRate(), quantity, at));
+    }
+
+    /**
+     * Day the stock runs out if it keeps being used at the given rate
+     * @return the stock-out day, or null if nothing is being used
+     */
+    static LocalDate projectStockOut(double dailyRate, int quantity, LocalDateTime from) {
+        if (dailyRate <= 0) {
+            return null;
+        }
+        double days = Math.max(quantity, 0) / dailyRate;
+        if (days > MAX_PROJECTION_DAYS) {
+            return null;
+        }
+        return from.plusSeconds((long) (days * 86_400)).toLocalDate();
+    }
+}
@@ -0,0 +1,269 @@
+package com.medimate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.entity.ExpiryDigest;
+import com.medimate.exception.NotFoundException;
+import com.medimate.repository.ExpiryDigestRepository;
+import com.medimate.scheduler.ScheduledJobManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expiry Digest Service Class
+ * Builds the per-user expiring-soon digests (expiry_digests table) and reads them
+ *
+ * Asking getMedicinesExpiringSoon once per user would send one query per user. Instead a
+ * partition of users is digested with one query over the expiring window: window functions
+ * give every row its user's count, total quantity and rank by expiry date, only the top
+ * ranked rows come back, and they arrive sorted by user. The rows are streamed (read
+ * fetch-size rows at a time) and folded into one digest per user as they go past, so memory
+ * use does not depend on the number of users. Finished digests are written with multi-row
+ * INSERT ... ON DUPLICATE KEY UPDATE statements of batch-size users each, and digests of users
+ * who no longer have anything expiring are deleted at the end.
+ *
+ * The whole partition is rebuilt in one transaction, so the query, the upserts and the delete
+ * share one database connection. A job holds one job bulkhead permit per connection; taking a
+ * second connection while the first is still streaming would wait on itself when the bulkhead
+ * has a single permit.
+ */
+@Service
+public class ExpiryDigestService {
+
+    private static final String DIGEST_QUERY =
+            "SELECT user_id, id, name, quantity, expiry_date, medicine_count, total_quantity FROM (" +
+            "SELECT m.user_id, m.id, m.name, m.quantity, m.expiry_date, " +
+            "COUNT(*) OVER (PARTITION BY m.user_id) AS medicine_count, " +
+            "SUM(m.quantity) OVER (PARTITION BY m.user_id) AS total_quantity, " +
+            "ROW_NUMBER() OVER (PARTITION BY m.user_id ORDER BY m.expiry_date, m.id) AS item_rank " +
+            "FROM medicines m " +
+            "WHERE m.expiry_date BETWEEN ? AND ? AND MOD(m.user_id, ?) = ?" +
+            ") ranked WHERE item_rank <= ? ORDER BY user_id, item_rank";
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO expiry_digests (user_id, medicine_count, total_quantity, nearest_expiry, top_items, " +
+            "window_start, window_end, generated_at) VALUES ";
+
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SUFFIX =
+            " ON DUPLICATE KEY UPDATE medicine_count = VALUES(medicine_count), " +
+            "total_quantity = VALUES(total_quantity), nearest_expiry = VALUES(nearest_expiry), " +
+            "top_items = VALUES(top_items), window_start = VALUES(window_start), " +
+            "window_end = VALUES(window_end), generated_at = VALUES(generated_at)";
+
+    private static final String DELETE_STALE =
+            "DELETE FROM expiry_digests WHERE MOD(user_id, ?) = ? AND generated_at <> ?";
+
+    @Autowired
+    private ExpiryDigestRepository expiryDigestRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Medicines expiring within this many days from today are in the digest
+     */
+    @Value("${medimate.digest.window-days:30}")
+    private int windowDays;
+
+    /**
+     * Number of medicines listed per user (the ones expiring first)
+     */
+    @Value("${medimate.digest.top-items:3}")
+    private int topItems;
+
+    /**
+     * Digests written per upsert statement
+     */
+    @Value("${medimate.digest.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Rows fetched from the database at a time while streaming the query
+     */
+    @Value("${medimate.digest.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private Counter digestedUsers;
+
+    /**
+     * Create the JDBC template and metrics
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        digestedUsers = Counter.builder("medimate.digest.users")
+                .description("Expiry digests written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the digest of every user in one partition
+     * Runs in one transaction: if the job is stopped part way, the partition keeps its previous digests
+     * @param partition the partition to digest (userId modulo partitions)
+     * @param partitions total number of partitions
+     * @param today first day of the expiring window
+     * @return number of users with a digest
+     * @throws ScheduledJobManager.JobCancelledException if the job is asked to stop between batches
+     */
+    public long rebuildPartition(int partition, int partitions, LocalDate today) {
+        LocalDate windowEnd = today.plusDays(windowDays);
+        // Microseconds, the precision of the generated_at column, so rows written by this run compare equal
+        LocalDateTime generatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        DigestBuilder builder = new DigestBuilder(today, windowEnd, generatedAt);
+
+        int deleted = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(DIGEST_QUERY, builder::processRow, today, windowEnd, partitions, partition, topItems);
+            builder.finish();
+            return jdbcTemplate.update(DELETE_STALE, partitions, partition, generatedAt);
+        });
+        if (builder.users > 0 || deleted > 0) {
+            System.out.println("Wrote " + builder.users + " expiry digests and removed " + deleted +
+                             " stale ones in partition " + partition);
+        }
+        return builder.users;
+    }
+
+    /**
+     * Get a user's expiring-soon digest
+     * @param userId the user ID
+     * @return the digest from the last run of the checkMedicinesExpiringSoon job
+     * @throws NotFoundException if the user had nothing expiring at the last run
+     */
+    public ExpiryDigest getDigest(Long userId) {
+        return expiryDigestRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Expiry digest", userId));
+    }
+
+    /**
+     * Number of days ahead the digests look
+     * @return days
+     */
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    /**
+     * Folds the sorted query rows into one digest per user and writes them in batches
+     */
+    private final class DigestBuilder {
+        private final LocalDate windowStart;
+        private final LocalDate windowEnd;
+        private final LocalDateTime generatedAt;
+        private final List<Object[]> pending = new ArrayList<>();
+
+        private Long userId;
+        private int medicineCount;
+        private long totalQuantity;
+        private LocalDate nearestExpiry;
+        private final List<Map<String, Object>> items = new ArrayList<>();
+        private long users;
+
+        DigestBuilder(LocalDate windowStart, LocalDate windowEnd, LocalDateTime generatedAt) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.generatedAt = generatedAt;
+        }
+
+        void processRow(ResultSet rs) throws SQLException {
+            long rowUserId = rs.getLong("user_id");
+            if (userId == null || userId != rowUserId) {
+                endUser();
+                userId = rowUserId;
+                medicineCount = rs.getInt("medicine_count");
+                totalQuantity = rs.getLong("total_quantity");
+                // Rows come in expiry order, so the first one expires first
+                nearestExpiry = rs.getObject("expiry_date", LocalDate.class);
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", rs.getLong("id"));
+            item.put("name", rs.getString("name"));
+            item.put("quantity", rs.getInt("quantity"));
+            item.put("expiryDate", rs.getObject("expiry_date", LocalDate.class));
+            items.add(item);
+        }
+
+        void finish() {
+            endUser();
+            flush();
+        }
+
+        private void endUser() {
+            if (userId == null) {
+                return;
+            }
+            pending.add(new Object[] {userId, medicineCount, totalQuantity, nearestExpiry, toJson(items),
+                    windowStart, windowEnd, generatedAt});
+            items.clear();
+            userId = null;
+            if (pending.size() >= batchSize) {
+                flush();
+                // Stop between batches if the job went over its maximum runtime; the partition is rebuilt next run
+                ScheduledJobManager.checkCancelled("after " + users + " expiry digests");
+            }
+        }
+
+        /**
+         * Write the pending digests with one multi-row upsert
+         */
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+            List<Object> args = new ArrayList<>(pending.size() * 8);
+            for (int i = 0; i < pending.size(); i++) {
+                sql.append(i == 0 ? UPSERT_ROW : ", " + UPSERT_ROW);
+                for (Object value : pending.get(i)) {
+                    args.add(value);
+                }
+            }
+            sql.append(UPSERT_SUFFIX);
+            jdbcTemplate.update(sql.toString(), args.toArray());
+            users += pending.size();
+            digestedUsers.increment(pending.size());
+            pending.clear();
+        }
+    }
+
+    private String toJson(List<Map<String, Object>> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write expiry digest items", e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.medimate.service;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group Commit Writer
+ * Collects new medicines from many callers and saves them together in one transaction
+ *
+ * Callers put their medicine into a bounded in-memory queue and get a CompletableFuture back.
+ * A single committer thread takes up to max-batch-size medicines from the queue (waiting at
+ * most max-delay-ms for more to arrive), saves them in one transaction, and completes each
+ * caller's future only after that transaction has committed. Many callers then share one
+ * commit instead of paying for one each.
+ *
+ * When the committer stops (application shutdown, or its thread is interrupted) it stops
+ * accepting writes and fails the future of every write still queued, so no caller waits for a
+ * write that will never be saved.
+ *
+ * This mode is off by default (medimate.group-commit.enabled=false).
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class GroupCommitWriter {
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Turn group commit on or off
+     */
+    @Value("${medimate.group-commit.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Maximum number of writes waiting in the queue; further writes are rejected
+     */
+    @Value("${medimate.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * Maximum number of medicines saved in one transaction
+     */
+    @Value("${medimate.group-commit.max-batch-size:100}")
+    private int maxBatchSize;
+
+    /**
+     * Maximum time the first write in a batch waits for others to join it
+     */
+    @Value("${medimate.group-commit.max-delay-ms:5}")
+    private long maxDelayMillis;
+
+    private BlockingQueue<PendingWrite> queue;
+    private TransactionTemplate transactionTemplate;
+    private DistributionSummary batchSizes;
+    private Thread committer;
+
+    /**
+     * Guards running together with adding to the queue, so no write can be queued after the
+     * committer has stopped and failed the writes left in the queue
+     */
+    private final Object lock = new Object();
+    private volatile boolean running;
+
+    /**
+     * Start the committer thread if group commit is enabled
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        batchSizes = DistributionSummary.builder("medimate.groupcommit.batch.size")
+                .description("Number of medicines saved per group commit transaction")
+                .register(meterRegistry);
+
+        running = true;
+        committer = new Thread(this::runCommitter, "medimate-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+        System.out.println("Group commit enabled (batch size: " + maxBatchSize + ", max delay: " + maxDelayMillis + " ms)");
+    }
+
+    /**
+     * Stop the committer thread after it has saved everything still in the queue
+     * If it has not finished within 10 seconds it is interrupted, and writes still queued fail
+     * @PreDestroy: Runs once when the application shuts down
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        stopAccepting();
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+        if (committer.isAlive()) {
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(1));
+        }
+        failQueued();
+    }
+
+    /**
+     * Check whether group commit is enabled
+     * @return true if writes should be submitted to this writer
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a medicine to be saved in the next group commit
+     * @param medicine the (already validated) medicine to save
+     * @return future completed with the saved medicine once its transaction has committed
+     * @throws RejectedExecutionException if the queue is full or the writer has stopped
+     */
+    public CompletableFuture<Medicine> submit(Medicine medicine) {
+        if (!enabled) {
+            throw new IllegalStateException("Group commit is not enabled");
+        }
+        PendingWrite write = new PendingWrite(medicine);
+        synchronized (lock) {
+            if (!running) {
+                throw new RejectedExecutionException("Write queue is shutting down, please retry");
+            }
+            if (!queue.offer(write)) {
+                throw new RejectedExecutionException("Write queue is full, please retry");
+            }
+        }
+        return write.future;
+    }
+
+    /**
+     * Committer loop: collect a batch, save it, repeat until stopped and the queue is empty
+     * Once the writer has stopped nothing more can be queued, so an empty queue stays empty.
+     * If the thread is interrupted, the batch being collected and everything still queued fail.
+     */
+    private void runCommitter() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait a little for more writes to join this batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopAccepting();
+                fail(batch);
+                break;
+            } catch (RuntimeException e) {
+                System.err.println("Error in group commit thread: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        failQueued();
+    }
+
+    /**
+     * Stop accepting new writes
+     */
+    private void stopAccepting() {
+        synchronized (lock) {
+            running = false;
+        }
+    }
+
+    /**
+     * Fail every write still in the queue (only called once no more writes can be queued)
+     */
+    private void failQueued() {
+        List<PendingWrite> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left);
+    }
+
+    private void fail(List<PendingWrite> writes) {
+        if (!writes.isEmpty()) {
+            System.err.println("❌ Group commit writer stopped with " + writes.size() + " unsaved medicines");
+        }
+        for (PendingWrite write : writes) {
+            write.future.completeExceptionally(
+                    new RejectedExecutionException("Write queue stopped before the medicine was saved, please retry"));
+        }
+    }
+
+    /**
+     * Save a batch in one transaction, falling back to one transaction per medicine if it fails
+     * so that one bad row does not fail everyone else's write
+     * @param batch the writes to save
+     */
+    private void flush(List<PendingWrite> batch) {
+        List<Medicine> medicines = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            medicines.add(write.medicine);
+        }
+
+        try {
+            List<Medicine> saved = transactionTemplate.execute(status -> medicineRepository.saveAll(medicines));
+            batchSizes.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(saved.get(i));
+            }
+        } catch (RuntimeException batchError) {
+            System.err.println("Group commit of " + batch.size() + " medicines failed, retrying one by one: "
+                    + batchError.getMessage());
+            for (PendingWrite write : batch) {
+                try {
+                    // The failed transaction may have assigned an ID that was rolled back
+                    write.medicine.setId(null);
+                    Medicine saved = transactionTemplate.execute(status -> medicineRepository.save(write.medicine));
+                    batchSizes.record(1);
+                    write.future.complete(saved);
+                } catch (RuntimeException e) {
+                    write.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A medicine waiting to be saved, and the future its caller is waiting on
+     */
+    private static final class PendingWrite {
+
+        private final Medicine medicine;
+        private final CompletableFuture<Medicine> future = new CompletableFuture<>();
+
+        private PendingWrite(Medicine medicine) {
+            this.medicine = medicine;
+        }
+    }
+}
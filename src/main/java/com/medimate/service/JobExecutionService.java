@@ -0,0 +1,142 @@
+package com.medimate.service;
+
+import com.medimate.entity.JobExecution;
+import com.medimate.exception.ValidationException;
+import com.medimate.repository.JobExecutionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Job Execution Service Class
+ * Starts, resumes and checkpoints job executions
+ */
+@Service
+public class JobExecutionService {
+    
+    /**
+     * Maximum number of executions returned by the listing endpoint
+     */
+    public static final int MAX_RECENT = 500;
+    
+    @Autowired
+    private JobExecutionRepository jobExecutionRepository;
+    
+    /**
+     * Start a new execution, or resume the previous one for the same run if it did not complete
+     * @param jobName the job name
+     * @param runKey the run key
+     * @param partition the partition number
+     * @param instanceId the instance doing the work
+     * @return the execution to continue (check its status: a COMPLETED one needs no work)
+     */
+    @Transactional
+    public JobExecution startOrResume(String jobName, String runKey, int partition, String instanceId) {
+        Optional<JobExecution> previous = jobExecutionRepository
+                .findFirstByJobNameAndRunKeyAndPartitionNoOrderByIdDesc(jobName, runKey, partition);
+        
+        if (previous.isPresent()) {
+            JobExecution execution = previous.get();
+            if (execution.getStatus() == JobExecution.Status.COMPLETED) {
+                return execution;
+            }
+            
+            // The previous attempt was interrupted or failed: continue from its checkpoint
+            System.out.println("Resuming " + execution + " after key " + execution.getLastProcessedKey());
+            execution.setStatus(JobExecution.Status.RUNNING);
+            execution.setInstanceId(instanceId);
+            execution.setResumeCount(execution.getResumeCount() + 1);
+            execution.setErrorMessage(null);
+            return jobExecutionRepository.save(execution);
+        }
+        
+        return jobExecutionRepository.save(new JobExecution(jobName, runKey, partition, instanceId));
+    }
+    
+    /**
+     * Save progress after a chunk
+     * @param executionId the execution ID
+     * @param lastProcessedKey key of the last item in the chunk
+     * @param items number of items in the chunk
+     * @param elapsedMs time spent on the chunk
+     * @return the updated execution
+     */
+    @Transactional
+    public JobExecution checkpoint(Long executionId, Long lastProcessedKey, int items, long elapsedMs) {
+        JobExecution execution = jobExecutionRepository.findById(executionId)
+                .orElseThrow(() -> new IllegalStateException("Job execution " + executionId + " not found"));
+        execution.setLastProcessedKey(lastProcessedKey);
+        execution.setItemsProcessed(execution.getItemsProcessed() + items);
+        execution.setChunksProcessed(execution.getChunksProcessed() + 1);
+        execution.setProcessingMs(execution.getProcessingMs() + elapsedMs);
+        execution.setLastCheckpointAt(LocalDateTime.now());
+        return jobExecutionRepository.save(execution);
+    }
+    
+    /**
+     * Mark an execution as completed
+     * @param executionId the execution ID
+     * @return the updated execution
+     */
+    @Transactional
+    public JobExecution complete(Long executionId) {
+        return finish(executionId, JobExecution.Status.COMPLETED, null);
+    }
+    
+    /**
+     * Mark an execution as failed; it will be resumed from its checkpoint next time
+     * @param executionId the execution ID
+     * @param errorMessage what went wrong
+     * @return the updated execution
+     */
+    @Transactional
+    public JobExecution fail(Long executionId, String errorMessage) {
+        if (errorMessage != null && errorMessage.length() > 500) {
+            errorMessage = errorMessage.substring(0, 500);
+        }
+        return finish(executionId, JobExecution.Status.FAILED, errorMessage);
+    }
+    
+    /**
+     * Check whether a run has executions that did not complete (e.g. because the process stopped)
+     * @param jobName the job name
+     * @param runKey the run key
+     * @return true if the run should be resumed
+     */
+    public boolean hasUnfinishedExecutions(String jobName, String runKey) {
+        return jobExecutionRepository.existsByJobNameAndRunKeyAndStatusIn(jobName, runKey,
+                EnumSet.of(JobExecution.Status.RUNNING, JobExecution.Status.FAILED));
+    }
+    
+    /**
+     * List recent executions, newest first
+     * @param jobName only this job (optional)
+     * @param limit maximum number of executions (capped at MAX_RECENT)
+     * @return list of executions
+     */
+    public List<JobExecution> findRecent(String jobName, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Limit must be positive");
+        }
+        PageRequest page = PageRequest.of(0, Math.min(limit, MAX_RECENT));
+        if (jobName == null || jobName.isBlank()) {
+            return jobExecutionRepository.findRecent(page);
+        }
+        return jobExecutionRepository.findRecentByJobName(jobName, page);
+    }
+    
+    private JobExecution finish(Long executionId, JobExecution.Status status, String errorMessage) {
+        JobExecution execution = jobExecutionRepository.findById(executionId)
+                .orElseThrow(() -> new IllegalStateException("Job execution " + executionId + " not found"));
+        execution.setStatus(status);
+        execution.setErrorMessage(errorMessage);
+        execution.setFinishedAt(LocalDateTime.now());
+        return jobExecutionRepository.save(execution);
+    }
+}
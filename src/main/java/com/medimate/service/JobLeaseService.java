@@ -0,0 +1,91 @@
+package com.medimate.service;
+
+import com.medimate.entity.JobLease;
+import com.medimate.repository.JobLeaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Job Lease Service Class
+ * Claims, renews and completes partition leases for scheduled jobs
+ * 
+ * Each method runs in its own short transaction so that a lease change is
+ * visible to the other instances as soon as the method returns. Lease expiry is
+ * measured with the database clock, not this instance's clock.
+ */
+@Service
+public class JobLeaseService {
+    
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+    
+    /**
+     * Create the lease rows for a job if they do not exist yet
+     * Several instances may do this at the same time; duplicates are ignored
+     * Rows beyond a lowered partition count are kept (an instance still on the old count may be
+     * using them during a rolling restart); countIncomplete ignores them
+     * @param jobName the job name
+     * @param partitions the number of partitions
+     */
+    public void ensurePartitions(String jobName, int partitions) {
+        if (jobLeaseRepository.countByJobName(jobName) >= partitions) {
+            return;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!jobLeaseRepository.existsById(new JobLease.Key(jobName, partition))) {
+                try {
+                    jobLeaseRepository.saveAndFlush(new JobLease(jobName, partition));
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance created the row first
+                }
+            }
+        }
+    }
+    
+    /**
+     * Try to claim a partition for a run
+     * @return true if this owner now holds the lease
+     */
+    @Transactional
+    public boolean tryClaim(String jobName, int partition, String runKey, String owner, long leaseMillis) {
+        return jobLeaseRepository.tryClaim(jobName, partition, runKey, owner, leaseMillis * 1_000L) == 1;
+    }
+    
+    /**
+     * Extend a lease this owner holds
+     * @return true if the lease is still held
+     */
+    @Transactional
+    public boolean renew(String jobName, int partition, String owner, long leaseMillis) {
+        return jobLeaseRepository.renew(jobName, partition, owner, leaseMillis * 1_000L) == 1;
+    }
+    
+    /**
+     * Mark a partition finished for a run and free its lease
+     * @return true if the partition was still held by this owner
+     */
+    @Transactional
+    public boolean complete(String jobName, int partition, String runKey, String owner) {
+        return jobLeaseRepository.complete(jobName, partition, runKey, owner) == 1;
+    }
+    
+    /**
+     * Free a lease without finishing the partition
+     */
+    @Transactional
+    public void release(String jobName, int partition, String owner) {
+        jobLeaseRepository.release(jobName, partition, owner);
+    }
+    
+    /**
+     * Count the partitions a run has not finished yet
+     * Only partitions 0 to partitions - 1 count: after the partition count is lowered the
+     * higher rows are never claimed again, so they must not keep the run waiting
+     * @param partitions the job's current number of partitions
+     */
+    public long countIncomplete(String jobName, String runKey, int partitions) {
+        return jobLeaseRepository.countIncomplete(jobName, runKey, partitions);
+    }
+}
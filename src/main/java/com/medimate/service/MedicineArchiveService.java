@@ -0,0 +1,224 @@
+package com.medimate.service;
+
+import com.medimate.entity.ArchivedMedicine;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.ArchivedMedicineRepository;
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.scheduler.ScheduledJobManager;
+import com.medimate.snapshot.InventorySnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Medicine Archive Service Class
+ * Moves medicines that expired long ago from medicines to medicines_archive
+ *
+ * Rows are moved in small batches, each in its own short transaction: lock one batch of
+ * expired rows, copy them with INSERT ... SELECT, delete them, commit. Between batches the
+ * job sleeps so it never moves more than medimate.archive.max-rows-per-second rows per
+ * second, which keeps lock times short and gives replicas time to catch up.
+ *
+ * Archived rows are still readable: the list endpoints return them with includeArchived=true.
+ */
+@Service
+public class MedicineArchiveService {
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ArchivedMedicineRepository archivedMedicineRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Medicines are archived once they have been expired for this many days
+     */
+    @Value("${medimate.archive.after-days:365}")
+    private int afterDays;
+
+    /**
+     * Rows moved per transaction
+     */
+    @Value("${medimate.archive.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Upper limit on rows moved per second (0 = no limit)
+     */
+    @Value("${medimate.archive.max-rows-per-second:2000}")
+    private int maxRowsPerSecond;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter archivedRows;
+
+    /**
+     * Create the transaction template and metrics
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        archivedRows = Counter.builder("medimate.archive.rows")
+                .description("Medicines moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archive every medicine in one user partition that expired more than after-days ago
+     * @param partition the partition to archive (userId modulo partitions)
+     * @param partitions total number of partitions
+     * @return number of medicines archived
+     * @throws InterruptedException if the thread is interrupted while throttling
+     */
+    public long archivePartition(int partition, int partitions) throws InterruptedException {
+        LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+        long total = 0;
+        long started = System.nanoTime();
+
+        while (true) {
+            long batchStarted = System.nanoTime();
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff, partitions, partition));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            archivedRows.increment(moved);
+            // Stop between batches if the job went over its maximum runtime; the rest waits for the next run
+            if (ScheduledJobManager.isCancellationRequested()) {
+                break;
+            }
+            throttle(moved, System.nanoTime() - batchStarted);
+        }
+
+        if (total > 0) {
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            System.out.println("Archived " + total + " medicines expired before " + cutoff +
+                             " in partition " + partition + " (" + elapsedMs + " ms)");
+        }
+        return total;
+    }
+
+    /**
+     * Move one batch of medicines to the archive (runs inside a transaction)
+     * @return number of medicines moved
+     */
+    private int archiveBatch(LocalDate cutoff, int partitions, int partition) {
+        List<Medicine> batch = medicineRepository.findArchivableInPartition(cutoff, partitions, partition,
+                PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Medicine medicine : batch) {
+            ids.add(medicine.getId());
+            userIds.add(medicine.getUserId());
+        }
+
+        int copied = archivedMedicineRepository.copyFromMedicines(ids, LocalDateTime.now());
+        int deleted = medicineRepository.deleteByIdIn(ids);
+        if (copied != ids.size() || deleted != ids.size()) {
+            // Roll back rather than lose or duplicate rows
+            throw new IllegalStateException("Archive batch moved " + copied + " and deleted " + deleted +
+                                            " of " + ids.size() + " medicines");
+        }
+        consumptionRepository.deleteAllByIdInBatch(ids);
+
+        // The in-memory snapshot still holds these rows; reload those users once the batch is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userIds.forEach(inventorySnapshot::invalidate);
+            }
+        });
+        return ids.size();
+    }
+
+    /**
+     * Sleep long enough that the rows moved so far stay under max-rows-per-second
+     */
+    private void throttle(int moved, long batchNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long minimumNanos = moved * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMillis = (minimumNanos - batchNanos) / 1_000_000;
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    /**
+     * Get all archived medicines of a user
+     * @param userId the user ID
+     * @return list of archived medicines as Medicine objects
+     */
+    public List<Medicine> getArchivedMedicines(Long userId) {
+        return toMedicines(archivedMedicineRepository.findByUserId(userId));
+    }
+
+    /**
+     * Get a user's archived medicines that expired before a date
+     * @param userId the user ID
+     * @param date the date to compare against
+     * @return list of archived medicines as Medicine objects
+     */
+    public List<Medicine> getArchivedMedicinesExpiredBefore(Long userId, LocalDate date) {
+        return toMedicines(archivedMedicineRepository.findByUserIdAndExpiryDateBefore(userId, date));
+    }
+
+    /**
+     * Search a user's archived medicines by name
+     * @param userId the user ID
+     * @param name the medicine name to search for
+     * @return list of matching archived medicines as Medicine objects
+     */
+    public List<Medicine> searchArchivedMedicines(Long userId, String name) {
+        return toMedicines(archivedMedicineRepository.findByUserIdAndNameContainingIgnoreCase(userId, name));
+    }
+
+    /**
+     * Number of days a medicine must have been expired before it is archived
+     * @return days
+     */
+    public int getAfterDays() {
+        return afterDays;
+    }
+
+    private static List<Medicine> toMedicines(List<ArchivedMedicine> archived) {
+        List<Medicine> medicines = new ArrayList<>(archived.size());
+        for (ArchivedMedicine medicine : archived) {
+            medicines.add(medicine.toMedicine());
+        }
+        return medicines;
+    }
+}
@@ -0,0 +1,341 @@
+package com.medimate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.MedicineEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Medicine Event Broadcaster
+ * Pushes inventory changes and expiry alerts to clients connected to GET /api/medicines/events
+ *
+ * Publishing never blocks the caller: each event is serialized to JSON once and offered to a
+ * small bounded queue per subscriber. A shared pool of sender threads drains those queues and
+ * writes to the connections. A subscriber whose queue fills up (a slow or stuck client) is
+ * disconnected instead of slowing everyone else down. Idle connections get a heartbeat
+ * comment so proxies do not close them and dead clients are noticed.
+ *
+ * @Component: Marks this class as a Spring component
+ * @Lazy(false): Always created at startup so the heartbeat task is registered
+ * even with lazy initialization turned on (the prod profile)
+ */
+@Component
+@Lazy(false)
+public class MedicineEventBroadcaster {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Maximum number of events waiting to be sent to one subscriber
+     */
+    @Value("${medimate.events.buffer-size:256}")
+    private int bufferSize;
+
+    /**
+     * Maximum number of connected subscribers across all users
+     */
+    @Value("${medimate.events.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    /**
+     * How long a connection stays open before the client has to reconnect
+     */
+    @Value("${medimate.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    /**
+     * Number of threads writing events to connections
+     */
+    @Value("${medimate.events.sender-threads:8}")
+    private int senderThreads;
+
+    /**
+     * Subscribers grouped by user ID
+     */
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private ExecutorService sender;
+    private Counter publishedEvents;
+    private Counter slowConsumerDisconnects;
+
+    /**
+     * Start the sender threads and register metrics
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "medimate-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        publishedEvents = meterRegistry.counter("medimate.events.published");
+        slowConsumerDisconnects = meterRegistry.counter("medimate.events.slow.disconnects");
+        Gauge.builder("medimate.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Connected event stream subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Close every connection and stop the sender threads
+     * @PreDestroy: Runs once when the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Open a new event stream for a user
+     * @param userId the user whose events should be sent
+     * @return emitter that Spring MVC keeps open as a text/event-stream response
+     * @throws RejectedExecutionException if too many subscribers are connected
+     */
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    /**
+     * Register an emitter for a user (package-private so tests can pass their own emitter)
+     */
+    SseEmitter subscribe(Long userId, SseEmitter emitter) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many event subscribers, please retry later");
+        }
+
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        // Tell the client the stream is live
+        offer(subscriber, Outgoing.comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Send an event to every subscriber of the event's user
+     * Never blocks: slow subscribers are disconnected instead
+     * @param event the event to send
+     */
+    public void publish(MedicineEvent event) {
+        if (event == null || event.getUserId() == null) {
+            return;
+        }
+        Set<Subscriber> userSubscribers = subscribers.get(event.getUserId());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            System.err.println("Error serializing medicine event " + event + ": " + e.getMessage());
+            return;
+        }
+
+        Outgoing outgoing = Outgoing.event(event.getType().name().toLowerCase(), json);
+        for (Subscriber subscriber : userSubscribers) {
+            offer(subscriber, outgoing);
+        }
+        publishedEvents.increment();
+    }
+
+    /**
+     * Send a heartbeat comment to every subscriber that has nothing else queued
+     */
+    @Scheduled(fixedRateString = "${medimate.events.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        Outgoing heartbeat = Outgoing.comment("heartbeat");
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                if (subscriber.queue.isEmpty()) {
+                    offer(subscriber, heartbeat);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of connected subscribers
+     * @return subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Queue a message for one subscriber and make sure a sender thread will drain its queue
+     */
+    private void offer(Subscriber subscriber, Outgoing outgoing) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(outgoing)) {
+            slowConsumerDisconnects.increment();
+            disconnect(subscriber);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write everything queued for a subscriber to its connection
+     * Only one sender thread drains a given subscriber at a time
+     */
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Outgoing outgoing;
+            while (!subscriber.closed.get() && (outgoing = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(outgoing.toEvent());
+                } catch (Exception e) {
+                    // The client has gone away
+                    remove(subscriber);
+                    subscriber.closed.set(true);
+                }
+            }
+
+            if (subscriber.closed.get()) {
+                subscriber.queue.clear();
+                completeQuietly(subscriber);
+                return;
+            }
+
+            subscriber.draining.set(false);
+            // Another message may have arrived after the last poll but before the flag was cleared
+            if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Disconnect a subscriber without blocking the caller
+     * If a sender thread is draining it, that thread completes the emitter when it is done
+     */
+    private void disconnect(Subscriber subscriber) {
+        remove(subscriber);
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriber.queue.clear();
+            if (subscriber.draining.compareAndSet(false, true)) {
+                sender.execute(() -> completeQuietly(subscriber));
+            }
+        }
+    }
+
+    private void completeQuietly(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception e) {
+            // Already completed or the connection is gone
+        }
+    }
+
+    /**
+     * Stop sending to a subscriber
+     */
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> userSubscribers = subscribers.get(subscriber.userId);
+        if (userSubscribers != null && userSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.userId, (key, set) -> set.isEmpty() ? null : set);
+        }
+    }
+
+    /**
+     * One connected client
+     */
+    private static final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    /**
+     * A message waiting to be sent: either a named event with JSON data or a comment
+     * Immutable, so one instance is shared by all subscribers of an event
+     */
+    private static final class Outgoing {
+
+        private final String name;
+        private final String data;
+        private final String comment;
+
+        private Outgoing(String name, String data, String comment) {
+            this.name = name;
+            this.data = data;
+            this.comment = comment;
+        }
+
+        static Outgoing event(String name, String data) {
+            return new Outgoing(name, data, null);
+        }
+
+        static Outgoing comment(String comment) {
+            return new Outgoing(null, null, comment);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (comment != null) {
+                return SseEmitter.event().comment(comment);
+            }
+            return SseEmitter.event().name(name).data(data);
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.medimate.service;
 
+import com.medimate.dto.MedicineEvent;
+import com.medimate.dto.MedicineView;
 import com.medimate.entity.Medicine;
+import com.medimate.exception.ConflictException;
+import com.medimate.exception.NotFoundException;
+import com.medimate.exception.ValidationException;
 import com.medimate.repository.MedicineRepository;
+import com.medimate.snapshot.InventorySnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Medicine Service Class
@@ -19,6 +35,17 @@ import java.util.Optional;
 @Service
 public class MedicineService {
     
+    /**
+     * Maximum number of user IDs accepted in one batch query
+     */
+    public static final int MAX_BATCH_USERS = 1000;
+    
+    /**
+     * Maximum number of user IDs sent in a single SQL IN-list
+     * Larger batches are split into chunks of this size
+     */
+    public static final int QUERY_CHUNK_SIZE = 200;
+    
     /**
      * Dependency injection of MedicineRepository
      * @Autowired: Spring automatically injects the repository instance
@@ -26,32 +53,88 @@ public class MedicineService {
     @Autowired
     private MedicineRepository medicineRepository;
     
+    /**
+     * Optional write-behind writer that saves many new medicines in one transaction
+     */
+    @Autowired
+    private GroupCommitWriter groupCommitWriter;
+    
+    /**
+     * Pushes add, update and delete events to clients connected to the event stream
+     */
+    @Autowired
+    private MedicineEventBroadcaster eventBroadcaster;
+    
+    /**
+     * Optional columnar read model for the expired, expiring-soon and low-stock views
+     */
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+    
+    /**
+     * Records quantity changes and keeps consumption rates and stock-out forecasts
+     */
+    @Autowired
+    private ConsumptionService consumptionService;
+    
+    /**
+     * Reads medicines that were moved to the archive table
+     */
+    @Autowired
+    private MedicineArchiveService archiveService;
+    
     /**
      * Add a new medicine to the database
      * @param medicine the medicine object to be saved
      * @return the saved medicine object with generated ID
+     * @throws ValidationException if the medicine is missing or already expired
+     * @throws ConflictException if the database rejects the medicine
      */
     public Medicine addMedicine(Medicine medicine) {
-        try {
-            // Validate that the medicine is not null
-            if (medicine == null) {
-                throw new IllegalArgumentException("Medicine cannot be null");
-            }
-            
-            // Validate that expiry date is not in the past
-            if (medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(LocalDate.now())) {
-                throw new IllegalArgumentException("Expiry date cannot be in the past");
-            }
-            
-            // Save the medicine to database
-            Medicine savedMedicine = medicineRepository.save(medicine);
-            System.out.println("Medicine added successfully: " + savedMedicine);
-            return savedMedicine;
-            
-        } catch (Exception e) {
-            System.err.println("Error adding medicine: " + e.getMessage());
-            throw new RuntimeException("Failed to add medicine: " + e.getMessage());
+        // Validate that the medicine is not null
+        if (medicine == null) {
+            throw new ValidationException("Medicine cannot be null");
+        }
+        
+        // Validate that expiry date is not in the past
+        if (medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(LocalDate.now())) {
+            throw new ValidationException("Expiry date cannot be in the past");
         }
+        
+        // Save the medicine to database
+        Medicine savedMedicine = save(medicine);
+        System.out.println("Medicine added successfully: " + savedMedicine);
+        inventorySnapshot.onSaved(savedMedicine);
+        eventBroadcaster.publish(MedicineEvent.of(MedicineEvent.Type.ADDED, savedMedicine));
+        return savedMedicine;
+    }
+    
+    /**
+     * Add a new medicine, using group commit when it is enabled
+     * With group commit the medicine is queued and saved together with other new medicines
+     * in one transaction; otherwise this is the same as addMedicine
+     * @param medicine the medicine object to be saved
+     * @return future completed with the saved medicine once it has been committed
+     */
+    public CompletableFuture<Medicine> addMedicineAsync(Medicine medicine) {
+        if (groupCommitWriter == null || !groupCommitWriter.isEnabled()) {
+            return CompletableFuture.completedFuture(addMedicine(medicine));
+        }
+        
+        // Validate before queueing so callers get validation errors straight away
+        if (medicine == null) {
+            throw new ValidationException("Medicine cannot be null");
+        }
+        
+        if (medicine.getExpiryDate() != null && medicine.getExpiryDate().isBefore(LocalDate.now())) {
+            throw new ValidationException("Expiry date cannot be in the past");
+        }
+        
+        return groupCommitWriter.submit(medicine).thenApply(savedMedicine -> {
+            inventorySnapshot.onSaved(savedMedicine);
+            eventBroadcaster.publish(MedicineEvent.of(MedicineEvent.Type.ADDED, savedMedicine));
+            return savedMedicine;
+        });
     }
     
     /**
@@ -60,19 +143,26 @@ public class MedicineService {
      * @return list of all medicines belonging to the user
      */
     public List<Medicine> getAllMedicinesByUserId(Long userId) {
-        try {
-            if (userId == null) {
-                throw new IllegalArgumentException("User ID cannot be null");
-            }
-            
-            List<Medicine> medicines = medicineRepository.findByUserId(userId);
-            System.out.println("Retrieved " + medicines.size() + " medicines for user " + userId);
-            return medicines;
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving medicines for user " + userId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve medicines: " + e.getMessage());
+        return getAllMedicinesByUserId(userId, false);
+    }
+    
+    /**
+     * Get all medicines for a specific user, optionally including archived ones
+     * @param userId the user ID
+     * @param includeArchived also return medicines moved to the archive table
+     * @return list of all medicines belonging to the user
+     */
+    public List<Medicine> getAllMedicinesByUserId(Long userId, boolean includeArchived) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
         }
+        
+        List<Medicine> medicines = medicineRepository.readByUserId(userId);
+        if (includeArchived) {
+            medicines.addAll(archiveService.getArchivedMedicines(userId));
+        }
+        System.out.println("Retrieved " + medicines.size() + " medicines for user " + userId);
+        return medicines;
     }
     
     /**
@@ -81,74 +171,119 @@ public class MedicineService {
      * @return Optional containing the medicine if found, empty otherwise
      */
     public Optional<Medicine> getMedicineById(Long id) {
-        try {
-            if (id == null) {
-                throw new IllegalArgumentException("Medicine ID cannot be null");
-            }
-            
-            return medicineRepository.findById(id);
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving medicine with ID " + id + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve medicine: " + e.getMessage());
+        if (id == null) {
+            throw new ValidationException("Medicine ID cannot be null");
         }
+        
+        return medicineRepository.readById(id);
     }
     
     /**
      * Update an existing medicine
+     * Runs in one transaction with the quantity history and forecast update, so either all of
+     * them are saved or none is
      * @param id the medicine ID to update
      * @param updatedMedicine the updated medicine data
      * @return the updated medicine object
+     * @throws NotFoundException if there is no medicine with this ID
+     * @throws ConflictException if the database rejects the change
      */
+    @Transactional
     public Medicine updateMedicine(Long id, Medicine updatedMedicine) {
-        try {
-            if (id == null || updatedMedicine == null) {
-                throw new IllegalArgumentException("Medicine ID and updated medicine cannot be null");
-            }
-            
-            // Check if medicine exists
-            Optional<Medicine> existingMedicine = medicineRepository.findById(id);
-            if (existingMedicine.isEmpty()) {
-                throw new RuntimeException("Medicine with ID " + id + " not found");
-            }
-            
-            // Update the medicine
-            Medicine medicine = existingMedicine.get();
-            medicine.setName(updatedMedicine.getName());
-            medicine.setQuantity(updatedMedicine.getQuantity());
-            medicine.setExpiryDate(updatedMedicine.getExpiryDate());
-            
-            Medicine savedMedicine = medicineRepository.save(medicine);
-            System.out.println("Medicine updated successfully: " + savedMedicine);
-            return savedMedicine;
-            
-        } catch (Exception e) {
-            System.err.println("Error updating medicine with ID " + id + ": " + e.getMessage());
-            throw new RuntimeException("Failed to update medicine: " + e.getMessage());
+        if (id == null || updatedMedicine == null) {
+            throw new ValidationException("Medicine ID and updated medicine cannot be null");
         }
+        
+        // Check if medicine exists
+        Optional<Medicine> existingMedicine = medicineRepository.findById(id);
+        if (existingMedicine.isEmpty()) {
+            throw new NotFoundException("Medicine", id);
+        }
+        
+        // Update the medicine
+        Medicine medicine = existingMedicine.get();
+        int previousQuantity = medicine.getQuantity();
+        LocalDate previousExpiryDate = medicine.getExpiryDate();
+        medicine.setName(updatedMedicine.getName());
+        medicine.setQuantity(updatedMedicine.getQuantity());
+        medicine.setExpiryDate(updatedMedicine.getExpiryDate());
+        
+        Medicine savedMedicine = saveAndFlush(medicine);
+        System.out.println("Medicine updated successfully: " + savedMedicine);
+        
+        // Append the quantity change to the history and update the consumption forecast
+        if (savedMedicine.getQuantity() != previousQuantity || !savedMedicine.getExpiryDate().equals(previousExpiryDate)) {
+            consumptionService.recordChange(savedMedicine, previousQuantity);
+        }
+        MedicineEvent event = MedicineEvent.of(MedicineEvent.Type.UPDATED, savedMedicine);
+        afterCommit(() -> {
+            inventorySnapshot.onSaved(savedMedicine);
+            eventBroadcaster.publish(event);
+        });
+        return savedMedicine;
     }
     
     /**
      * Delete a medicine by ID
+     * Runs in one transaction: the medicine is read once, and that row is both checked for
+     * existence and deleted (its user ID is needed for the event)
      * @param id the medicine ID to delete
+     * @throws NotFoundException if there is no medicine with this ID
      */
+    @Transactional
     public void deleteMedicine(Long id) {
-        try {
-            if (id == null) {
-                throw new IllegalArgumentException("Medicine ID cannot be null");
-            }
-            
-            // Check if medicine exists
-            if (!medicineRepository.existsById(id)) {
-                throw new RuntimeException("Medicine with ID " + id + " not found");
+        if (id == null) {
+            throw new ValidationException("Medicine ID cannot be null");
+        }
+        
+        Medicine medicine = medicineRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Medicine", id));
+        medicineRepository.delete(medicine);
+        consumptionService.forget(id);
+        System.out.println("Medicine deleted successfully with ID: " + id);
+        
+        afterCommit(() -> {
+            inventorySnapshot.onDeleted(medicine.getUserId(), id);
+            eventBroadcaster.publish(new MedicineEvent(MedicineEvent.Type.DELETED, medicine.getUserId(), id, null));
+        });
+    }
+    
+    /**
+     * Run an action once the current transaction has committed (or straight away without one)
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
-            
-            medicineRepository.deleteById(id);
-            System.out.println("Medicine deleted successfully with ID: " + id);
-            
-        } catch (Exception e) {
-            System.err.println("Error deleting medicine with ID " + id + ": " + e.getMessage());
-            throw new RuntimeException("Failed to delete medicine: " + e.getMessage());
+        });
+    }
+    
+    /**
+     * Save a medicine, reporting constraint violations as a conflict
+     */
+    private Medicine save(Medicine medicine) {
+        try {
+            return medicineRepository.save(medicine);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Medicine conflicts with existing data", e);
+        }
+    }
+    
+    /**
+     * Save a medicine and send the change to the database straight away, so inside a
+     * transaction a constraint violation is reported here as a conflict and not at commit
+     */
+    private Medicine saveAndFlush(Medicine medicine) {
+        try {
+            return medicineRepository.saveAndFlush(medicine);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Medicine conflicts with existing data", e);
         }
     }
     
@@ -158,20 +293,29 @@ public class MedicineService {
      * @return list of expired medicines
      */
     public List<Medicine> getExpiredMedicines(Long userId) {
-        try {
-            if (userId == null) {
-                throw new IllegalArgumentException("User ID cannot be null");
-            }
-            
-            LocalDate today = LocalDate.now();
-            List<Medicine> expiredMedicines = medicineRepository.findByUserIdAndExpiryDateBefore(userId, today);
-            System.out.println("Found " + expiredMedicines.size() + " expired medicines for user " + userId);
-            return expiredMedicines;
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving expired medicines for user " + userId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve expired medicines: " + e.getMessage());
+        return getExpiredMedicines(userId, false);
+    }
+    
+    /**
+     * Get all expired medicines for a user, optionally including archived ones
+     * @param userId the user ID
+     * @param includeArchived also return medicines moved to the archive table
+     * @return list of expired medicines
+     */
+    public List<Medicine> getExpiredMedicines(Long userId, boolean includeArchived) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
         }
+        
+        LocalDate today = LocalDate.now();
+        List<Medicine> expiredMedicines = inventorySnapshot.isEnabled()
+                ? inventorySnapshot.findExpired(userId, today)
+                : medicineRepository.readByUserIdAndExpiryDateBefore(userId, today);
+        if (includeArchived) {
+            expiredMedicines.addAll(archiveService.getArchivedMedicinesExpiredBefore(userId, today));
+        }
+        System.out.println("Found " + expiredMedicines.size() + " expired medicines for user " + userId);
+        return expiredMedicines;
     }
     
     /**
@@ -180,22 +324,18 @@ public class MedicineService {
      * @return list of medicines expiring soon
      */
     public List<Medicine> getMedicinesExpiringSoon(Long userId) {
-        try {
-            if (userId == null) {
-                throw new IllegalArgumentException("User ID cannot be null");
-            }
-            
-            LocalDate today = LocalDate.now();
-            LocalDate thirtyDaysFromNow = today.plusDays(30);
-            
-            List<Medicine> expiringSoon = medicineRepository.findByUserIdAndExpiryDateBetween(userId, today, thirtyDaysFromNow);
-            System.out.println("Found " + expiringSoon.size() + " medicines expiring soon for user " + userId);
-            return expiringSoon;
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving medicines expiring soon for user " + userId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve medicines expiring soon: " + e.getMessage());
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
         }
+        
+        LocalDate today = LocalDate.now();
+        LocalDate thirtyDaysFromNow = today.plusDays(30);
+        
+        List<Medicine> expiringSoon = inventorySnapshot.isEnabled()
+                ? inventorySnapshot.findExpiringBetween(userId, today, thirtyDaysFromNow)
+                : medicineRepository.readByUserIdAndExpiryDateBetween(userId, today, thirtyDaysFromNow);
+        System.out.println("Found " + expiringSoon.size() + " medicines expiring soon for user " + userId);
+        return expiringSoon;
     }
     
     /**
@@ -205,24 +345,20 @@ public class MedicineService {
      * @return list of medicines with low stock
      */
     public List<Medicine> getLowStockMedicines(Long userId, Integer threshold) {
-        try {
-            if (userId == null) {
-                throw new IllegalArgumentException("User ID cannot be null");
-            }
-            
-            // Set default threshold if not provided
-            if (threshold == null) {
-                threshold = 5;
-            }
-            
-            List<Medicine> lowStockMedicines = medicineRepository.findByUserIdAndQuantityLessThan(userId, threshold);
-            System.out.println("Found " + lowStockMedicines.size() + " low stock medicines for user " + userId + " (threshold: " + threshold + ")");
-            return lowStockMedicines;
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving low stock medicines for user " + userId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve low stock medicines: " + e.getMessage());
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
+        }
+        
+        // Set default threshold if not provided
+        if (threshold == null) {
+            threshold = 5;
         }
+        
+        List<Medicine> lowStockMedicines = inventorySnapshot.isEnabled()
+                ? inventorySnapshot.findLowStock(userId, threshold)
+                : medicineRepository.readByUserIdAndQuantityLessThan(userId, threshold);
+        System.out.println("Found " + lowStockMedicines.size() + " low stock medicines for user " + userId + " (threshold: " + threshold + ")");
+        return lowStockMedicines;
     }
     
     /**
@@ -232,39 +368,134 @@ public class MedicineService {
      * @return list of medicines matching the name
      */
     public List<Medicine> searchMedicinesByName(Long userId, String name) {
-        try {
-            if (userId == null) {
-                throw new IllegalArgumentException("User ID cannot be null");
-            }
-            
-            if (name == null || name.trim().isEmpty()) {
-                throw new IllegalArgumentException("Medicine name cannot be null or empty");
-            }
-            
-            List<Medicine> medicines = medicineRepository.findByUserIdAndNameContainingIgnoreCase(userId, name.trim());
-            System.out.println("Found " + medicines.size() + " medicines matching name '" + name + "' for user " + userId);
-            return medicines;
-            
-        } catch (Exception e) {
-            System.err.println("Error searching medicines by name for user " + userId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to search medicines: " + e.getMessage());
+        return searchMedicinesByName(userId, name, false);
+    }
+    
+    /**
+     * Search medicines by name for a user, optionally including archived ones
+     * @param userId the user ID
+     * @param name the medicine name to search for
+     * @param includeArchived also search medicines moved to the archive table
+     * @return list of medicines matching the name
+     */
+    public List<Medicine> searchMedicinesByName(Long userId, String name, boolean includeArchived) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
+        }
+        
+        if (name == null || name.trim().isEmpty()) {
+            throw new ValidationException("Medicine name cannot be null or empty");
         }
+        
+        List<Medicine> medicines = medicineRepository.readByUserIdAndNameContainingIgnoreCase(userId, name.trim());
+        if (includeArchived) {
+            medicines.addAll(archiveService.searchArchivedMedicines(userId, name.trim()));
+        }
+        System.out.println("Found " + medicines.size() + " medicines matching name '" + name + "' for user " + userId);
+        return medicines;
     }
     
     /**
-     * Get all expired medicines across all users (used by scheduled task)
-     * @return list of all expired medicines
+     * Get the next chunk of expired medicines in a partition, in ID order (used by scheduled task)
+     * @param partition the partition number
+     * @param partitions the total number of partitions
+     * @param afterId return medicines with a larger ID than this (null to start from the beginning)
+     * @param limit maximum number of medicines to return
+     * @return the next chunk of expired medicines
      */
-    public List<Medicine> getAllExpiredMedicines() {
-        try {
-            LocalDate today = LocalDate.now();
-            List<Medicine> expiredMedicines = medicineRepository.findAllExpiredMedicines(today);
-            System.out.println("Found " + expiredMedicines.size() + " expired medicines across all users");
-            return expiredMedicines;
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving all expired medicines: " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve expired medicines: " + e.getMessage());
+    public List<Medicine> getExpiredMedicinesChunk(int partition, int partitions, Long afterId, int limit) {
+        LocalDate today = LocalDate.now();
+        return medicineRepository.findExpiredMedicinesInPartitionAfter(today, partitions, partition,
+                afterId != null ? afterId : 0L, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Get several medicine views for many users at once (used by caregiver and clinic dashboards)
+     * Runs one IN-list query per view and chunk instead of one query per user per view,
+     * then groups the rows by user in a single pass
+     * @param userIds the user IDs to query
+     * @param views the views wanted for every user
+     * @param threshold the low stock threshold (default: 5)
+     * @return map of user ID to a map of view name to medicines; every requested user is present
+     */
+    public Map<Long, Map<String, List<Medicine>>> queryMedicinesForUsers(List<Long> userIds,
+                                                                       List<MedicineView> views,
+                                                                       Integer threshold) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new ValidationException("At least one user ID is required");
+        }
+        
+        if (views == null || views.isEmpty()) {
+            throw new ValidationException("At least one view is required");
+        }
+        
+        // Remove duplicates and nulls while keeping the caller's order
+        LinkedHashSet<Long> distinctUserIds = new LinkedHashSet<>(userIds);
+        distinctUserIds.remove(null);
+        
+        if (distinctUserIds.isEmpty()) {
+            throw new ValidationException("At least one user ID is required");
+        }
+        
+        if (distinctUserIds.size() > MAX_BATCH_USERS) {
+            throw new ValidationException("A batch query can include at most " + MAX_BATCH_USERS + " users");
+        }
+        
+        // Set default threshold if not provided
+        if (threshold == null) {
+            threshold = 5;
+        }
+        
+        LinkedHashSet<MedicineView> distinctViews = new LinkedHashSet<>(views);
+        distinctViews.remove(null);
+        
+        // Pre-create an entry for every user and view so the response shape is predictable
+        Map<Long, Map<String, List<Medicine>>> result = new LinkedHashMap<>();
+        for (Long userId : distinctUserIds) {
+            Map<String, List<Medicine>> userViews = new LinkedHashMap<>();
+            for (MedicineView view : distinctViews) {
+                userViews.put(view.getValue(), new ArrayList<>());
+            }
+            result.put(userId, userViews);
+        }
+        
+        LocalDate today = LocalDate.now();
+        LocalDate thirtyDaysFromNow = today.plusDays(30);
+        List<Long> allUserIds = new ArrayList<>(distinctUserIds);
+        int statements = 0;
+        
+        for (MedicineView view : distinctViews) {
+            for (int from = 0; from < allUserIds.size(); from += QUERY_CHUNK_SIZE) {
+                List<Long> chunk = allUserIds.subList(from, Math.min(from + QUERY_CHUNK_SIZE, allUserIds.size()));
+                
+                List<Medicine> rows;
+                switch (view) {
+                    case EXPIRED:
+                        rows = medicineRepository.readByUserIdInAndExpiryDateBefore(chunk, today);
+                        break;
+                    case EXPIRING_SOON:
+                        rows = medicineRepository.readByUserIdInAndExpiryDateBetween(chunk, today, thirtyDaysFromNow);
+                        break;
+                    case LOW_STOCK:
+                        rows = medicineRepository.readByUserIdInAndQuantityLessThan(chunk, threshold);
+                        break;
+                    default:
+                        throw new ValidationException("Unsupported medicine view: " + view);
+                }
+                statements++;
+                
+                // Group the rows by user in one pass
+                for (Medicine medicine : rows) {
+                    Map<String, List<Medicine>> userViews = result.get(medicine.getUserId());
+                    if (userViews != null) {
+                        userViews.get(view.getValue()).add(medicine);
+                    }
+                }
+            }
         }
+        
+        System.out.println("Batch query for " + allUserIds.size() + " users and views " + distinctViews +
+                         " completed with " + statements + " queries");
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.medimate.service;
+
+import com.medimate.bulkhead.DatabaseContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Request Coalescer
+ * Lets identical concurrent read requests share a single in-flight database query
+ *
+ * When a push notification goes out, many devices ask for the same data at the same moment.
+ * The first caller for a key (the "leader") runs the query straight away.
+ *
+ * A caller only ever shares a query that had not started reading when the caller arrived,
+ * so it never sees data older than its own request (for example from before a write it
+ * just made). Callers that arrive while a query is already running therefore queue up
+ * behind it: the first of them becomes the leader of the next query, which starts as soon
+ * as the running one finishes, and the rest share that next query.
+ *
+ * Results are never cached: once a query finishes its entry is removed and the next
+ * caller starts a fresh one. Waiting is capped by wait-timeout-ms and by the request's
+ * remaining database deadline, whichever is shorter.
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class RequestCoalescer {
+
+    /**
+     * Queries currently running, keyed by method name and arguments
+     */
+    private final ConcurrentHashMap<String, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Turn coalescing on or off (when off every call runs its own query)
+     */
+    @Value("${medimate.coalescing.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * How long a caller waits for a shared query before querying on its own
+     */
+    @Value("${medimate.coalescing.wait-timeout-ms:5000}")
+    private long waitTimeoutMillis = 5000;
+
+    private final Counter leaderCalls;
+    private final Counter coalescedCalls;
+    private final Counter bypassedCalls;
+
+    /**
+     * Constructor
+     * @param meterRegistry registry used to publish the medimate.coalescer.calls metric
+     */
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.leaderCalls = Counter.builder("medimate.coalescer.calls")
+                .description("Read calls that ran their own database query")
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("medimate.coalescer.calls")
+                .description("Read calls that shared another call's in-flight query")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.bypassedCalls = Counter.builder("medimate.coalescer.calls")
+                .description("Read calls that gave up waiting for a shared query")
+                .tag("result", "bypassed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build a coalescing key from a method name and its arguments
+     * @param method the service method name
+     * @param args the method arguments
+     * @return key identifying identical calls
+     */
+    public static String key(String method, Object... args) {
+        StringBuilder key = new StringBuilder(method);
+        for (Object arg : args) {
+            key.append('|').append(arg);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Run a read, sharing the result with identical calls that are running at the same time
+     * @param key the coalescing key (see {@link #key(String, Object...)})
+     * @param loader the actual read to run
+     * @return the result of the read
+     */
+    public <T> T execute(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        while (true) {
+            InFlight<T> mine = new InFlight<>(null);
+            InFlight<?> existing = inFlight.putIfAbsent(key, mine);
+
+            if (existing == null) {
+                return lead(key, mine, loader);
+            }
+
+            // The query has not started reading yet, so its result is at least as new as this call
+            if (existing.tryJoin()) {
+                return join(existing, loader);
+            }
+
+            // The query is already reading: queue the next query behind it and lead that one
+            InFlight<T> next = new InFlight<>(existing);
+            if (inFlight.replace(key, existing, next)) {
+                return lead(key, next, loader);
+            }
+            // Another caller changed the entry first: look again
+        }
+    }
+
+    /**
+     * Run the query for an entry and publish the result to every caller that joined it
+     */
+    private <T> T lead(String key, InFlight<T> mine, Supplier<T> loader) {
+        try {
+            if (mine.previous != null) {
+                // Only one query per key at a time: wait for the running one to finish first
+                try {
+                    awaitResult(mine.previous);
+                } catch (TimeoutException | RuntimeException | Error e) {
+                    // Its outcome is not ours to report, we only waited for it to get out of the way
+                }
+            }
+            mine.start();
+            leaderCalls.increment();
+
+            T result = loader.get();
+            mine.future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Wait for a query that had not started when this call arrived
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T join(InFlight<?> existing, Supplier<T> loader) {
+        coalescedCalls.increment();
+        try {
+            return (T) awaitResult(existing);
+        } catch (TimeoutException e) {
+            // The shared query is taking too long: stop waiting and query directly
+            bypassedCalls.increment();
+            return loader.get();
+        }
+    }
+
+    /**
+     * Wait for an entry's result, for at most wait-timeout-ms or the remaining request deadline
+     */
+    private Object awaitResult(InFlight<?> entry) throws TimeoutException {
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        DatabaseContext context = DatabaseContext.current();
+        if (context != null && context.hasDeadline()) {
+            waitNanos = Math.min(waitNanos, Math.max(0, context.remainingNanos()));
+        }
+
+        try {
+            return entry.future.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a shared query");
+        }
+    }
+
+    /**
+     * Number of reads that ran their own query
+     * @return leader call count
+     */
+    public long getLeaderCount() {
+        return (long) leaderCalls.count();
+    }
+
+    /**
+     * Number of reads that shared another call's query
+     * @return coalesced call count
+     */
+    public long getCoalescedCount() {
+        return (long) coalescedCalls.count();
+    }
+
+    /**
+     * Number of reads that gave up waiting for a shared query
+     * @return bypassed call count
+     */
+    public long getBypassedCount() {
+        return (long) bypassedCalls.count();
+    }
+
+    /**
+     * A query that is running or queued to run next for its key
+     */
+    private static final class InFlight<T> {
+
+        private final InFlight<?> previous;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private boolean started;
+
+        private InFlight(InFlight<?> previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Join this query if it has not started reading yet
+         * @return true if joined, false if the query already started
+         */
+        private synchronized boolean tryJoin() {
+            return !started;
+        }
+
+        /**
+         * Mark the query as reading, so later callers no longer join it
+         */
+        private synchronized void start() {
+            started = true;
+        }
+    }
+}
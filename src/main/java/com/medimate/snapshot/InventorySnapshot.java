@@ -0,0 +1,351 @@
+package com.medimate.snapshot;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Inventory Snapshot
+ * Optional in-memory read model that answers the expired, expiring-soon and low-stock views
+ * without going through JPA
+ *
+ * Each user's medicines are kept as a UserInventory (primitive columns, names dictionary-encoded).
+ * A user's inventory is loaded from the database the first time it is read, and after that kept
+ * up to date by MedicineService, which calls onSaved/onDeleted after every committed write.
+ * Once max-users inventories are in memory, views of other users are answered by the matching
+ * targeted database query instead of loading their whole inventory.
+ *
+ * To avoid installing an inventory that was loaded just before a write committed, every write
+ * bumps a version number for the user's stripe; a load is only installed if that version did not
+ * change while it was reading. A write for a user whose inventory is loaded is applied to it
+ * directly (copy-on-write), so readers never see a half-applied change.
+ *
+ * This mode is off by default (medimate.snapshot.enabled=false). Only writes made through this
+ * instance are applied to the inventories it holds; writes made by other instances are never
+ * seen. So every inventory is reloaded from the database once it is older than max-age-ms, which
+ * bounds how stale a view can be when several instances write. With a single instance max-age-ms
+ * can be 0 (inventories are then never reloaded for age).
+ *
+ * @Component: Marks this class as a Spring component
+ */
+@Component
+public class InventorySnapshot {
+
+    private static final int VERSION_STRIPES = 1024;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Turn the snapshot on or off
+     */
+    @Value("${medimate.snapshot.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Maximum number of users kept in memory; views of further users go to the database
+     */
+    @Value("${medimate.snapshot.max-users:100000}")
+    private int maxUsers;
+
+    /**
+     * Reload an inventory from the database once it was read this long ago (0 for never)
+     */
+    @Value("${medimate.snapshot.max-age-ms:60000}")
+    private long maxAgeMillis;
+
+    private final ConcurrentHashMap<Long, Entry> inventories = new ConcurrentHashMap<>();
+    private final NameDictionary names = new NameDictionary();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * Row number buffer reused by each request thread, so filtering allocates nothing
+     */
+    private final ThreadLocal<int[]> rowBuffers = ThreadLocal.withInitial(() -> new int[256]);
+
+    /**
+     * Register metrics
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        Gauge.builder("medimate.snapshot.users", inventories, ConcurrentHashMap::size)
+                .description("Users whose inventory is held in the columnar snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check whether the snapshot should be used to answer views
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get medicines that expired before a day
+     * @param userId the user ID
+     * @param today the first day that does not count as expired
+     * @return list of expired medicines
+     */
+    public List<Medicine> findExpired(Long userId, LocalDate today) {
+        UserInventory inventory = cached(userId);
+        if (inventory == null) {
+            return medicineRepository.readByUserIdAndExpiryDateBefore(userId, today);
+        }
+        int[] rows = rowBuffer(inventory.size());
+        int count = inventory.filterExpiryBefore((int) today.toEpochDay(), rows);
+        return materialize(userId, inventory, rows, count);
+    }
+
+    /**
+     * Get medicines that expire between two days (both included)
+     * @param userId the user ID
+     * @param from first day of the range
+     * @param to last day of the range
+     * @return list of medicines expiring in the range
+     */
+    public List<Medicine> findExpiringBetween(Long userId, LocalDate from, LocalDate to) {
+        UserInventory inventory = cached(userId);
+        if (inventory == null) {
+            return medicineRepository.readByUserIdAndExpiryDateBetween(userId, from, to);
+        }
+        int[] rows = rowBuffer(inventory.size());
+        int count = inventory.filterExpiryBetween((int) from.toEpochDay(), (int) to.toEpochDay(), rows);
+        return materialize(userId, inventory, rows, count);
+    }
+
+    /**
+     * Get medicines with a quantity below a threshold
+     * @param userId the user ID
+     * @param threshold the quantity threshold
+     * @return list of low stock medicines
+     */
+    public List<Medicine> findLowStock(Long userId, int threshold) {
+        UserInventory inventory = cached(userId);
+        if (inventory == null) {
+            return medicineRepository.readByUserIdAndQuantityLessThan(userId, threshold);
+        }
+        int[] rows = rowBuffer(inventory.size());
+        int count = inventory.filterQuantityBelow(threshold, rows);
+        return materialize(userId, inventory, rows, count);
+    }
+
+    /**
+     * Count medicines that expired before a day, without creating any objects
+     * @param userId the user ID
+     * @param today the first day that does not count as expired
+     * @return number of expired medicines
+     */
+    public int countExpired(Long userId, LocalDate today) {
+        UserInventory inventory = cached(userId);
+        if (inventory == null) {
+            return Math.toIntExact(medicineRepository.countExpiredMedicinesByUserId(userId, today));
+        }
+        return inventory.countExpiryBefore((int) today.toEpochDay());
+    }
+
+    /**
+     * Get a user's inventory, loading it from the database if it is not in memory
+     * (past max-users it is loaded for this call only)
+     * @param userId the user ID
+     * @return the user's current inventory
+     */
+    public UserInventory get(Long userId) {
+        Entry entry = fresh(inventories.get(userId));
+        return entry != null ? entry.inventory : load(userId);
+    }
+
+    /**
+     * Get a user's inventory from memory, loading it if there is room for another user
+     * @param userId the user ID
+     * @return the inventory, or null when max-users other inventories are in memory
+     */
+    private UserInventory cached(Long userId) {
+        Entry entry = inventories.get(userId);
+        if (fresh(entry) != null) {
+            return entry.inventory;
+        }
+        if (entry == null && inventories.size() >= maxUsers) {
+            return null;
+        }
+        return load(userId);
+    }
+
+    /**
+     * The entry if it is younger than max-age-ms, otherwise null
+     */
+    private Entry fresh(Entry entry) {
+        if (entry == null || maxAgeMillis <= 0
+                || System.nanoTime() - entry.loadedAt < TimeUnit.MILLISECONDS.toNanos(maxAgeMillis)) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Load a user's inventory from the database and keep it if there is room
+     */
+    private UserInventory load(Long userId) {
+        int stripe = stripe(userId);
+        long versionBeforeLoad = versions.get(stripe);
+        long loadedAt = System.nanoTime();
+        UserInventory loaded = UserInventory.of(medicineRepository.readByUserId(userId), names);
+
+        if (inventories.size() >= maxUsers && !inventories.containsKey(userId)) {
+            return loaded;
+        }
+        // Install only if no write for this stripe committed while we were reading
+        Entry installed = inventories.compute(userId, (key, existing) -> {
+            if (fresh(existing) != null) {
+                return existing;
+            }
+            return versions.get(stripe) == versionBeforeLoad ? new Entry(loaded, loadedAt) : null;
+        });
+        return installed != null ? installed.inventory : loaded;
+    }
+
+    /**
+     * Install an inventory built outside the database (from a snapshot file at startup)
+     * An inventory that is already in memory is kept
+     * @param userId the user ID
+     * @param inventory the inventory, with names encoded in this snapshot's dictionary
+     * @return true if it was installed
+     */
+    boolean install(Long userId, UserInventory inventory) {
+        if (inventories.size() >= maxUsers) {
+            return false;
+        }
+        return inventories.putIfAbsent(userId, new Entry(inventory, System.nanoTime())) == null;
+    }
+
+    /**
+     * Check whether a user's inventory is in memory
+     * @param userId the user ID
+     * @return true if it is loaded
+     */
+    public boolean isLoaded(Long userId) {
+        return inventories.containsKey(userId);
+    }
+
+    /**
+     * Apply a committed insert or update
+     * @param medicine the saved medicine
+     */
+    public void onSaved(Medicine medicine) {
+        if (!enabled || medicine == null || medicine.getId() == null || medicine.getUserId() == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(medicine.getUserId()));
+        inventories.computeIfPresent(medicine.getUserId(),
+                (key, entry) -> new Entry(entry.inventory.withUpsert(medicine, names), entry.loadedAt));
+    }
+
+    /**
+     * Apply a committed delete
+     * @param userId the owner of the deleted medicine
+     * @param medicineId the deleted medicine's ID
+     */
+    public void onDeleted(Long userId, Long medicineId) {
+        if (!enabled || userId == null || medicineId == null) {
+            return;
+        }
+        versions.incrementAndGet(stripe(userId));
+        inventories.computeIfPresent(userId,
+                (key, entry) -> new Entry(entry.inventory.withRemoved(medicineId), entry.loadedAt));
+    }
+
+    /**
+     * Drop a user's inventory so it is reloaded from the database on the next read
+     * (for changes made outside MedicineService)
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        versions.incrementAndGet(stripe(userId));
+        inventories.remove(userId);
+    }
+
+    /**
+     * Drop every inventory
+     */
+    public void clear() {
+        for (int stripe = 0; stripe < VERSION_STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        inventories.clear();
+    }
+
+    /**
+     * Number of users whose inventory is in memory
+     * @return user count
+     */
+    public int getUserCount() {
+        return inventories.size();
+    }
+
+    /**
+     * Number of distinct medicine names stored
+     * @return name count
+     */
+    public int getNameCount() {
+        return names.size();
+    }
+
+    /**
+     * The dictionary used to encode names
+     */
+    NameDictionary getNames() {
+        return names;
+    }
+
+    private int[] rowBuffer(int size) {
+        int[] rows = rowBuffers.get();
+        if (rows.length < size) {
+            rows = new int[Math.max(size, rows.length * 2)];
+            rowBuffers.set(rows);
+        }
+        return rows;
+    }
+
+    private List<Medicine> materialize(Long userId, UserInventory inventory, int[] rows, int count) {
+        List<Medicine> medicines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            medicines.add(inventory.toMedicine(rows[i], userId, names));
+        }
+        return medicines;
+    }
+
+    private static int stripe(Long userId) {
+        return (Long.hashCode(userId) & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    /**
+     * A user's inventory and the System.nanoTime() at which it was read from the database
+     * (writes applied by this instance keep the original time)
+     */
+    private static final class Entry {
+
+        private final UserInventory inventory;
+        private final long loadedAt;
+
+        private Entry(UserInventory inventory, long loadedAt) {
+            this.inventory = inventory;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
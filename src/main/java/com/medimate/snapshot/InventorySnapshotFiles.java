@@ -0,0 +1,330 @@
+package com.medimate.snapshot;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Inventory Snapshot Files
+ * Writes the medicines table to snapshot files (see SnapshotFile) and uses the newest one to fill
+ * the in-memory inventory snapshot at startup
+ *
+ * Without a file, every user's inventory starts empty after a restart and the first request for
+ * each user goes to the database. With a file, the inventories are built from the memory-mapped
+ * file before the application reports itself ready, and then brought up to date with the database:
+ *   - medicines with an ID above the file's high-water mark were added later and are applied
+ *   - users with a medicine updated (medicines.updated_at, any field) after the file was
+ *     started are reloaded
+ *   - users whose number of medicines up to the high-water mark differs from the file
+ *     (deleted or archived medicines) are reloaded
+ * Only those users go to the database; everyone else is served from the file's data.
+ *
+ * Files are written by MedicineScheduler every medimate.snapshot.file.interval-ms to this
+ * instance's medimate.snapshot.file.directory; the newest medimate.snapshot.file.retain are kept.
+ * They can be read offline with SnapshotCli.
+ *
+ * @Component: Marks this class as a Spring component
+ * ApplicationRunner: run() is called after the context has started and before the application
+ * is marked ready to accept traffic
+ * @Lazy(false): Always created at startup so the warm-up runs
+ */
+@Component
+@Lazy(false)
+public class InventorySnapshotFiles implements ApplicationRunner {
+
+    /**
+     * Updates made this long before a file was started are also rechecked, to cover
+     * transactions that were still running when it was written and clock differences between instances
+     */
+    private static final long RECONCILE_MARGIN_MILLIS = 60_000;
+
+    private static final String PREFIX = "inventory-";
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    /**
+     * Turn writing and loading snapshot files on or off
+     */
+    @Value("${medimate.snapshot.file.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Directory the files are written to
+     */
+    @Value("${medimate.snapshot.file.directory:data/snapshots}")
+    private String directory;
+
+    /**
+     * Number of files kept; older ones are deleted after each write
+     */
+    @Value("${medimate.snapshot.file.retain:3}")
+    private int retain;
+
+    /**
+     * Rows read from the database per query when writing a file or reconciling
+     */
+    @Value("${medimate.snapshot.file.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Check whether snapshot files should be written
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Load the newest file into the inventory snapshot at startup
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !inventorySnapshot.isEnabled()) {
+            return;
+        }
+        try {
+            Path latest = findLatest();
+            if (latest == null) {
+                System.out.println("No inventory snapshot file found in " + directory + ", starting cold");
+                return;
+            }
+            load(latest);
+        } catch (Exception e) {
+            // A bad file only costs the warm start; inventories are then loaded from the database on demand
+            System.err.println("❌ Error loading inventory snapshot file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the whole medicines table to a new snapshot file
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public Path write() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        // Read the high-water mark before the first row, so every change after it is found again at startup
+        long takenAt = System.currentTimeMillis();
+        long highWaterMark = medicineRepository.findMaxId();
+        long start = System.nanoTime();
+
+        Path target = dir.resolve(PREFIX + takenAt + SnapshotFile.EXTENSION);
+        Path written;
+        int records;
+        try (SnapshotFile.Writer writer = SnapshotFile.Writer.create(target)) {
+            long lastUserId = Long.MIN_VALUE;
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                List<Medicine> page = medicineRepository.findPageOrderedByUser(lastUserId, lastId, PageRequest.of(0, chunkSize));
+                for (Medicine medicine : page) {
+                    writer.add(medicine.getId(), medicine.getUserId(), medicine.getName(), medicine.getQuantity(),
+                            (int) medicine.getExpiryDate().toEpochDay(), UserInventory.toEpochNanos(medicine.getAddedDate()));
+                }
+                if (page.size() < chunkSize) {
+                    break;
+                }
+                Medicine last = page.get(page.size() - 1);
+                lastUserId = last.getUserId();
+                lastId = last.getId();
+            }
+            records = writer.getRecordCount();
+            written = writer.commit(takenAt, highWaterMark);
+        }
+
+        System.out.println("Wrote inventory snapshot " + written.getFileName() + ": " + records + " medicines in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms");
+        deleteOldFiles(dir);
+        return written;
+    }
+
+    /**
+     * Fill the inventory snapshot from a file and reconcile it with the database
+     * @param path the snapshot file
+     * @return number of users loaded from the file
+     * @throws IOException if the file is not a valid snapshot
+     */
+    public int load(Path path) throws IOException {
+        long start = System.nanoTime();
+        SnapshotFile file = SnapshotFile.open(path);
+        NameDictionary names = inventorySnapshot.getNames();
+
+        // Translate the file's name codes into the snapshot's dictionary once
+        int[] nameCodes = new int[file.getNameCount()];
+        for (int code = 0; code < nameCodes.length; code++) {
+            nameCodes[code] = names.encode(file.getName(code));
+        }
+
+        // Records are sorted by user, so each user's medicines are one run of records
+        Map<Long, Integer> fileCounts = new HashMap<>();
+        int records = file.getRecordCount();
+        int loaded = 0;
+        int first = 0;
+        while (first < records) {
+            long userId = file.getUserId(first);
+            int end = first + 1;
+            while (end < records && file.getUserId(end) == userId) {
+                end++;
+            }
+            if (inventorySnapshot.install(userId, readInventory(file, first, end, nameCodes))) {
+                loaded++;
+                int upToMark = 0;
+                for (int record = first; record < end; record++) {
+                    if (file.getId(record) <= file.getHighWaterMark()) {
+                        upToMark++;
+                    }
+                }
+                fileCounts.put(userId, upToMark);
+            }
+            first = end;
+        }
+        long loadedMs = (System.nanoTime() - start) / 1_000_000;
+
+        int reconciled = reconcile(file, fileCounts);
+        System.out.println("Loaded " + loaded + " users (" + records + " medicines) from " + path.getFileName() +
+                " in " + loadedMs + " ms; " + reconciled + " users reloaded or updated from the database in " +
+                ((System.nanoTime() - start) / 1_000_000 - loadedMs) + " ms");
+        return loaded;
+    }
+
+    /**
+     * Path of the newest snapshot file, or null if there is none
+     * @return the newest file
+     * @throws IOException if the directory cannot be listed
+     */
+    public Path findLatest() throws IOException {
+        List<Path> files = listFiles(Paths.get(directory));
+        return files.isEmpty() ? null : files.get(files.size() - 1);
+    }
+
+    /**
+     * Apply the database changes made after the file was started
+     * @return number of users updated or reloaded
+     */
+    private int reconcile(SnapshotFile file, Map<Long, Integer> fileCounts) {
+        Set<Long> touched = new HashSet<>();
+
+        // Medicines added after the high-water mark
+        long afterId = file.getHighWaterMark();
+        while (true) {
+            List<Medicine> added = medicineRepository.findByIdAfter(afterId, PageRequest.of(0, chunkSize));
+            for (Medicine medicine : added) {
+                if (fileCounts.containsKey(medicine.getUserId())) {
+                    inventorySnapshot.onSaved(medicine);
+                    touched.add(medicine.getUserId());
+                }
+            }
+            if (added.size() < chunkSize) {
+                break;
+            }
+            afterId = added.get(added.size() - 1).getId();
+        }
+
+        // Medicines updated after the file was started
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(file.getTakenAtMillis() - RECONCILE_MARGIN_MILLIS), ZoneId.systemDefault());
+        for (Long userId : medicineRepository.findUserIdsUpdatedSince(since)) {
+            if (fileCounts.containsKey(userId)) {
+                inventorySnapshot.invalidate(userId);
+                touched.add(userId);
+            }
+        }
+
+        // Deleted or archived medicines: the count up to the high-water mark no longer matches
+        Map<Long, Integer> remaining = new HashMap<>(fileCounts);
+        for (Object[] row : medicineRepository.countByUserUpTo(file.getHighWaterMark())) {
+            Long userId = (Long) row[0];
+            Integer expected = remaining.remove(userId);
+            if (expected != null && expected != ((Long) row[1]).intValue()) {
+                inventorySnapshot.invalidate(userId);
+                touched.add(userId);
+            }
+        }
+        // Users that have no medicines left at all
+        for (Long userId : remaining.keySet()) {
+            if (remaining.get(userId) > 0) {
+                inventorySnapshot.invalidate(userId);
+                touched.add(userId);
+            }
+        }
+        return touched.size();
+    }
+
+    private static UserInventory readInventory(SnapshotFile file, int first, int end, int[] nameCodes) {
+        int size = end - first;
+        long[] id = new long[size];
+        int[] quantity = new int[size];
+        int[] expiryEpochDay = new int[size];
+        int[] nameCode = new int[size];
+        long[] addedEpochNanos = new long[size];
+        for (int i = 0; i < size; i++) {
+            int record = first + i;
+            id[i] = file.getId(record);
+            quantity[i] = file.getQuantity(record);
+            expiryEpochDay[i] = file.getExpiryEpochDay(record);
+            nameCode[i] = nameCodes[file.getNameCode(record)];
+            addedEpochNanos[i] = file.getAddedEpochNanos(record);
+        }
+        return UserInventory.of(id, quantity, expiryEpochDay, nameCode, addedEpochNanos);
+    }
+
+    private void deleteOldFiles(Path dir) throws IOException {
+        List<Path> files = listFiles(dir);
+        for (int i = 0; i < files.size() - Math.max(retain, 1); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * Snapshot files in a directory, oldest first (the name contains the time it was taken)
+     */
+    private static List<Path> listFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SnapshotFile.EXTENSION);
+                    })
+                    .sorted(Comparator.comparingLong(InventorySnapshotFiles::takenAt))
+                    .toList();
+        }
+    }
+
+    private static long takenAt(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SnapshotFile.EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
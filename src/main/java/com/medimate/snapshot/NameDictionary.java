@@ -0,0 +1,67 @@
+package com.medimate.snapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name Dictionary
+ * Stores every distinct medicine name once and hands out a small int code for it
+ *
+ * Most users keep the same handful of medicines (Paracetamol, Ibuprofen, ...), so the
+ * inventory snapshot stores an int code per row instead of a String reference per row.
+ * Codes are never reused or removed; a name that is no longer used only costs one entry.
+ *
+ * Lookups by code read a volatile array and never lock; adding a new name takes a lock.
+ */
+public class NameDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * Get the code for a name, adding the name if it is new
+     * @param name the medicine name
+     * @return the name's code
+     */
+    public int encode(String name) {
+        Integer code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(name);
+            if (code != null) {
+                return code;
+            }
+            int newCode = size;
+            String[] current = names;
+            if (newCode == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[newCode] = name;
+            // Publish the array before the code so readers of the code always find the name
+            names = current;
+            size = newCode + 1;
+            codes.put(name, newCode);
+            return newCode;
+        }
+    }
+
+    /**
+     * Get the name for a code
+     * @param code a code returned by encode
+     * @return the medicine name
+     */
+    public String decode(int code) {
+        return names[code];
+    }
+
+    /**
+     * Number of distinct names stored
+     * @return name count
+     */
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,178 @@
+package com.medimate.snapshot;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot Command Line Tool
+ * Reads an inventory snapshot file without the application or a database, for offline analytics
+ *
+ * Usage (from the project directory after mvn compile):
+ *   java -cp target/classes com.medimate.snapshot.SnapshotCli <file> [command]
+ *
+ * Commands:
+ *   summary            (default) counts, expired / expiring-soon / low-stock totals
+ *   names [limit]      most common medicine names with their total quantity
+ *   user <userId>      one user's medicines
+ *   csv                every medicine as CSV (id,userId,name,quantity,expiryDate,addedDate)
+ *
+ * Only JDK classes are used, so nothing else needs to be on the class path.
+ */
+public final class SnapshotCli {
+
+    private static final int EXPIRING_SOON_DAYS = 30;
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    private SnapshotCli() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SnapshotCli <file> [summary | names [limit] | user <userId> | csv]");
+            System.exit(2);
+        }
+        try {
+            run(args, System.out);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run one command and print its output
+     * @param args the file name followed by the command and its arguments
+     * @param out where to print
+     * @throws IOException if the file is not a valid snapshot
+     */
+    static void run(String[] args, PrintStream out) throws IOException {
+        Path path = Paths.get(args[0]);
+        String command = args.length > 1 ? args[1] : "summary";
+        SnapshotFile file = SnapshotFile.open(path);
+
+        switch (command) {
+            case "summary" -> summary(file, out);
+            case "names" -> names(file, args.length > 2 ? Integer.parseInt(args[2]) : 20, out);
+            case "user" -> {
+                if (args.length < 3) {
+                    throw new IllegalArgumentException("user needs a user ID");
+                }
+                user(file, Long.parseLong(args[2]), out);
+            }
+            case "csv" -> csv(file, out);
+            default -> throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    private static void summary(SnapshotFile file, PrintStream out) {
+        int today = (int) LocalDate.now().toEpochDay();
+        int soon = today + EXPIRING_SOON_DAYS;
+        int users = 0;
+        int expired = 0;
+        int expiringSoon = 0;
+        int lowStock = 0;
+        long totalQuantity = 0;
+        long lastUserId = 0;
+
+        for (int record = 0; record < file.getRecordCount(); record++) {
+            long userId = file.getUserId(record);
+            if (record == 0 || userId != lastUserId) {
+                users++;
+                lastUserId = userId;
+            }
+            int expiry = file.getExpiryEpochDay(record);
+            int quantity = file.getQuantity(record);
+            if (expiry < today) {
+                expired++;
+            } else if (expiry <= soon) {
+                expiringSoon++;
+            }
+            if (quantity < LOW_STOCK_THRESHOLD) {
+                lowStock++;
+            }
+            totalQuantity += quantity;
+        }
+
+        out.println("File:            " + file.getPath());
+        out.println("Taken at:        " + Instant.ofEpochMilli(file.getTakenAtMillis()));
+        out.println("High-water mark: " + file.getHighWaterMark());
+        out.println("Medicines:       " + file.getRecordCount());
+        out.println("Users:           " + users);
+        out.println("Distinct names:  " + file.getNameCount());
+        out.println("Total quantity:  " + totalQuantity);
+        out.println("Expired:         " + expired);
+        out.println("Expiring in " + EXPIRING_SOON_DAYS + "d:  " + expiringSoon);
+        out.println("Below " + LOW_STOCK_THRESHOLD + " units:   " + lowStock);
+    }
+
+    private static void names(SnapshotFile file, int limit, PrintStream out) {
+        int[] medicines = new int[file.getNameCount()];
+        long[] quantity = new long[file.getNameCount()];
+        for (int record = 0; record < file.getRecordCount(); record++) {
+            int code = file.getNameCode(record);
+            medicines[code]++;
+            quantity[code] += file.getQuantity(record);
+        }
+
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < medicines.length; code++) {
+            codes.add(code);
+        }
+        codes.sort((a, b) -> Integer.compare(medicines[b], medicines[a]));
+
+        out.println("name,medicines,totalQuantity");
+        for (int i = 0; i < Math.min(limit, codes.size()); i++) {
+            int code = codes.get(i);
+            out.println(csvField(file.getName(code)) + "," + medicines[code] + "," + quantity[code]);
+        }
+    }
+
+    private static void user(SnapshotFile file, long userId, PrintStream out) {
+        // Records are sorted by user ID, so binary search for the first record of the user
+        int low = 0;
+        int high = file.getRecordCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (file.getUserId(mid) < userId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        out.println("id,userId,name,quantity,expiryDate,addedDate");
+        for (int record = low; record < file.getRecordCount() && file.getUserId(record) == userId; record++) {
+            printRecord(file, record, out);
+        }
+    }
+
+    private static void csv(SnapshotFile file, PrintStream out) {
+        out.println("id,userId,name,quantity,expiryDate,addedDate");
+        for (int record = 0; record < file.getRecordCount(); record++) {
+            printRecord(file, record, out);
+        }
+    }
+
+    private static void printRecord(SnapshotFile file, int record, PrintStream out) {
+        long added = file.getAddedEpochNanos(record);
+        String addedDate = added == Long.MIN_VALUE ? "" : LocalDateTime.ofEpochSecond(
+                Math.floorDiv(added, 1_000_000_000L), (int) Math.floorMod(added, 1_000_000_000L), ZoneOffset.UTC).toString();
+        out.println(file.getId(record) + "," + file.getUserId(record) + "," +
+                csvField(file.getName(file.getNameCode(record))) + "," + file.getQuantity(record) + "," +
+                LocalDate.ofEpochDay(file.getExpiryEpochDay(record)) + "," + addedDate);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,351 @@
+package com.medimate.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot File
+ * Compact binary copy of the medicines table, used to warm up the inventory snapshot after a
+ * restart and for offline analytics (see SnapshotCli)
+ *
+ * Layout (little-endian):
+ *   header        64 bytes: magic "MEDISNAP", format version, taken-at time (epoch millis),
+ *                 medicine ID high-water mark, record count, string count, string table offset,
+ *                 CRC32C of everything after the header
+ *   records       40 bytes each, sorted by user ID and then medicine ID:
+ *                 id (8), userId (8), addedDate as epoch nanos (8), quantity (4),
+ *                 expiry date as epoch day (4), name code (4), unused (4)
+ *   string table  (string count + 1) int offsets, then the UTF-8 bytes of every distinct name
+ *
+ * Fixed-width records mean record i is found at a computed position, so a reader can map the
+ * file into memory and read fields straight out of it without parsing anything. Names are stored
+ * once in the string table; records only hold their code.
+ *
+ * This class only uses the JDK, so the files can be read without Spring or a database.
+ */
+public final class SnapshotFile implements Closeable {
+
+    /**
+     * File name extension of snapshot files
+     */
+    public static final String EXTENSION = ".msnap";
+
+    static final long MAGIC = 0x50414E534944454DL; // "MEDISNAP" read as a little-endian long
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 40;
+
+    private static final int OFFSET_VERSION = 8;
+    private static final int OFFSET_TAKEN_AT = 16;
+    private static final int OFFSET_HIGH_WATER_MARK = 24;
+    private static final int OFFSET_RECORD_COUNT = 32;
+    private static final int OFFSET_STRING_COUNT = 36;
+    private static final int OFFSET_STRING_TABLE = 40;
+    private static final int OFFSET_CHECKSUM = 48;
+
+    private static final int FIELD_USER_ID = 8;
+    private static final int FIELD_ADDED = 16;
+    private static final int FIELD_QUANTITY = 24;
+    private static final int FIELD_EXPIRY = 28;
+    private static final int FIELD_NAME = 32;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long takenAtMillis;
+    private final long highWaterMark;
+    private final int recordCount;
+    private final String[] names;
+
+    private SnapshotFile(Path path, MappedByteBuffer buffer, long takenAtMillis, long highWaterMark,
+                         int recordCount, String[] names) {
+        this.path = path;
+        this.buffer = buffer;
+        this.takenAtMillis = takenAtMillis;
+        this.highWaterMark = highWaterMark;
+        this.recordCount = recordCount;
+        this.names = names;
+    }
+
+    /**
+     * Map a snapshot file into memory and check its header and checksum
+     * @param path the file
+     * @return the opened file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static SnapshotFile open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file (size " + size + "): " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getLong(0) != MAGIC) {
+            throw new IOException("Not a snapshot file: " + path);
+        }
+        int version = buffer.getInt(OFFSET_VERSION);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        int recordCount = buffer.getInt(OFFSET_RECORD_COUNT);
+        int stringCount = buffer.getInt(OFFSET_STRING_COUNT);
+        long stringTable = buffer.getLong(OFFSET_STRING_TABLE);
+        if (recordCount < 0 || stringCount < 0 || stringTable != HEADER_SIZE + (long) recordCount * RECORD_SIZE
+                || stringTable + 4L * (stringCount + 1) > buffer.capacity()) {
+            throw new IOException("Corrupt snapshot header: " + path);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(OFFSET_CHECKSUM)) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+
+        // Decode the string table once; there are few distinct names
+        int bytesStart = (int) stringTable + 4 * (stringCount + 1);
+        String[] names = new String[stringCount];
+        for (int code = 0; code < stringCount; code++) {
+            int start = buffer.getInt((int) stringTable + 4 * code);
+            int end = buffer.getInt((int) stringTable + 4 * (code + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.get(bytesStart + start, bytes);
+            names[code] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return new SnapshotFile(path, buffer, buffer.getLong(OFFSET_TAKEN_AT),
+                buffer.getLong(OFFSET_HIGH_WATER_MARK), recordCount, names);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * When the snapshot was started (changes after this may be missing from it)
+     * @return epoch milliseconds
+     */
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    /**
+     * Highest medicine ID when the snapshot was started
+     * @return the medicine ID high-water mark
+     */
+    public long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public int getNameCount() {
+        return names.length;
+    }
+
+    public long getId(int record) {
+        return buffer.getLong(position(record));
+    }
+
+    public long getUserId(int record) {
+        return buffer.getLong(position(record) + FIELD_USER_ID);
+    }
+
+    public long getAddedEpochNanos(int record) {
+        return buffer.getLong(position(record) + FIELD_ADDED);
+    }
+
+    public int getQuantity(int record) {
+        return buffer.getInt(position(record) + FIELD_QUANTITY);
+    }
+
+    public int getExpiryEpochDay(int record) {
+        return buffer.getInt(position(record) + FIELD_EXPIRY);
+    }
+
+    public int getNameCode(int record) {
+        return buffer.getInt(position(record) + FIELD_NAME);
+    }
+
+    /**
+     * Get a name from the string table
+     * @param code a name code from getNameCode
+     * @return the medicine name
+     */
+    public String getName(int code) {
+        return names[code];
+    }
+
+    /**
+     * The mapping is released by the garbage collector; closing only makes the intent explicit
+     */
+    @Override
+    public void close() {
+    }
+
+    private static int position(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    /**
+     * Writes a snapshot file
+     *
+     * Records are streamed to a temporary file next to the target; commit() appends the string
+     * table, fills in the header, forces the file to disk and renames it into place, so a reader
+     * never sees a half-written file. Records must be added in user ID, medicine ID order.
+     */
+    public static final class Writer implements Closeable {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int recordCount;
+        private boolean committed;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Start writing a snapshot file
+         * @param target the final file name
+         * @return the writer
+         * @throws IOException if the temporary file cannot be created
+         */
+        public static Writer create(Path target) throws IOException {
+            return new Writer(target);
+        }
+
+        /**
+         * Append one medicine
+         * @throws IOException if the write fails
+         */
+        public void add(long id, long userId, String name, int quantity, int expiryEpochDay, long addedEpochNanos)
+                throws IOException {
+            if ((long) HEADER_SIZE + (long) (recordCount + 1) * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Too many records for one snapshot file");
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                flush();
+            }
+            Integer code = codes.get(name);
+            if (code == null) {
+                code = names.size();
+                codes.put(name, code);
+                names.add(name);
+            }
+            buffer.putLong(id).putLong(userId).putLong(addedEpochNanos)
+                    .putInt(quantity).putInt(expiryEpochDay).putInt(code).putInt(0);
+            recordCount++;
+        }
+
+        public int getRecordCount() {
+            return recordCount;
+        }
+
+        /**
+         * Finish the file and move it to its final name
+         * @param takenAtMillis when the snapshot was started
+         * @param highWaterMark highest medicine ID when the snapshot was started
+         * @return the final path
+         * @throws IOException if the write or the rename fails
+         */
+        public Path commit(long takenAtMillis, long highWaterMark) throws IOException {
+            // String table: offsets, then the bytes
+            List<byte[]> encoded = new ArrayList<>(names.size());
+            int offset = 0;
+            writeInt(0);
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                offset += bytes.length;
+                writeInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                for (int i = 0; i < bytes.length; i += BUFFER_SIZE) {
+                    int length = Math.min(BUFFER_SIZE, bytes.length - i);
+                    if (buffer.remaining() < length) {
+                        flush();
+                    }
+                    buffer.put(bytes, i, length);
+                }
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, MAGIC);
+            header.putInt(OFFSET_VERSION, VERSION);
+            header.putLong(OFFSET_TAKEN_AT, takenAtMillis);
+            header.putLong(OFFSET_HIGH_WATER_MARK, highWaterMark);
+            header.putInt(OFFSET_RECORD_COUNT, recordCount);
+            header.putInt(OFFSET_STRING_COUNT, names.size());
+            header.putLong(OFFSET_STRING_TABLE, HEADER_SIZE + (long) recordCount * RECORD_SIZE);
+            header.putInt(OFFSET_CHECKSUM, (int) crc.getValue());
+            channel.write(header, 0);
+            channel.force(true);
+            channel.close();
+
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return target;
+        }
+
+        /**
+         * Discard the temporary file unless the snapshot was committed
+         */
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.close();
+            }
+            if (!committed) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.medimate.snapshot;
+
+import com.medimate.entity.Medicine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * User Inventory
+ * One user's medicines stored as primitive columns instead of Medicine objects
+ *
+ * Row i of the inventory is (id[i], quantity[i], expiryEpochDay[i], nameCode[i], addedEpochNanos[i]).
+ * Expiry dates are stored as days since 1970-01-01, so "expired" is a single int comparison.
+ * The filter methods walk the columns in a tight loop and write matching row numbers into an
+ * array supplied by the caller, so answering a view allocates nothing.
+ *
+ * Instances are immutable: a change produces a new UserInventory, which lets any number of
+ * threads read an inventory without locks while it is being replaced.
+ */
+public final class UserInventory {
+
+    /**
+     * Inventory of a user without medicines
+     */
+    public static final UserInventory EMPTY = new UserInventory(new long[0], new int[0], new int[0], new int[0], new long[0]);
+
+    private final long[] id;
+    private final int[] quantity;
+    private final int[] expiryEpochDay;
+    private final int[] nameCode;
+    private final long[] addedEpochNanos;
+
+    private UserInventory(long[] id, int[] quantity, int[] expiryEpochDay, int[] nameCode, long[] addedEpochNanos) {
+        this.id = id;
+        this.quantity = quantity;
+        this.expiryEpochDay = expiryEpochDay;
+        this.nameCode = nameCode;
+        this.addedEpochNanos = addedEpochNanos;
+    }
+
+    /**
+     * Build an inventory from medicines loaded from the database
+     * @param medicines the user's medicines
+     * @param names dictionary used to encode the names
+     * @return the inventory
+     */
+    public static UserInventory of(List<Medicine> medicines, NameDictionary names) {
+        int size = medicines.size();
+        long[] id = new long[size];
+        int[] quantity = new int[size];
+        int[] expiryEpochDay = new int[size];
+        int[] nameCode = new int[size];
+        long[] addedEpochNanos = new long[size];
+        for (int i = 0; i < size; i++) {
+            Medicine medicine = medicines.get(i);
+            id[i] = medicine.getId();
+            quantity[i] = medicine.getQuantity();
+            expiryEpochDay[i] = (int) medicine.getExpiryDate().toEpochDay();
+            nameCode[i] = names.encode(medicine.getName());
+            addedEpochNanos[i] = toEpochNanos(medicine.getAddedDate());
+        }
+        return new UserInventory(id, quantity, expiryEpochDay, nameCode, addedEpochNanos);
+    }
+
+    /**
+     * Build an inventory from columns read elsewhere (a snapshot file); the arrays are used as they are
+     * @param id medicine IDs
+     * @param quantity quantities
+     * @param expiryEpochDay expiry dates as epoch days
+     * @param nameCode name codes in the snapshot's NameDictionary
+     * @param addedEpochNanos added dates as epoch nanos
+     * @return the inventory
+     */
+    static UserInventory of(long[] id, int[] quantity, int[] expiryEpochDay, int[] nameCode, long[] addedEpochNanos) {
+        return new UserInventory(id, quantity, expiryEpochDay, nameCode, addedEpochNanos);
+    }
+
+    /**
+     * Number of medicines in the inventory
+     * @return row count
+     */
+    public int size() {
+        return id.length;
+    }
+
+    /**
+     * Find rows whose expiry date is before the given day
+     * @param epochDay the day to compare against (LocalDate.toEpochDay)
+     * @param out receives the matching row numbers; must have room for size() rows
+     * @return number of matching rows written to out
+     */
+    public int filterExpiryBefore(int epochDay, int[] out) {
+        int count = 0;
+        for (int i = 0; i < expiryEpochDay.length; i++) {
+            if (expiryEpochDay[i] < epochDay) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find rows whose expiry date is between two days (both included)
+     * @param fromEpochDay first day of the range
+     * @param toEpochDay last day of the range
+     * @param out receives the matching row numbers; must have room for size() rows
+     * @return number of matching rows written to out
+     */
+    public int filterExpiryBetween(int fromEpochDay, int toEpochDay, int[] out) {
+        int count = 0;
+        for (int i = 0; i < expiryEpochDay.length; i++) {
+            int day = expiryEpochDay[i];
+            if (day >= fromEpochDay && day <= toEpochDay) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find rows whose quantity is below a threshold
+     * @param threshold the quantity threshold
+     * @param out receives the matching row numbers; must have room for size() rows
+     * @return number of matching rows written to out
+     */
+    public int filterQuantityBelow(int threshold, int[] out) {
+        int count = 0;
+        for (int i = 0; i < quantity.length; i++) {
+            if (quantity[i] < threshold) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count rows whose expiry date is before the given day
+     * @param epochDay the day to compare against
+     * @return number of expired medicines
+     */
+    public int countExpiryBefore(int epochDay) {
+        int count = 0;
+        for (int i = 0; i < expiryEpochDay.length; i++) {
+            if (expiryEpochDay[i] < epochDay) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getId(int row) {
+        return id[row];
+    }
+
+    public int getQuantity(int row) {
+        return quantity[row];
+    }
+
+    public int getExpiryEpochDay(int row) {
+        return expiryEpochDay[row];
+    }
+
+    public int getNameCode(int row) {
+        return nameCode[row];
+    }
+
+    public long getAddedEpochNanos(int row) {
+        return addedEpochNanos[row];
+    }
+
+    /**
+     * Return a copy with a medicine added, or replaced if a row with its ID exists
+     * @param medicine the saved medicine (must have an ID)
+     * @param names dictionary used to encode the name
+     * @return the new inventory
+     */
+    public UserInventory withUpsert(Medicine medicine, NameDictionary names) {
+        int row = indexOf(medicine.getId());
+        int size = id.length;
+        int newSize = row >= 0 ? size : size + 1;
+        if (row < 0) {
+            row = size;
+        }
+
+        long[] newId = Arrays.copyOf(id, newSize);
+        int[] newQuantity = Arrays.copyOf(quantity, newSize);
+        int[] newExpiry = Arrays.copyOf(expiryEpochDay, newSize);
+        int[] newName = Arrays.copyOf(nameCode, newSize);
+        long[] newAdded = Arrays.copyOf(addedEpochNanos, newSize);
+
+        newId[row] = medicine.getId();
+        newQuantity[row] = medicine.getQuantity();
+        newExpiry[row] = (int) medicine.getExpiryDate().toEpochDay();
+        newName[row] = names.encode(medicine.getName());
+        newAdded[row] = toEpochNanos(medicine.getAddedDate());
+        return new UserInventory(newId, newQuantity, newExpiry, newName, newAdded);
+    }
+
+    /**
+     * Return a copy without the medicine with the given ID
+     * @param medicineId the ID to remove
+     * @return the new inventory, or this one if the ID is not present
+     */
+    public UserInventory withRemoved(long medicineId) {
+        int row = indexOf(medicineId);
+        if (row < 0) {
+            return this;
+        }
+        return new UserInventory(remove(id, row), remove(quantity, row), remove(expiryEpochDay, row),
+                remove(nameCode, row), remove(addedEpochNanos, row));
+    }
+
+    /**
+     * Turn one row back into a Medicine object (for API responses)
+     * @param row the row number
+     * @param userId the owner of this inventory
+     * @param names dictionary used to decode the name
+     * @return a new, detached Medicine
+     */
+    public Medicine toMedicine(int row, long userId, NameDictionary names) {
+        Medicine medicine = new Medicine();
+        medicine.setId(id[row]);
+        medicine.setName(names.decode(nameCode[row]));
+        medicine.setQuantity(quantity[row]);
+        medicine.setExpiryDate(LocalDate.ofEpochDay(expiryEpochDay[row]));
+        medicine.setAddedDate(fromEpochNanos(addedEpochNanos[row]));
+        medicine.setUserId(userId);
+        return medicine;
+    }
+
+    private int indexOf(long medicineId) {
+        for (int i = 0; i < id.length; i++) {
+            if (id[i] == medicineId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] remove(long[] column, int row) {
+        long[] copy = new long[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, row);
+        System.arraycopy(column, row + 1, copy, row, column.length - row - 1);
+        return copy;
+    }
+
+    private static int[] remove(int[] column, int row) {
+        int[] copy = new int[column.length - 1];
+        System.arraycopy(column, 0, copy, 0, row);
+        System.arraycopy(column, row + 1, copy, row, column.length - row - 1);
+        return copy;
+    }
+
+    /**
+     * Store a LocalDateTime as nanoseconds since 1970-01-01T00:00 (no time zone involved)
+     */
+    static long toEpochNanos(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return Long.MIN_VALUE;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    static LocalDateTime fromEpochNanos(long epochNanos) {
+        if (epochNanos == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,293 @@
+package com.medimate.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import com.medimate.scheduler.MedicineScheduler;
+import com.medimate.service.MedicineService;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Startup Warm-up
+ * Sends real HTTP requests for every API route to this instance before it reports itself ready
+ *
+ * Right after startup every code path is slow the first time it runs: lazy beans are created,
+ * Hibernate turns each query into SQL, Jackson builds its serializers, and the JIT compiler has
+ * not compiled anything yet. The warm-up runs each route medimate.warmup.iterations times against
+ * a synthetic user: it adds medicines, reads every view, updates and deletes them, and reads
+ * the job and query statistics endpoints. Each instance picks its own random negative user ID
+ * (unless medimate.warmup.user-id is set), so it never collides with a real user, and two
+ * instances starting at the same time do not delete each other's warm-up data. The synthetic
+ * user's medicines are deleted afterwards through MedicineService (which also removes their
+ * consumption rows), and so is their quantity history. POST /api/jobs/{name}/run and the event stream are left out because
+ * they start real work or stay open.
+ *
+ * Warm-up requests carry a random per-process token in the X-Warmup-Token header, which
+ * admission control accepts without rate limiting. Failures are logged and never stop the
+ * application from starting.
+ *
+ * @Component: Marks this class as a Spring component
+ * ApplicationRunner: run() is called after the context has started and before the application
+ * is marked ready to accept traffic, so /actuator/health/readiness reports OUT_OF_SERVICE
+ * until the warm-up is done
+ * @Lazy(false): Always created at startup so the warm-up runs
+ */
+@Component
+@Lazy(false)
+public class StartupWarmup implements ApplicationRunner {
+
+    /**
+     * Header that marks a request as part of the warm-up
+     */
+    public static final String TOKEN_HEADER = "X-Warmup-Token";
+
+    private final String token = UUID.randomUUID().toString();
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${medimate.warmup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Number of times every route is called
+     */
+    @Value("${medimate.warmup.iterations:200}")
+    private int iterations;
+
+    /**
+     * The warm-up stops after this long even if not all iterations are done
+     */
+    @Value("${medimate.warmup.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    /**
+     * User ID the warm-up adds its medicines to (0 picks a random negative ID for this instance)
+     */
+    @Value("${medimate.warmup.user-id:0}")
+    private long userId;
+
+    private TransactionTemplate transactionTemplate;
+    private HttpClient httpClient;
+    private volatile boolean running;
+    private volatile int completedIterations;
+    private volatile long unexpectedResponses;
+
+    /**
+     * Create the transaction template and HTTP client
+     * @PostConstruct: Runs once after all dependencies have been injected
+     */
+    @PostConstruct
+    public void init() {
+        if (userId == 0) {
+            userId = -1L - ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Run the warm-up
+     * @param args application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+        if (!(applicationContext instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            System.out.println("No web server running, skipping the startup warm-up");
+            return;
+        }
+
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort() + "/api";
+        System.out.println("=== STARTUP WARM-UP: " + iterations + " iterations against user " + userId + " ===");
+        running = true;
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+        List<Long> iterationMillis = new ArrayList<>();
+        try {
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                long iterationStart = System.nanoTime();
+                runIteration(baseUrl);
+                iterationMillis.add((System.nanoTime() - iterationStart) / 1_000_000);
+                completedIterations = i + 1;
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Error in startup warm-up: " + e.getMessage());
+        } finally {
+            running = false;
+            cleanUp();
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Warm-up finished: " + completedIterations + " iterations in " + elapsedMs + " ms" +
+                (unexpectedResponses > 0 ? ", " + unexpectedResponses + " unexpected responses" : ""));
+        if (!iterationMillis.isEmpty()) {
+            System.out.println("Iteration times (ms): first " + iterationMillis.get(0) +
+                    ", 10th " + iterationMillis.get(Math.min(9, iterationMillis.size() - 1)) +
+                    ", last " + iterationMillis.get(iterationMillis.size() - 1));
+        }
+        System.out.println("=== END OF STARTUP WARM-UP ===");
+    }
+
+    /**
+     * Call every route once: add medicines, read all views, update, then delete them
+     */
+    private void runIteration(String baseUrl) throws Exception {
+        LocalDate today = LocalDate.now();
+        List<Long> ids = new ArrayList<>();
+        ids.add(addMedicine(baseUrl, "Warm-up Paracetamol", 20, today.plusDays(10)));
+        ids.add(addMedicine(baseUrl, "Warm-up Ibuprofen", 2, today.plusDays(200)));
+        ids.add(addMedicine(baseUrl, "Warm-up Amoxicillin", 14, today.plusDays(25)));
+
+        String user = "?userId=" + userId;
+        send(baseUrl + "/medicines" + user, "GET", null, 200);
+        send(baseUrl + "/medicines/" + ids.get(0), "GET", null, 200);
+        send(baseUrl + "/medicines/" + ids.get(0), "PUT",
+                medicineJson("Warm-up Paracetamol", 15, today.plusDays(10)), 200);
+        send(baseUrl + "/medicines/expired" + user, "GET", null, 200);
+        send(baseUrl + "/medicines/expiring-soon" + user, "GET", null, 200);
+        send(baseUrl + "/medicines/expiring-soon/digest" + user, "GET", null, 404);
+        send(baseUrl + "/medicines/low-stock" + user + "&threshold=5", "GET", null, 200);
+        send(baseUrl + "/medicines/forecast" + user, "GET", null, 200);
+        send(baseUrl + "/medicines/search" + user + "&name=warm", "GET", null, 200);
+        send(baseUrl + "/medicines/query", "POST", "{\"userIds\":[" + userId + "]," +
+                "\"views\":[\"expired\",\"expiring-soon\",\"low-stock\"],\"threshold\":5}", 200);
+        send(baseUrl + "/jobs", "GET", null, 200);
+        send(baseUrl + "/jobs/" + MedicineScheduler.CHECK_EXPIRED_JOB, "GET", null, 200);
+        send(baseUrl + "/jobs/executions?limit=1", "GET", null, 200);
+        send(baseUrl + "/admin/queries?repository=MedicineRepository", "GET", null, 200);
+        send(baseUrl + "/admin/queries/slow?limit=1", "GET", null, 200);
+
+        for (Long id : ids) {
+            send(baseUrl + "/medicines/" + id, "DELETE", null, 200);
+        }
+    }
+
+    private long addMedicine(String baseUrl, String name, int quantity, LocalDate expiryDate) throws Exception {
+        String body = send(baseUrl + "/medicines", "POST", medicineJson(name, quantity, expiryDate), 201);
+        return objectMapper.readTree(body).path("id").asLong();
+    }
+
+    private String medicineJson(String name, int quantity, LocalDate expiryDate) {
+        return "{\"name\":\"" + name + "\",\"quantity\":" + quantity + ",\"expiryDate\":\"" + expiryDate +
+                "\",\"userId\":" + userId + "}";
+    }
+
+    /**
+     * Send one warm-up request
+     * @return the response body
+     */
+    private String send(String url, String method, String json, int expectedStatus) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header(TOKEN_HEADER, token);
+        if (json != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            unexpectedResponses++;
+            if (unexpectedResponses <= 5) {
+                System.err.println("Warm-up " + method + " " + url + " returned " + response.statusCode() +
+                        " instead of " + expectedStatus);
+            }
+        }
+        return response.body();
+    }
+
+    /**
+     * Delete whatever the warm-up left behind for the synthetic user
+     */
+    private void cleanUp() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Medicine medicine : medicineRepository.readByUserId(userId)) {
+                    medicineService.deleteMedicine(medicine.getId());
+                }
+                quantityChangeRepository.deleteByUserId(userId);
+            });
+        } catch (Exception e) {
+            System.err.println("❌ Error cleaning up after the startup warm-up: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check whether a request was sent by the running warm-up
+     * @param request the HTTP request
+     * @return true if it carries this process's warm-up token
+     */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        return running && token.equals(request.getHeader(TOKEN_HEADER));
+    }
+
+    /**
+     * Synthetic user the warm-up of this instance uses
+     * @return user ID
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Number of iterations the last warm-up completed
+     * @return iterations
+     */
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    /**
+     * Number of warm-up responses that did not have the expected status
+     * @return responses
+     */
+    public long getUnexpectedResponses() {
+        return unexpectedResponses;
+    }
+}
@@ -13,6 +13,7 @@ let medicines = [];
 let expiredMedicines = [];
 let expiringSoonMedicines = [];
 let lowStockMedicines = [];
+let eventSource = null;
 
 // DOM Elements
 const userSelect = document.getElementById('userSelect');
@@ -32,6 +33,7 @@ document.addEventListener('DOMContentLoaded', function() {
     initializeEventListeners();
     loadDashboard();
     setMinDate();
+    subscribeToEvents();
 });
 
 /**
@@ -42,6 +44,7 @@ function initializeEventListeners() {
     userSelect.addEventListener('change', function() {
         currentUser = parseInt(this.value);
         console.log('User changed to:', currentUser);
+        subscribeToEvents();
         refreshCurrentSection();
     });
 
@@ -115,6 +118,34 @@ function switchSection(sectionName) {
     }
 }
 
+/**
+ * Subscribe to live inventory changes and expiry alerts for the current user
+ * The server pushes events when medicines change (e.g. on another device),
+ * so the current section is refreshed only when something actually changed
+ */
+function subscribeToEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+    if (eventSource) {
+        eventSource.close();
+    }
+
+    eventSource = new EventSource(`${API_BASE_URL}/medicines/events?userId=${currentUser}`);
+
+    ['added', 'updated', 'deleted'].forEach(type => {
+        eventSource.addEventListener(type, () => refreshCurrentSection());
+    });
+
+    eventSource.addEventListener('expired', event => {
+        const data = JSON.parse(event.data);
+        if (data.medicine) {
+            showToast(`${data.medicine.name} has expired`, 'warning');
+        }
+        refreshCurrentSection();
+    });
+}
+
 /**
  * Refresh the current section data
  */
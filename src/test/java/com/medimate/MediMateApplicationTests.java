@@ -2,14 +2,17 @@ package com.medimate;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 /**
  * Main application test class
  * This class contains basic tests for the MediMate application
  * 
  * @SpringBootTest: Loads the complete Spring application context for testing
+ * @ActiveProfiles("test"): Uses the in-memory H2 database from application-test.properties
  */
 @SpringBootTest
+@ActiveProfiles("test")
 class MediMateApplicationTests {
 
     /**
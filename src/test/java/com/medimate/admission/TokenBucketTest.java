@@ -0,0 +1,76 @@
+package com.medimate.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket
+ * These tests drive the bucket with explicit timestamps so they do not depend on timing
+ */
+class TokenBucketTest {
+    
+    /**
+     * Test that a full bucket allows a burst and then rejects
+     */
+    @Test
+    void testBurstThenReject() {
+        // Arrange: 10 tokens per second, burst of 3
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        
+        // Act & Assert: Three requests pass, the fourth must wait
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        long wait = bucket.tryAcquire(now);
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+    
+    /**
+     * Test that tokens are refilled over time
+     */
+    @Test
+    void testRefill() {
+        // Arrange: Empty the bucket
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = System.nanoTime();
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+        
+        // Act & Assert: After one refill interval a token is available again
+        long later = now + TimeUnit.MILLISECONDS.toNanos(100);
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.isFull(later + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+    
+    /**
+     * Test that a refunded token can be taken again straight away
+     */
+    @Test
+    void testRefund() {
+        // Arrange: Empty the bucket
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = System.nanoTime();
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+        
+        // Act: Give the token back
+        bucket.refund();
+        
+        // Assert: The next request gets it without waiting
+        assertEquals(0, bucket.tryAcquire(now));
+    }
+    
+    /**
+     * Test that invalid limits are rejected
+     */
+    @Test
+    void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
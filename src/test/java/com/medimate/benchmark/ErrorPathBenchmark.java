@@ -0,0 +1,76 @@
+package com.medimate.benchmark;
+
+import com.medimate.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: the cost of a not-found error before and after the typed error model
+ *
+ * legacyNotFound is the old path: the service throws a RuntimeException, catches it, wraps it in
+ * another one, and the caller finds the status code by searching the message. typedNotFound
+ * throws a stackless NotFoundException and the caller checks its type. Both are thrown from
+ * 50 frames deep, roughly the depth of a Spring MVC request.
+ * Run with:
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main ErrorPathBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final int DEPTH = 50;
+
+    private long id;
+
+    @Benchmark
+    public int legacyNotFound() {
+        long medicineId = ++id;
+        try {
+            deep(DEPTH, () -> {
+                try {
+                    throw new RuntimeException("Medicine with ID " + medicineId + " not found");
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to delete medicine: " + e.getMessage());
+                }
+            });
+            return 0;
+        } catch (RuntimeException e) {
+            return e.getMessage().contains("not found") ? 1 : 0;
+        }
+    }
+
+    @Benchmark
+    public int typedNotFound() {
+        long medicineId = ++id;
+        try {
+            deep(DEPTH, () -> {
+                throw new NotFoundException("Medicine", medicineId);
+            });
+            return 0;
+        } catch (NotFoundException e) {
+            return 1;
+        }
+    }
+
+    private static void deep(int depth, Runnable action) {
+        if (depth == 0) {
+            action.run();
+        } else {
+            deep(depth - 1, action);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.medimate.benchmark;
+
+import com.medimate.MediMateApplication;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.service.MedicineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: adding medicines through the group commit writer versus the direct addMedicine path
+ *
+ * 16 threads write at the same time. Sample time mode reports both the number of writes
+ * and the latency percentiles (look at p0.99). H2 in memory has no disk flush on commit,
+ * so the gap in production will be larger.
+ * Run with:
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main GroupCommitBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    private ConfigurableApplicationContext context;
+    private MedicineService medicineService;
+    private MedicineRepository medicineRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MediMateApplication.class)
+                .profiles("test")
+                .properties("spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "medimate.group-commit.enabled=true",
+                        "logging.level.root=WARN")
+                .run();
+        medicineService = context.getBean(MedicineService.class);
+        medicineRepository = context.getBean(MedicineRepository.class);
+    }
+
+    /**
+     * Keep the table small so later iterations measure the same thing as the first
+     */
+    @TearDown(Level.Iteration)
+    public void clear() {
+        medicineRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Medicine direct() {
+        return medicineService.addMedicine(newMedicine());
+    }
+
+    @Benchmark
+    public Medicine groupCommit() {
+        return medicineService.addMedicineAsync(newMedicine()).join();
+    }
+
+    private static Medicine newMedicine() {
+        return new Medicine("Medicine", 10, LocalDate.now().plusDays(60), USER_ID);
+    }
+}
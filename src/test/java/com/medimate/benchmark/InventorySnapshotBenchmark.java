@@ -0,0 +1,126 @@
+package com.medimate.benchmark;
+
+import com.medimate.MediMateApplication;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.snapshot.InventorySnapshot;
+import com.medimate.snapshot.UserInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: expired and low-stock views from the JDBC read... queries versus the columnar snapshot
+ *
+ * Runs the application without a web server against the in-memory H2 database of the test profile.
+ * Run with:
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main InventorySnapshotBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventorySnapshotBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    /**
+     * Number of medicines the benchmarked user owns
+     */
+    @Param({"50", "500"})
+    private int medicines;
+
+    private ConfigurableApplicationContext context;
+    private MedicineRepository medicineRepository;
+    private InventorySnapshot inventorySnapshot;
+    private UserInventory inventory;
+    private int[] rows;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MediMateApplication.class)
+                .profiles("test")
+                .properties("medimate.snapshot.enabled=true",
+                        "spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN")
+                .run();
+        medicineRepository = context.getBean(MedicineRepository.class);
+        inventorySnapshot = context.getBean(InventorySnapshot.class);
+
+        // A third expired, a third expiring within 30 days, the rest later; quantities 0 to 19
+        today = LocalDate.now();
+        Random random = new Random(42);
+        List<Medicine> batch = new ArrayList<>();
+        for (int i = 0; i < medicines; i++) {
+            int expiresIn = random.nextInt(3) == 0 ? -random.nextInt(365) - 1 : random.nextInt(400);
+            batch.add(new Medicine("Medicine " + random.nextInt(40), random.nextInt(20), today.plusDays(expiresIn), USER_ID));
+        }
+        medicineRepository.saveAll(batch);
+
+        inventory = inventorySnapshot.get(USER_ID);
+        rows = new int[inventory.size()];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Medicine> jdbcExpired() {
+        return medicineRepository.readByUserIdAndExpiryDateBefore(USER_ID, today);
+    }
+
+    @Benchmark
+    public List<Medicine> snapshotExpired() {
+        return inventorySnapshot.findExpired(USER_ID, today);
+    }
+
+    @Benchmark
+    public int snapshotExpiredRowsOnly() {
+        return inventory.filterExpiryBefore((int) today.toEpochDay(), rows);
+    }
+
+    @Benchmark
+    public List<Medicine> jdbcLowStock() {
+        return medicineRepository.readByUserIdAndQuantityLessThan(USER_ID, 5);
+    }
+
+    @Benchmark
+    public List<Medicine> snapshotLowStock() {
+        return inventorySnapshot.findLowStock(USER_ID, 5);
+    }
+
+    @Benchmark
+    public Long jpaCountExpired() {
+        return medicineRepository.countExpiredMedicinesByUserId(USER_ID, today);
+    }
+
+    @Benchmark
+    public int snapshotCountExpired() {
+        return inventorySnapshot.countExpired(USER_ID, today);
+    }
+}
@@ -0,0 +1,87 @@
+package com.medimate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.entity.Medicine;
+import com.medimate.json.MedicineJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: serializing a list of medicines with Jackson versus MedicineJsonWriter
+ *
+ * Both write into the same reused in-memory stream, so only serialization is measured.
+ * Run with (add -prof gc to see the bytes allocated per operation):
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main MedicineJsonBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicineJsonBenchmark {
+
+    /**
+     * Number of medicines in the response
+     */
+    @Param({"50", "500", "5000"})
+    private int medicines;
+
+    private ObjectMapper objectMapper;
+    private List<Medicine> list;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The same ObjectMapper settings Spring Boot uses
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        list = new ArrayList<>();
+        for (int i = 0; i < medicines; i++) {
+            Medicine medicine = new Medicine("Medicine " + random.nextInt(40), random.nextInt(20),
+                    today.plusDays(random.nextInt(400) - 100), 1L);
+            medicine.setId((long) i + 1);
+            medicine.setAddedDate(now.minusSeconds(random.nextInt(10_000_000)));
+            list.add(medicine);
+        }
+        out = new ByteArrayOutputStream(medicines * 160);
+    }
+
+    @Benchmark
+    public int jackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, list);
+        return out.size();
+    }
+
+    @Benchmark
+    public int medicineJsonWriter() throws IOException {
+        out.reset();
+        MedicineJsonWriter.writeList(list, out);
+        return out.size();
+    }
+}
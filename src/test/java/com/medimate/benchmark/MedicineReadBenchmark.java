@@ -0,0 +1,125 @@
+package com.medimate.benchmark;
+
+import com.medimate.MediMateApplication;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: JPQL queries (managed entities) versus the JDBC read... queries
+ * (detached medicines) used by the GET endpoints
+ *
+ * Runs the application without a web server against the in-memory H2 database of the test profile.
+ * Add -prof gc to see the bytes allocated per call; divide by the medicines parameter for bytes per row.
+ * Run with:
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main MedicineReadBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicineReadBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    /**
+     * Number of medicines the benchmarked user owns
+     */
+    @Param({"50", "500"})
+    private int medicines;
+
+    private ConfigurableApplicationContext context;
+    private MedicineRepository medicineRepository;
+    private EntityManager entityManager;
+    private Long medicineId;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MediMateApplication.class)
+                .profiles("test")
+                .properties("spring.main.web-application-type=none",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN")
+                .run();
+        medicineRepository = context.getBean(MedicineRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        today = LocalDate.now();
+        Random random = new Random(42);
+        List<Medicine> batch = new ArrayList<>();
+        for (int i = 0; i < medicines; i++) {
+            batch.add(new Medicine("Medicine " + random.nextInt(40), random.nextInt(20),
+                    today.plusDays(random.nextInt(400) - 100), USER_ID));
+        }
+        medicineId = medicineRepository.saveAll(batch).get(medicines / 2).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Medicine> managedByUserId() {
+        return entityManager.createQuery("SELECT m FROM Medicine m WHERE m.userId = :userId", Medicine.class)
+                .setParameter("userId", USER_ID)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<Medicine> readByUserId() {
+        return medicineRepository.readByUserId(USER_ID);
+    }
+
+    @Benchmark
+    public List<Medicine> managedExpired() {
+        return entityManager.createQuery("SELECT m FROM Medicine m WHERE m.userId = :userId AND m.expiryDate < :date",
+                        Medicine.class)
+                .setParameter("userId", USER_ID)
+                .setParameter("date", today)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<Medicine> readExpired() {
+        return medicineRepository.readByUserIdAndExpiryDateBefore(USER_ID, today);
+    }
+
+    @Benchmark
+    public Optional<Medicine> managedById() {
+        return medicineRepository.findById(medicineId);
+    }
+
+    @Benchmark
+    public Optional<Medicine> readById() {
+        return medicineRepository.readById(medicineId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.medimate.bulkhead;
+
+import com.medimate.dto.JobStatus;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.scheduler.ScheduledJobManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for request deadlines, statement timeouts and the database bulkheads
+ */
+@SpringBootTest(properties = "medimate.admission.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DatabaseBulkheadTest {
+
+    private static final Long USER_ID = 4601L;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseBulkheads bulkheads;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ScheduledJobManager jobManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        DatabaseContext.exit();
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that statements get the seconds left until the deadline as their query timeout, and
+     * that the connection's permit is held until the connection is closed
+     */
+    @Test
+    void testStatementsGetRemainingBudget() throws Exception {
+        int available = bulkheads.getAvailable(WorkloadClass.READ);
+        DatabaseContext.enter(WorkloadClass.READ, 2500);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+            assertEquals(3, statement.getQueryTimeout());
+            assertEquals(available - 1, bulkheads.getAvailable(WorkloadClass.READ));
+        }
+        assertEquals(available, bulkheads.getAvailable(WorkloadClass.READ));
+    }
+
+    /**
+     * Test that a repository call made after the deadline fails without running its query
+     */
+    @Test
+    void testExpiredDeadlineFailsFast() throws Exception {
+        DatabaseContext.enter(WorkloadClass.READ, 1);
+        Thread.sleep(5);
+        assertThrows(QueryTimeoutException.class, () -> medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that a full read bulkhead makes by-id lookups time out with 504, while searches
+     * (scan bulkhead) still get connections
+     */
+    @Test
+    void testFullBulkheadOnlyAffectsItsClass() throws Exception {
+        Medicine medicine = medicineRepository.save(new Medicine("Aspirin", 10, LocalDate.now().plusDays(90), USER_ID));
+
+        int held = 0;
+        while (bulkheads.tryAcquire(WorkloadClass.READ, 0)) {
+            held++;
+        }
+        try {
+            long start = System.nanoTime();
+            mockMvc.perform(get("/api/medicines/" + medicine.getId())
+                            .header(DatabaseDeadlineInterceptor.TIMEOUT_HEADER, "100"))
+                    .andExpect(status().isGatewayTimeout());
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMs < 2000, "took " + elapsedMs + " ms");
+
+            mockMvc.perform(get("/api/medicines/search").param("userId", USER_ID.toString()).param("name", "asp"))
+                    .andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < held; i++) {
+                bulkheads.release(WorkloadClass.READ);
+            }
+        }
+
+        mockMvc.perform(get("/api/medicines/" + medicine.getId())).andExpect(status().isOk());
+    }
+
+    /**
+     * Test that scheduled jobs use their own bulkhead, so a full scan bulkhead does not hold them up
+     */
+    @Test
+    void testJobsDoNotUseTheScanBulkhead() throws Exception {
+        int held = 0;
+        while (bulkheads.tryAcquire(WorkloadClass.SCAN, 0)) {
+            held++;
+        }
+        try {
+            jobManager.register("countMedicines", () -> medicineRepository.count());
+            assertTrue(jobManager.trigger("countMedicines"));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            JobStatus status = jobManager.getJob("countMedicines");
+            while (status.getLastOutcome() == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                status = jobManager.getJob("countMedicines");
+            }
+            assertEquals(JobStatus.Outcome.COMPLETED, status.getLastOutcome(), status.getLastError());
+        } finally {
+            for (int i = 0; i < held; i++) {
+                bulkheads.release(WorkloadClass.SCAN);
+            }
+        }
+    }
+}
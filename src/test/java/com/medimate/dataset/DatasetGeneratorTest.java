@@ -0,0 +1,80 @@
+package com.medimate.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DatasetGenerator
+ * Runs the generator with the generate profile on a small dataset and checks its shape
+ */
+@SpringBootTest(properties = {
+        "medimate.generator.users=300",
+        "medimate.generator.medicines=6000",
+        "medimate.generator.first-user-id=900000",
+        "medimate.generator.rows-per-insert=250",
+        "medimate.generator.threads=3",
+        "medimate.generator.exit-when-done=false"
+})
+@ActiveProfiles({"test", "generate"})
+class DatasetGeneratorTest {
+
+    private static final String IN_RANGE = " FROM medicines WHERE user_id BETWEEN 900000 AND 900299";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Test that the Zipf sizes add up to the requested total and are skewed
+     */
+    @Test
+    void testUserSizes() {
+        int[] sizes = DatasetGenerator.userSizes(300, 6000, 1.0);
+        assertEquals(6000, Arrays.stream(sizes).sum());
+        // 1 / H(300) of the medicines for the largest user, about 1 / 150 of that for the 150th
+        assertTrue(sizes[0] > 900 && sizes[0] < 1000, "largest " + sizes[0]);
+        assertTrue(sizes[149] >= 5 && sizes[149] <= 8, "150th " + sizes[149]);
+
+        int[] even = DatasetGenerator.userSizes(300, 6000, 0.0);
+        assertTrue(Arrays.stream(even).allMatch(size -> size == 20));
+    }
+
+    /**
+     * Test that every medicine was inserted and the expired, expiring-soon and low-stock shares
+     * are close to the configured ones
+     */
+    @Test
+    void testGeneratedDataset() {
+        assertEquals(6000, count(""));
+
+        LocalDate today = LocalDate.now();
+        assertShare(0.10, count(" AND expiry_date < '" + today + "'"));
+        assertShare(0.15, count(" AND expiry_date BETWEEN '" + today + "' AND '" + today.plusDays(30) + "'"));
+        assertShare(0.20, count(" AND quantity < 5"));
+
+        List<Long> perUser = jdbcTemplate.queryForList(
+                "SELECT COUNT(*)" + IN_RANGE + " GROUP BY user_id ORDER BY COUNT(*) DESC", Long.class);
+        assertTrue(perUser.get(0) > 900, "largest user " + perUser.get(0));
+
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT name" + IN_RANGE + " GROUP BY name ORDER BY COUNT(*) DESC", String.class);
+        assertEquals(DatasetGenerator.NAMES[0], names.get(0));
+    }
+
+    private long count(String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*)" + IN_RANGE + condition, Long.class);
+    }
+
+    private void assertShare(double expected, long rows) {
+        double share = rows / 6000.0;
+        assertEquals(expected, share, 0.02, "share " + share);
+    }
+}
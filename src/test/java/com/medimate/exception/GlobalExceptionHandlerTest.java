@@ -0,0 +1,102 @@
+package com.medimate.exception;
+
+import com.medimate.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for GlobalExceptionHandler
+ * Checks that each domain exception gets its status code
+ * (the cost of the error path is measured by benchmark/ErrorPathBenchmark)
+ */
+@SpringBootTest(properties = "medimate.admission.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    /**
+     * Test that updating and deleting a missing medicine return 404
+     */
+    @Test
+    void testMissingMedicineReturnsNotFound() throws Exception {
+        String body = "{\"name\":\"Aspirin\",\"quantity\":5,\"expiryDate\":\"" +
+                LocalDate.now().plusDays(30) + "\",\"userId\":1}";
+
+        mockMvc.perform(put("/api/medicines/987654").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/medicines/987654"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that a business rule violation returns 400 with the message
+     */
+    @Test
+    void testValidationErrorReturnsBadRequest() throws Exception {
+        String body = "{\"name\":\"Aspirin\",\"quantity\":5,\"expiryDate\":\"" +
+                LocalDate.now().minusDays(1) + "\",\"userId\":1}";
+
+        mockMvc.perform(post("/api/medicines").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Expiry date cannot be in the past"));
+    }
+
+    /**
+     * Test that an unknown view in the request body returns 400 instead of 500
+     */
+    @Test
+    void testUnknownViewReturnsBadRequest() throws Exception {
+        String body = "{\"userIds\":[1],\"views\":[\"bogus\"]}";
+
+        mockMvc.perform(post("/api/medicines/query").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Unknown medicine view: bogus"));
+    }
+    
+    /**
+     * Test that a conflict returns 409 with the message
+     */
+    @Test
+    void testConflictReturnsConflict() {
+        ResponseEntity<ApiResponse<String>> response =
+                globalExceptionHandler.handleConflictException(new ConflictException("Medicine already exists"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Medicine already exists", response.getBody().getMessage());
+    }
+
+    /**
+     * Test that domain exceptions do not capture a stack trace
+     */
+    @Test
+    void testDomainExceptionsAreStackless() {
+        assertEquals(0, new NotFoundException("Medicine", 1L).getStackTrace().length);
+        assertEquals(0, new ValidationException("Medicine cannot be null").getStackTrace().length);
+        assertEquals(0, new ConflictException("Medicine already exists").getStackTrace().length);
+        assertEquals("Medicine with ID 1 not found", new NotFoundException("Medicine", 1L).getMessage());
+    }
+}
@@ -0,0 +1,205 @@
+package com.medimate.idempotency;
+
+import com.medimate.admission.AdmissionProperties;
+import com.medimate.admission.RateLimiter;
+import com.medimate.repository.IdempotencyRecordRepository;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Tests for IdempotencyFilter and IdempotencyStore
+ * Sends the same POST several times (one after another and all at once) and checks that only
+ * one medicine is created and every caller gets the same response
+ */
+@SpringBootTest(properties = "medimate.admission.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    private static final Long USER_ID = 601L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private AdmissionProperties admissionProperties;
+
+    @SpyBean
+    private RateLimiter rateLimiter;
+
+    @AfterEach
+    void tearDown() {
+        store.clearMemory();
+        idempotencyRecordRepository.deleteAll();
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that a retry gets the original response (also after a restart) without a second insert
+     */
+    @Test
+    void testRetryReplaysResponse() throws Exception {
+        String body = medicineJson("Aspirin", 20);
+
+        MvcResult first = send("key-replay", body);
+        MvcResult retry = send("key-replay", body);
+
+        assertEquals(201, first.getResponse().getStatus());
+        assertNull(first.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getResponse().getStatus());
+        assertEquals("true", retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+        assertEquals(1, medicineRepository.readByUserId(USER_ID).size());
+
+        // Act: Forget the in-memory copy, as after a restart; the response comes from the table
+        store.clearMemory();
+        MvcResult afterRestart = send("key-replay", body);
+
+        assertEquals("true", afterRestart.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getResponse().getContentAsString(), afterRestart.getResponse().getContentAsString());
+        assertEquals(1, medicineRepository.readByUserId(USER_ID).size());
+    }
+
+    /**
+     * Test that reusing a key for a different body is rejected, and that requests without the
+     * header are not affected
+     */
+    @Test
+    void testKeyReuseWithDifferentBodyIsRejected() throws Exception {
+        send("key-reuse", medicineJson("Aspirin", 20));
+
+        MvcResult reused = send("key-reuse", medicineJson("Aspirin", 30));
+        assertEquals(422, reused.getResponse().getStatus());
+
+        mockMvc.perform(post("/api/medicines").contentType(MediaType.APPLICATION_JSON).content(medicineJson("Aspirin", 20)))
+                .andReturn();
+        assertEquals(2, medicineRepository.readByUserId(USER_ID).size());
+    }
+
+    /**
+     * Test that a POST rejected by the rate limit (429) is not replayed: the retry with the same
+     * key runs once capacity is back and creates the medicine
+     */
+    @Test
+    void testRateLimitedRequestIsNotReplayed() throws Exception {
+        String body = medicineJson("Aspirin", 20);
+        admissionProperties.setEnabled(true);
+        try {
+            // Arrange: The first call finds the rate limit exhausted, later calls are admitted
+            doReturn(TimeUnit.SECONDS.toNanos(1)).doCallRealMethod().when(rateLimiter).tryAcquire(any(), any());
+
+            MvcResult limited = send("key-limited", body);
+            MvcResult retry = send("key-limited", body);
+
+            assertEquals(429, limited.getResponse().getStatus());
+            assertEquals(201, retry.getResponse().getStatus());
+            assertNull(retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals(1, medicineRepository.readByUserId(USER_ID).size());
+        } finally {
+            admissionProperties.setEnabled(false);
+        }
+    }
+
+    /**
+     * Test that only final answers are stored for replay
+     */
+    @Test
+    void testOnlyFinalResponsesAreStorable() {
+        assertTrue(IdempotencyStore.isStorable(201, false));
+        assertTrue(IdempotencyStore.isStorable(400, false));
+        assertTrue(IdempotencyStore.isStorable(409, false));
+        assertFalse(IdempotencyStore.isStorable(201, true));
+        assertFalse(IdempotencyStore.isStorable(302, false));
+        assertFalse(IdempotencyStore.isStorable(408, false));
+        assertFalse(IdempotencyStore.isStorable(429, false));
+        assertFalse(IdempotencyStore.isStorable(503, false));
+        assertFalse(IdempotencyStore.isStorable(504, false));
+    }
+
+    /**
+     * Test that concurrent requests with the same key run once and all get the same response
+     */
+    @Test
+    void testConcurrentRequestsRunOnce() throws Exception {
+        int threads = 16;
+        String body = medicineJson("Ibuprofen", 10);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<MvcResult>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<MvcResult> task = () -> {
+                    start.await();
+                    return send("key-concurrent", body);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            Set<String> bodies = new HashSet<>();
+            int replayed = 0;
+            for (Future<MvcResult> future : futures) {
+                MvcResult result = future.get();
+                assertEquals(201, result.getResponse().getStatus());
+                bodies.add(result.getResponse().getContentAsString());
+                if ("true".equals(result.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER))) {
+                    replayed++;
+                }
+            }
+
+            assertEquals(1, bodies.size());
+            assertEquals(threads - 1, replayed);
+            assertEquals(1, medicineRepository.readByUserId(USER_ID).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MvcResult send(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/medicines")
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn();
+    }
+
+    private static String medicineJson(String name, int quantity) {
+        return "{\"name\":\"" + name + "\",\"quantity\":" + quantity + ",\"expiryDate\":\"" +
+                LocalDate.now().plusDays(60) + "\",\"userId\":" + USER_ID + "}";
+    }
+}
@@ -0,0 +1,156 @@
+package com.medimate.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.ApiResponse;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Tests for MedicineJsonWriter and MedicineListHttpMessageConverter
+ * Checks that the hand-written output is byte-for-byte what Jackson writes for the same values
+ */
+@SpringBootTest(properties = "medimate.admission.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MedicineJsonWriterTest {
+
+    private static final Long USER_ID = 701L;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that random medicines, including awkward names, dates and missing values, are
+     * written exactly like Jackson writes them
+     */
+    @Test
+    void testRandomMedicinesMatchJackson() throws Exception {
+        Random random = new Random(7);
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            medicines.add(randomMedicine(random));
+        }
+
+        assertSameBytes(medicines);
+        assertSameBytes(List.of());
+        assertSameBytes(ApiResponse.success(medicines, "Found " + medicines.size() + " medicines"));
+        assertSameBytes(ApiResponse.error("Something \"went\" wrong\n"));
+    }
+
+    /**
+     * Test that the endpoints use the converter and still send Jackson's bytes, and that other
+     * bodies are passed on to Jackson
+     */
+    @Test
+    void testEndpointsSendSameBytes() throws Exception {
+        LocalDate today = LocalDate.now();
+        medicineRepository.save(new Medicine("Aspirin", 3, today.minusDays(2), USER_ID));
+        medicineRepository.save(new Medicine("Ibuprofen \"Forte\"", 40, today.plusDays(20), USER_ID));
+        medicineRepository.save(new Medicine("Paracétamol", 0, today.plusDays(200), USER_ID));
+
+        boolean registered = false;
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter instanceof MedicineListHttpMessageConverter medicineConverter) {
+                assertTrue(medicineConverter.isCompatible());
+                registered = true;
+            }
+        }
+        assertTrue(registered);
+
+        MvcResult list = mockMvc.perform(get("/api/medicines").param("userId", USER_ID.toString())).andReturn();
+        assertEquals(200, list.getResponse().getStatus());
+        assertEquals("application/json", list.getResponse().getContentType());
+        assertArrayEquals(objectMapper.writeValueAsBytes(medicineRepository.readByUserId(USER_ID)),
+                list.getResponse().getContentAsByteArray());
+
+        // Not a medicine list: written by Jackson as before
+        MvcResult forecast = mockMvc.perform(get("/api/medicines/forecast").param("userId", USER_ID.toString())).andReturn();
+        assertEquals(200, forecast.getResponse().getStatus());
+        assertTrue(forecast.getResponse().getContentAsString().startsWith("["));
+    }
+
+    private void assertSameBytes(Object body) throws Exception {
+        byte[] expected = objectMapper.writeValueAsBytes(body);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        if (body instanceof ApiResponse<?> response) {
+            @SuppressWarnings("unchecked")
+            List<Medicine> data = (List<Medicine>) response.getData();
+            MedicineJsonWriter.writeResponse(response, data, actual);
+        } else {
+            @SuppressWarnings("unchecked")
+            List<Medicine> list = (List<Medicine>) body;
+            MedicineJsonWriter.writeList(list, actual);
+        }
+        assertEquals(new String(expected, StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    private static Medicine randomMedicine(Random random) {
+        Medicine medicine = new Medicine();
+        medicine.setId(random.nextInt(10) == 0 ? null : random.nextLong(-5, Long.MAX_VALUE));
+        medicine.setName(random.nextInt(20) == 0 ? null : randomName(random));
+        medicine.setQuantity(random.nextInt(20) == 0 ? null : random.nextInt(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        medicine.setExpiryDate(random.nextInt(20) == 0 ? null : LocalDate.ofEpochDay(random.nextInt(-800_000, 2_000_000)));
+        LocalDateTime added = LocalDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(4) == 0 ? 0 : random.nextInt(60));
+        switch (random.nextInt(5)) {
+            case 0 -> added = null;
+            case 1 -> added = added.withNano(random.nextInt(1_000_000_000));
+            case 2 -> added = added.withNano(random.nextInt(1000) * 1_000_000);
+            case 3 -> added = added.withNano(random.nextInt(1_000_000) * 1000);
+            default -> { }
+        }
+        medicine.setAddedDate(added);
+        medicine.setUserId(random.nextInt(20) == 0 ? null : random.nextLong(0, 1_000_000));
+        return medicine;
+    }
+
+    /**
+     * Mostly plain names, with quotes, backslashes, control characters, accents, CJK and emoji mixed in
+     */
+    private static String randomName(Random random) {
+        String[] pieces = {"Aspirin", "Ibuprofen ", "500mg", "\"", "\\", "/", "\n", "\t", "\r", "\b", "\f",
+                "\u0000", "\u001F", "\u007F", "é", "ß", "中文", "💊", " ", "<script>", "&", "'"};
+        StringBuilder name = new StringBuilder();
+        int parts = 1 + random.nextInt(6);
+        for (int i = 0; i < parts; i++) {
+            name.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return name.toString();
+    }
+}
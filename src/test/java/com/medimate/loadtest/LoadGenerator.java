@@ -0,0 +1,297 @@
+package com.medimate.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load Generator
+ * Sends a weighted mix of medicine API calls to a running instance at a fixed arrival rate
+ *
+ * Requests are started on a fixed schedule (one every 1 / rate seconds) whether or not earlier
+ * ones have finished, like independent clients would. Each request's latency is measured from the
+ * time it was scheduled to start, not from when it was actually sent, so a stalled server shows
+ * up as latency instead of quietly lowering the request rate ("coordinated omission").
+ * Latencies are recorded in microseconds into one HDR histogram per operation.
+ *
+ * Requests scheduled during the warm-up period are sent but not recorded.
+ */
+class LoadGenerator {
+
+    /**
+     * The calls in the mix
+     */
+    enum Operation {
+        LIST, SEARCH, CREATE, UPDATE, DELETE;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final String[] SEARCHES = {"para", "ibu", "vitamin", "amox", "syrup"};
+
+    private final String baseUrl;
+    private final List<Long> userIds;
+    private final List<Long> medicineIds;
+    private final Map<Operation, Integer> mix;
+    private final HttpClient httpClient;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param baseUrl e.g. http://localhost:8080/api/medicines
+     * @param userIds users whose medicines are listed, searched and created
+     * @param medicineIds existing medicines that are updated
+     * @param mix relative weight of each operation
+     */
+    LoadGenerator(String baseUrl, List<Long> userIds, List<Long> medicineIds, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.userIds = userIds;
+        this.medicineIds = medicineIds;
+        this.mix = mix;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     * Run the load and wait for the last request to finish
+     * @param ratePerSecond requests started per second
+     * @param warmupSeconds seconds of load that are not recorded
+     * @param durationSeconds seconds of recorded load
+     * @param seed random seed for the order of the operations
+     * @return the recorded latencies, errors and throughput
+     */
+    Result run(int ratePerSecond, int warmupSeconds, int durationSeconds, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long warmupRequests = (long) warmupSeconds * ratePerSecond;
+        long requests = warmupRequests + (long) durationSeconds * ratePerSecond;
+
+        List<CompletableFuture<Void>> measured = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random, totalWeight);
+            CompletableFuture<Void> call = send(operation, random, scheduled, i >= warmupRequests);
+            if (i >= warmupRequests) {
+                measured.add(call);
+            }
+        }
+        long lastScheduled = start + (requests - 1) * intervalNanos;
+        CompletableFuture.allOf(measured.toArray(CompletableFuture<?>[]::new)).join();
+        long measuredNanos = Math.max(1, System.nanoTime() - (start + warmupRequests * intervalNanos));
+        long behindNanos = Math.max(0, System.nanoTime() - lastScheduled);
+        return new Result(histograms, errors, measured.size(), measuredNanos, behindNanos);
+    }
+
+    private Operation pick(SplittableRandom random, int totalWeight) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    /**
+     * Start one call and record its latency when it completes
+     */
+    private CompletableFuture<Void> send(Operation operation, SplittableRandom random, long scheduled, boolean record) {
+        Long userId = userIds.get(random.nextInt(userIds.size()));
+        HttpRequest request;
+        int expectedStatus = 200;
+        switch (operation) {
+            case LIST:
+                request = get("?userId=" + userId);
+                break;
+            case SEARCH:
+                request = get("/search?userId=" + userId + "&name=" + SEARCHES[random.nextInt(SEARCHES.length)]);
+                break;
+            case UPDATE:
+                Long medicineId = medicineIds.get(random.nextInt(medicineIds.size()));
+                request = json("/" + medicineId, "PUT", medicineJson("Paracetamol 500mg", random.nextInt(60), userId));
+                break;
+            case DELETE:
+                Long createdId = created.poll();
+                if (createdId != null) {
+                    request = builder("/" + createdId).DELETE().build();
+                    break;
+                }
+                // Nothing created yet to delete: create one instead, recorded as a create
+                operation = Operation.CREATE;
+                // fall through
+            default:
+                request = json("", "POST", medicineJson("Ibuprofen 200mg", 1 + random.nextInt(60), userId));
+                expectedStatus = 201;
+        }
+
+        Operation recorded = operation;
+        int expected = expectedStatus;
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                    boolean ok = failure == null && response.statusCode() == expected;
+                    if (ok && recorded == Operation.CREATE) {
+                        Matcher id = ID.matcher(response.body());
+                        if (id.find()) {
+                            created.add(Long.parseLong(id.group(1)));
+                        }
+                    }
+                    if (record) {
+                        histograms.get(recorded).recordValue(Math.min(micros, HIGHEST_MICROS));
+                        if (!ok) {
+                            errors.get(recorded).incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, String body) {
+        return builder(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String medicineJson(String name, int quantity, Long userId) {
+        return "{\"name\":\"" + name + "\",\"quantity\":" + quantity + ",\"expiryDate\":\"" +
+                LocalDate.now().plusDays(90) + "\",\"userId\":" + userId + "}";
+    }
+
+    /**
+     * Outcome of a load run
+     */
+    static class Result {
+
+        private final Map<Operation, Histogram> histograms;
+        private final Map<Operation, AtomicLong> errors;
+        private final long requests;
+        private final long measuredNanos;
+        private final long behindNanos;
+
+        Result(Map<Operation, Histogram> histograms, Map<Operation, AtomicLong> errors,
+               long requests, long measuredNanos, long behindNanos) {
+            this.histograms = histograms;
+            this.errors = errors;
+            this.requests = requests;
+            this.measuredNanos = measuredNanos;
+            this.behindNanos = behindNanos;
+        }
+
+        /**
+         * Completed requests per second over the recorded period
+         */
+        double throughput() {
+            return requests * 1e9 / measuredNanos;
+        }
+
+        long count(Operation operation) {
+            return histograms.get(operation).getTotalCount();
+        }
+
+        long errors(Operation operation) {
+            return errors.get(operation).get();
+        }
+
+        long totalErrors() {
+            return errors.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        /**
+         * Latency at a percentile in milliseconds
+         */
+        double percentileMs(Operation operation, double percentile) {
+            return histograms.get(operation).getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        /**
+         * Latency at a percentile over all operations in milliseconds
+         */
+        double percentileMs(double percentile) {
+            Histogram all = new Histogram(HIGHEST_MICROS, 3);
+            histograms.values().forEach(all::add);
+            return all.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        /**
+         * One line per operation with its count, errors and latency percentiles
+         */
+        String report() {
+            StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                    "%-8s %8s %7s %9s %9s %9s %9s%n", "", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = histograms.get(operation);
+                report.append(String.format(Locale.ROOT, "%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f%n", operation.key(),
+                        histogram.getTotalCount(), errors(operation), percentileMs(operation, 50),
+                        percentileMs(operation, 90), percentileMs(operation, 99), histogram.getMaxValue() / 1000.0));
+            }
+            report.append(String.format(Locale.ROOT, "all: %d requests, %.1f requests/s, p99 %.2f ms, " +
+                            "last request finished %.0f ms after it was due%n",
+                    requests, throughput(), percentileMs(99), behindNanos / 1e6));
+            return report.toString();
+        }
+
+        /**
+         * Write each operation's full latency distribution (in milliseconds) to directory/<operation>.hgrm,
+         * the format HdrHistogram's plotter reads
+         */
+        void writeHistograms(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Operation operation : Operation.values()) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(operation.key() + ".hgrm")))) {
+                    histograms.get(operation).outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.medimate.loadtest;
+
+import com.medimate.entity.Medicine;
+import com.medimate.loadtest.LoadGenerator.Operation;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test of the medicine API
+ * Starts the application on a random port against the embedded H2 database, loads
+ * loadtest.users users with loadtest.medicines-per-user medicines each, and replays the mix of
+ * list, search, create, update and delete calls from loadtest/load-test.properties at a fixed
+ * rate through MedicineController, MedicineService and MedicineRepository.
+ *
+ * The run fails if any call's p99 latency, the throughput or the error ratio is worse than the
+ * limits in loadtest/thresholds.properties. The latency histograms are written to
+ * target/load-test/<operation>.hgrm.
+ *
+ * Tagged "load", so it only runs with mvn -Pload-test test. Admission control is off because the
+ * per-user rate limits would turn most of the load into 429 responses.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "medimate.admission.enabled=false")
+@ActiveProfiles("test")
+class MedicineLoadTest {
+
+    private static final long FIRST_USER_ID = 5001L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Test
+    void testMedicineApiUnderLoad() throws IOException {
+        Properties settings = settings();
+        int users = intSetting(settings, "loadtest.users");
+        int medicinesPerUser = intSetting(settings, "loadtest.medicines-per-user");
+
+        List<Long> userIds = new ArrayList<>();
+        List<Long> medicineIds = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int user = 0; user < users; user++) {
+            long userId = FIRST_USER_ID + user;
+            userIds.add(userId);
+            List<Medicine> medicines = new ArrayList<>();
+            for (int i = 0; i < medicinesPerUser; i++) {
+                String name = i % 3 == 0 ? "Paracetamol 500mg" : i % 3 == 1 ? "Ibuprofen 200mg" : "Vitamin C 500mg";
+                medicines.add(new Medicine(name, i, today.plusDays(i * 10 - 60), userId));
+            }
+            medicineRepository.saveAll(medicines).forEach(medicine -> medicineIds.add(medicine.getId()));
+        }
+
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, intSetting(settings, "loadtest.mix." + operation.key()));
+        }
+        int rate = intSetting(settings, "loadtest.rate");
+        System.out.println("=== LOAD TEST: " + rate + " requests/s, mix " + mix + " ===");
+
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port + "/api/medicines", userIds, medicineIds, mix);
+        LoadGenerator.Result result = generator.run(rate, intSetting(settings, "loadtest.warmup-seconds"),
+                intSetting(settings, "loadtest.duration-seconds"), Long.parseLong(settings.getProperty("loadtest.seed")));
+        System.out.print(result.report());
+        result.writeHistograms(Paths.get("target", "load-test"));
+
+        List<String> failures = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            double limit = doubleSetting(settings, "loadtest.threshold.p99-ms." + operation.key());
+            double p99 = result.percentileMs(operation, 99);
+            if (result.count(operation) > 0 && p99 > limit) {
+                failures.add(operation.key() + " p99 " + p99 + " ms > " + limit + " ms");
+            }
+        }
+        double minThroughput = doubleSetting(settings, "loadtest.threshold.min-throughput");
+        if (result.throughput() < minThroughput) {
+            failures.add("throughput " + result.throughput() + " requests/s < " + minThroughput);
+        }
+        long requests = 0;
+        for (Operation operation : Operation.values()) {
+            requests += result.count(operation);
+        }
+        double errorRatio = (double) result.totalErrors() / Math.max(1, requests);
+        double maxErrorRatio = doubleSetting(settings, "loadtest.threshold.max-error-ratio");
+        if (errorRatio > maxErrorRatio) {
+            failures.add("error ratio " + errorRatio + " > " + maxErrorRatio);
+        }
+        assertTrue(failures.isEmpty(), "Load test regressed: " + failures + "\n" + result.report());
+    }
+
+    /**
+     * The load test settings and thresholds, with -Dloadtest.* system properties taking precedence
+     */
+    private static Properties settings() throws IOException {
+        Properties settings = new Properties();
+        for (String file : new String[] {"/loadtest/load-test.properties", "/loadtest/thresholds.properties"}) {
+            try (InputStream in = MedicineLoadTest.class.getResourceAsStream(file)) {
+                settings.load(in);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("loadtest.")) {
+                settings.setProperty(name, System.getProperty(name));
+            }
+        }
+        return settings;
+    }
+
+    private static int intSetting(Properties settings, String name) {
+        return Integer.parseInt(required(settings, name));
+    }
+
+    private static double doubleSetting(Properties settings, String name) {
+        return Double.parseDouble(required(settings, name));
+    }
+
+    private static String required(Properties settings, String name) {
+        String value = settings.getProperty(name);
+        assertNotNull(value, "Missing load test setting " + name);
+        return value.trim();
+    }
+}
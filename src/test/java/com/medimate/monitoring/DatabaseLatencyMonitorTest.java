@@ -0,0 +1,49 @@
+package com.medimate.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DatabaseLatencyMonitor
+ * These tests drive the monitor with explicit timestamps so they do not depend on timing
+ */
+class DatabaseLatencyMonitorTest {
+
+    /**
+     * Test that a slow average fades away when no new calls come in
+     */
+    @Test
+    void testAverageFadesWithoutCalls() {
+        // Arrange: One slow call
+        DatabaseLatencyMonitor monitor = new DatabaseLatencyMonitor(new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        monitor.record(TimeUnit.MILLISECONDS.toNanos(400), now);
+        assertEquals(400.0, monitor.getAverageLatencyMillis(now), 0.001);
+
+        // Act & Assert: The average halves every second with no calls
+        assertEquals(200.0, monitor.getAverageLatencyMillis(now + TimeUnit.SECONDS.toNanos(1)), 0.001);
+        assertTrue(monitor.getAverageLatencyMillis(now + TimeUnit.SECONDS.toNanos(10)) < 1.0);
+    }
+
+    /**
+     * Test that new calls move the faded average, not the old one
+     */
+    @Test
+    void testNewCallsStartFromTheFadedAverage() {
+        // Arrange: A slow call followed by a quiet minute
+        DatabaseLatencyMonitor monitor = new DatabaseLatencyMonitor(new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        monitor.record(TimeUnit.MILLISECONDS.toNanos(400), now);
+        long later = now + TimeUnit.MINUTES.toNanos(1);
+
+        // Act: One fast call
+        monitor.record(TimeUnit.MILLISECONDS.toNanos(10), later);
+
+        // Assert: Only the fast call's share is left
+        assertEquals(1.0, monitor.getAverageLatencyMillis(later), 0.01);
+    }
+}
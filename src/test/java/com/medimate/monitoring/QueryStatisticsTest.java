@@ -0,0 +1,111 @@
+package com.medimate.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.SlowQuery;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Tests for RepositoryStatistics, SlowQueryLog and the /api/admin/queries endpoints
+ * The threshold is 0 so every statement counts as slow
+ */
+@SpringBootTest(properties = {"medimate.admission.enabled=false", "medimate.slow-query.threshold-ms=0"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryStatisticsTest {
+
+    private static final Long USER_ID = 4301L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that repository methods are listed with their call count and rows returned
+     */
+    @Test
+    void testPerMethodStatistics() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            medicineRepository.save(new Medicine("Medicine " + i, i, LocalDate.now().plusDays(i), USER_ID));
+        }
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/medicines").param("userId", USER_ID.toString()));
+        }
+
+        String body = mockMvc.perform(get("/api/admin/queries").param("repository", "MedicineRepository"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode readByUserId = null;
+        for (JsonNode statistic : objectMapper.readTree(body)) {
+            assertTrue(statistic.get("method").asText().startsWith("MedicineRepository."));
+            if (statistic.get("method").asText().equals("MedicineRepository.readByUserId")) {
+                readByUserId = statistic;
+            }
+        }
+
+        assertNotNull(readByUserId, body);
+        assertTrue(readByUserId.get("count").asLong() >= 3, body);
+        assertTrue(readByUserId.get("rows").asLong() >= 36, body);
+        assertTrue(readByUserId.get("totalMs").asDouble() > 0, body);
+        assertTrue(readByUserId.get("p99Ms").asDouble() > 0, body);
+    }
+
+    /**
+     * Test that slow statements are logged with the repository method and parameter types,
+     * but without the parameter values
+     */
+    @Test
+    void testSlowStatementsAreLogged() throws Exception {
+        medicineRepository.save(new Medicine("Secret Medicine", 7, LocalDate.now().plusDays(3), USER_ID));
+        medicineRepository.readByUserIdAndNameContainingIgnoreCase(USER_ID, "secret");
+
+        String body = mockMvc.perform(get("/api/admin/queries/slow").param("limit", "5"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode newest = objectMapper.readTree(body).get(0);
+
+        assertEquals("MedicineRepository.readByUserIdAndNameContainingIgnoreCase", newest.get("repositoryMethod").asText());
+        assertTrue(newest.get("sql").asText().toLowerCase().contains("from medicines"), body);
+        assertEquals("(Long, String)", newest.get("parameters").asText());
+        assertFalse(body.contains("ecret"), body);
+        assertTrue(newest.get("updateCount").isNull());
+    }
+
+    /**
+     * Test that the log keeps only the newest entries once it is full
+     */
+    @Test
+    void testRingBufferKeepsNewestEntries() {
+        SlowQueryLog log = new SlowQueryLog(0, 3);
+        for (int i = 1; i <= 5; i++) {
+            log.record("select " + i, "()", 1_000_000, null);
+        }
+
+        List<SlowQuery> recent = log.getRecent(10);
+        assertEquals(List.of("select 5", "select 4", "select 3"), recent.stream().map(SlowQuery::getSql).toList());
+        assertEquals(5, log.getRecordedCount());
+        assertEquals(1, log.getRecent(1).size());
+    }
+}
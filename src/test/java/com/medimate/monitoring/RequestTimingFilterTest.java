@@ -0,0 +1,102 @@
+package com.medimate.monitoring;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Integration tests for RequestTimingFilter
+ * Every request is sampled in the test profile
+ */
+@SpringBootTest(properties = "medimate.admission.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTimingFilterTest {
+
+    private static final Long USER_ID = 4201L;
+
+    private static final Pattern HEADER = Pattern.compile(
+            "db;dur=(\\d+\\.\\d{3});desc=\"(\\d+) calls?\", service;dur=(\\d+\\.\\d{3})");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that a list request reports db and service time in the header, and every phase
+     * (including serialization and total) in the metric
+     */
+    @Test
+    void testServerTimingHeaderAndMetrics() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            medicineRepository.save(new Medicine("Medicine " + i, i, LocalDate.now().plusDays(i), USER_ID));
+        }
+        long before = count("/api/medicines", "total");
+
+        MvcResult result = mockMvc.perform(get("/api/medicines").param("userId", USER_ID.toString())).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("Medicine 49"));
+        String header = result.getResponse().getHeader(RequestTimingFilter.HEADER);
+        assertNotNull(header);
+        Matcher matcher = HEADER.matcher(header);
+        assertTrue(matcher.matches(), header);
+
+        assertEquals("1", matcher.group(2));
+        assertTrue(Double.parseDouble(matcher.group(1)) > 0, header);
+
+        assertEquals(before + 1, count("/api/medicines", "db"));
+        assertEquals(before + 1, count("/api/medicines", "service"));
+        assertEquals(before + 1, count("/api/medicines", "serialization"));
+        assertEquals(before + 1, count("/api/medicines", "total"));
+    }
+
+    /**
+     * Test that a write response gets the header and reaches the client complete
+     */
+    @Test
+    void testWriteResponseIsCompleteAndTimed() throws Exception {
+        String body = "{\"name\":\"Aspirin\",\"quantity\":3,\"expiryDate\":\"" + LocalDate.now().plusDays(30) +
+                "\",\"userId\":" + USER_ID + "}";
+
+        MvcResult result = mockMvc.perform(post("/api/medicines")
+                .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+
+        assertEquals(201, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("Aspirin"));
+        assertTrue(HEADER.matcher(result.getResponse().getHeader(RequestTimingFilter.HEADER)).matches());
+    }
+
+    private long count(String uri, String phase) {
+        Timer timer = meterRegistry.find("medimate.request.timing").tag("uri", uri).tag("phase", phase).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.medimate.repository;
+
+import com.medimate.entity.Medicine;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JDBC read path (MedicineReadRepository)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MedicineReadRepositoryTest {
+
+    private static final Long USER_ID = 4801L;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            medicines.add(new Medicine(i % 2 == 0 ? "Paracetamol " + i : "Ibuprofen " + i, i,
+                    today.plusDays(i * 10 - 40), USER_ID));
+        }
+        medicineRepository.saveAll(medicines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll(medicineRepository.readByUserId(USER_ID));
+    }
+
+    /**
+     * Test that every read... method returns the same rows, with the same values, as the
+     * entities Hibernate loads for the user
+     */
+    @Test
+    void testReadsMatchEntities() {
+        LocalDate today = LocalDate.now();
+        assertSameMedicines(entities(medicine -> true), medicineRepository.readByUserId(USER_ID));
+        assertSameMedicines(entities(medicine -> medicine.getExpiryDate().isBefore(today)),
+                medicineRepository.readByUserIdAndExpiryDateBefore(USER_ID, today));
+        assertSameMedicines(entities(medicine -> !medicine.getExpiryDate().isBefore(today)
+                        && !medicine.getExpiryDate().isAfter(today.plusDays(30))),
+                medicineRepository.readByUserIdAndExpiryDateBetween(USER_ID, today, today.plusDays(30)));
+        assertSameMedicines(entities(medicine -> medicine.getQuantity() < 5),
+                medicineRepository.readByUserIdAndQuantityLessThan(USER_ID, 5));
+        assertSameMedicines(entities(medicine -> medicine.getName().toLowerCase().contains("para")),
+                medicineRepository.readByUserIdAndNameContainingIgnoreCase(USER_ID, "PARA"));
+
+        Medicine medicine = entities(m -> true).get(3);
+        assertSameMedicines(List.of(medicine), List.of(medicineRepository.readById(medicine.getId()).orElseThrow()));
+        assertTrue(medicineRepository.readById(-1L).isEmpty());
+    }
+
+    /**
+     * Test that the batch read... methods return the rows of every requested user
+     */
+    @Test
+    void testBatchReadsMatchEntities() {
+        LocalDate today = LocalDate.now();
+        List<Long> userIds = List.of(USER_ID, -1L);
+        assertSameMedicines(entities(medicine -> medicine.getExpiryDate().isBefore(today)),
+                medicineRepository.readByUserIdInAndExpiryDateBefore(userIds, today));
+        assertSameMedicines(entities(medicine -> !medicine.getExpiryDate().isBefore(today)
+                        && !medicine.getExpiryDate().isAfter(today.plusDays(30))),
+                medicineRepository.readByUserIdInAndExpiryDateBetween(userIds, today, today.plusDays(30)));
+        assertSameMedicines(entities(medicine -> medicine.getQuantity() < 5),
+                medicineRepository.readByUserIdInAndQuantityLessThan(userIds, 5));
+    }
+
+    /**
+     * Test that read medicines are not added to the persistence context, so changing one inside
+     * a transaction does not write it back
+     */
+    @Test
+    void testReadMedicinesAreDetached() {
+        Long id = medicineRepository.readByUserId(USER_ID).get(0).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Medicine medicine = medicineRepository.readById(id).orElseThrow();
+            assertFalse(entityManager.contains(medicine));
+            medicine.setQuantity(999);
+        });
+
+        assertNotEquals(999, medicineRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    private List<Medicine> entities(Predicate<Medicine> filter) {
+        return medicineRepository.findAll().stream()
+                .filter(medicine -> USER_ID.equals(medicine.getUserId()))
+                .filter(filter)
+                .toList();
+    }
+
+    private void assertSameMedicines(List<Medicine> expected, List<Medicine> actual) {
+        assertFalse(expected.isEmpty());
+        assertEquals(toStrings(expected), toStrings(actual));
+    }
+
+    private List<String> toStrings(List<Medicine> medicines) {
+        return medicines.stream()
+                .sorted(Comparator.comparing(Medicine::getId))
+                .map(Medicine::toString)
+                .toList();
+    }
+}
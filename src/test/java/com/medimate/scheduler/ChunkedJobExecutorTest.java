@@ -0,0 +1,89 @@
+package com.medimate.scheduler;
+
+import com.medimate.entity.JobExecution;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.service.MedicineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for ChunkedJobExecutor
+ * These tests interrupt a job halfway and check that the next attempt resumes from the checkpoint
+ */
+@SpringBootTest(properties = "medimate.scheduler.chunk-size=10")
+@ActiveProfiles("test")
+class ChunkedJobExecutorTest {
+
+    @Autowired
+    private ChunkedJobExecutor chunkedJobExecutor;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll();
+    }
+
+    /**
+     * Test that an interrupted run continues after its last checkpoint
+     */
+    @Test
+    void testInterruptedRunResumesFromCheckpoint() throws Exception {
+        // Arrange: 25 expired medicines, read in chunks of 10
+        for (int i = 0; i < 25; i++) {
+            medicineRepository.save(new Medicine("Expired " + i, 1, LocalDate.now().minusDays(1), 1L));
+        }
+        List<Long> processed = new ArrayList<>();
+
+        // Act: The first attempt fails on its second chunk
+        assertThrows(IllegalStateException.class, () -> runJob(processed, 2));
+
+        // Assert: One chunk was checkpointed
+        assertEquals(10, processed.size());
+
+        // Act: The second attempt resumes
+        JobExecution execution = runJob(processed, -1);
+
+        // Assert: The remaining 15 medicines were processed once each and nothing was repeated
+        assertEquals(JobExecution.Status.COMPLETED, execution.getStatus());
+        assertEquals(1, execution.getResumeCount());
+        assertEquals(25, execution.getItemsProcessed());
+        assertEquals(3, execution.getChunksProcessed());
+        assertEquals(25, processed.size());
+        assertEquals(25, processed.stream().distinct().count());
+
+        // A completed run is not repeated
+        runJob(processed, -1);
+        assertEquals(25, processed.size());
+    }
+
+    /**
+     * Run the job, failing on the given chunk number (or never when failOnChunk is -1)
+     */
+    private JobExecution runJob(List<Long> processed, int failOnChunk) throws Exception {
+        int[] chunkNumber = {0};
+        return chunkedJobExecutor.execute("resumeTest", "2025-01-01", 0, "test-instance",
+                (afterId, limit) -> medicineService.getExpiredMedicinesChunk(0, 1, afterId, limit),
+                Medicine::getId,
+                chunk -> {
+                    if (++chunkNumber[0] == failOnChunk) {
+                        throw new IllegalStateException("Simulated crash");
+                    }
+                    chunk.forEach(medicine -> processed.add(medicine.getId()));
+                });
+    }
+}
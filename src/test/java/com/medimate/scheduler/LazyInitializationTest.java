@@ -0,0 +1,39 @@
+package com.medimate.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that scheduled tasks still run when beans are created lazily, as in the prod profile
+ */
+@SpringBootTest(properties = "spring.main.lazy-initialization=true")
+@ActiveProfiles("test")
+class LazyInitializationTest {
+
+    @Autowired
+    private ScheduledTaskHolder scheduledTaskHolder;
+
+    /**
+     * Test that the scheduler and the event heartbeat are registered at startup
+     */
+    @Test
+    void testScheduledTasksAreRegistered() {
+        // Act: Collect the names of all registered scheduled methods
+        Set<String> tasks = scheduledTaskHolder.getScheduledTasks().stream()
+                .map(ScheduledTask::toString)
+                .collect(Collectors.toSet());
+
+        // Assert: Both lazily-excluded beans registered their tasks
+        assertTrue(tasks.stream().anyMatch(task -> task.contains("MedicineScheduler.checkExpiredMedicines")), tasks.toString());
+        assertTrue(tasks.stream().anyMatch(task -> task.contains("MedicineEventBroadcaster.sendHeartbeats")), tasks.toString());
+    }
+}
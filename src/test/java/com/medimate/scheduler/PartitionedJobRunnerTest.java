@@ -0,0 +1,155 @@
+package com.medimate.scheduler;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.service.JobLeaseService;
+import com.medimate.service.MedicineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for PartitionedJobRunner
+ * Several runner instances with different instance IDs share one in-memory H2 database,
+ * the same way several application instances share one MySQL database
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PartitionedJobRunnerTest {
+
+    private static final int PARTITIONS = 16;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    private final List<PartitionedJobRunner> runners = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        runners.forEach(PartitionedJobRunner::shutdown);
+        medicineRepository.deleteAll();
+    }
+
+    /**
+     * Test that three instances running the same job process every user exactly once
+     */
+    @Test
+    void testEachUserProcessedOnceAcrossInstances() throws Exception {
+        // Arrange: Expired medicines for 100 users
+        for (long userId = 1; userId <= 100; userId++) {
+            medicineRepository.save(new Medicine("Expired " + userId, 1, LocalDate.now().minusDays(3), userId));
+        }
+        Map<Long, AtomicInteger> timesSeen = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            // Act: Three instances run the job at the same time
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                PartitionedJobRunner runner = newRunner("instance-" + i, 5000);
+                results.add(executor.submit(() -> runner.run("expiredOnce", "2025-01-01", (partition, partitions) -> {
+                    for (Medicine medicine : medicineService.getExpiredMedicinesChunk(partition, partitions, null, 1000)) {
+                        timesSeen.computeIfAbsent(medicine.getId(), id -> new AtomicInteger()).incrementAndGet();
+                    }
+                })));
+            }
+
+            // Assert: Partitions were split without overlap and every medicine was seen once
+            List<Integer> allPartitions = new ArrayList<>();
+            for (Future<List<Integer>> result : results) {
+                allPartitions.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(PARTITIONS, allPartitions.size());
+            assertEquals(PARTITIONS, allPartitions.stream().distinct().count());
+            assertEquals(100, timesSeen.size());
+            assertTrue(timesSeen.values().stream().allMatch(count -> count.get() == 1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that a finished run is not repeated when the job fires again with the same run key
+     */
+    @Test
+    void testFinishedRunIsNotRepeated() throws Exception {
+        PartitionedJobRunner runner = newRunner("instance-a", 5000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(PARTITIONS, runner.run("repeat", "2025-01-01", (partition, partitions) -> calls.incrementAndGet()).size());
+        assertEquals(0, runner.run("repeat", "2025-01-01", (partition, partitions) -> calls.incrementAndGet()).size());
+        assertEquals(PARTITIONS, runner.run("repeat", "2025-01-02", (partition, partitions) -> calls.incrementAndGet()).size());
+        assertEquals(PARTITIONS * 2, calls.get());
+    }
+
+    /**
+     * Test that a partition held by an instance that died is taken over once its lease expires
+     */
+    @Test
+    void testExpiredLeaseIsTakenOver() throws Exception {
+        // Arrange: A "dead" instance claims partition 3 with a short lease and never finishes it
+        long leaseMillis = 300;
+        jobLeaseService.ensurePartitions("failover", PARTITIONS);
+        assertTrue(jobLeaseService.tryClaim("failover", 3, "2025-01-01", "dead-instance", leaseMillis));
+
+        // Act: A healthy instance runs the job
+        PartitionedJobRunner runner = newRunner("healthy-instance", leaseMillis);
+        List<Integer> processed = runner.run("failover", "2025-01-01", (partition, partitions) -> { });
+
+        // Assert: The healthy instance processed every partition, including the dead one's
+        assertEquals(PARTITIONS, processed.size());
+        assertTrue(processed.contains(3));
+        assertEquals(0, jobLeaseService.countIncomplete("failover", "2025-01-01", PARTITIONS));
+    }
+
+    /**
+     * Test that lowering the partition count does not leave the run waiting for the old partitions
+     */
+    @Test
+    void testLoweredPartitionCountFinishesPromptly() throws Exception {
+        // Arrange: The job has already run with 16 partitions
+        newRunner("instance-a", 5000).run("shrink", "2025-01-01", (partition, partitions) -> { });
+
+        // Act: The next run uses only 4 partitions
+        PartitionedJobRunner smaller = newRunner("instance-a", 5000, 4);
+        long start = System.nanoTime();
+        List<Integer> processed = smaller.run("shrink", "2025-01-02", (partition, partitions) -> { });
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert: All 4 partitions ran and the run did not wait for rows 4 to 15 until max-run-ms
+        assertEquals(4, processed.size());
+        assertTrue(tookMillis < 10_000, "took " + tookMillis + "ms");
+        assertEquals(0, jobLeaseService.countIncomplete("shrink", "2025-01-02", 4));
+    }
+
+    private PartitionedJobRunner newRunner(String instanceId, long leaseMillis) {
+        return newRunner(instanceId, leaseMillis, PARTITIONS);
+    }
+
+    private PartitionedJobRunner newRunner(String instanceId, long leaseMillis, int partitions) {
+        PartitionedJobRunner runner = new PartitionedJobRunner(jobLeaseService, instanceId, partitions, leaseMillis, 20_000);
+        runners.add(runner);
+        return runner;
+    }
+}
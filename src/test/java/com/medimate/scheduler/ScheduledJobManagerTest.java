@@ -0,0 +1,150 @@
+package com.medimate.scheduler;
+
+import com.medimate.dto.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for ScheduledJobManager and the job control endpoints
+ */
+@SpringBootTest(properties = {
+        "medimate.admission.enabled=false",
+        "medimate.jobs.cancellableJob.max-runtime-ms=200"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ScheduledJobManagerTest {
+
+    @Autowired
+    private ScheduledJobManager jobManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test that a trigger arriving while the job is running is skipped, and that the API
+     * reports the run and refuses a second one
+     */
+    @Test
+    void testSkipIfRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        jobManager.register("blockingJob", () -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        });
+
+        assertTrue(jobManager.trigger("blockingJob"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(jobManager.trigger("blockingJob"));
+        mockMvc.perform(post("/api/jobs/blockingJob/run")).andExpect(status().isConflict());
+        mockMvc.perform(get("/api/jobs/blockingJob"))
+                .andExpect(jsonPath("$.running").value(1))
+                .andExpect(jsonPath("$.skipped").value(2));
+
+        release.countDown();
+        JobStatus status = awaitFinished("blockingJob");
+        assertEquals(JobStatus.Outcome.COMPLETED, status.getLastOutcome());
+        assertEquals(1, status.getRuns());
+        assertNotNull(status.getLastDurationMs());
+
+        // Free again: the API can start it
+        mockMvc.perform(post("/api/jobs/blockingJob/run")).andExpect(status().isAccepted());
+        awaitFinished("blockingJob");
+    }
+
+    /**
+     * Test that a job triggered while every job thread is busy waits for a free thread
+     * instead of being skipped
+     */
+    @Test
+    void testRunWaitsForFreeThread() throws Exception {
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            jobManager.register("busyJob" + i, () -> {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            });
+            assertTrue(jobManager.trigger("busyJob" + i));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch waitingRan = new CountDownLatch(1);
+        jobManager.register("waitingJob", waitingRan::countDown);
+        assertTrue(jobManager.trigger("waitingJob"));
+        // A second trigger while the first run is still waiting is skipped
+        assertFalse(jobManager.trigger("waitingJob"));
+        assertEquals(1, waitingRan.getCount());
+
+        release.countDown();
+        assertTrue(waitingRan.await(5, TimeUnit.SECONDS));
+        assertEquals(JobStatus.Outcome.COMPLETED, awaitFinished("waitingJob").getLastOutcome());
+        assertEquals(1, jobManager.getJob("waitingJob").getSkipped());
+    }
+
+    /**
+     * Test that a job over its maximum runtime is asked to stop and stops at its next check
+     */
+    @Test
+    void testMaxRuntimeCancelsCooperatively() throws Exception {
+        jobManager.register("cancellableJob", () -> {
+            for (int chunk = 0; chunk < 1000; chunk++) {
+                ScheduledJobManager.checkCancelled("after chunk " + chunk);
+                Thread.sleep(10);
+            }
+        });
+
+        long start = System.nanoTime();
+        assertTrue(jobManager.trigger("cancellableJob"));
+        JobStatus status = awaitFinished("cancellableJob");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(JobStatus.Outcome.TIMED_OUT, status.getLastOutcome());
+        assertTrue(status.getLastError().startsWith("Job cancelled after chunk"), status.getLastError());
+        assertTrue(elapsedMs < 5000, "took " + elapsedMs + " ms");
+        assertFalse(ScheduledJobManager.isCancellationRequested(), "only job threads are ever cancelled");
+    }
+
+    /**
+     * Test that the scheduler's jobs are listed and unknown jobs are reported as missing
+     */
+    @Test
+    void testJobsAreListed() throws Exception {
+        mockMvc.perform(get("/api/jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'checkExpiredMedicines')].maxConcurrency").value(1))
+                .andExpect(jsonPath("$[?(@.name == 'systemHealthCheck')].maxRuntimeMs").value(60000));
+
+        mockMvc.perform(post("/api/jobs/noSuchJob/run")).andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/jobs/" + MedicineScheduler.HEALTH_CHECK_JOB + "/run")).andExpect(status().isAccepted());
+        assertEquals(JobStatus.Outcome.COMPLETED, awaitFinished(MedicineScheduler.HEALTH_CHECK_JOB).getLastOutcome());
+    }
+
+    private JobStatus awaitFinished(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            JobStatus status = jobManager.getJob(name);
+            if (status.getRunning() == 0 && status.getLastOutcome() != null) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Job " + name + " did not finish");
+        return null;
+    }
+}
@@ -0,0 +1,215 @@
+package com.medimate.service;
+
+import com.medimate.dto.StockForecast;
+import com.medimate.entity.Medicine;
+import com.medimate.entity.MedicineConsumption;
+import com.medimate.entity.QuantityChange;
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for ConsumptionService
+ * The rate arithmetic is checked directly; the rest runs against the in-memory H2 database
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConsumptionServiceTest {
+
+    private static final Long USER_ID = 91L;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @SpyBean
+    private ConsumptionService consumptionService;
+
+    @SpyBean
+    private MedicineEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll();
+        quantityChangeRepository.deleteAll();
+        consumptionRepository.deleteAll();
+    }
+
+    /**
+     * Test that the rate starts at the first observed usage and then moves towards new usage
+     * by a weight that depends on the time gap
+     */
+    @Test
+    void testWeightedRateAndStockOutDate() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        MedicineConsumption consumption = new MedicineConsumption(1L, USER_ID, 50, LocalDate.of(2026, 6, 1), start);
+
+        // First use: 10 units over 5 days is 2 per day, so 40 units last 20 more days
+        ConsumptionService.apply(consumption, -10, 40, LocalDate.of(2026, 6, 1), start.plusDays(5), 14);
+        assertEquals(2.0, consumption.getDailyRate(), 1e-9);
+        assertEquals(LocalDate.of(2026, 1, 26), consumption.getStockOutDate());
+
+        // Second use: 4 units in 1 day; the rate moves towards 4 by 1 - e^(-1/14)
+        ConsumptionService.apply(consumption, -4, 36, LocalDate.of(2026, 6, 1), start.plusDays(6), 14);
+        double expected = 2.0 + (1 - Math.exp(-1.0 / 14)) * (4.0 - 2.0);
+        assertEquals(expected, consumption.getDailyRate(), 1e-9);
+        assertEquals(2, consumption.getUsageEvents());
+
+        // A restock keeps the rate but pushes the stock-out date back
+        LocalDate before = consumption.getStockOutDate();
+        ConsumptionService.apply(consumption, 60, 96, LocalDate.of(2026, 6, 1), start.plusDays(7), 14);
+        assertEquals(expected, consumption.getDailyRate(), 1e-9);
+        assertTrue(consumption.getStockOutDate().isAfter(before));
+        assertEquals(start.plusDays(6), consumption.getLastUsageAt());
+    }
+
+    /**
+     * Test that a medicine that is not used has no stock-out date
+     */
+    @Test
+    void testNoUsageMeansNoStockOut() {
+        assertNull(ConsumptionService.projectStockOut(0, 10, LocalDateTime.now()));
+        assertNull(ConsumptionService.projectStockOut(1e-9, 10, LocalDateTime.now()));
+    }
+
+    /**
+     * Test that updates through MedicineService are written to the history and show up in
+     * the forecast and in the scheduler's running-out query
+     */
+    @Test
+    void testUpdatesFeedHistoryForecastAndScheduler() {
+        // Arrange: A medicine that expires in 60 days
+        Medicine medicine = medicineService.addMedicine(
+                new Medicine("Amoxicillin", 30, LocalDate.now().plusDays(60), USER_ID));
+        Medicine untouched = medicineService.addMedicine(
+                new Medicine("Vitamin C", 100, LocalDate.now().plusDays(60), USER_ID));
+
+        // Act: Use 10 units, then restock 5
+        medicineService.updateMedicine(medicine.getId(), new Medicine("Amoxicillin", 20, medicine.getExpiryDate(), USER_ID));
+        medicineService.updateMedicine(medicine.getId(), new Medicine("Amoxicillin", 25, medicine.getExpiryDate(), USER_ID));
+
+        // Assert: Both changes are in the history
+        List<QuantityChange> history = quantityChangeRepository.findByMedicineIdOrderByRecordedAtAsc(medicine.getId());
+        assertEquals(2, history.size());
+        assertEquals(-10, history.get(0).getDelta());
+        assertEquals(5, history.get(1).getDelta());
+        assertEquals(25, history.get(1).getQuantityAfter());
+
+        // Assert: Used within the hour, so it will run out long before it expires
+        List<StockForecast> forecasts = consumptionService.getForecast(USER_ID);
+        assertEquals(2, forecasts.size());
+        StockForecast used = forecasts.stream().filter(f -> f.getMedicineId().equals(medicine.getId())).findFirst().orElseThrow();
+        StockForecast unused = forecasts.stream().filter(f -> f.getMedicineId().equals(untouched.getId())).findFirst().orElseThrow();
+        assertTrue(used.getDailyRate() > 0);
+        assertTrue(used.isRunsOutBeforeExpiry());
+        assertNull(unused.getStockOutDate());
+        assertFalse(unused.isRunsOutBeforeExpiry());
+
+        List<MedicineConsumption> runningOut = consumptionService.getRunningOutBeforeExpiryChunk(0, 1, null, 100);
+        assertEquals(1, runningOut.size());
+        assertEquals(medicine.getId(), runningOut.get(0).getMedicineId());
+
+        // Assert: Deleting the medicine removes its forecast but keeps the history
+        medicineService.deleteMedicine(medicine.getId());
+        assertFalse(consumptionRepository.existsById(medicine.getId()));
+        assertEquals(2, quantityChangeRepository.findByMedicineIdOrderByRecordedAtAsc(medicine.getId()).size());
+    }
+
+    /**
+     * Test that a failure while recording the history rolls the quantity change back too
+     */
+    @Test
+    void testFailedHistoryRollsBackUpdate() {
+        Medicine medicine = medicineService.addMedicine(
+                new Medicine("Amoxicillin", 30, LocalDate.now().plusDays(60), USER_ID));
+        doThrow(new IllegalStateException("History unavailable")).when(consumptionService).recordChange(any(), anyInt());
+
+        assertThrows(IllegalStateException.class, () -> medicineService.updateMedicine(medicine.getId(),
+                new Medicine("Amoxicillin", 20, medicine.getExpiryDate(), USER_ID)));
+
+        assertEquals(30, medicineRepository.findById(medicine.getId()).orElseThrow().getQuantity());
+        assertTrue(quantityChangeRepository.findByMedicineIdOrderByRecordedAtAsc(medicine.getId()).isEmpty());
+    }
+
+    /**
+     * Test that a delete which is rolled back sends no DELETED event
+     */
+    @Test
+    void testRolledBackDeleteSendsNoEvent() {
+        Medicine medicine = medicineService.addMedicine(
+                new Medicine("Amoxicillin", 30, LocalDate.now().plusDays(60), USER_ID));
+        clearInvocations(eventBroadcaster);
+
+        // Act: Delete inside a transaction that is then rolled back
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            medicineService.deleteMedicine(medicine.getId());
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertTrue(medicineRepository.existsById(medicine.getId()));
+        verify(eventBroadcaster, never()).publish(any());
+    }
+
+    /**
+     * Test that two concurrent first changes of a medicine both succeed: the consumption row is
+     * created if missing before it is locked, so the second change waits instead of failing with
+     * a duplicate key
+     */
+    @Test
+    void testConcurrentFirstChangesBothApply() {
+        Medicine medicine = medicineService.addMedicine(
+                new Medicine("Amoxicillin", 30, LocalDate.now().plusDays(60), USER_ID));
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<Medicine>> updates = List.of(20, 25).stream()
+                .map(quantity -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return medicineService.updateMedicine(medicine.getId(),
+                            new Medicine("Amoxicillin", quantity, medicine.getExpiryDate(), USER_ID));
+                }))
+                .toList();
+        start.countDown();
+        updates.forEach(CompletableFuture::join);
+
+        assertEquals(2, quantityChangeRepository.findByMedicineIdOrderByRecordedAtAsc(medicine.getId()).size());
+        assertTrue(consumptionRepository.existsById(medicine.getId()));
+    }
+}
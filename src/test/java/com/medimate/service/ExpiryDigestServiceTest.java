@@ -0,0 +1,185 @@
+package com.medimate.service;
+
+import com.medimate.dto.JobStatus;
+import com.medimate.entity.ExpiryDigest;
+import com.medimate.entity.Medicine;
+import com.medimate.repository.ExpiryDigestRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.scheduler.MedicineScheduler;
+import com.medimate.scheduler.ScheduledJobManager;
+import com.medimate.sql.StatementCounter;
+import com.medimate.sql.StatementCountingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.medimate.sql.StatementCounter.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for ExpiryDigestService and GET /api/medicines/expiring-soon/digest
+ */
+@SpringBootTest(properties = {
+        "medimate.admission.enabled=false",
+        "medimate.digest.batch-size=200",
+        // One job connection at a time, so a job taking a second connection would wait on itself
+        "medimate.bulkhead.job.max-concurrent=1",
+        "medimate.jobs.connection-wait-ms=2000",
+        // One partition, so the job's partition holds several batches of users
+        "medimate.scheduler.partitions=1"
+})
+@AutoConfigureMockMvc
+@Import(StatementCountingConfiguration.class)
+@ActiveProfiles("test")
+class ExpiryDigestServiceTest {
+
+    private static final Long USER_ID = 4501L;
+    private static final Long OTHER_USER_ID = 4502L;
+
+    @Autowired
+    private ExpiryDigestService expiryDigestService;
+
+    @Autowired
+    private ExpiryDigestRepository expiryDigestRepository;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ScheduledJobManager jobManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        StatementCounter.stop();
+        medicineRepository.deleteAll();
+        expiryDigestRepository.deleteAll();
+    }
+
+    /**
+     * Test that each user gets a count, total quantity, nearest expiry and the medicines
+     * expiring first, and that medicines outside the window are left out
+     */
+    @Test
+    void testDigestPerUser() throws Exception {
+        LocalDate today = LocalDate.now();
+        medicineRepository.saveAll(List.of(
+                new Medicine("Expired", 5, today.minusDays(1), USER_ID),
+                new Medicine("In 20 days", 1, today.plusDays(20), USER_ID),
+                new Medicine("In 5 days", 2, today.plusDays(5), USER_ID),
+                new Medicine("In 10 days", 3, today.plusDays(10), USER_ID),
+                new Medicine("Today", 4, today, USER_ID),
+                new Medicine("Next year", 6, today.plusDays(365), USER_ID),
+                new Medicine("Other user", 7, today.plusDays(30), OTHER_USER_ID),
+                new Medicine("Not expiring", 8, today.plusDays(31), 4503L)));
+
+        assertEquals(2, expiryDigestService.rebuildPartition(0, 1, today));
+
+        ExpiryDigest digest = expiryDigestService.getDigest(USER_ID);
+        assertEquals(4, digest.getMedicineCount());
+        assertEquals(10, digest.getTotalQuantity());
+        assertEquals(today, digest.getNearestExpiry());
+        assertEquals(today.plusDays(30), digest.getWindowEnd());
+
+        mockMvc.perform(get("/api/medicines/expiring-soon/digest").param("userId", USER_ID.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.medicineCount").value(4))
+                .andExpect(jsonPath("$.topItems.length()").value(3))
+                .andExpect(jsonPath("$.topItems[0].name").value("Today"))
+                .andExpect(jsonPath("$.topItems[1].name").value("In 5 days"))
+                .andExpect(jsonPath("$.topItems[2].expiryDate").value(today.plusDays(10).toString()));
+        mockMvc.perform(get("/api/medicines/expiring-soon/digest").param("userId", OTHER_USER_ID.toString()))
+                .andExpect(jsonPath("$.topItems[0].quantity").value(7));
+        mockMvc.perform(get("/api/medicines/expiring-soon/digest").param("userId", "4503"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Test that a rebuild updates digests in place and removes those of users with nothing expiring
+     */
+    @Test
+    void testRebuildReplacesDigests() {
+        LocalDate today = LocalDate.now();
+        Medicine first = medicineRepository.save(new Medicine("First", 1, today.plusDays(3), USER_ID));
+        Medicine other = medicineRepository.save(new Medicine("Other", 1, today.plusDays(3), OTHER_USER_ID));
+        expiryDigestService.rebuildPartition(0, 1, today);
+
+        medicineRepository.save(new Medicine("Second", 2, today.plusDays(1), USER_ID));
+        medicineRepository.delete(other);
+        assertEquals(1, expiryDigestService.rebuildPartition(0, 1, today));
+
+        ExpiryDigest digest = expiryDigestService.getDigest(USER_ID);
+        assertEquals(2, digest.getMedicineCount());
+        assertEquals(today.plusDays(1), digest.getNearestExpiry());
+        assertTrue(digest.getTopItems().indexOf("Second") < digest.getTopItems().indexOf(first.getName()));
+        assertFalse(expiryDigestRepository.existsById(OTHER_USER_ID));
+    }
+
+    /**
+     * Test that a partition is digested with one query, one upsert per batch-size users and
+     * one delete, however many users it holds
+     */
+    @Test
+    void testStatementCountDoesNotGrowWithUsers() {
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (long userId = 10_000; userId < 10_450; userId++) {
+            medicines.add(new Medicine("Medicine A", 1, today.plusDays(userId % 30), userId));
+            medicines.add(new Medicine("Medicine B", 2, today.plusDays(userId % 7), userId));
+        }
+        medicineRepository.saveAll(medicines);
+
+        StatementCounter.reset();
+        assertEquals(450, expiryDigestService.rebuildPartition(0, 1, today));
+        StatementCounter.assertStatements(select(1), insert(3), delete(1));
+
+        assertEquals(450, expiryDigestRepository.count());
+        assertEquals(2, expiryDigestService.getDigest(10_449L).getMedicineCount());
+    }
+
+    /**
+     * Test that the digest job completes when the job bulkhead has a single connection
+     */
+    @Test
+    void testJobRunsWithOneJobConnection() throws Exception {
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (long userId = 20_000; userId < 20_450; userId++) {
+            medicines.add(new Medicine("Medicine", 1, today.plusDays(userId % 30), userId));
+        }
+        medicineRepository.saveAll(medicines);
+
+        assertTrue(jobManager.trigger(MedicineScheduler.EXPIRING_SOON_JOB));
+
+        JobStatus status = awaitFinished(MedicineScheduler.EXPIRING_SOON_JOB);
+        assertEquals(JobStatus.Outcome.COMPLETED, status.getLastOutcome(), status.getLastError());
+        assertEquals(450, expiryDigestRepository.count());
+    }
+
+    private JobStatus awaitFinished(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            JobStatus status = jobManager.getJob(name);
+            if (status.getRunning() == 0 && status.getLastOutcome() != null) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Job " + name + " did not finish");
+        return null;
+    }
+}
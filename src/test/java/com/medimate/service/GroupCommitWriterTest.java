@@ -0,0 +1,144 @@
+package com.medimate.service;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for GroupCommitWriter
+ * These tests run against the in-memory H2 database with group commit enabled
+ * (throughput against the direct path is measured by benchmark/GroupCommitBenchmark)
+ */
+@SpringBootTest(properties = "medimate.group-commit.enabled=true")
+@ActiveProfiles("test")
+class GroupCommitWriterTest {
+
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 100;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private GroupCommitWriter groupCommitWriter;
+
+    @BeforeEach
+    void setUp() {
+        medicineRepository.deleteAll();
+    }
+
+    /**
+     * Test that every queued medicine is saved and its future completes with a generated ID
+     */
+    @Test
+    void testConcurrentWritesAreAllCommitted() throws Exception {
+        // Act: Write concurrently through the group commit path
+        long[] latencies = runWrites(1L);
+
+        // Assert: Every row is in the database
+        assertEquals(THREADS * WRITES_PER_THREAD, latencies.length);
+        assertEquals(THREADS * WRITES_PER_THREAD, medicineRepository.readByUserId(1L).size());
+    }
+
+    /**
+     * Test that stopping the writer finishes every queued future and rejects later writes
+     */
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void testStopCompletesQueuedWritesAndRejectsNewOnes() throws Exception {
+        // Arrange: Queue writes without waiting for them
+        List<CompletableFuture<Medicine>> pending = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            pending.add(groupCommitWriter.submit(new Medicine("Medicine " + i, 10, LocalDate.now().plusDays(60), 4L)));
+        }
+
+        // Act
+        groupCommitWriter.stop();
+
+        // Assert: Nothing is left waiting, and the writer no longer accepts writes
+        for (CompletableFuture<Medicine> future : pending) {
+            assertTrue(future.isDone());
+        }
+        assertThrows(RejectedExecutionException.class, () -> groupCommitWriter.submit(
+                new Medicine("Late", 10, LocalDate.now().plusDays(60), 4L)));
+    }
+
+    /**
+     * Test that an interrupted committer stops accepting writes instead of leaving them queued
+     */
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void testInterruptedCommitterRejectsNewWrites() throws Exception {
+        // Arrange
+        Thread committer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("medimate-group-commit"))
+                .findFirst()
+                .orElseThrow();
+
+        // Act
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Assert
+        assertFalse(committer.isAlive());
+        assertThrows(RejectedExecutionException.class, () -> groupCommitWriter.submit(
+                new Medicine("Late", 10, LocalDate.now().plusDays(60), 5L)));
+    }
+
+    /**
+     * Write THREADS * WRITES_PER_THREAD medicines concurrently
+     * @return the latency of every write in nanoseconds
+     */
+    private long[] runWrites(Long userId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Callable<long[]> writer = () -> {
+                    long[] latencies = new long[WRITES_PER_THREAD];
+                    for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                        Medicine medicine = new Medicine("Medicine " + i, 10, LocalDate.now().plusDays(60), userId);
+                        long begin = System.nanoTime();
+                        Medicine saved = medicineService.addMedicineAsync(medicine).get(10, TimeUnit.SECONDS);
+                        latencies[i] = System.nanoTime() - begin;
+                        assertNotNull(saved.getId());
+                    }
+                    return latencies;
+                };
+                futures.add(executor.submit(writer));
+            }
+
+            long[] all = new long[THREADS * WRITES_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get(60, TimeUnit.SECONDS);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+                offset += latencies.length;
+            }
+            return all;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
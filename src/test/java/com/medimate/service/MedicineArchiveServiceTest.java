@@ -0,0 +1,139 @@
+package com.medimate.service;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.ArchivedMedicineRepository;
+import com.medimate.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for MedicineArchiveService
+ * These tests run against the in-memory H2 database, and print how much smaller the
+ * medicines table gets and how much faster the per-user list query becomes
+ */
+@SpringBootTest(properties = {
+        "medimate.archive.after-days=30",
+        "medimate.archive.batch-size=100",
+        "medimate.archive.max-rows-per-second=0"
+})
+@ActiveProfiles("test")
+class MedicineArchiveServiceTest {
+
+    private static final Long HEAVY_USER = 501L;
+    private static final Long OTHER_USER = 502L;
+
+    @Autowired
+    private MedicineArchiveService archiveService;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private ArchivedMedicineRepository archivedMedicineRepository;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(archiveService, "maxRowsPerSecond", 0);
+        medicineRepository.deleteAll();
+        archivedMedicineRepository.deleteAll();
+    }
+
+    /**
+     * Test that only medicines expired longer than after-days are moved, that the list
+     * endpoints still find them with includeArchived, and report the gains
+     */
+    @Test
+    void testArchivesLongExpiredMedicines() throws Exception {
+        // Arrange: A user with 2,000 medicines expired for over a year and 200 current ones,
+        // and a user whose medicines expired only 10 days ago
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            medicines.add(new Medicine("Old " + (i % 50), 1, today.minusDays(400 + i % 300), HEAVY_USER));
+        }
+        for (int i = 0; i < 200; i++) {
+            medicines.add(new Medicine("Current " + i, 10, today.plusDays(30 + i), HEAVY_USER));
+        }
+        for (int i = 0; i < 50; i++) {
+            medicines.add(new Medicine("Recent " + i, 3, today.minusDays(10), OTHER_USER));
+        }
+        medicineRepository.saveAll(medicines);
+
+        long rowsBefore = medicineRepository.count();
+        double msBefore = timeListQuery();
+
+        // Act: Archive everything (one partition)
+        long archived = archiveService.archivePartition(0, 1);
+
+        long rowsAfter = medicineRepository.count();
+        double msAfter = timeListQuery();
+        System.out.printf("Archival: medicines table %d -> %d rows (%.0f%% smaller), readByUserId %.3f ms -> %.3f ms (%.1fx)%n",
+                rowsBefore, rowsAfter, 100.0 * (rowsBefore - rowsAfter) / rowsBefore, msBefore, msAfter, msBefore / msAfter);
+
+        // Assert: Only the long-expired rows moved, with their IDs and values intact
+        assertEquals(2000, archived);
+        assertEquals(250, rowsAfter);
+        assertEquals(2000, archivedMedicineRepository.count());
+        assertEquals(50, medicineRepository.readByUserId(OTHER_USER).size());
+
+        // Assert: includeArchived brings them back on the list endpoints
+        assertEquals(200, medicineService.getAllMedicinesByUserId(HEAVY_USER).size());
+        assertEquals(2200, medicineService.getAllMedicinesByUserId(HEAVY_USER, true).size());
+        assertEquals(0, medicineService.getExpiredMedicines(HEAVY_USER).size());
+        assertEquals(2000, medicineService.getExpiredMedicines(HEAVY_USER, true).size());
+        assertEquals(40, medicineService.searchMedicinesByName(HEAVY_USER, "Old 7", true).size());
+
+        // Assert: Running again finds nothing to do
+        assertEquals(0, archiveService.archivePartition(0, 1));
+    }
+
+    /**
+     * Test that the job never moves more rows per second than configured
+     */
+    @Test
+    void testArchivalIsThrottled() throws Exception {
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            medicines.add(new Medicine("Old " + i, 1, today.minusDays(100), HEAVY_USER));
+        }
+        medicineRepository.saveAll(medicines);
+        ReflectionTestUtils.setField(archiveService, "maxRowsPerSecond", 1000);
+
+        long start = System.nanoTime();
+        long archived = archiveService.archivePartition(0, 1);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // 500 rows at 1,000 rows/s take at least half a second
+        assertEquals(500, archived);
+        assertTrue(elapsedMs >= 450, "archival took only " + elapsedMs + " ms");
+    }
+
+    /**
+     * Average time of the heavy user's list query in milliseconds (after a warm-up)
+     */
+    private double timeListQuery() {
+        for (int i = 0; i < 20; i++) {
+            medicineRepository.readByUserId(HEAVY_USER);
+        }
+        int runs = 100;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            medicineRepository.readByUserId(HEAVY_USER);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / runs;
+    }
+}
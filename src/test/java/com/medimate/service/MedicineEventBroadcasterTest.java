@@ -0,0 +1,172 @@
+package com.medimate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medimate.dto.MedicineEvent;
+import com.medimate.entity.Medicine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MedicineEventBroadcaster
+ * Includes a soak test with thousands of idle subscribers and a slow-consumer test
+ */
+class MedicineEventBroadcasterTest {
+
+    private static final int BUFFER_SIZE = 16;
+
+    private MedicineEventBroadcaster broadcaster;
+
+    /**
+     * Total number of messages written across all test emitters
+     */
+    private final AtomicInteger totalSends = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new MedicineEventBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(broadcaster, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 20_000);
+        ReflectionTestUtils.setField(broadcaster, "emitterTimeoutMillis", 0L);
+        ReflectionTestUtils.setField(broadcaster, "senderThreads", 4);
+        broadcaster.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    /**
+     * Soak test: 5,000 idle subscribers across 1,000 users receive heartbeats,
+     * and an event only reaches its own user's subscribers
+     */
+    @Test
+    void testThousandsOfIdleSubscribers() throws Exception {
+        // Arrange: 5 subscribers for each of 1,000 users
+        int users = 1000;
+        int perUser = 5;
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < perUser; i++) {
+                RecordingEmitter emitter = new RecordingEmitter(null);
+                broadcaster.subscribe(userId, emitter);
+                emitters.add(emitter);
+            }
+        }
+        int subscribers = users * perUser;
+        assertEquals(subscribers, broadcaster.getSubscriberCount());
+        waitUntil(() -> totalSends.get() == subscribers);
+
+        // Act: One heartbeat round, then one event for user 7
+        long start = System.nanoTime();
+        broadcaster.sendHeartbeats();
+        waitUntil(() -> totalSends.get() == subscribers * 2);
+        long heartbeatMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Medicine medicine = new Medicine("Aspirin", 10, LocalDate.now().plusDays(10), 7L);
+        medicine.setId(42L);
+        broadcaster.publish(MedicineEvent.of(MedicineEvent.Type.ADDED, medicine));
+        waitUntil(() -> totalSends.get() == subscribers * 2 + perUser);
+
+        // Assert: Nobody was disconnected and only user 7's subscribers got the event
+        System.out.println("Heartbeat to " + subscribers + " idle subscribers took " + heartbeatMillis + " ms");
+        assertEquals(subscribers, broadcaster.getSubscriberCount());
+        long withEvent = emitters.stream().filter(emitter -> emitter.sends.get() == 3).count();
+        assertEquals(perUser, withEvent);
+    }
+
+    /**
+     * Test that a subscriber that stops reading is disconnected without blocking the publisher
+     */
+    @Test
+    void testSlowConsumerIsDisconnected() throws Exception {
+        // Arrange: One stuck subscriber and one healthy subscriber for the same user
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        broadcaster.subscribe(1L, slow);
+        broadcaster.subscribe(1L, healthy);
+
+        Medicine medicine = new Medicine("Aspirin", 10, LocalDate.now().plusDays(10), 1L);
+        medicine.setId(1L);
+
+        // Act: Publish more events than the slow subscriber's buffer can hold,
+        // letting the healthy subscriber keep up between events
+        long publishNanos = 0;
+        for (int i = 0; i < BUFFER_SIZE + 5; i++) {
+            long start = System.nanoTime();
+            broadcaster.publish(MedicineEvent.of(MedicineEvent.Type.UPDATED, medicine));
+            publishNanos += System.nanoTime() - start;
+            int expectedSends = i + 2;
+            waitUntil(() -> healthy.sends.get() == expectedSends);
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(publishNanos);
+        stuck.countDown();
+
+        // Assert: Publishing did not wait for the slow client, which was dropped
+        assertTrue(publishMillis < 1000, "publish blocked for " + publishMillis + " ms");
+        waitUntil(() -> slow.completed);
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(BUFFER_SIZE + 6, healthy.sends.get());
+        assertFalse(healthy.completed);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 10 seconds");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Emitter that counts messages instead of writing to a connection
+     * and can be made to block to simulate a client that stopped reading
+     */
+    private class RecordingEmitter extends SseEmitter {
+
+        private final AtomicInteger sends = new AtomicInteger();
+        private final CountDownLatch block;
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sends.incrementAndGet();
+            totalSends.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.medimate.service;
+
+import com.medimate.dto.MedicineView;
+import com.medimate.entity.Medicine;
+import com.medimate.exception.NotFoundException;
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import com.medimate.sql.StatementCounter;
+import com.medimate.sql.StatementCountingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.medimate.sql.StatementCounter.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement count tests for MedicineService
+ * Pins how many SQL statements each operation sends to the database, so a change that adds a
+ * round trip (or an N+1 query) fails the build instead of slowing production down.
+ * If a count changes on purpose, update the number here in the same change.
+ */
+@SpringBootTest
+@Import(StatementCountingConfiguration.class)
+@ActiveProfiles("test")
+class MedicineServiceStatementCountTest {
+
+    private static final Long USER_ID = 4101L;
+    private static final int MEDICINES = 20;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    private Medicine existing;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate today = LocalDate.now();
+        List<Medicine> medicines = new ArrayList<>();
+        for (int i = 0; i < MEDICINES; i++) {
+            // A mix of expired, expiring-soon, low-stock and plain medicines
+            medicines.add(new Medicine("Medicine " + i, i, today.plusDays(i * 5 - 30), USER_ID));
+        }
+        existing = medicineRepository.saveAll(medicines).get(MEDICINES - 1);
+        StatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        StatementCounter.stop();
+        medicineRepository.deleteAll();
+        quantityChangeRepository.deleteAll();
+        consumptionRepository.deleteAll();
+    }
+
+    @Test
+    void testAddMedicine() {
+        medicineService.addMedicine(new Medicine("Aspirin", 10, LocalDate.now().plusDays(90), USER_ID));
+        assertStatements(insert(1));
+
+        medicineService.addMedicineAsync(new Medicine("Aspirin", 10, LocalDate.now().plusDays(90), USER_ID)).join();
+        assertStatements(insert(1));
+    }
+
+    @Test
+    void testReads() {
+        // One query per call however many medicines the user has: no N+1
+        assertEquals(MEDICINES, medicineService.getAllMedicinesByUserId(USER_ID).size());
+        assertStatements(select(1));
+
+        medicineService.getAllMedicinesByUserId(USER_ID, true);
+        assertStatements(select(2));
+
+        assertTrue(medicineService.getMedicineById(existing.getId()).isPresent());
+        assertStatements(select(1));
+
+        medicineService.searchMedicinesByName(USER_ID, "medicine");
+        assertStatements(select(1));
+
+        medicineService.searchMedicinesByName(USER_ID, "medicine", true);
+        assertStatements(select(2));
+    }
+
+    @Test
+    void testViews() {
+        assertFalse(medicineService.getExpiredMedicines(USER_ID).isEmpty());
+        assertStatements(select(1));
+
+        medicineService.getExpiredMedicines(USER_ID, true);
+        assertStatements(select(2));
+
+        assertFalse(medicineService.getMedicinesExpiringSoon(USER_ID).isEmpty());
+        assertStatements(select(1));
+
+        assertFalse(medicineService.getLowStockMedicines(USER_ID, 5).isEmpty());
+        assertStatements(select(1));
+    }
+
+    @Test
+    void testScheduledQueries() {
+        assertFalse(medicineService.getExpiredMedicinesChunk(0, 1, null, 100).isEmpty());
+        assertStatements(select(1));
+
+        medicineService.getExpiredMedicinesChunk(0, 4, null, 100);
+        assertStatements(select(1));
+
+        medicineService.getExpiredMedicinesChunk(0, 4, 1_000L, 100);
+        assertStatements(select(1));
+    }
+
+    @Test
+    void testBatchQueryRunsOneStatementPerViewAndChunk() {
+        List<Long> userIds = new ArrayList<>();
+        for (long userId = USER_ID; userId < USER_ID + 450; userId++) {
+            userIds.add(userId);
+        }
+
+        medicineService.queryMedicinesForUsers(userIds, List.of(MedicineView.EXPIRED, MedicineView.LOW_STOCK), 5);
+
+        // 450 users in chunks of 200 is 3 chunks, for each of the 2 views
+        assertStatements(select(6));
+    }
+
+    @Test
+    void testUpdateMedicine() {
+        // Same quantity and expiry date: no history is recorded
+        medicineService.updateMedicine(existing.getId(),
+                new Medicine("Renamed", existing.getQuantity(), existing.getExpiryDate(), USER_ID));
+        assertStatements(select(1), update(1));
+
+        // Quantity change: also appends to the history, creates the consumption row if it is
+        // missing, then locks and updates it
+        medicineService.updateMedicine(existing.getId(),
+                new Medicine("Renamed", existing.getQuantity() - 1, existing.getExpiryDate(), USER_ID));
+        assertStatements(select(2), insert(2), update(2));
+
+        // Later changes run the same statements; the insert finds the row and does nothing
+        medicineService.updateMedicine(existing.getId(),
+                new Medicine("Renamed", existing.getQuantity() - 2, existing.getExpiryDate(), USER_ID));
+        assertStatements(select(2), insert(2), update(2));
+
+        assertThrows(NotFoundException.class,
+                () -> medicineService.updateMedicine(-1L, new Medicine("Missing", 1, LocalDate.now(), USER_ID)));
+        assertStatements(select(1));
+    }
+
+    @Test
+    void testDeleteMedicine() {
+        medicineService.deleteMedicine(existing.getId());
+        assertStatements(select(2), delete(1));
+
+        assertThrows(NotFoundException.class, () -> medicineService.deleteMedicine(existing.getId()));
+        assertStatements(select(1));
+    }
+
+    /**
+     * Test that the harness itself reports a wrong count, and lists the statements it saw
+     */
+    @Test
+    void testWrongCountFails() {
+        medicineService.getAllMedicinesByUserId(USER_ID);
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> assertStatements(select(2)));
+        assertTrue(error.getMessage().contains("Expected statements select(2) but got select(1)"), error.getMessage());
+        assertTrue(error.getMessage().toLowerCase().contains("from medicines"), error.getMessage());
+    }
+}
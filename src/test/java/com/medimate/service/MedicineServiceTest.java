@@ -1,7 +1,9 @@
 package com.medimate.service;
 
+import com.medimate.dto.MedicineView;
 import com.medimate.entity.Medicine;
 import com.medimate.repository.MedicineRepository;
+import com.medimate.snapshot.InventorySnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,7 +12,10 @@ import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +34,30 @@ class MedicineServiceTest {
     @Mock
     private MedicineRepository medicineRepository;
     
+    /**
+     * Mock the event broadcaster so no events are actually sent
+     */
+    @Mock
+    private MedicineEventBroadcaster eventBroadcaster;
+    
+    /**
+     * Mock the inventory snapshot; it reports itself disabled, so views go to the repository
+     */
+    @Mock
+    private InventorySnapshot inventorySnapshot;
+    
+    /**
+     * Mock the consumption tracking so no history is written
+     */
+    @Mock
+    private ConsumptionService consumptionService;
+    
+    /**
+     * Mock the archive so archived medicines can be supplied by the test
+     */
+    @Mock
+    private MedicineArchiveService archiveService;
+    
     /**
      * Inject mocks into the service
      * @InjectMocks creates an instance of the service and injects the mocked dependencies
@@ -117,7 +146,7 @@ class MedicineServiceTest {
     void testGetAllMedicinesByUserId_Success() {
         // Arrange: Set up mock data
         List<Medicine> medicines = Arrays.asList(testMedicine);
-        when(medicineRepository.findByUserId(1L)).thenReturn(medicines);
+        when(medicineRepository.readByUserId(1L)).thenReturn(medicines);
         
         // Act: Call the method under test
         List<Medicine> result = medicineService.getAllMedicinesByUserId(1L);
@@ -128,7 +157,7 @@ class MedicineServiceTest {
         assertEquals(testMedicine.getName(), result.get(0).getName());
         
         // Verify that the repository method was called
-        verify(medicineRepository, times(1)).findByUserId(1L);
+        verify(medicineRepository, times(1)).readByUserId(1L);
     }
     
     /**
@@ -137,7 +166,7 @@ class MedicineServiceTest {
     @Test
     void testGetMedicineById_Success() {
         // Arrange: Set up mock behavior
-        when(medicineRepository.findById(1L)).thenReturn(Optional.of(testMedicine));
+        when(medicineRepository.readById(1L)).thenReturn(Optional.of(testMedicine));
         
         // Act: Call the method under test
         Optional<Medicine> result = medicineService.getMedicineById(1L);
@@ -147,7 +176,7 @@ class MedicineServiceTest {
         assertEquals(testMedicine.getName(), result.get().getName());
         
         // Verify that the repository method was called
-        verify(medicineRepository, times(1)).findById(1L);
+        verify(medicineRepository, times(1)).readById(1L);
     }
     
     /**
@@ -156,7 +185,7 @@ class MedicineServiceTest {
     @Test
     void testGetMedicineById_NotFound() {
         // Arrange: Set up mock behavior to return empty
-        when(medicineRepository.findById(1L)).thenReturn(Optional.empty());
+        when(medicineRepository.readById(1L)).thenReturn(Optional.empty());
         
         // Act: Call the method under test
         Optional<Medicine> result = medicineService.getMedicineById(1L);
@@ -165,7 +194,7 @@ class MedicineServiceTest {
         assertFalse(result.isPresent());
         
         // Verify that the repository method was called
-        verify(medicineRepository, times(1)).findById(1L);
+        verify(medicineRepository, times(1)).readById(1L);
     }
     
     /**
@@ -174,17 +203,57 @@ class MedicineServiceTest {
     @Test
     void testDeleteMedicine_Success() {
         // Arrange: Set up mock behavior
-        when(medicineRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(medicineRepository).deleteById(1L);
+        testMedicine.setId(1L);
+        when(medicineRepository.findById(1L)).thenReturn(Optional.of(testMedicine));
+        doNothing().when(medicineRepository).delete(testMedicine);
         
         // Act: Call the method under test
         assertDoesNotThrow(() -> {
             medicineService.deleteMedicine(1L);
         });
         
-        // Verify that the repository methods were called
-        verify(medicineRepository, times(1)).existsById(1L);
-        verify(medicineRepository, times(1)).deleteById(1L);
+        // Verify that the medicine was read once and that row was deleted
+        verify(medicineRepository, times(1)).findById(1L);
+        verify(medicineRepository, times(1)).delete(testMedicine);
+    }
+    
+    /**
+     * Test that an update changing the quantity is recorded for consumption tracking
+     */
+    @Test
+    void testUpdateMedicine_RecordsQuantityChange() {
+        // Arrange: The stored medicine has quantity 10; the update sets 7
+        testMedicine.setId(1L);
+        when(medicineRepository.findById(1L)).thenReturn(Optional.of(testMedicine));
+        when(medicineRepository.saveAndFlush(any(Medicine.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Medicine change = new Medicine(testMedicine.getName(), 7, testMedicine.getExpiryDate(), testMedicine.getUserId());
+        
+        // Act: Call the method under test
+        Medicine result = medicineService.updateMedicine(1L, change);
+        
+        // Assert: The change is recorded with the quantity from before the update
+        assertEquals(7, result.getQuantity());
+        verify(consumptionService, times(1)).recordChange(result, 10);
+    }
+    
+    /**
+     * Test that archived medicines are only returned when asked for
+     */
+    @Test
+    void testGetAllMedicines_IncludeArchived() {
+        // Arrange: One current and one archived medicine
+        Medicine archived = new Medicine("Old Syrup", 1, LocalDate.now().minusYears(2), 1L);
+        archived.setId(2L);
+        when(medicineRepository.readByUserId(1L)).thenAnswer(invocation -> new ArrayList<>(List.of(testMedicine)));
+        when(archiveService.getArchivedMedicines(1L)).thenReturn(List.of(archived));
+        
+        // Act & Assert: The archive is only read with includeArchived
+        assertEquals(1, medicineService.getAllMedicinesByUserId(1L).size());
+        verify(archiveService, never()).getArchivedMedicines(1L);
+        
+        List<Medicine> all = medicineService.getAllMedicinesByUserId(1L, true);
+        assertEquals(2, all.size());
+        assertTrue(all.contains(archived));
     }
     
     /**
@@ -193,16 +262,16 @@ class MedicineServiceTest {
     @Test
     void testDeleteMedicine_NotFound() {
         // Arrange: Set up mock behavior
-        when(medicineRepository.existsById(1L)).thenReturn(false);
+        when(medicineRepository.findById(1L)).thenReturn(Optional.empty());
         
         // Act & Assert: Verify that exception is thrown
         assertThrows(RuntimeException.class, () -> {
             medicineService.deleteMedicine(1L);
         });
         
-        // Verify that existsById was called but deleteById was not
-        verify(medicineRepository, times(1)).existsById(1L);
-        verify(medicineRepository, never()).deleteById(1L);
+        // Verify that findById was called but nothing was deleted
+        verify(medicineRepository, times(1)).findById(1L);
+        verify(medicineRepository, never()).delete(any(Medicine.class));
     }
     
     /**
@@ -218,7 +287,7 @@ class MedicineServiceTest {
         expiredMedicine.setUserId(1L);
         
         List<Medicine> expiredMedicines = Arrays.asList(expiredMedicine);
-        when(medicineRepository.findByUserIdAndExpiryDateBefore(eq(1L), any(LocalDate.class)))
+        when(medicineRepository.readByUserIdAndExpiryDateBefore(eq(1L), any(LocalDate.class)))
                 .thenReturn(expiredMedicines);
         
         // Act: Call the method under test
@@ -230,6 +299,59 @@ class MedicineServiceTest {
         assertEquals("Expired Medicine", result.get(0).getName());
         
         // Verify that the repository method was called
-        verify(medicineRepository, times(1)).findByUserIdAndExpiryDateBefore(eq(1L), any(LocalDate.class));
+        verify(medicineRepository, times(1)).readByUserIdAndExpiryDateBefore(eq(1L), any(LocalDate.class));
+    }
+    
+    /**
+     * Test that a batch query groups rows by user and returns every requested user
+     */
+    @Test
+    void testQueryMedicinesForUsers_GroupsByUser() {
+        // Arrange: One expired medicine for user 1, none for user 2
+        Medicine expiredMedicine = new Medicine("Expired Medicine", 3, LocalDate.now().minusDays(2), 1L);
+        when(medicineRepository.readByUserIdInAndExpiryDateBefore(anyCollection(), any(LocalDate.class)))
+                .thenReturn(Arrays.asList(expiredMedicine));
+        when(medicineRepository.readByUserIdInAndQuantityLessThan(anyCollection(), eq(5)))
+                .thenReturn(Arrays.asList(expiredMedicine));
+        
+        // Act: Call the method under test
+        Map<Long, Map<String, List<Medicine>>> result = medicineService.queryMedicinesForUsers(
+                Arrays.asList(1L, 2L, 1L), Arrays.asList(MedicineView.EXPIRED, MedicineView.LOW_STOCK), null);
+        
+        // Assert: Both users are present and only user 1 has rows
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(1L).get("expired").size());
+        assertEquals(1, result.get(1L).get("low-stock").size());
+        assertTrue(result.get(2L).get("expired").isEmpty());
+        assertFalse(result.get(1L).containsKey("expiring-soon"));
+        
+        // Verify that one query per view was run
+        verify(medicineRepository, times(1)).readByUserIdInAndExpiryDateBefore(anyCollection(), any(LocalDate.class));
+        verify(medicineRepository, times(1)).readByUserIdInAndQuantityLessThan(anyCollection(), eq(5));
+        verify(medicineRepository, never()).readByUserIdInAndExpiryDateBetween(anyCollection(), any(LocalDate.class), any(LocalDate.class));
+    }
+    
+    /**
+     * Test that large batches are split into bounded IN-list chunks
+     */
+    @Test
+    void testQueryMedicinesForUsers_ChunksLargeBatches() {
+        // Arrange: Enough users to need three chunks
+        List<Long> userIds = new ArrayList<>();
+        for (long i = 1; i <= MedicineService.QUERY_CHUNK_SIZE * 2 + 1; i++) {
+            userIds.add(i);
+        }
+        when(medicineRepository.readByUserIdInAndExpiryDateBetween(anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(new ArrayList<>());
+        
+        // Act: Call the method under test
+        Map<Long, Map<String, List<Medicine>>> result = medicineService.queryMedicinesForUsers(
+                userIds, Arrays.asList(MedicineView.EXPIRING_SOON), null);
+        
+        // Assert: Every user is present and three chunked queries were run
+        assertEquals(userIds.size(), result.size());
+        verify(medicineRepository, times(3)).readByUserIdInAndExpiryDateBetween(
+                argThat((Collection<Long> chunk) -> chunk.size() <= MedicineService.QUERY_CHUNK_SIZE),
+                any(LocalDate.class), any(LocalDate.class));
     }
 }
\ No newline at end of file
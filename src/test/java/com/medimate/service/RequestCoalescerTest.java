@@ -0,0 +1,170 @@
+package com.medimate.service;
+
+import com.medimate.bulkhead.DatabaseContext;
+import com.medimate.bulkhead.WorkloadClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestCoalescer
+ * These tests verify that identical concurrent reads share one query
+ */
+class RequestCoalescerTest {
+
+    private RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Test that callers arriving during a running query share one fresh query instead
+     */
+    @Test
+    void testCallersDuringARunningQueryShareTheNextQuery() throws Exception {
+        // Arrange: A first query that blocks until released
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        String key = RequestCoalescer.key("getMedicinesExpiringSoon", 1L);
+
+        try {
+            // Act: Start the first query, then the other callers while it is reading
+            Future<Integer> first = executor.submit(() -> requestCoalescer.execute(key, () -> {
+                int load = loads.incrementAndGet();
+                await(release);
+                return load;
+            }));
+            while (requestCoalescer.getLeaderCount() == 0) {
+                Thread.onSpinWait();
+            }
+            List<Future<Integer>> later = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                later.add(executor.submit(() -> requestCoalescer.execute(key, loads::incrementAndGet)));
+            }
+            while (requestCoalescer.getCoalescedCount() < callers - 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Assert: Nobody got the first query's result, and the others shared one second query
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> result : later) {
+                assertEquals(2, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(2, loads.get());
+            assertEquals(2, requestCoalescer.getLeaderCount());
+            assertEquals(callers - 2, requestCoalescer.getCoalescedCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that waiting for a shared query stops at the request's database deadline
+     */
+    @Test
+    void testWaitIsCappedByRequestDeadline() throws Exception {
+        // Arrange: A running query that never finishes on its own, with a second one queued behind it
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        String key = RequestCoalescer.key("getLowStockMedicines", 1L, 5);
+
+        try {
+            executor.submit(() -> requestCoalescer.execute(key, () -> {
+                await(release);
+                return "first";
+            }));
+            while (requestCoalescer.getLeaderCount() == 0) {
+                Thread.onSpinWait();
+            }
+            executor.submit(() -> requestCoalescer.execute(key, () -> "second"));
+            while (!queued(key)) {
+                Thread.onSpinWait();
+            }
+
+            // Act: Join the queued query with a 50ms request deadline
+            long start = System.nanoTime();
+            String result;
+            DatabaseContext.enter(WorkloadClass.READ, 50);
+            try {
+                result = requestCoalescer.execute(key, () -> "own");
+            } finally {
+                DatabaseContext.exit();
+            }
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert: The caller gave up at its deadline (not the 5s wait timeout) and queried itself
+            assertEquals("own", result);
+            assertEquals(1, requestCoalescer.getBypassedCount());
+            assertTrue(waitedMillis < 2000, "waited " + waitedMillis + "ms");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that results are not reused once the query has finished
+     */
+    @Test
+    void testSequentialCallsAreNotCached() {
+        // Arrange: A loader that counts its calls
+        AtomicInteger loads = new AtomicInteger();
+        String key = RequestCoalescer.key("getAllMedicinesByUserId", 1L);
+
+        // Act: Run the same read twice, one after the other
+        requestCoalescer.execute(key, loads::incrementAndGet);
+        requestCoalescer.execute(key, loads::incrementAndGet);
+
+        // Assert: Both calls hit the loader
+        assertEquals(2, loads.get());
+        assertEquals(0, requestCoalescer.getCoalescedCount());
+    }
+
+    /**
+     * Test that a failing leader propagates its exception
+     */
+    @Test
+    void testLeaderExceptionIsPropagated() {
+        String key = RequestCoalescer.key("getMedicineById", 1L);
+
+        assertThrows(IllegalStateException.class, () -> requestCoalescer.execute(key, () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        // The failed entry is removed so the next call runs again
+        assertEquals("ok", requestCoalescer.execute(key, () -> "ok"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean queued(String key) {
+        Map<String, ?> inFlight = (Map<String, ?>) ReflectionTestUtils.getField(requestCoalescer, "inFlight");
+        return inFlight.get(key) != null && ReflectionTestUtils.getField(inFlight.get(key), "previous") != null;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
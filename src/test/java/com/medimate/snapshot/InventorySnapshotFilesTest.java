@@ -0,0 +1,213 @@
+package com.medimate.snapshot;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import com.medimate.service.MedicineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for InventorySnapshotFiles, SnapshotFile and SnapshotCli
+ * Writes a snapshot file, changes the database behind it, and checks that a warm start from the
+ * file ends up with the same inventories as the database
+ */
+@SpringBootTest(properties = {
+        "medimate.snapshot.enabled=true",
+        "medimate.snapshot.file.enabled=true",
+        "medimate.snapshot.file.directory=target/snapshot-files-test",
+        "medimate.snapshot.file.chunk-size=500"
+})
+@ActiveProfiles("test")
+class InventorySnapshotFilesTest {
+
+    private static final long FIRST_USER = 1000L;
+    private static final int USERS = 200;
+    private static final int MEDICINES_PER_USER = 20;
+
+    @Autowired
+    private InventorySnapshotFiles snapshotFiles;
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        medicineRepository.deleteAll();
+        quantityChangeRepository.deleteAll();
+        consumptionRepository.deleteAll();
+        inventorySnapshot.clear();
+        try (Stream<Path> files = Files.list(Paths.get("target/snapshot-files-test"))) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Test that a warm start from a file plus reconciliation gives the database's inventories,
+     * and that only the users changed after the file was written are reloaded
+     */
+    @Test
+    void testWarmStartMatchesDatabase() throws Exception {
+        // Arrange: 200 users with 20 medicines each, written to a file
+        insertInventory();
+        Path file = snapshotFiles.write();
+
+        // Act: Change five users after the file was written, then restart from the file
+        LocalDate today = LocalDate.now();
+        Medicine added = medicineService.addMedicine(new Medicine("Vitamin C", 4, today.plusDays(12), FIRST_USER));
+        Medicine updated = medicineRepository.readByUserId(FIRST_USER + 1).get(0);
+        medicineService.updateMedicine(updated.getId(), new Medicine(updated.getName(), 1, updated.getExpiryDate(), FIRST_USER + 1));
+        medicineRepository.delete(medicineRepository.readByUserId(FIRST_USER + 2).get(5));
+        medicineRepository.deleteAll(medicineRepository.readByUserId(FIRST_USER + 3));
+        Medicine renamed = medicineRepository.readByUserId(FIRST_USER + 4).get(0);
+        medicineService.updateMedicine(renamed.getId(), new Medicine("Renamed", renamed.getQuantity(),
+                renamed.getExpiryDate(), FIRST_USER + 4));
+
+        inventorySnapshot.clear();
+        long start = System.nanoTime();
+        int loaded = snapshotFiles.load(file);
+        double fileMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        // Assert: Every user was loaded; the added medicine was applied in place, the other
+        // changed users were dropped to be reloaded, and everyone else is served from the file
+        assertEquals(USERS, loaded);
+        assertTrue(inventorySnapshot.isLoaded(FIRST_USER));
+        assertEquals(MEDICINES_PER_USER + 1, inventorySnapshot.get(FIRST_USER).size());
+        assertFalse(inventorySnapshot.isLoaded(FIRST_USER + 1));
+        assertFalse(inventorySnapshot.isLoaded(FIRST_USER + 2));
+        assertFalse(inventorySnapshot.isLoaded(FIRST_USER + 3));
+        assertFalse(inventorySnapshot.isLoaded(FIRST_USER + 4));
+        assertEquals(USERS - 4, inventorySnapshot.getUserCount());
+
+        for (long userId = FIRST_USER; userId < FIRST_USER + USERS; userId++) {
+            assertSameInventory(userId);
+        }
+        assertTrue(inventorySnapshot.findLowStock(FIRST_USER + 1, 2).stream().anyMatch(m -> m.getId().equals(updated.getId())));
+        assertTrue(inventorySnapshot.findLowStock(FIRST_USER, 5).stream().anyMatch(m -> m.getId().equals(added.getId())));
+
+        // Report: the same warm-up done with one query per user
+        inventorySnapshot.clear();
+        start = System.nanoTime();
+        for (long userId = FIRST_USER; userId < FIRST_USER + USERS; userId++) {
+            inventorySnapshot.get(userId);
+        }
+        double databaseMs = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("Warm start of %d users: %.1f ms from the snapshot file, %.1f ms from the database%n",
+                USERS, fileMs, databaseMs);
+    }
+
+    /**
+     * Test that the file reads back exactly and the offline tool can report on it
+     */
+    @Test
+    void testFileRoundTripAndCli() throws Exception {
+        insertInventory();
+        Path path = snapshotFiles.write();
+
+        SnapshotFile file = SnapshotFile.open(path);
+        assertEquals(USERS * MEDICINES_PER_USER, file.getRecordCount());
+        assertEquals(medicineRepository.findMaxId(), file.getHighWaterMark());
+        assertEquals(3, file.getNameCount());
+        for (int record = 1; record < file.getRecordCount(); record++) {
+            assertTrue(file.getUserId(record - 1) < file.getUserId(record)
+                    || file.getId(record - 1) < file.getId(record), "records must be sorted by user and ID");
+        }
+
+        String summary = runCli(path.toString(), "summary");
+        assertTrue(summary.contains("Medicines:       " + USERS * MEDICINES_PER_USER), summary);
+        assertTrue(summary.contains("Users:           " + USERS), summary);
+
+        String user = runCli(path.toString(), "user", String.valueOf(FIRST_USER + 7));
+        assertEquals(MEDICINES_PER_USER + 1, user.lines().count());
+        assertEquals(medicineRepository.readByUserId(FIRST_USER + 7).size(), user.lines().count() - 1);
+    }
+
+    /**
+     * Test that a damaged file is refused instead of loading wrong data
+     */
+    @Test
+    void testCorruptFileIsRejected() throws Exception {
+        insertInventory();
+        Path path = snapshotFiles.write();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), SnapshotFile.HEADER_SIZE + 3L * SnapshotFile.RECORD_SIZE + 24);
+        }
+
+        IOException error = assertThrows(IOException.class, () -> SnapshotFile.open(path));
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+
+    private void insertInventory() {
+        LocalDate today = LocalDate.now();
+        String[] names = {"Paracetamol", "Ibuprofen", "Amoxicillin"};
+        List<Medicine> medicines = new ArrayList<>();
+        for (long userId = FIRST_USER; userId < FIRST_USER + USERS; userId++) {
+            for (int i = 0; i < MEDICINES_PER_USER; i++) {
+                medicines.add(new Medicine(names[i % names.length], 3 + i, today.plusDays(i * 7 - 30), userId));
+            }
+        }
+        medicineRepository.saveAll(medicines);
+    }
+
+    private void assertSameInventory(long userId) {
+        List<Medicine> expected = new ArrayList<>(medicineRepository.readByUserId(userId));
+        expected.sort(Comparator.comparing(Medicine::getId));
+        UserInventory inventory = inventorySnapshot.get(userId);
+        assertEquals(expected.size(), inventory.size(), "user " + userId);
+
+        List<Medicine> actual = new ArrayList<>();
+        for (int row = 0; row < inventory.size(); row++) {
+            actual.add(inventory.toMedicine(row, userId, inventorySnapshot.getNames()));
+        }
+        actual.sort(Comparator.comparing(Medicine::getId));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getQuantity(), actual.get(i).getQuantity());
+            assertEquals(expected.get(i).getExpiryDate(), actual.get(i).getExpiryDate());
+        }
+    }
+
+    private static String runCli(String... args) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SnapshotCli.run(args, new PrintStream(output, true, StandardCharsets.UTF_8));
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+package com.medimate.snapshot;
+
+import com.medimate.entity.Medicine;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.service.MedicineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for InventorySnapshot
+ * Checks that the snapshot gives the same answers as the JPA queries while MedicineService
+ * writes, and that filtering allocates nothing
+ */
+@SpringBootTest(properties = "medimate.snapshot.enabled=true")
+@ActiveProfiles("test")
+class InventorySnapshotTest {
+
+    private static final Long USER_ID = 77L;
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
+    @Autowired
+    private MedicineService medicineService;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @AfterEach
+    void tearDown() {
+        medicineRepository.deleteAll();
+        inventorySnapshot.clear();
+    }
+
+    /**
+     * Test that views stay equal to the JPA queries through adds, updates and deletes
+     */
+    @Test
+    void testViewsMatchDatabaseThroughWrites() {
+        // Arrange: Rows written before the snapshot is loaded, including already expired ones
+        LocalDate today = LocalDate.now();
+        int namesBefore = inventorySnapshot.getNameCount();
+        medicineRepository.save(new Medicine("Aspirin", 2, today.minusDays(3), USER_ID));
+        medicineRepository.save(new Medicine("Ibuprofen", 20, today.plusDays(10), USER_ID));
+        medicineRepository.save(new Medicine("Aspirin", 1, today.plusDays(90), USER_ID));
+        assertViewsMatch(today);
+
+        // Act: Add, update and delete through the service once the snapshot is loaded
+        Medicine added = medicineService.addMedicine(new Medicine("Vitamin D", 3, today.plusDays(5), USER_ID));
+        assertViewsMatch(today);
+
+        Medicine change = new Medicine("Vitamin D3", 50, today.plusDays(200), USER_ID);
+        medicineService.updateMedicine(added.getId(), change);
+        assertViewsMatch(today);
+
+        medicineService.deleteMedicine(added.getId());
+        assertViewsMatch(today);
+
+        // Assert: The snapshot held one user and stored each distinct name once
+        assertEquals(1, inventorySnapshot.getUserCount());
+        assertEquals(3, inventorySnapshot.get(USER_ID).size());
+        assertEquals(4, inventorySnapshot.getNameCount() - namesBefore);
+    }
+
+    /**
+     * Test that answering a view from a loaded inventory allocates no memory
+     */
+    @Test
+    void testFilteringDoesNotAllocate() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 200; i++) {
+            medicineRepository.save(new Medicine("Medicine " + (i % 20), i % 10, today.plusDays(i - 100), USER_ID));
+        }
+        UserInventory inventory = inventorySnapshot.get(USER_ID);
+        int[] rows = new int[inventory.size()];
+        int epochDay = (int) today.toEpochDay();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long matches = 0;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            matches += inventory.filterExpiryBefore(epochDay, rows);
+            matches += inventory.filterExpiryBetween(epochDay, epochDay + 30, rows);
+            matches += inventory.filterQuantityBelow(5, rows);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(10_000L * (100 + 31 + 100), matches);
+        // Allow for the measurement itself; 30,000 filter calls would allocate far more than this
+        assertTrue(allocated < 1024, "filtering allocated " + allocated + " bytes");
+    }
+
+    /**
+     * Test that once max-users inventories are held, other users' views come from the database
+     * without loading their inventory
+     */
+    @Test
+    void testUsersPastTheCapAreQueried() {
+        LocalDate today = LocalDate.now();
+        Long otherUserId = USER_ID + 1;
+        medicineRepository.save(new Medicine("Cetirizine", 2, today.minusDays(3), USER_ID));
+        medicineRepository.save(new Medicine("Ibuprofen", 20, today.plusDays(10), otherUserId));
+        medicineRepository.save(new Medicine("Vitamin D", 1, today.minusDays(1), otherUserId));
+        ReflectionTestUtils.setField(inventorySnapshot, "maxUsers", 1);
+        try {
+            inventorySnapshot.findExpired(USER_ID, today);
+
+            assertEquals(List.of("Vitamin D"), inventorySnapshot.findExpired(otherUserId, today).stream()
+                    .map(Medicine::getName).toList());
+            assertEquals(List.of("Ibuprofen"), inventorySnapshot.findExpiringBetween(otherUserId, today,
+                    today.plusDays(30)).stream().map(Medicine::getName).toList());
+            assertEquals(List.of("Vitamin D"), inventorySnapshot.findLowStock(otherUserId, 5).stream()
+                    .map(Medicine::getName).toList());
+            assertEquals(1, inventorySnapshot.countExpired(otherUserId, today));
+
+            assertTrue(inventorySnapshot.isLoaded(USER_ID));
+            assertFalse(inventorySnapshot.isLoaded(otherUserId));
+        } finally {
+            ReflectionTestUtils.setField(inventorySnapshot, "maxUsers", 100_000);
+        }
+    }
+
+    /**
+     * Test that a write this instance did not see shows up once the inventory is older than max-age-ms
+     */
+    @Test
+    void testInventoryIsReloadedAfterMaxAge() throws Exception {
+        LocalDate today = LocalDate.now();
+        medicineRepository.save(new Medicine("Loratadine", 20, today.plusDays(60), USER_ID));
+        ReflectionTestUtils.setField(inventorySnapshot, "maxAgeMillis", 200L);
+        try {
+            assertTrue(inventorySnapshot.findLowStock(USER_ID, 5).isEmpty());
+
+            // Another instance lowers the quantity: it writes to the database, not through this MedicineService
+            Medicine medicine = medicineRepository.readByUserId(USER_ID).get(0);
+            medicine.setQuantity(1);
+            medicineRepository.save(medicine);
+            assertTrue(inventorySnapshot.findLowStock(USER_ID, 5).isEmpty());
+
+            Thread.sleep(300);
+            assertEquals(List.of("Loratadine"), inventorySnapshot.findLowStock(USER_ID, 5).stream()
+                    .map(Medicine::getName).toList());
+        } finally {
+            ReflectionTestUtils.setField(inventorySnapshot, "maxAgeMillis", 60_000L);
+        }
+    }
+
+    private void assertViewsMatch(LocalDate today) {
+        assertSameMedicines(medicineRepository.readByUserIdAndExpiryDateBefore(USER_ID, today),
+                inventorySnapshot.findExpired(USER_ID, today));
+        assertSameMedicines(medicineRepository.readByUserIdAndExpiryDateBetween(USER_ID, today, today.plusDays(30)),
+                inventorySnapshot.findExpiringBetween(USER_ID, today, today.plusDays(30)));
+        assertSameMedicines(medicineRepository.readByUserIdAndQuantityLessThan(USER_ID, 5),
+                inventorySnapshot.findLowStock(USER_ID, 5));
+    }
+
+    private static void assertSameMedicines(List<Medicine> expected, List<Medicine> actual) {
+        expected.sort(Comparator.comparing(Medicine::getId));
+        actual.sort(Comparator.comparing(Medicine::getId));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getQuantity(), actual.get(i).getQuantity());
+            assertEquals(expected.get(i).getExpiryDate(), actual.get(i).getExpiryDate());
+            assertEquals(expected.get(i).getUserId(), actual.get(i).getUserId());
+        }
+    }
+}
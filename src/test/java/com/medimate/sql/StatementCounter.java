@@ -0,0 +1,197 @@
+package com.medimate.sql;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Statement Counter
+ * Counts the SQL statements sent to the database by the current thread, so tests can pin how
+ * many round trips an operation makes
+ *
+ * Usage (with StatementCountingConfiguration imported into the test context):
+ * <pre>
+ *     StatementCounter.reset();
+ *     medicineService.updateMedicine(id, changes);
+ *     StatementCounter.assertStatements(select(1), update(1));
+ * </pre>
+ *
+ * Only the thread that called reset() is counted, so scheduled jobs and other background
+ * threads running in the same application context do not disturb the numbers.
+ * Every execute call counts as one statement; a JDBC batch counts once.
+ */
+public final class StatementCounter {
+
+    /**
+     * Kind of statement, taken from the first keyword of the SQL
+     */
+    public enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER
+    }
+
+    /**
+     * Expected number of statements of one kind
+     */
+    public record Expected(Kind kind, int count) {
+    }
+
+    /**
+     * Statements run by the current thread since reset(), or null if it is not being counted
+     */
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    /**
+     * Start counting (again) on the current thread
+     */
+    public static void reset() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    /**
+     * Stop counting on the current thread
+     */
+    public static void stop() {
+        STATEMENTS.remove();
+    }
+
+    /**
+     * Called by the counting data source for every statement sent to the database
+     */
+    static void record(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+
+    /**
+     * Get the statements counted so far on the current thread
+     */
+    public static List<String> getStatements() {
+        List<String> statements = STATEMENTS.get();
+        if (statements == null) {
+            throw new IllegalStateException("StatementCounter.reset() was not called on this thread");
+        }
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Get the number of statements of one kind counted so far on the current thread
+     */
+    public static int count(Kind kind) {
+        return counts().get(kind);
+    }
+
+    /**
+     * Assert exactly these statements were run since reset(); kinds that are not listed must
+     * not have been run at all. Counting starts again afterwards.
+     * @param expected the expected count of each kind, e.g. select(1), update(1)
+     */
+    public static void assertStatements(Expected... expected) {
+        Map<Kind, Integer> wanted = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            wanted.put(kind, 0);
+        }
+        for (Expected e : expected) {
+            wanted.merge(e.kind(), e.count(), Integer::sum);
+        }
+
+        Map<Kind, Integer> actual = counts();
+        List<String> statements = getStatements();
+        reset();
+        if (!wanted.equals(actual)) {
+            StringBuilder message = new StringBuilder("Expected statements " + describe(wanted) +
+                    " but got " + describe(actual) + ":");
+            for (String sql : statements) {
+                message.append("\n  ").append(sql.replaceAll("\\s+", " ").trim());
+            }
+            fail(message.toString());
+        }
+    }
+
+    /**
+     * Assert no statements were run since reset(), e.g. for a call answered from memory
+     */
+    public static void assertNoStatements() {
+        assertStatements();
+    }
+
+    public static Expected select(int count) {
+        return new Expected(Kind.SELECT, count);
+    }
+
+    public static Expected insert(int count) {
+        return new Expected(Kind.INSERT, count);
+    }
+
+    public static Expected update(int count) {
+        return new Expected(Kind.UPDATE, count);
+    }
+
+    public static Expected delete(int count) {
+        return new Expected(Kind.DELETE, count);
+    }
+
+    public static Expected other(int count) {
+        return new Expected(Kind.OTHER, count);
+    }
+
+    /**
+     * Work out the kind of a statement from its first keyword
+     */
+    static Kind kindOf(String sql) {
+        String text = sql.stripLeading();
+        // Skip leading comments such as Hibernate's /* insert for ... */
+        while (text.startsWith("/*")) {
+            int end = text.indexOf("*/");
+            text = end < 0 ? "" : text.substring(end + 2).stripLeading();
+        }
+        int end = 0;
+        while (end < text.length() && Character.isLetter(text.charAt(end))) {
+            end++;
+        }
+        switch (text.substring(0, end).toLowerCase(Locale.ROOT)) {
+            case "select":
+            case "with":
+                return Kind.SELECT;
+            case "insert":
+                return Kind.INSERT;
+            case "update":
+                return Kind.UPDATE;
+            case "delete":
+                return Kind.DELETE;
+            default:
+                return Kind.OTHER;
+        }
+    }
+
+    private static Map<Kind, Integer> counts() {
+        Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, 0);
+        }
+        for (String sql : getStatements()) {
+            counts.merge(kindOf(sql), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String describe(Map<Kind, Integer> counts) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Kind, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 0) {
+                text.append(text.length() == 0 ? "" : ", ")
+                        .append(entry.getKey().name().toLowerCase(Locale.ROOT))
+                        .append('(').append(entry.getValue()).append(')');
+            }
+        }
+        return text.length() == 0 ? "none" : text.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.medimate.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Statement Counting Configuration
+ * Import into a Spring Boot test to count SQL statements with StatementCounter:
+ * <pre>
+ *     &#64;SpringBootTest
+ *     &#64;Import(StatementCountingConfiguration.class)
+ * </pre>
+ *
+ * @TestConfiguration: Only used by tests that import it, never picked up by component scanning
+ */
+@TestConfiguration
+public class StatementCountingConfiguration {
+
+    /**
+     * Wrap the application's data source as soon as it is created
+     * Static so the post-processor is registered before the data source bean exists
+     */
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.medimate.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement Counting Data Source
+ * Wraps the real data source and reports every statement executed through it to StatementCounter
+ *
+ * Connections and statements are wrapped with JDK proxies, so this works the same for Hibernate,
+ * Spring Data and JdbcTemplate without any extra libraries.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Wraps the statements a connection creates
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(connection, method, args);
+            String name = method.getName();
+            if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                Class<?> type = name.equals("prepareCall") ? java.sql.CallableStatement.class : PreparedStatement.class;
+                return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                        new Class<?>[] {type}, new StatementHandler((Statement) result, (String) args[0]));
+            }
+            if (name.equals("createStatement")) {
+                return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                        new Class<?>[] {Statement.class}, new StatementHandler((Statement) result, null));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Records each execute call of a statement
+     */
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private final List<String> batch = new ArrayList<>();
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                batch.add((String) args[0]);
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                StatementCounter.record(preparedSql != null ? preparedSql : String.join("; ", batch));
+                batch.clear();
+            } else if (name.startsWith("execute")) {
+                StatementCounter.record(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+            }
+            return call(statement, method, args);
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
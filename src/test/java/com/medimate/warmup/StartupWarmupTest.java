@@ -0,0 +1,61 @@
+package com.medimate.warmup;
+
+import com.medimate.repository.MedicineConsumptionRepository;
+import com.medimate.repository.MedicineRepository;
+import com.medimate.repository.QuantityChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StartupWarmup
+ * Runs on a real port with admission control on, so the warm-up's requests go through the
+ * same filters and rate limits as real traffic
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "medimate.warmup.enabled=true",
+        "medimate.warmup.iterations=5"
+})
+@ActiveProfiles("test")
+class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private MedicineRepository medicineRepository;
+
+    @Autowired
+    private QuantityChangeRepository quantityChangeRepository;
+
+    @Autowired
+    private MedicineConsumptionRepository consumptionRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    /**
+     * Test that every warm-up request got its expected response (none rate limited), the
+     * synthetic user's data was removed and the application reports ready afterwards
+     */
+    @Test
+    void testWarmupRunsBeforeReadiness() {
+        assertEquals(5, startupWarmup.getCompletedIterations());
+        assertEquals(0, startupWarmup.getUnexpectedResponses());
+
+        long userId = startupWarmup.getUserId();
+        assertTrue(userId < 0);
+        assertTrue(medicineRepository.readByUserId(userId).isEmpty());
+        assertTrue(consumptionRepository.findByUserId(userId).isEmpty());
+        assertTrue(quantityChangeRepository.findAll().stream().noneMatch(change -> change.getUserId().equals(userId)));
+
+        ResponseEntity<String> readiness = restTemplate.getForEntity("/actuator/health/readiness", String.class);
+        assertEquals(200, readiness.getStatusCode().value());
+        assertTrue(readiness.getBody().contains("UP"), readiness.getBody());
+    }
+}
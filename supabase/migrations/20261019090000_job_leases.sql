@@ -0,0 +1,16 @@
+-- MediMate Job Leases
+-- Lets several application instances share scheduled jobs
+-- Each job splits the users into partitions (MOD(user_id, partitions)); an instance claims
+-- a partition by taking its lease, and another instance takes over if the lease expires
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    job_name VARCHAR(100) NOT NULL,
+    partition_no INT NOT NULL,
+    owner VARCHAR(200) NULL,
+    lease_until DATETIME(6) NULL,
+    last_completed_run VARCHAR(100) NULL,
+    
+    PRIMARY KEY (job_name, partition_no)
+);
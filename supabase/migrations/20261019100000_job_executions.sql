@@ -0,0 +1,26 @@
+-- MediMate Job Executions
+-- One row per run of a scheduled job partition, with a checkpoint saved after every chunk
+-- so that an interrupted run can continue from where it stopped
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS job_executions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    run_key VARCHAR(100) NOT NULL,
+    partition_no INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    instance_id VARCHAR(200) NULL,
+    last_processed_key BIGINT NULL,
+    items_processed BIGINT NOT NULL DEFAULT 0,
+    chunks_processed BIGINT NOT NULL DEFAULT 0,
+    processing_ms BIGINT NOT NULL DEFAULT 0,
+    resume_count INT NOT NULL DEFAULT 0,
+    started_at DATETIME(6) NOT NULL,
+    last_checkpoint_at DATETIME(6) NULL,
+    finished_at DATETIME(6) NULL,
+    error_message VARCHAR(500) NULL
+);
+
+CREATE INDEX idx_job_executions_run ON job_executions(job_name, run_key, partition_no);
+CREATE INDEX idx_job_executions_started ON job_executions(started_at);
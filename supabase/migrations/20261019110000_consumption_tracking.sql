@@ -0,0 +1,32 @@
+-- MediMate Consumption Tracking
+-- medicine_quantity_history is an append-only log of every quantity change
+-- medicine_consumption holds one row per medicine with its running daily usage rate
+-- and projected stock-out date, updated from each change without reading the history
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS medicine_quantity_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    medicine_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    quantity_after INT NOT NULL,
+    recorded_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_quantity_history_medicine ON medicine_quantity_history(medicine_id, recorded_at);
+
+CREATE TABLE IF NOT EXISTS medicine_consumption (
+    medicine_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    daily_rate DOUBLE NOT NULL DEFAULT 0,
+    usage_events INT NOT NULL DEFAULT 0,
+    quantity INT NOT NULL,
+    expiry_date DATE NOT NULL,
+    last_usage_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    stock_out_date DATE NULL
+);
+
+CREATE INDEX idx_medicine_consumption_user ON medicine_consumption(user_id);
+CREATE INDEX idx_medicine_consumption_stock_out ON medicine_consumption(stock_out_date);
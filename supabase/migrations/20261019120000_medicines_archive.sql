@@ -0,0 +1,32 @@
+-- MediMate Medicines Archive
+-- Medicines expired for more than medimate.archive.after-days days are moved here by the
+-- nightly archival job, keeping the medicines table and its indexes small.
+-- Rows keep their original ID.
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS medicines_archive (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    quantity INT NOT NULL,
+    expiry_date DATE NOT NULL,
+    added_date TIMESTAMP NULL,
+    user_id BIGINT NOT NULL,
+    archived_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_medicines_archive_user_id ON medicines_archive(user_id);
+
+-- The expired_medicines view keeps covering the hot table only; archived rows can be
+-- read with this view
+CREATE OR REPLACE VIEW archived_expired_medicines AS
+SELECT
+    id,
+    name,
+    quantity,
+    expiry_date,
+    added_date,
+    user_id,
+    DATEDIFF(CURDATE(), expiry_date) as days_expired,
+    archived_at
+FROM medicines_archive;
@@ -0,0 +1,19 @@
+-- MediMate Idempotency Keys
+-- Responses to POST/PUT requests sent with an Idempotency-Key header, so a retried request
+-- gets the original response instead of creating or updating a medicine twice.
+-- status 0 means the first request is still running.
+-- Rows are removed once expires_at has passed.
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(200) PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    status INT NOT NULL,
+    content_type VARCHAR(100) NULL,
+    response_body MEDIUMBLOB NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
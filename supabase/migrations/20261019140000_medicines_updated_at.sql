@@ -0,0 +1,9 @@
+-- MediMate Medicine Update Time
+-- Lets an instance that starts from an inventory snapshot file find the users whose
+-- medicines changed since the file was written (including renames).
+
+USE medimate_db;
+
+ALTER TABLE medicines ADD COLUMN updated_at DATETIME(6) NULL;
+
+CREATE INDEX idx_medicines_updated_at ON medicines(updated_at, user_id);
@@ -0,0 +1,20 @@
+-- MediMate Expiry Digests
+-- One row per user with medicines expiring soon, rebuilt every morning by the
+-- checkMedicinesExpiringSoon job and read by GET /api/medicines/expiring-soon/digest
+-- with a primary-key lookup. top_items holds the medicines expiring first as a JSON array.
+
+USE medimate_db;
+
+CREATE TABLE IF NOT EXISTS expiry_digests (
+    user_id BIGINT PRIMARY KEY,
+    medicine_count INT NOT NULL,
+    total_quantity BIGINT NOT NULL,
+    nearest_expiry DATE NOT NULL,
+    top_items VARCHAR(4000) NOT NULL,
+    window_start DATE NOT NULL,
+    window_end DATE NOT NULL,
+    generated_at DATETIME(6) NOT NULL
+);
+
+-- The digest query reads the expiring window of medicines one user partition at a time
+CREATE INDEX idx_medicines_expiry_user ON medicines(expiry_date, user_id);